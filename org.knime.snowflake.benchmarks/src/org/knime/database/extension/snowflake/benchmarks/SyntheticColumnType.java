@@ -0,0 +1,289 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.benchmarks;
+
+import java.sql.JDBCType;
+import java.sql.SQLType;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.time.localdate.LocalDateCellFactory;
+import org.knime.core.data.time.localdatetime.LocalDateTimeCellFactory;
+import org.knime.core.data.time.localtime.LocalTimeCellFactory;
+import org.knime.core.data.time.zoneddatetime.ZonedDateTimeCellFactory;
+import org.knime.database.extension.snowflake.SnowflakeTypeMappingService;
+
+/**
+ * The column types of the {@link SyntheticDataGenerator}. Each type creates cells of one KNIME {@link DataType} and
+ * knows the {@link SQLType} the {@link SnowflakeTypeMappingService} maps the KNIME type to by default.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public enum SyntheticColumnType {
+
+    /** Boolean cells loaded into a {@code BOOLEAN} column. */
+    BOOLEAN(BooleanCell.TYPE, JDBCType.BOOLEAN) {
+        @Override
+        DataCell create(final SplittableRandom random) {
+            return random.nextBoolean() ? BooleanCell.TRUE : BooleanCell.FALSE;
+        }
+    },
+
+    /** Uniformly distributed integer cells loaded into a {@code BIGINT} column. */
+    INT(IntCell.TYPE, JDBCType.BIGINT) {
+        @Override
+        DataCell create(final SplittableRandom random) {
+            return new IntCell(random.nextInt());
+        }
+    },
+
+    /** Uniformly distributed long cells loaded into a {@code BIGINT} column. */
+    LONG(LongCell.TYPE, JDBCType.BIGINT) {
+        @Override
+        DataCell create(final SplittableRandom random) {
+            return new LongCell(random.nextLong());
+        }
+    },
+
+    /** Zipf distributed long cells e.g. foreign keys where a few values dominate. */
+    SKEWED_LONG(LongCell.TYPE, JDBCType.BIGINT) {
+        @Override
+        DataCell create(final SplittableRandom random) {
+            return new LongCell(ZIPF.sample(random));
+        }
+    },
+
+    /** Uniformly distributed double cells loaded into a {@code DOUBLE} column. */
+    DOUBLE(DoubleCell.TYPE, JDBCType.DOUBLE) {
+        @Override
+        DataCell create(final SplittableRandom random) {
+            return new DoubleCell(random.nextDouble() * 1_000_000);
+        }
+    },
+
+    /**
+     * Double cells with two fraction digits like amounts read from a {@code NUMBER(12,2)} column. KNIME has no
+     * decimal cell which is why they are loaded into a {@code DOUBLE} column.
+     */
+    DECIMAL(DoubleCell.TYPE, JDBCType.DOUBLE) {
+        @Override
+        DataCell create(final SplittableRandom random) {
+            return new DoubleCell(random.nextLong(10_000_000_000L) / 100d);
+        }
+    },
+
+    /** String cells with 4 to 36 characters loaded into a {@code VARCHAR} column. */
+    STRING(StringCell.TYPE, JDBCType.VARCHAR) {
+        @Override
+        DataCell create(final SplittableRandom random) {
+            return new StringCell(createString(random, 4 + random.nextInt(33)));
+        }
+    },
+
+    /** String cells with 200 to 2000 characters e.g. descriptions or serialized documents. */
+    WIDE_STRING(StringCell.TYPE, JDBCType.VARCHAR) {
+        @Override
+        DataCell create(final SplittableRandom random) {
+            return new StringCell(createString(random, 200 + random.nextInt(1801)));
+        }
+    },
+
+    /** Zipf distributed string cells of a dictionary with {@value #DICTIONARY_SIZE} categories. */
+    CATEGORY(StringCell.TYPE, JDBCType.VARCHAR) {
+        @Override
+        DataCell create(final SplittableRandom random) {
+            return new StringCell(CATEGORIES[ZIPF.sample(random)]);
+        }
+    },
+
+    /** Local date cells between 1970 and 2052 loaded into a {@code DATE} column. */
+    DATE(LocalDateCellFactory.TYPE, JDBCType.DATE) {
+        @Override
+        DataCell create(final SplittableRandom random) {
+            return LocalDateCellFactory.create(LocalDate.ofEpochDay(random.nextInt(30_000)));
+        }
+    },
+
+    /** Local time cells with second precision loaded into a {@code TIME} column. */
+    TIME(LocalTimeCellFactory.TYPE, JDBCType.TIME) {
+        @Override
+        DataCell create(final SplittableRandom random) {
+            return LocalTimeCellFactory.create(LocalTime.ofSecondOfDay(random.nextInt(86_400)));
+        }
+    },
+
+    /** Local date time cells with microsecond precision loaded into a {@code TIMESTAMP(9)} column. */
+    TIMESTAMP(LocalDateTimeCellFactory.TYPE, JDBCType.TIMESTAMP) {
+        @Override
+        DataCell create(final SplittableRandom random) {
+            return LocalDateTimeCellFactory.create(createTimestamp(random));
+        }
+    },
+
+    /** Zoned date time cells of different time zones loaded into a {@code TIMESTAMP_TZ} column. */
+    TIMESTAMP_TZ(ZonedDateTimeCellFactory.TYPE, JDBCType.TIMESTAMP_WITH_TIMEZONE) {
+        @Override
+        DataCell create(final SplittableRandom random) {
+            return ZonedDateTimeCellFactory
+                .create(ZonedDateTime.of(createTimestamp(random), ZONES[random.nextInt(ZONES.length)]));
+        }
+    };
+
+    /** The number of distinct values of the skewed column types. */
+    public static final int DICTIONARY_SIZE = 1_000;
+
+    private static final Zipf ZIPF = new Zipf(DICTIONARY_SIZE, 1.1);
+
+    private static final String[] CATEGORIES = new String[DICTIONARY_SIZE];
+
+    private static final ZoneId[] ZONES = Arrays.asList("UTC", "Europe/Berlin", "America/New_York",
+        "America/Los_Angeles", "Asia/Tokyo", "Asia/Kolkata", "Australia/Sydney").stream().map(ZoneId::of)
+        .toArray(ZoneId[]::new);
+
+    static {
+        for (int i = 0; i < DICTIONARY_SIZE; i++) {
+            CATEGORIES[i] = "category_" + i;
+        }
+    }
+
+    private final DataType m_type;
+
+    private final SQLType m_sqlType;
+
+    SyntheticColumnType(final DataType type, final SQLType sqlType) {
+        m_type = type;
+        m_sqlType = sqlType;
+    }
+
+    /**
+     * @return the KNIME {@link DataType} of the column
+     */
+    public DataType getType() {
+        return m_type;
+    }
+
+    /**
+     * @return the {@link SQLType} of the Snowflake column the values are loaded into
+     */
+    public SQLType getSQLType() {
+        return m_sqlType;
+    }
+
+    /**
+     * Creates a random cell of this type.
+     *
+     * @param random the random generator of the row
+     * @return the cell
+     */
+    abstract DataCell create(SplittableRandom random);
+
+    /**
+     * Parses a comma separated list of column type names.
+     *
+     * @param types the comma separated names e.g. {@code LONG,STRING}
+     * @return the column types
+     * @throws IllegalArgumentException if a name is unknown
+     */
+    public static List<SyntheticColumnType> parse(final String types) {
+        final List<SyntheticColumnType> result = new ArrayList<>();
+        for (final String type : types.split(",")) {
+            result.add(valueOf(type.trim().toUpperCase(Locale.ROOT)));
+        }
+        return result;
+    }
+
+    private static String createString(final SplittableRandom random, final int length) {
+        final char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char)('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private static LocalDateTime createTimestamp(final SplittableRandom random) {
+        return LocalDateTime.of(LocalDate.ofEpochDay(random.nextInt(30_000)),
+            LocalTime.ofNanoOfDay(random.nextInt(86_400) * 1_000_000_000L + random.nextInt(1_000_000) * 1_000L));
+    }
+
+    /**
+     * Samples the ranks {@code 0..n-1} with a Zipf distribution via the inverse of its cumulative distribution.
+     */
+    private static final class Zipf {
+
+        private final double[] m_cumulative;
+
+        Zipf(final int n, final double exponent) {
+            m_cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1 / Math.pow(i + 1d, exponent);
+                m_cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                m_cumulative[i] /= sum;
+            }
+        }
+
+        int sample(final SplittableRandom random) {
+            final int index = Arrays.binarySearch(m_cumulative, random.nextDouble());
+            return Math.min(index < 0 ? -index - 1 : index, m_cumulative.length - 1);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.benchmarks;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.streamable.RowInput;
+
+/**
+ * Reproducible generator of synthetic input tables for the loader and type mapping benchmarks. The rows are not held
+ * in memory but created on demand which is why any number of rows can be {@linkplain #createRowInput() streamed} or
+ * {@linkplain #createTable(ExecutionContext) written} into a KNIME table. Each row is created by its own random
+ * generator that is derived from the seed and the row index so that {@link #createRow(long)} returns the same row for
+ * the same seed independent of the order in which the rows are created.
+ * <p>
+ * The columns repeat the {@link SyntheticColumnType column types} of a {@link Profile} or of a custom pattern until
+ * the requested width is reached and are named {@code column0}, {@code column1} and so on.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SyntheticDataGenerator {
+
+    /** The default seed of the generated rows. */
+    public static final long DEFAULT_SEED = 42;
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Predefined column type patterns and null ratios that resemble typical load scenarios.
+     */
+    public enum Profile {
+
+        /** All column types of the type mapping with 5% missing cells. */
+        MIXED(0.05, SyntheticColumnType.values()),
+
+        /** Numeric columns without missing cells e.g. measurements or facts. */
+        NUMERIC(0, SyntheticColumnType.LONG, SyntheticColumnType.DOUBLE, SyntheticColumnType.DECIMAL,
+            SyntheticColumnType.INT),
+
+        /** Wide string columns next to a key column e.g. documents or log messages. */
+        WIDE_STRINGS(0.1, SyntheticColumnType.LONG, SyntheticColumnType.WIDE_STRING, SyntheticColumnType.STRING,
+            SyntheticColumnType.WIDE_STRING),
+
+        /** Date, time and timestamp columns with and without time zone. */
+        TEMPORAL(0.05, SyntheticColumnType.DATE, SyntheticColumnType.TIME, SyntheticColumnType.TIMESTAMP,
+            SyntheticColumnType.TIMESTAMP_TZ),
+
+        /** Zipf distributed keys and categories e.g. the dimensions of a fact table. */
+        SKEWED(0.05, SyntheticColumnType.SKEWED_LONG, SyntheticColumnType.CATEGORY, SyntheticColumnType.DECIMAL,
+            SyntheticColumnType.DATE),
+
+        /** Mixed columns with 80% missing cells. */
+        SPARSE(0.8, SyntheticColumnType.LONG, SyntheticColumnType.STRING, SyntheticColumnType.DOUBLE,
+            SyntheticColumnType.TIMESTAMP, SyntheticColumnType.BOOLEAN);
+
+        private final double m_nullRatio;
+
+        private final List<SyntheticColumnType> m_types;
+
+        Profile(final double nullRatio, final SyntheticColumnType... types) {
+            m_nullRatio = nullRatio;
+            m_types = List.of(types);
+        }
+
+        /**
+         * @return the probability of a missing cell
+         */
+        public double getNullRatio() {
+            return m_nullRatio;
+        }
+
+        /**
+         * @return the column types that are repeated until the width is reached
+         */
+        public List<SyntheticColumnType> getTypes() {
+            return m_types;
+        }
+    }
+
+    private final SyntheticColumnType[] m_columnTypes;
+
+    private final long m_rowCount;
+
+    private final double m_nullRatio;
+
+    private final long m_seed;
+
+    private final DataTableSpec m_spec;
+
+    /**
+     * Constructor for a generator with the column types and null ratio of the given profile.
+     *
+     * @param profile the {@link Profile}
+     * @param rowCount the number of rows
+     * @param width the number of columns
+     * @param seed the seed of the generated values
+     */
+    public SyntheticDataGenerator(final Profile profile, final long rowCount, final int width, final long seed) {
+        this(profile.getTypes(), rowCount, width, profile.getNullRatio(), seed);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param types the column types that are repeated until the width is reached
+     * @param rowCount the number of rows
+     * @param width the number of columns
+     * @param nullRatio the probability of a missing cell between 0 and 1
+     * @param seed the seed of the generated values
+     */
+    public SyntheticDataGenerator(final List<SyntheticColumnType> types, final long rowCount, final int width,
+        final double nullRatio, final long seed) {
+        requireNonNull(types, "types");
+        if (types.isEmpty()) {
+            throw new IllegalArgumentException("At least one column type is required.");
+        }
+        if (rowCount < 0 || width <= 0) {
+            throw new IllegalArgumentException("The row count must not be negative and the width must be positive.");
+        }
+        if (nullRatio < 0 || nullRatio > 1) {
+            throw new IllegalArgumentException("The null ratio must be between 0 and 1.");
+        }
+        m_columnTypes = new SyntheticColumnType[width];
+        final DataColumnSpec[] columns = new DataColumnSpec[width];
+        for (int i = 0; i < width; i++) {
+            m_columnTypes[i] = types.get(i % types.size());
+            columns[i] = new DataColumnSpecCreator("column" + i, m_columnTypes[i].getType()).createSpec();
+        }
+        m_spec = new DataTableSpec(columns);
+        m_rowCount = rowCount;
+        m_nullRatio = nullRatio;
+        m_seed = seed;
+    }
+
+    /**
+     * @return the spec of the generated table
+     */
+    public DataTableSpec getDataTableSpec() {
+        return m_spec;
+    }
+
+    /**
+     * @return the {@link SyntheticColumnType} of each column
+     */
+    public SyntheticColumnType[] getColumnTypes() {
+        return m_columnTypes.clone();
+    }
+
+    /**
+     * @return the number of generated rows
+     */
+    public long getRowCount() {
+        return m_rowCount;
+    }
+
+    /**
+     * Creates the row with the given index.
+     *
+     * @param index the index of the row
+     * @return the row with the key {@code Row<index>}
+     */
+    public DataRow createRow(final long index) {
+        final SplittableRandom random = new SplittableRandom(mix(m_seed + index * GOLDEN_GAMMA));
+        final DataCell[] cells = new DataCell[m_columnTypes.length];
+        for (int c = 0; c < cells.length; c++) {
+            cells[c] = random.nextDouble() < m_nullRatio ? DataType.getMissingCell() : m_columnTypes[c].create(random);
+        }
+        return new DefaultRow("Row" + index, cells);
+    }
+
+    /**
+     * Creates a {@link RowInput} that creates the rows one after the other when they are polled.
+     *
+     * @return a new row input that starts with the first row
+     */
+    public RowInput createRowInput() {
+        return new RowInput() {
+
+            private long m_index;
+
+            @Override
+            public DataTableSpec getDataTableSpec() {
+                return m_spec;
+            }
+
+            @Override
+            public DataRow poll() {
+                return m_index < m_rowCount ? createRow(m_index++) : null;
+            }
+
+            @Override
+            public void close() {
+                //the rows are created on demand
+            }
+        };
+    }
+
+    /**
+     * Writes all rows into a KNIME table. The table is written via a {@link BufferedDataContainer} which swaps the
+     * rows to disk if they do not fit into memory.
+     *
+     * @param exec the {@link ExecutionContext} to create the table with
+     * @return the table
+     * @throws CanceledExecutionException if the execution has been canceled
+     */
+    public BufferedDataTable createTable(final ExecutionContext exec) throws CanceledExecutionException {
+        final BufferedDataContainer container = exec.createDataContainer(m_spec);
+        try {
+            for (long i = 0; i < m_rowCount; i++) {
+                if (i % 10_000 == 0) {
+                    exec.checkCanceled();
+                    exec.setProgress(i / (double)m_rowCount, "Generating rows");
+                }
+                container.addRowToTable(createRow(i));
+            }
+        } finally {
+            container.close();
+        }
+        return container.getTable();
+    }
+
+    /**
+     * The finalizer of {@link SplittableRandom} that turns consecutive seeds into unrelated ones.
+     */
+    private static long mix(final long seed) {
+        long z = (seed ^ (seed >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
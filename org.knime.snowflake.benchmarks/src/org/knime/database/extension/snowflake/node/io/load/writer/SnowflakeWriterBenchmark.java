@@ -0,0 +1,328 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.schema.MessageType;
+import org.knime.base.node.io.csvwriter.FileWriterSettings;
+import org.knime.base.node.io.csvwriter.FileWriterSettings.quoteMode;
+import org.knime.core.data.DataRow;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderFileFormat;
+import org.knime.database.extension.snowflake.benchmarks.SyntheticColumnType;
+import org.knime.filehandling.core.connections.DefaultFSConnectionFactory;
+import org.knime.filehandling.core.connections.FSConnection;
+import org.knime.filehandling.core.connections.FSPath;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks of the CSV and Parquet writers of the Snowflake loader with {@link SyntheticRowInput synthetic
+ * rows}. Neither a network nor a database connection is needed.
+ * <p>
+ * Each invocation writes all input rows into one file with one of the compression formats of the
+ * {@link SnowflakeLoaderFileFormat}. Next to the invocations per second the {@code rows} and {@code bytes} counters
+ * report the written rows and compressed file bytes per second. The ratio of {@code bytes} and {@code rows} is the
+ * compressed size per row and the ratio of {@code bytes} and the invocations is the compressed file size.
+ * {@link #main(String[])} adds the {@link GCProfiler} to report the allocation rate.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SnowflakeWriterBenchmark {
+
+    private static final int MEGABYTE = 1024 * 1024;
+
+    private static final ExecutionMonitor EXEC = new ExecutionMonitor();
+
+    /**
+     * The shape of the generated input. The parameter fields are public and named as JMH expects them on the command
+     * line e.g. {@code -p nullRatio=0.5}.
+     */
+    @State(Scope.Benchmark)
+    public abstract static class InputState {
+
+        /** The number of rows per invocation. */
+        @Param({"100000"})
+        public int rows;
+
+        /** The number of columns. */
+        @Param({"4", "32"})
+        public int width;
+
+        /** The comma separated {@link SyntheticColumnType} names that are repeated until the width is reached. */
+        @Param({"LONG,DOUBLE,STRING,TIMESTAMP", "INT,BOOLEAN,DATE,TIME", "STRING"})
+        public String types;
+
+        /** The probability of a missing cell. */
+        @Param({"0.0", "0.2"})
+        public double nullRatio;
+
+        SyntheticRowInput m_input;
+
+        void createInput(final SnowflakeLoaderFileFormat fileFormat, final String compression) {
+            if (!fileFormat.getCompressionFormats().contains(compression)) {
+                throw new IllegalStateException(
+                    "Compression " + compression + " is not supported by the " + fileFormat + " file format.");
+            }
+            m_input = new SyntheticRowInput(rows, width, types, nullRatio);
+        }
+    }
+
+    /**
+     * Writes the input with the {@link SnowflakeCsvWriter} into a stream that only counts the bytes.
+     */
+    public static class CsvState extends InputState {
+
+        /** The compression format of the {@link SnowflakeLoaderFileFormat#CSV CSV} file format. */
+        @Param({"NONE", "GZIP"})
+        public String compression;
+
+        FileWriterSettings m_settings;
+
+        /**
+         * Creates the input and the CSV settings that are used by the loader node.
+         */
+        @Setup(Level.Trial)
+        public void setup() {
+            createInput(SnowflakeLoaderFileFormat.CSV, compression);
+            m_settings = new FileWriterSettings();
+            m_settings.setColSeparator(",");
+            m_settings.setQuoteBegin("\"");
+            m_settings.setQuoteEnd("\"");
+            m_settings.setQuoteMode(quoteMode.STRINGS);
+            m_settings.setQuoteReplacement("");
+            m_settings.setMissValuePattern("");
+            m_settings.setWriteColumnHeader(false);
+            m_settings.setLineEndingMode(FileWriterSettings.LineEnding.LF);
+            m_settings.setCharacterEncoding("UTF-8");
+        }
+    }
+
+    /**
+     * Writes the input with the {@link SnowflakeParquetRowWriter} into a local temporary file.
+     */
+    public static class ParquetState extends InputState {
+
+        /** The compression format of the {@link SnowflakeLoaderFileFormat#PARQUET Parquet} file format. */
+        @Param({"NONE", "GZIP", "SNAPPY"})
+        public String compression;
+
+        FSConnection m_connection;
+
+        Path m_folder;
+
+        FSPath m_file;
+
+        SnowflakeParquetColumnWriter[] m_columnWriters;
+
+        MessageType m_schema;
+
+        CompressionCodecName m_codec;
+
+        /**
+         * Creates the input, binds the column writers and creates the temporary folder.
+         *
+         * @throws IOException if the temporary folder could not be created
+         */
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            createInput(SnowflakeLoaderFileFormat.PARQUET, compression);
+            final SyntheticColumnType[] columnTypes = m_input.getColumnTypes();
+            m_columnWriters = new SnowflakeParquetColumnWriter[columnTypes.length];
+            for (int i = 0; i < columnTypes.length; i++) {
+                final Optional<SnowflakeParquetColumnWriter> writer =
+                    SnowflakeParquetColumnWriter.of(columnTypes[i].getType(), columnTypes[i].getSQLType());
+                m_columnWriters[i] = writer.orElseThrow(() -> new IllegalStateException("No column writer found."));
+            }
+            m_schema = SnowflakeParquetRowWriter.createSchema(m_input.getDataTableSpec(), m_columnWriters);
+            m_codec = SnowflakeLoaderFileFormat.NONE_COMPRESSION.equals(compression)
+                ? CompressionCodecName.UNCOMPRESSED : CompressionCodecName.valueOf(compression);
+            m_folder = Files.createTempDirectory("knime_snowflake_benchmark");
+            m_connection = DefaultFSConnectionFactory.createLocalFSConnection();
+            m_file = m_connection.getFileSystem().getPath(m_folder.resolve("data.parquet").toString());
+        }
+
+        /**
+         * Removes the temporary folder.
+         *
+         * @throws IOException if the folder could not be removed
+         */
+        @TearDown(Level.Trial)
+        public void cleanup() throws IOException {
+            m_connection.close();
+            FileUtils.deleteDirectory(m_folder.toFile());
+        }
+    }
+
+    /**
+     * Counts the written rows and compressed bytes which JMH reports per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+
+        private long m_rows;
+
+        private long m_bytes;
+
+        /**
+         * Resets the counters.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            m_rows = 0;
+            m_bytes = 0;
+        }
+
+        /**
+         * @return the number of written rows
+         */
+        public long rows() {
+            return m_rows;
+        }
+
+        /**
+         * @return the number of written compressed bytes
+         */
+        public long bytes() {
+            return m_bytes;
+        }
+
+        void add(final InputState state, final long size) {
+            m_rows += state.rows;
+            m_bytes += size;
+        }
+    }
+
+    /**
+     * Writes all input rows as CSV.
+     *
+     * @param state the {@link CsvState}
+     * @param counters the {@link Counters}
+     * @return the compressed size
+     * @throws IOException if the rows could not be written
+     * @throws CanceledExecutionException never
+     */
+    @Benchmark
+    public long csv(final CsvState state, final Counters counters) throws IOException, CanceledExecutionException {
+        @SuppressWarnings("resource")
+        final CountingOutputStream counter = new CountingOutputStream(OutputStream.nullOutputStream());
+        try (OutputStream os = SnowflakeLoaderFileFormat.GZIP_COMPRESSION.equals(state.compression)
+            ? new GZIPOutputStream(counter) : counter) {
+            SnowflakeCsvWriter.write(state.m_input.reset(), state.m_settings, os, EXEC);
+        }
+        counters.add(state, counter.getByteCount());
+        return counter.getByteCount();
+    }
+
+    /**
+     * Writes all input rows as Parquet.
+     *
+     * @param state the {@link ParquetState}
+     * @param counters the {@link Counters}
+     * @return the compressed size
+     * @throws Exception if the rows could not be written
+     */
+    @Benchmark
+    public long parquet(final ParquetState state, final Counters counters) throws Exception {
+        final SyntheticRowInput input = state.m_input.reset();
+        try (SnowflakeParquetRowWriter writer = new SnowflakeParquetRowWriter(state.m_file, state.m_schema,
+            state.m_columnWriters, state.m_codec, Long.MAX_VALUE,
+            SnowflakeLoaderFileFormat.PARQUET.getDefaultChunkSize() * MEGABYTE)) {
+            DataRow row;
+            while ((row = input.poll()) != null) {
+                writer.writeRow(row);
+            }
+        }
+        final long size = Files.size(state.m_folder.resolve("data.parquet"));
+        counters.add(state, size);
+        return size;
+    }
+
+    /**
+     * Runs all benchmarks of this class with the {@link GCProfiler} that reports the allocation rate. Additional JMH
+     * options e.g. {@code -p width=8} can be passed to {@code org.openjdk.jmh.Main} instead.
+     *
+     * @param args ignored
+     * @throws RunnerException if a benchmark failed
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SnowflakeWriterBenchmark.class.getName())
+            .addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.writer;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.database.extension.snowflake.benchmarks.SyntheticColumnType;
+import org.knime.database.extension.snowflake.benchmarks.SyntheticDataGenerator;
+
+/**
+ * {@link RowInput} over a fixed set of generated rows that can be {@linkplain #reset() replayed} by every benchmark
+ * invocation. The rows are generated once by a {@link SyntheticDataGenerator} with a fixed seed so that all writers
+ * and releases see the same data.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SyntheticRowInput extends RowInput {
+
+    private final DataTableSpec m_spec;
+
+    private final SyntheticColumnType[] m_columnTypes;
+
+    private final DataRow[] m_rows;
+
+    private int m_index;
+
+    /**
+     * Generates the rows.
+     *
+     * @param rowCount the number of rows
+     * @param width the number of columns
+     * @param types the comma separated {@link SyntheticColumnType} names that are repeated until the width is reached
+     * @param nullRatio the probability of a missing cell between 0 and 1
+     */
+    SyntheticRowInput(final int rowCount, final int width, final String types, final double nullRatio) {
+        final SyntheticDataGenerator generator = new SyntheticDataGenerator(SyntheticColumnType.parse(types),
+            rowCount, width, nullRatio, SyntheticDataGenerator.DEFAULT_SEED);
+        m_spec = generator.getDataTableSpec();
+        m_columnTypes = generator.getColumnTypes();
+        m_rows = new DataRow[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            m_rows[r] = generator.createRow(r);
+        }
+    }
+
+    /**
+     * @return the {@link SyntheticColumnType} of each column
+     */
+    SyntheticColumnType[] getColumnTypes() {
+        return m_columnTypes.clone();
+    }
+
+    /**
+     * @return the number of generated rows
+     */
+    int getRowCount() {
+        return m_rows.length;
+    }
+
+    /**
+     * Restarts the input with the first row.
+     *
+     * @return this input
+     */
+    SyntheticRowInput reset() {
+        m_index = 0;
+        return this;
+    }
+
+    @Override
+    public DataTableSpec getDataTableSpec() {
+        return m_spec;
+    }
+
+    @Override
+    public DataRow poll() {
+        return m_index < m_rows.length ? m_rows[m_index++] : null;
+    }
+
+    @Override
+    public void close() {
+        //the rows are kept for the next invocation
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.util;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the JDBC result fetch throughput of the Snowflake driver with its default fetch settings compared
+ * to the {@link SnowflakeFetchSettings} that are derived from the heap and the cores of the benchmark JVM. The
+ * effect of the settings depends on the download of the result chunks which is why, unlike the other benchmarks,
+ * a Snowflake account is needed. The local stand-in driver does not split results into chunks.
+ * <p>
+ * The account is given by the system properties {@value #PROPERTY_URL}, {@value #PROPERTY_USER} and
+ * {@value #PROPERTY_PASSWORD}. The driver is loaded from the jar given by {@value #PROPERTY_DRIVER} which defaults
+ * to the driver of the host plug-in. A temporary table with the synthetic rows is created per trial and each
+ * invocation reads all its rows and cells. Next to the invocations per second the {@code rows} counter reports the
+ * fetched rows per second. The JVM heap of the fork determines the derived settings and can be changed with the
+ * {@code -jvmArgs} option e.g. {@code -jvmArgs -Xmx16g}.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 30)
+@Measurement(iterations = 3, time = 60)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class SnowflakeFetchBenchmark {
+
+    /** The system property with the JDBC URL of the Snowflake account including the warehouse. */
+    public static final String PROPERTY_URL = "knime.snowflake.benchmark.url";
+
+    /** The system property with the name of the Snowflake user. */
+    public static final String PROPERTY_USER = "knime.snowflake.benchmark.user";
+
+    /** The system property with the password of the Snowflake user. */
+    public static final String PROPERTY_PASSWORD = "knime.snowflake.benchmark.password";
+
+    /** The system property with the path of the Snowflake JDBC driver jar. */
+    public static final String PROPERTY_DRIVER = "knime.snowflake.benchmark.driver";
+
+    private static final String DEFAULT_DRIVER = "../org.knime.snowflake/lib/snowflake-jdbc-3.23.1.jar";
+
+    private static final String TABLE = "KNIME_FETCH_BENCHMARK";
+
+    /**
+     * The fetch settings of a trial.
+     */
+    public enum Profile {
+        /** The defaults of the driver. */
+        DRIVER,
+        /** The {@link SnowflakeFetchSettings} derived from the benchmark JVM. */
+        DERIVED;
+    }
+
+    /**
+     * The connection and the table of a trial. The parameter fields are public and named as JMH expects them on the
+     * command line e.g. {@code -p rows=1000000}.
+     */
+    @State(Scope.Benchmark)
+    public static class FetchState {
+
+        /** The fetch settings. */
+        @Param({"DRIVER", "DERIVED"})
+        public Profile profile;
+
+        /** The number of rows of the table. */
+        @Param({"10000000"})
+        public int rows;
+
+        URLClassLoader m_loader;
+
+        Connection m_connection;
+
+        /**
+         * Connects with the fetch settings of the profile and creates the table.
+         *
+         * @throws Exception if the driver could not be loaded or the table could not be created
+         */
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            final String url = System.getProperty(PROPERTY_URL);
+            if (url == null || url.isBlank()) {
+                throw new IllegalStateException(
+                    "The JDBC URL of the Snowflake account must be given by the system property " + PROPERTY_URL);
+            }
+            final Path driverJar = Path.of(System.getProperty(PROPERTY_DRIVER, DEFAULT_DRIVER));
+            if (!Files.isRegularFile(driverJar)) {
+                throw new IllegalStateException("Snowflake JDBC driver not found: " + driverJar.toAbsolutePath());
+            }
+            m_loader = new URLClassLoader(new URL[]{driverJar.toUri().toURL()},
+                SnowflakeFetchBenchmark.class.getClassLoader());
+            final Driver driver = (Driver)Class.forName("net.snowflake.client.jdbc.SnowflakeDriver", true, m_loader)
+                .getDeclaredConstructor().newInstance();
+            final Properties properties = new Properties();
+            properties.setProperty("user", System.getProperty(PROPERTY_USER, ""));
+            properties.setProperty("password", System.getProperty(PROPERTY_PASSWORD, ""));
+            if (profile == Profile.DERIVED) {
+                SnowflakeFetchSettings.forCurrentJvm().addTo(properties);
+            }
+            m_connection = driver.connect(url, properties);
+            try (Statement statement = m_connection.createStatement()) {
+                statement.execute("CREATE OR REPLACE TEMPORARY TABLE " + TABLE + " AS SELECT SEQ8() AS ID, "
+                    + "UNIFORM(0::FLOAT, 1::FLOAT, RANDOM(42)) AS VAL, RANDSTR(24, RANDOM(7)) AS TXT, "
+                    + "DATEADD(SECOND, SEQ4(), '2024-01-01'::TIMESTAMP_NTZ) AS TS "
+                    + "FROM TABLE(GENERATOR(ROWCOUNT => " + rows + "))");
+            }
+        }
+
+        /**
+         * Drops the table and closes the connection.
+         *
+         * @throws SQLException if the connection could not be closed
+         * @throws IOException if the driver could not be unloaded
+         */
+        @TearDown(Level.Trial)
+        public void cleanup() throws SQLException, IOException {
+            if (m_connection != null) {
+                try (Statement statement = m_connection.createStatement()) {
+                    statement.execute("DROP TABLE IF EXISTS " + TABLE);
+                } finally {
+                    m_connection.close();
+                }
+            }
+            if (m_loader != null) {
+                m_loader.close();
+            }
+        }
+    }
+
+    /**
+     * Counts the fetched rows which JMH reports per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+
+        private long m_rows;
+
+        /**
+         * Resets the counter.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            m_rows = 0;
+        }
+
+        /**
+         * @return the number of fetched rows
+         */
+        public long rows() {
+            return m_rows;
+        }
+    }
+
+    /**
+     * Reads all rows and cells of the table.
+     *
+     * @param state the {@link FetchState}
+     * @param counters the {@link Counters}
+     * @return the sum of the IDs and the text lengths
+     * @throws SQLException if the query failed
+     */
+    @Benchmark
+    public long fetch(final FetchState state, final Counters counters) throws SQLException {
+        long checksum = 0;
+        try (Statement statement = state.m_connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT ID, VAL, TXT, TS FROM " + TABLE)) {
+            while (resultSet.next()) {
+                checksum += resultSet.getLong(1);
+                checksum += (long)resultSet.getDouble(2);
+                checksum += resultSet.getString(3).length();
+                checksum += resultSet.getTimestamp(4).getNanos();
+                counters.m_rows++;
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * Runs the benchmark with the account given by the system properties of this JVM.
+     *
+     * @param args ignored
+     * @throws RunnerException if a benchmark failed
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SnowflakeFetchBenchmark.class.getName())
+            .jvmArgsAppend(systemProperty(PROPERTY_URL), systemProperty(PROPERTY_USER),
+                systemProperty(PROPERTY_PASSWORD), systemProperty(PROPERTY_DRIVER))
+            .build()).run();
+    }
+
+    private static String systemProperty(final String name) {
+        return "-D" + name + "=" + System.getProperty(name, name.equals(PROPERTY_DRIVER) ? DEFAULT_DRIVER : "");
+    }
+}
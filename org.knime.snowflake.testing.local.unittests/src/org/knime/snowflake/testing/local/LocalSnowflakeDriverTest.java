@@ -0,0 +1,292 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.snowflake.testing.local;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the stage and load commands of the {@link LocalSnowflakeDriver}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class LocalSnowflakeDriverTest {
+
+    private static final String CSV_FORMAT = "FILE_FORMAT=(TYPE='CSV' COMPRESSION = GZIP\n RECORD_DELIMITER = '\\n'"
+        + "\n FIELD_DELIMITER = ','\n SKIP_HEADER = 1\n ESCAPE = NONE\n FIELD_OPTIONALLY_ENCLOSED_BY  = '\"'"
+        + "\n NULL_IF = ''\n EMPTY_FIELD_AS_NULL  = FALSE\n ENCODING   = 'UTF-8'\n)";
+
+    @TempDir
+    Path m_tempDir;
+
+    private Connection connect(final String database) throws SQLException {
+        final Properties properties = new Properties();
+        properties.setProperty(LocalSnowflakeDriver.PROPERTY_STAGE_ROOT, m_tempDir.resolve("stages").toString());
+        return new LocalSnowflakeDriver().connect(
+            LocalSnowflakeDriver.URL_PREFIX + "account.snowflakecomputing.com/?warehouse=WH&db=" + database
+                + "&schema=TESTING",
+            properties);
+    }
+
+    private Path writeFile(final String name, final String content, final boolean gzip) throws IOException {
+        final Path file = m_tempDir.resolve("local").resolve(name);
+        Files.createDirectories(file.getParent());
+        final OutputStream fileOut = Files.newOutputStream(file);
+        try (OutputStream out = gzip ? new GZIPOutputStream(fileOut) : fileOut) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private static List<String> query(final Statement statement, final String sql) throws SQLException {
+        final List<String> values = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            final int columnCount = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                final StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= columnCount; i++) {
+                    row.append(i > 1 ? "|" : "").append(rs.getString(i));
+                }
+                values.add(row.toString());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Tests that named stages need to be created and that files are uploaded, listed and removed like in Snowflake.
+     *
+     * @throws Exception
+     */
+    @Test
+    void testStageCommands() throws Exception {
+        final Path file = writeFile("data.csv", "a,b\n", false);
+        try (Connection connection = connect("STAGES");
+                Statement statement = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> statement.execute("LS '@\"STAGES\".\"TESTING\".\"MISSING\"'"));
+            statement.execute("CREATE STAGE IF NOT EXISTS \"MY_STAGE\"");
+            statement.execute("CREATE STAGE IF NOT EXISTS \"MY_STAGE\"");
+            assertThrows(SQLException.class, () -> statement.execute("CREATE STAGE \"MY_STAGE\""));
+
+            assertTrue(statement.execute("PUT '" + file.toUri() + "' '@\"MY_STAGE\"/sub' AUTO_COMPRESS=TRUE"));
+            try (ResultSet rs = statement.getResultSet()) {
+                assertTrue(rs.next());
+                assertEquals("data.csv.gz", rs.getString("target"));
+                assertEquals("UPLOADED", rs.getString("status"));
+            }
+            final List<String> skipped =
+                query(statement, "PUT 'file://" + file.getParent() + "/*.csv' '@MY_STAGE/sub'");
+            assertEquals(1, skipped.size());
+            assertTrue(skipped.get(0).endsWith("|SKIPPED|"), skipped.get(0));
+            statement.execute("PUT '" + file.toUri() + "' '@~' AUTO_COMPRESS=FALSE");
+
+            final List<String> listed = query(statement, "LS '@\"STAGES\".\"TESTING\".\"MY_STAGE\"'");
+            assertEquals(1, listed.size());
+            assertTrue(listed.get(0).startsWith("my_stage/sub/data.csv.gz|"), listed.get(0));
+            assertEquals(1, query(statement, "LIST @~ PATTERN='.*\\.csv'").size());
+
+            final Path download = m_tempDir.resolve("download");
+            statement.execute("GET '@MY_STAGE/sub/' '" + download.toUri() + "'");
+            assertTrue(Files.isRegularFile(download.resolve("data.csv.gz")));
+
+            assertEquals(List.of("my_stage/sub/data.csv.gz|removed"), query(statement, "REMOVE '@MY_STAGE/sub/'"));
+            assertTrue(query(statement, "LS '@MY_STAGE'").isEmpty());
+            statement.execute("DROP STAGE \"MY_STAGE\"");
+            assertThrows(SQLException.class, () -> statement.execute("LS '@MY_STAGE'"));
+        }
+    }
+
+    /**
+     * Tests that gzip compressed CSV files are copied into a table and purged afterwards.
+     *
+     * @throws Exception
+     */
+    @Test
+    void testCopyCsv() throws Exception {
+        writeFile("part-0.csv.gz", "ID,NAME,DAY\n1,\"a, \"\"quoted\"\"\",2024-01-31\n2,,\n", true);
+        writeFile("part-1.csv.gz", "ID,NAME,DAY\n3,\"\",2024-02-01\n", true);
+        try (Connection connection = connect("COPY_CSV");
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE \"T\" (\"ID\" BIGINT, \"NAME\" VARCHAR(100), \"DAY\" DATE)");
+            statement.execute("CREATE STAGE \"S\"");
+            statement.execute(
+                "PUT 'file://" + m_tempDir.resolve("local") + "/*' '@\"COPY_CSV\".\"TESTING\".\"S\"' "
+                    + "SOURCE_COMPRESSION=GZIP AUTO_COMPRESS=FALSE");
+            final int rowCount = statement.executeUpdate("COPY INTO \"COPY_CSV\".\"TESTING\".\"T\" (\"ID\", \"NAME\", "
+                + "\"DAY\") \nFROM '@\"COPY_CSV\".\"TESTING\".\"S\"' FILES=('part-0.csv.gz','part-1.csv.gz') \n"
+                + CSV_FORMAT + "\n PURGE=TRUE");
+            assertEquals(3, rowCount);
+            assertEquals(List.of("1|a, \"quoted\"|2024-01-31", "2|null|null", "3||2024-02-01"),
+                query(statement, "SELECT * FROM \"T\" ORDER BY \"ID\""));
+            assertTrue(query(statement, "LS '@S'").isEmpty());
+
+            writeFile("part-0.csv.gz", "ID,NAME,DAY\n4,x\n", true);
+            statement.execute("PUT 'file://" + m_tempDir.resolve("local") + "/part-0.csv.gz' '@S' "
+                + "SOURCE_COMPRESSION=GZIP AUTO_COMPRESS=FALSE");
+            assertThrows(SQLException.class,
+                () -> statement.execute("COPY INTO \"T\" FROM '@S' " + CSV_FORMAT + " PURGE=TRUE"));
+            assertEquals(3, query(statement, "SELECT * FROM \"T\"").size());
+            assertThrows(SQLException.class,
+                () -> statement.execute("COPY INTO \"T\" FROM (SELECT $1 FROM @S) " + CSV_FORMAT));
+        }
+    }
+
+    /**
+     * Tests that the validation mode returns the errors with the columns the loader reports.
+     *
+     * @throws Exception
+     */
+    @Test
+    void testValidationMode() throws Exception {
+        writeFile("sample.csv.gz", "ID,NAME,DAY\n1,a,2024-01-31\nx,b,2024-02-01\n3,c,no date\n", true);
+        try (Connection connection = connect("VALIDATION");
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE \"T\" (\"ID\" BIGINT, \"NAME\" VARCHAR(100), \"DAY\" DATE)");
+            statement.execute("PUT 'file://" + m_tempDir.resolve("local") + "/*' '@%\"T\"' AUTO_COMPRESS=FALSE");
+            final List<String> errors = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery("COPY INTO \"T\" \nFROM '@%\"T\"' FILES=('sample.csv.gz') "
+                + CSV_FORMAT + "\n VALIDATION_MODE=RETURN_ERRORS")) {
+                while (rs.next()) {
+                    errors.add(rs.getString("LINE") + " " + rs.getString("COLUMN_NAME"));
+                    assertFalse(rs.getString("ERROR").isEmpty());
+                }
+            }
+            assertEquals(List.of("3 \"T\"[\"ID\":1]", "4 \"T\"[\"DAY\":3]"), errors);
+            assertTrue(query(statement, "SELECT * FROM \"T\"").isEmpty());
+            assertEquals(1, query(statement, "LS '@%\"T\"'").size());
+        }
+    }
+
+    /**
+     * Tests that Parquet files are loaded by column name.
+     *
+     * @throws Exception
+     */
+    @Test
+    void testCopyParquet() throws Exception {
+        final MessageType schema = MessageTypeParser.parseMessageType("message knime { optional int64 ID; "
+            + "optional binary NAME (UTF8); optional int32 DAY (DATE); optional double IGNORED; }");
+        final Path file = m_tempDir.resolve("data.parquet");
+        try (ParquetWriter<Group> writer =
+            ExampleParquetWriter.builder(new LocalOutputFile(file)).withConf(new PlainParquetConfiguration())
+                .withType(schema).build()) {
+            final SimpleGroupFactory factory = new SimpleGroupFactory(schema);
+            writer.write(factory.newGroup().append("ID", 1L).append("NAME", "a")
+                .append("DAY", (int)LocalDate.of(2024, 1, 31).toEpochDay()).append("IGNORED", 1.5));
+            writer.write(factory.newGroup().append("ID", 2L));
+        }
+        try (Connection connection = connect("COPY_PARQUET");
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TRANSIENT TABLE \"T\" (\"DAY\" DATE, \"ID\" BIGINT, \"NAME\" VARCHAR)");
+            statement.execute("PUT '" + file.toUri() + "' '@~/load' AUTO_COMPRESS=FALSE");
+            statement.execute("COPY INTO \"T\" \nFROM '@~/load' FILES=('data.parquet') \nFILE_FORMAT=(TYPE='PARQUET') "
+                + "\nMATCH_BY_COLUMN_NAME=CASE_SENSITIVE\n PURGE=TRUE");
+            assertEquals(List.of("2024-01-31|1|a", "null|2|null"),
+                query(statement, "SELECT * FROM \"T\" ORDER BY \"ID\""));
+        }
+    }
+
+    /**
+     * Tests that the statement latencies are recorded per command.
+     *
+     * @throws Exception
+     */
+    @Test
+    void testStatistics() throws Exception {
+        final LocalSnowflakeStatistics statistics = LocalSnowflakeDriver.getStatistics();
+        statistics.reset();
+        try (Connection connection = connect("STATISTICS");
+                Statement statement = connection.createStatement()) {
+            statement.execute("ALTER SESSION SET TIMEZONE = 'UTC'");
+            statement.execute("CREATE OR REPLACE TEMPORARY STAGE \"TMP\"");
+            statement.execute("CREATE TABLE \"A\" (\"X\" INT)");
+            statement.execute("CREATE TRANSIENT TABLE \"B\" LIKE \"A\"");
+            statement.executeQuery("SELECT * FROM \"B\"").close();
+            statement.executeQuery("SELECT * FROM \"A\"").close();
+        }
+        assertEquals(2, statistics.getCount("SELECT"));
+        assertEquals(2, statistics.getCount("CREATE TABLE"));
+        assertEquals(1, statistics.getCount("CREATE STAGE"));
+        assertEquals(1, statistics.getCount("ALTER SESSION"));
+        assertEquals(0, statistics.getCount("PUT"));
+        assertTrue(statistics.getMaxTime("SELECT").compareTo(statistics.getTotalTime("SELECT")) <= 0);
+        assertTrue(statistics.toString().contains("CREATE STAGE"));
+        try (Connection connection = connect("STATISTICS");
+                Statement statement = connection.createStatement()) {
+            //temporary stages are dropped with the session
+            assertThrows(SQLException.class, () -> statement.execute("LS '@TMP'"));
+            assertNull(connection.createStatement().getResultSet());
+        }
+    }
+}
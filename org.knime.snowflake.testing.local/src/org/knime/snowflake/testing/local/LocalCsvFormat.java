@@ -0,0 +1,289 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.snowflake.testing.local;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLSyntaxErrorException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The CSV options of a {@code FILE_FORMAT} clause and a reader for the staged files that follows the Snowflake
+ * semantics of the supported options. Only the {@code NONE}, {@code AUTO} and {@code GZIP} compressions are
+ * supported.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class LocalCsvFormat {
+
+    private static final int NONE = -1;
+
+    private final String m_recordDelimiter;
+
+    private final String m_fieldDelimiter;
+
+    private final int m_skipHeader;
+
+    private final int m_escape;
+
+    private final int m_escapeUnenclosed;
+
+    private final int m_enclosedBy;
+
+    private final List<String> m_nullIf;
+
+    private final boolean m_emptyFieldAsNull;
+
+    private final Charset m_charset;
+
+    private final boolean m_compressed;
+
+    private LocalCsvFormat(final Map<String, Object> options) throws SQLException {
+        m_recordDelimiter = getString(options, "RECORD_DELIMITER", "\n");
+        m_fieldDelimiter = getString(options, "FIELD_DELIMITER", ",");
+        m_skipHeader = Integer.parseInt(getString(options, "SKIP_HEADER", "0"));
+        m_escape = getCharacter(options, "ESCAPE", NONE);
+        m_escapeUnenclosed = getCharacter(options, "ESCAPE_UNENCLOSED_FIELD", '\\');
+        m_enclosedBy = getCharacter(options, "FIELD_OPTIONALLY_ENCLOSED_BY", NONE);
+        final Object nullIf = options.get("NULL_IF");
+        if (nullIf instanceof List) {
+            m_nullIf = castToStringList(nullIf);
+        } else {
+            m_nullIf = List.of(nullIf == null ? "\\N" : nullIf.toString());
+        }
+        m_emptyFieldAsNull = Boolean.parseBoolean(getString(options, "EMPTY_FIELD_AS_NULL", "TRUE"));
+        m_charset = Charset.forName(getString(options, "ENCODING", "UTF-8"));
+        final String compression = getString(options, "COMPRESSION", "AUTO").toUpperCase(Locale.ROOT);
+        if (!List.of("NONE", "AUTO", "GZIP").contains(compression)) {
+            throw new SQLFeatureNotSupportedException("Unsupported compression: " + compression);
+        }
+        m_compressed = !"NONE".equals(compression);
+    }
+
+    /**
+     * Creates the CSV format for the given {@code FILE_FORMAT} options.
+     *
+     * @param options the options of the {@code FILE_FORMAT} clause
+     * @return the CSV format
+     * @throws SQLException if an option is not supported
+     */
+    static LocalCsvFormat of(final Map<String, Object> options) throws SQLException {
+        try {
+            return new LocalCsvFormat(options);
+        } catch (IllegalArgumentException e) {
+            throw new SQLSyntaxErrorException("Invalid CSV file format option: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads all records of the given file without the skipped header lines.
+     *
+     * @param file the staged file
+     * @return the records with their line number
+     * @throws SQLException if the file can not be parsed
+     */
+    List<Record> read(final Path file) throws SQLException {
+        final String content;
+        try (InputStream in = open(file)) {
+            content = new String(in.readAllBytes(), m_charset);
+        } catch (IOException e) {
+            throw new SQLException("Error reading staged file " + file.getFileName() + ": " + e.getMessage(), e);
+        }
+        final List<Record> records = new ArrayList<>();
+        final int length = content.length();
+        int pos = 0;
+        int line = 1;
+        int recordCount = 0;
+        while (pos < length) {
+            final int recordLine = line;
+            final List<String> fields = new ArrayList<>();
+            boolean endOfRecord = false;
+            while (!endOfRecord) {
+                final StringBuilder value = new StringBuilder();
+                if (m_enclosedBy != NONE && pos < length && content.charAt(pos) == m_enclosedBy) {
+                    pos++;
+                    while (true) {
+                        if (pos >= length) {
+                            throw new SQLDataException(format(file, recordLine, "Unterminated enclosed field"));
+                        }
+                        final char c = content.charAt(pos);
+                        if (m_escape != NONE && c == m_escape && pos + 1 < length) {
+                            value.append(content.charAt(pos + 1));
+                            pos += 2;
+                        } else if (c == m_enclosedBy) {
+                            if (pos + 1 < length && content.charAt(pos + 1) == m_enclosedBy) {
+                                value.append(c);
+                                pos += 2;
+                            } else {
+                                pos++;
+                                break;
+                            }
+                        } else {
+                            line += c == '\n' ? 1 : 0;
+                            value.append(c);
+                            pos++;
+                        }
+                    }
+                    fields.add(value.toString());
+                } else {
+                    final int start = pos;
+                    while (pos < length && !content.startsWith(m_fieldDelimiter, pos)
+                        && !content.startsWith(m_recordDelimiter, pos)) {
+                        final char c = content.charAt(pos);
+                        if (m_escapeUnenclosed != NONE && c == m_escapeUnenclosed && pos + 1 < length) {
+                            value.append(content.charAt(pos + 1));
+                            pos += 2;
+                        } else {
+                            line += c == '\n' ? 1 : 0;
+                            value.append(c);
+                            pos++;
+                        }
+                    }
+                    final String raw = content.substring(start, pos);
+                    fields.add(m_nullIf.contains(raw) || (raw.isEmpty() && m_emptyFieldAsNull) ? null
+                        : value.toString());
+                }
+                if (pos >= length) {
+                    endOfRecord = true;
+                } else if (content.startsWith(m_fieldDelimiter, pos)) {
+                    pos += m_fieldDelimiter.length();
+                } else if (content.startsWith(m_recordDelimiter, pos)) {
+                    pos += m_recordDelimiter.length();
+                    line += (int)m_recordDelimiter.chars().filter(c -> c == '\n').count();
+                    endOfRecord = true;
+                } else {
+                    throw new SQLDataException(format(file, line,
+                        "Found character '" + content.charAt(pos) + "' instead of field delimiter"));
+                }
+            }
+            if (recordCount++ >= m_skipHeader) {
+                records.add(new Record(recordLine, fields.toArray(new String[0])));
+            }
+        }
+        return records;
+    }
+
+    private InputStream open(final Path file) throws IOException {
+        final InputStream in = new BufferedInputStream(Files.newInputStream(file));
+        if (m_compressed) {
+            in.mark(2);
+            final boolean gzip = in.read() == 0x1f && in.read() == 0x8b;
+            in.reset();
+            if (gzip) {
+                return new GZIPInputStream(in);
+            }
+        }
+        return in;
+    }
+
+    private static String format(final Path file, final int line, final String message) {
+        return message + " in file '" + file.getFileName() + "' at line " + line;
+    }
+
+    private static String getString(final Map<String, Object> options, final String key, final String defaultValue) {
+        final Object value = options.get(key);
+        return value == null ? defaultValue : value.toString();
+    }
+
+    private static int getCharacter(final Map<String, Object> options, final String key, final int defaultValue) {
+        final Object value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        final String character = value.toString();
+        if ("NONE".equalsIgnoreCase(character) || character.isEmpty()) {
+            return NONE;
+        }
+        if (character.length() != 1) {
+            throw new IllegalArgumentException(key + " must be a single character");
+        }
+        return character.charAt(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> castToStringList(final Object value) {
+        return (List<String>)value;
+    }
+
+    /**
+     * A record of a CSV file.
+     */
+    static final class Record {
+
+        private final int m_line;
+
+        private final String[] m_fields;
+
+        Record(final int line, final String[] fields) {
+            m_line = line;
+            m_fields = fields;
+        }
+
+        /**
+         * @return the line number of the record within the file
+         */
+        int getLine() {
+            return m_line;
+        }
+
+        /**
+         * @return the field values with {@code null} for the fields that match the {@code NULL_IF} option
+         */
+        String[] getFields() {
+            return m_fields;
+        }
+    }
+}
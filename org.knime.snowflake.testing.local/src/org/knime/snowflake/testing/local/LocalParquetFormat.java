@@ -0,0 +1,202 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.snowflake.testing.local;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+
+/**
+ * Reads the flat Parquet files that are loaded with {@code MATCH_BY_COLUMN_NAME}. The values are converted to the
+ * Java types that correspond to the primitive and logical type of each column e.g. {@link LocalDate} for
+ * {@code INT32 (DATE)} columns.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class LocalParquetFormat {
+
+    private final List<String> m_columnNames;
+
+    private final List<Object[]> m_rows;
+
+    private LocalParquetFormat(final List<String> columnNames, final List<Object[]> rows) {
+        m_columnNames = columnNames;
+        m_rows = rows;
+    }
+
+    /**
+     * Reads all rows of the given Parquet file.
+     *
+     * @param file the staged file
+     * @return the column names and rows of the file
+     * @throws SQLException if the file can not be read or contains nested columns
+     */
+    static LocalParquetFormat read(final Path file) throws SQLException {
+        try (ParquetFileReader reader =
+            ParquetFileReader.open(new LocalInputFile(file),
+                ParquetReadOptions.builder(new PlainParquetConfiguration()).build())) {
+            final MessageType schema = reader.getFileMetaData().getSchema();
+            final List<String> columnNames = new ArrayList<>(schema.getFieldCount());
+            for (final Type field : schema.getFields()) {
+                if (!field.isPrimitive()) {
+                    throw new SQLFeatureNotSupportedException(
+                        "Nested Parquet column " + field.getName() + " is not supported.");
+                }
+                columnNames.add(field.getName());
+            }
+            final List<Object[]> rows = new ArrayList<>();
+            final ColumnIOFactory factory = new ColumnIOFactory();
+            PageReadStore pages;
+            while ((pages = reader.readNextRowGroup()) != null) {
+                final RecordReader<Group> recordReader =
+                    factory.getColumnIO(schema).getRecordReader(pages, new GroupRecordConverter(schema));
+                for (long i = 0, count = pages.getRowCount(); i < count; i++) {
+                    final Group group = recordReader.read();
+                    final Object[] row = new Object[columnNames.size()];
+                    for (int c = 0; c < row.length; c++) {
+                        row[c] = group.getFieldRepetitionCount(c) == 0 ? null
+                            : getValue(group, c, schema.getType(c).asPrimitiveType());
+                    }
+                    rows.add(row);
+                }
+            }
+            return new LocalParquetFormat(columnNames, rows);
+        } catch (IOException e) {
+            throw new SQLException("Error reading staged file " + file.getFileName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the column names of the file
+     */
+    List<String> getColumnNames() {
+        return m_columnNames;
+    }
+
+    /**
+     * @return the rows of the file in the order of the column names
+     */
+    List<Object[]> getRows() {
+        return m_rows;
+    }
+
+    private static Object getValue(final Group group, final int index, final PrimitiveType type)
+        throws SQLFeatureNotSupportedException {
+        final LogicalTypeAnnotation logicalType = type.getLogicalTypeAnnotation();
+        switch (type.getPrimitiveTypeName()) {
+            case BOOLEAN:
+                return group.getBoolean(index, 0);
+            case FLOAT:
+                return group.getFloat(index, 0);
+            case DOUBLE:
+                return group.getDouble(index, 0);
+            case INT32:
+                final int intValue = group.getInteger(index, 0);
+                if (logicalType instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation) {
+                    return LocalDate.ofEpochDay(intValue);
+                }
+                if (logicalType instanceof TimeLogicalTypeAnnotation) {
+                    return LocalTime.ofNanoOfDay(TimeUnit.MILLISECONDS.toNanos(intValue));
+                }
+                return intValue;
+            case INT64:
+                final long longValue = group.getLong(index, 0);
+                if (logicalType instanceof TimestampLogicalTypeAnnotation) {
+                    final long nanos = toNanos(((TimestampLogicalTypeAnnotation)logicalType).getUnit(), longValue);
+                    return LocalDateTime.ofInstant(Instant.ofEpochSecond(0, nanos), ZoneOffset.UTC);
+                }
+                if (logicalType instanceof TimeLogicalTypeAnnotation) {
+                    return LocalTime
+                        .ofNanoOfDay(toNanos(((TimeLogicalTypeAnnotation)logicalType).getUnit(), longValue));
+                }
+                return longValue;
+            case BINARY:
+            case FIXED_LEN_BYTE_ARRAY:
+                if (logicalType instanceof LogicalTypeAnnotation.StringLogicalTypeAnnotation) {
+                    return group.getString(index, 0);
+                }
+                return group.getBinary(index, 0).getBytes();
+            default:
+                throw new SQLFeatureNotSupportedException(
+                    "Parquet type " + type.getPrimitiveTypeName() + " is not supported.");
+        }
+    }
+
+    private static long toNanos(final LogicalTypeAnnotation.TimeUnit unit, final long value) {
+        switch (unit) {
+            case MILLIS:
+                return TimeUnit.MILLISECONDS.toNanos(value);
+            case MICROS:
+                return TimeUnit.MICROSECONDS.toNanos(value);
+            default:
+                return value;
+        }
+    }
+}
@@ -0,0 +1,792 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.snowflake.testing.local;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.h2.tools.SimpleResultSet;
+
+/**
+ * Executes the Snowflake specific commands of a {@link LocalSnowflakeDriver} connection that the embedded H2 database
+ * does not support. Stages are backed by local directories (see {@link LocalStage}) and {@code COPY INTO} loads the
+ * staged CSV and Parquet files via batched inserts. All other statements are passed to H2 after rewriting the few
+ * Snowflake specific clauses that are used by the loader e.g. {@code TRANSIENT} tables.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class LocalSnowflakeCommands {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final List<String> COMPRESSED_EXTENSIONS =
+        List.of(".gz", ".bz2", ".zst", ".br", ".deflate", ".raw_deflate");
+
+    private static final Pattern TRANSIENT =
+        Pattern.compile("^(\\s*CREATE\\s+(?:OR\\s+REPLACE\\s+)?)TRANSIENT\\s+", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern CREATE_TABLE_LIKE = Pattern.compile(
+        "^\\s*CREATE\\s+(TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?.+?)\\s+LIKE\\s+(.+?)[\\s;]*$",
+        Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final Connection m_connection;
+
+    private final Path m_stageRoot;
+
+    private final String m_database;
+
+    private String m_schema;
+
+    private final List<LocalStage> m_temporaryStages = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param connection the H2 connection
+     * @param stageRoot the root directory of all stages
+     * @param database the database of the session
+     * @param schema the initial schema of the session
+     */
+    LocalSnowflakeCommands(final Connection connection, final Path stageRoot, final String database,
+        final String schema) {
+        m_connection = connection;
+        m_stageRoot = stageRoot;
+        m_database = database;
+        m_schema = schema;
+    }
+
+    /**
+     * Executes the given statement if it is a Snowflake specific command.
+     *
+     * @param sql the statement
+     * @return the result of the command or {@code null} if the statement should be passed to H2
+     * @throws SQLException if the command fails
+     */
+    Result execute(final String sql) throws SQLException {
+        final LocalSnowflakeParser parser = new LocalSnowflakeParser(sql);
+        if (parser.acceptKeyword("PUT")) {
+            return put(parser);
+        }
+        if (parser.acceptKeyword("GET")) {
+            return get(parser);
+        }
+        if (parser.acceptKeyword("LS", "LIST")) {
+            return list(parser);
+        }
+        if (parser.acceptKeyword("REMOVE", "RM")) {
+            return remove(parser);
+        }
+        if (parser.acceptKeyword("COPY")) {
+            return copy(parser);
+        }
+        if (parser.acceptKeyword("CREATE")) {
+            return createStage(parser);
+        }
+        if (parser.acceptKeyword("DROP")) {
+            return dropStage(parser);
+        }
+        if (parser.acceptKeyword("USE")) {
+            return use(parser);
+        }
+        if (parser.acceptKeyword("ALTER") && parser.acceptKeyword("SESSION")) {
+            //session parameters such as the time zone are not supported and thus ignored
+            return status("Statement executed successfully.");
+        }
+        return null;
+    }
+
+    /**
+     * Rewrites the Snowflake specific clauses of a statement that is passed to H2.
+     *
+     * @param sql the statement
+     * @return the statement for H2
+     */
+    static String rewrite(final String sql) {
+        final String withoutTransient = TRANSIENT.matcher(sql).replaceFirst("$1");
+        final Matcher like = CREATE_TABLE_LIKE.matcher(withoutTransient);
+        if (like.matches()) {
+            return "CREATE " + like.group(1) + " AS SELECT * FROM " + like.group(2) + " WITH NO DATA";
+        }
+        return withoutTransient;
+    }
+
+    /**
+     * Drops the temporary stages of the session.
+     *
+     * @throws SQLException if a stage can not be dropped
+     */
+    void close() throws SQLException {
+        for (final LocalStage stage : m_temporaryStages) {
+            stage.drop(true);
+        }
+        m_temporaryStages.clear();
+    }
+
+    private LocalStage resolve(final String reference) throws SQLException {
+        return LocalStage.resolve(m_stageRoot, reference, m_database, m_schema);
+    }
+
+    private Result put(final LocalSnowflakeParser parser) throws SQLException {
+        //https://docs.snowflake.com/en/sql-reference/sql/put
+        final Path source = toLocalPath(parser.nextReference());
+        final LocalStage stage = resolve(parser.nextStageReference());
+        final Map<String, Object> options = parser.nextOptions();
+        final boolean autoCompress = getBoolean(options, "AUTO_COMPRESS", true);
+        final boolean overwrite = getBoolean(options, "OVERWRITE", false);
+        final String sourceCompression =
+            getString(options, "SOURCE_COMPRESSION", "AUTO_DETECT").toUpperCase(Locale.ROOT);
+        stage.checkExists();
+        final List<Path> files = findLocalFiles(source);
+        final SimpleResultSet result = createResultSet("source", "target", "source_size:BIGINT", "target_size:BIGINT",
+            "source_compression", "target_compression", "status", "message");
+        try {
+            final Path targetDirectory = stage.getPathDirectory();
+            Files.createDirectories(targetDirectory);
+            for (final Path file : files) {
+                final String fileName = file.getFileName().toString();
+                final boolean compressed = "AUTO_DETECT".equals(sourceCompression)
+                    ? COMPRESSED_EXTENSIONS.stream().anyMatch(fileName.toLowerCase(Locale.ROOT)::endsWith)
+                    : !"NONE".equals(sourceCompression);
+                final boolean compress = autoCompress && !compressed;
+                final Path target = targetDirectory.resolve(compress ? fileName + ".gz" : fileName);
+                final String status;
+                if (Files.exists(target) && !overwrite) {
+                    status = "SKIPPED";
+                } else {
+                    if (compress) {
+                        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+                            Files.copy(file, out);
+                        }
+                    } else {
+                        Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    status = "UPLOADED";
+                }
+                final String sourceType = compressed ? "GZIP" : "NONE";
+                result.addRow(fileName, target.getFileName().toString(), Files.size(file), Files.size(target),
+                    sourceType, compress ? "GZIP" : sourceType, status, "");
+            }
+        } catch (IOException e) {
+            throw new SQLException("Error uploading file: " + e.getMessage(), e);
+        }
+        return new Result(result, 0);
+    }
+
+    private Result get(final LocalSnowflakeParser parser) throws SQLException {
+        //https://docs.snowflake.com/en/sql-reference/sql/get
+        final LocalStage stage = resolve(parser.nextStageReference());
+        final Path targetDirectory = toLocalPath(parser.nextReference());
+        final List<Path> files = filter(stage, stage.listFiles(), parser.nextOptions());
+        final SimpleResultSet result = createResultSet("file", "size:BIGINT", "status", "message");
+        try {
+            Files.createDirectories(targetDirectory);
+            for (final Path file : files) {
+                Files.copy(file, targetDirectory.resolve(file.getFileName().toString()),
+                    StandardCopyOption.REPLACE_EXISTING);
+                result.addRow(stage.getRelativeName(file), Files.size(file), "DOWNLOADED", "");
+            }
+        } catch (IOException e) {
+            throw new SQLException("Error downloading file: " + e.getMessage(), e);
+        }
+        return new Result(result, 0);
+    }
+
+    private Result list(final LocalSnowflakeParser parser) throws SQLException {
+        //https://docs.snowflake.com/en/sql-reference/sql/list
+        final LocalStage stage = resolve(parser.nextStageReference());
+        final List<Path> files = filter(stage, stage.listFiles(), parser.nextOptions());
+        final SimpleResultSet result = createResultSet("name", "size:BIGINT", "md5", "last_modified");
+        try {
+            for (final Path file : files) {
+                result.addRow(stage.getListedName(file), Files.size(file), md5(file),
+                    DateTimeFormatter.RFC_1123_DATE_TIME
+                        .format(Files.getLastModifiedTime(file).toInstant().atOffset(ZoneOffset.UTC)));
+            }
+        } catch (IOException e) {
+            throw new SQLException("Error listing stage: " + e.getMessage(), e);
+        }
+        return new Result(result, 0);
+    }
+
+    private Result remove(final LocalSnowflakeParser parser) throws SQLException {
+        //https://docs.snowflake.com/en/sql-reference/sql/remove
+        final LocalStage stage = resolve(parser.nextStageReference());
+        final List<Path> files = filter(stage, stage.listFiles(), parser.nextOptions());
+        final SimpleResultSet result = createResultSet("name", "result");
+        try {
+            for (final Path file : files) {
+                final String name = stage.getListedName(file);
+                Files.delete(file);
+                result.addRow(name, "removed");
+            }
+        } catch (IOException e) {
+            throw new SQLException("Error removing file: " + e.getMessage(), e);
+        }
+        return new Result(result, 0);
+    }
+
+    private Result createStage(final LocalSnowflakeParser parser) throws SQLException {
+        //https://docs.snowflake.com/en/sql-reference/sql/create-stage
+        final boolean replace = parser.acceptKeyword("OR");
+        if (replace) {
+            parser.expectKeyword("REPLACE");
+        }
+        final boolean temporary = parser.acceptKeyword("TEMP", "TEMPORARY");
+        if (!parser.acceptKeyword("STAGE")) {
+            return null;
+        }
+        final boolean ifNotExists = parser.acceptKeyword("IF");
+        if (ifNotExists) {
+            parser.expectKeyword("NOT");
+            parser.expectKeyword("EXISTS");
+        }
+        final LocalStage stage = resolve(parser.nextReference());
+        if (parser.nextOptions().containsKey("URL")) {
+            throw new SQLFeatureNotSupportedException("External stages are not supported.");
+        }
+        stage.create(replace, ifNotExists);
+        if (temporary) {
+            m_temporaryStages.add(stage);
+        }
+        return status("Stage area successfully created.");
+    }
+
+    private Result dropStage(final LocalSnowflakeParser parser) throws SQLException {
+        //https://docs.snowflake.com/en/sql-reference/sql/drop-stage
+        if (!parser.acceptKeyword("STAGE")) {
+            return null;
+        }
+        final boolean ifExists = parser.acceptKeyword("IF");
+        if (ifExists) {
+            parser.expectKeyword("EXISTS");
+        }
+        resolve(parser.nextReference()).drop(ifExists);
+        return status("Stage area successfully dropped.");
+    }
+
+    private Result use(final LocalSnowflakeParser parser) throws SQLException {
+        if (parser.acceptKeyword("SCHEMA")) {
+            final String schema = parser.nextSqlUntil(";");
+            try (Statement statement = m_connection.createStatement()) {
+                statement.execute("SET SCHEMA " + schema);
+            }
+            m_schema = m_connection.getSchema();
+        }
+        //warehouses, roles and databases have no equivalent in the embedded database
+        return status("Statement executed successfully.");
+    }
+
+    private Result copy(final LocalSnowflakeParser parser) throws SQLException {
+        //https://docs.snowflake.com/en/sql-reference/sql/copy-into-table
+        parser.expectKeyword("INTO");
+        if (parser.isNextStageReference()) {
+            throw new SQLFeatureNotSupportedException("Unloading data into a stage is not supported.");
+        }
+        final String target = parser.nextSqlUntil("(", "FROM");
+        final List<String> columnList = parser.isNextSymbol('(') ? parser.nextIdentifierList() : null;
+        parser.expectKeyword("FROM");
+        if (parser.isNextSymbol('(')) {
+            throw new SQLFeatureNotSupportedException("COPY transformations are not supported.");
+        }
+        final LocalStage stage = resolve(parser.nextStageReference());
+        final Map<String, Object> options = parser.nextOptions();
+        if (!parser.isAtEnd()) {
+            throw parser.error("Unexpected token");
+        }
+        final String onError = getString(options, "ON_ERROR", "ABORT_STATEMENT").toUpperCase(Locale.ROOT);
+        if (!"ABORT_STATEMENT".equals(onError)) {
+            throw new SQLFeatureNotSupportedException("ON_ERROR = " + onError + " is not supported.");
+        }
+        final Map<String, Object> fileFormat = getOptions(options, "FILE_FORMAT");
+        final String type = getString(fileFormat, "TYPE", "CSV").toUpperCase(Locale.ROOT);
+        final List<String> columns = columnList == null ? getColumnNames(target) : columnList;
+        final List<Path> files = getCopyFiles(stage, options);
+        final String validationMode = getString(options, "VALIDATION_MODE", null);
+        if ("CSV".equals(type)) {
+            final LocalCsvFormat format = LocalCsvFormat.of(fileFormat);
+            if (validationMode != null) {
+                return validateCsv(target, columns, stage, files, format, validationMode);
+            }
+            return load(target, stage, files, getBoolean(options, "PURGE", false), (file, insert) -> {
+                long rowCount = 0;
+                for (final LocalCsvFormat.Record record : format.read(file)) {
+                    final String[] fields = record.getFields();
+                    if (fields.length != columns.size()) {
+                        throw new SQLException(getColumnCountError(fields.length, columns.size()) + " in file '"
+                            + stage.getRelativeName(file) + "' at line " + record.getLine(), "22000");
+                    }
+                    final PreparedStatement statement = insert.apply(columns);
+                    for (int i = 0; i < fields.length; i++) {
+                        statement.setString(i + 1, fields[i]);
+                    }
+                    addBatch(statement, ++rowCount);
+                }
+                return rowCount;
+            });
+        }
+        if ("PARQUET".equals(type)) {
+            if (validationMode != null) {
+                throw new SQLFeatureNotSupportedException("VALIDATION_MODE is only supported for CSV files.");
+            }
+            final String matchByColumnName =
+                getString(options, "MATCH_BY_COLUMN_NAME", "NONE").toUpperCase(Locale.ROOT);
+            if ("NONE".equals(matchByColumnName)) {
+                throw new SQLFeatureNotSupportedException(
+                    "Parquet files can only be loaded with MATCH_BY_COLUMN_NAME since VARIANT is not supported.");
+            }
+            final boolean caseSensitive = "CASE_SENSITIVE".equals(matchByColumnName);
+            return load(target, stage, files, getBoolean(options, "PURGE", false), (file, insert) -> {
+                final LocalParquetFormat parquet = LocalParquetFormat.read(file);
+                final List<String> matchedColumns = new ArrayList<>();
+                final List<Integer> matchedIndices = new ArrayList<>();
+                for (int i = 0; i < parquet.getColumnNames().size(); i++) {
+                    final String fileColumn = parquet.getColumnNames().get(i);
+                    for (final String column : columns) {
+                        if (caseSensitive ? column.equals(fileColumn) : column.equalsIgnoreCase(fileColumn)) {
+                            matchedColumns.add(column);
+                            matchedIndices.add(i);
+                            break;
+                        }
+                    }
+                }
+                if (matchedColumns.isEmpty()) {
+                    throw new SQLException("No column of file '" + stage.getRelativeName(file)
+                        + "' matches a column of the table.", "22000");
+                }
+                long rowCount = 0;
+                final PreparedStatement statement = insert.apply(matchedColumns);
+                for (final Object[] row : parquet.getRows()) {
+                    for (int i = 0; i < matchedIndices.size(); i++) {
+                        statement.setObject(i + 1, row[matchedIndices.get(i)]);
+                    }
+                    addBatch(statement, ++rowCount);
+                }
+                return rowCount;
+            });
+        }
+        throw new SQLFeatureNotSupportedException("File format " + type + " is not supported.");
+    }
+
+    /**
+     * Loads the given files within a single transaction and removes them afterwards if the purge option is set.
+     */
+    private Result load(final String target, final LocalStage stage, final List<Path> files, final boolean purge,
+        final FileLoader loader) throws SQLException {
+        final SimpleResultSet result = createResultSet("file", "status", "rows_parsed:BIGINT", "rows_loaded:BIGINT",
+            "errors_seen:BIGINT");
+        final boolean autoCommit = m_connection.getAutoCommit();
+        m_connection.setAutoCommit(false);
+        long totalRows = 0;
+        try {
+            for (final Path file : files) {
+                final Map<List<String>, PreparedStatement> statements = new HashMap<>();
+                try {
+                    final long rowCount = loader.load(file, columns -> {
+                        PreparedStatement statement = statements.get(columns);
+                        if (statement == null) {
+                            statement = m_connection.prepareStatement(createInsert(target, columns));
+                            statements.put(columns, statement);
+                        }
+                        return statement;
+                    });
+                    for (final PreparedStatement statement : statements.values()) {
+                        statement.executeBatch();
+                    }
+                    result.addRow(stage.getRelativeName(file), "LOADED", rowCount, rowCount, 0L);
+                    totalRows += rowCount;
+                } finally {
+                    for (final PreparedStatement statement : statements.values()) {
+                        statement.close();
+                    }
+                }
+            }
+            m_connection.commit();
+        } catch (SQLException e) {
+            m_connection.rollback();
+            throw e;
+        } finally {
+            m_connection.setAutoCommit(autoCommit);
+        }
+        if (purge) {
+            try {
+                for (final Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                throw new SQLException("Error purging staged file: " + e.getMessage(), e);
+            }
+        }
+        return new Result(result, totalRows);
+    }
+
+    /**
+     * Validates the CSV files without loading them by casting each value to the type of its table column.
+     */
+    private Result validateCsv(final String target, final List<String> columns, final LocalStage stage,
+        final List<Path> files, final LocalCsvFormat format, final String validationMode) throws SQLException {
+        final String mode = validationMode.toUpperCase(Locale.ROOT);
+        if (!"RETURN_ERRORS".equals(mode) && !"RETURN_ALL_ERRORS".equals(mode)) {
+            throw new SQLFeatureNotSupportedException("VALIDATION_MODE = " + validationMode + " is not supported.");
+        }
+        final SimpleResultSet result = createResultSet("ERROR", "FILE", "LINE:BIGINT", "CATEGORY", "SQL_STATE",
+            "COLUMN_NAME", "ROW_NUMBER:BIGINT", "ROW_START_LINE:BIGINT");
+        final Map<String, String> castTypes = getCastTypes(target);
+        final Map<String, PreparedStatement> casts = new HashMap<>();
+        final String tableName = target.substring(target.lastIndexOf('.') + 1);
+        try {
+            for (final Path file : files) {
+                final String fileName = stage.getRelativeName(file);
+                long rowNumber = 0;
+                for (final LocalCsvFormat.Record record : format.read(file)) {
+                    rowNumber++;
+                    final String[] fields = record.getFields();
+                    if (fields.length != columns.size()) {
+                        result.addRow(getColumnCountError(fields.length, columns.size()), fileName,
+                            (long)record.getLine(), "parsing", "22000", null, rowNumber, (long)record.getLine());
+                        continue;
+                    }
+                    for (int i = 0; i < fields.length; i++) {
+                        final String column = columns.get(i);
+                        final String castType = castTypes.get(column);
+                        if (fields[i] == null || castType == null) {
+                            continue;
+                        }
+                        PreparedStatement cast = casts.get(column);
+                        if (cast == null) {
+                            cast = m_connection.prepareStatement("SELECT CAST(? AS " + castType + ")");
+                            casts.put(column, cast);
+                        }
+                        cast.setString(1, fields[i]);
+                        try (ResultSet rs = cast.executeQuery()) {
+                            rs.next();
+                        } catch (SQLException e) {
+                            result.addRow(firstLine(e.getMessage()), fileName, (long)record.getLine(),
+                                "conversion", e.getSQLState(), tableName + "[" + delimit(column) + ":" + (i + 1) + "]",
+                                rowNumber, (long)record.getLine());
+                            if ("RETURN_ERRORS".equals(mode)) {
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            for (final PreparedStatement cast : casts.values()) {
+                cast.close();
+            }
+        }
+        return new Result(result, 0);
+    }
+
+    private List<Path> getCopyFiles(final LocalStage stage, final Map<String, Object> options) throws SQLException {
+        final Object files = options.get("FILES");
+        if (!(files instanceof List)) {
+            return filter(stage, stage.listFiles(), options);
+        }
+        stage.checkExists();
+        final List<Path> result = new ArrayList<>();
+        for (final Object name : (List<?>)files) {
+            final Path file = stage.getPathDirectory().resolve(name.toString());
+            if (!Files.isRegularFile(file)) {
+                throw new SQLException("Remote file '" + stage.getRelativeName(file) + "' was not found.", "58030");
+            }
+            result.add(file);
+        }
+        return result;
+    }
+
+    private List<String> getColumnNames(final String target) throws SQLException {
+        final List<String> columns = new ArrayList<>();
+        try (Statement statement = m_connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT * FROM " + target + " WHERE 1 = 0")) {
+            final ResultSetMetaData metaData = rs.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                columns.add(metaData.getColumnName(i));
+            }
+        }
+        return columns;
+    }
+
+    private Map<String, String> getCastTypes(final String target) throws SQLException {
+        final Map<String, String> types = new HashMap<>();
+        try (Statement statement = m_connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT * FROM " + target + " WHERE 1 = 0")) {
+            final ResultSetMetaData metaData = rs.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                final String typeName = metaData.getColumnTypeName(i);
+                final int precision = metaData.getPrecision(i);
+                final String castType;
+                switch (metaData.getColumnType(i)) {
+                    case Types.NUMERIC:
+                    case Types.DECIMAL:
+                        castType = typeName + "(" + precision + ", " + metaData.getScale(i) + ")";
+                        break;
+                    case Types.CHAR:
+                    case Types.VARCHAR:
+                    case Types.BINARY:
+                    case Types.VARBINARY:
+                        castType = precision > 0 ? typeName + "(" + precision + ")" : typeName;
+                        break;
+                    default:
+                        castType = typeName;
+                }
+                types.put(metaData.getColumnName(i), castType);
+            }
+        }
+        return types;
+    }
+
+    private static List<Path> filter(final LocalStage stage, final List<Path> files, final Map<String, Object> options)
+        throws SQLException {
+        final String pattern = getString(options, "PATTERN", null);
+        if (pattern == null) {
+            return files;
+        }
+        try {
+            final Pattern regex = Pattern.compile(pattern);
+            return files.stream().filter(f -> regex.matcher(stage.getRelativeName(f)).matches()).toList();
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Invalid pattern: " + pattern, "22025", e);
+        }
+    }
+
+    private static List<Path> findLocalFiles(final Path source) throws SQLException {
+        final String fileName = source.getFileName().toString();
+        if (fileName.indexOf('*') < 0 && fileName.indexOf('?') < 0) {
+            if (!Files.isRegularFile(source)) {
+                throw new SQLException("File doesn't exist: " + source, "58030");
+            }
+            return List.of(source);
+        }
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + fileName);
+        try (Stream<Path> files = Files.list(source.getParent())) {
+            return files.filter(Files::isRegularFile).filter(f -> matcher.matches(f.getFileName())).sorted().toList();
+        } catch (IOException e) {
+            throw new SQLException("Error listing local files: " + e.getMessage(), e);
+        }
+    }
+
+    private static Path toLocalPath(final String uri) throws SQLException {
+        if (!uri.regionMatches(true, 0, "file:", 0, 5)) {
+            throw new SQLException("Only local file URIs are supported: " + uri, "42000");
+        }
+        String path = uri.substring(5);
+        while (path.startsWith("//")) {
+            path = path.substring(2);
+        }
+        if (path.matches("/[A-Za-z]:.*")) {
+            path = path.substring(1);
+        }
+        return Paths.get(path);
+    }
+
+    private static String createInsert(final String target, final List<String> columns) {
+        final StringBuilder buf = new StringBuilder("INSERT INTO ").append(target).append(" (");
+        for (int i = 0; i < columns.size(); i++) {
+            buf.append(i > 0 ? ", " : "").append(delimit(columns.get(i)));
+        }
+        buf.append(") VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+            buf.append(i > 0 ? ", ?" : "?");
+        }
+        return buf.append(')').toString();
+    }
+
+    private static void addBatch(final PreparedStatement statement, final long rowCount) throws SQLException {
+        statement.addBatch();
+        if (rowCount % BATCH_SIZE == 0) {
+            statement.executeBatch();
+        }
+    }
+
+    private static String getColumnCountError(final int fileColumns, final int tableColumns) {
+        return "Number of columns in file (" + fileColumns + ") does not match that of the corresponding table ("
+            + tableColumns + ")";
+    }
+
+    private static String delimit(final String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String firstLine(final String message) {
+        final int end = message == null ? -1 : message.indexOf('\n');
+        return end < 0 ? message : message.substring(0, end);
+    }
+
+    private static String md5(final Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            final MessageDigest digest = MessageDigest.getInstance("MD5");
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+            return String.format("%032x", new BigInteger(1, digest.digest()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static Result status(final String message) {
+        final SimpleResultSet result = createResultSet("status");
+        result.addRow(message);
+        return new Result(result, 0);
+    }
+
+    /**
+     * Creates a result set with the given columns which are of type {@code VARCHAR} unless the type is appended to
+     * the name e.g. {@code size:BIGINT}.
+     */
+    private static SimpleResultSet createResultSet(final String... columns) {
+        final SimpleResultSet result = new SimpleResultSet();
+        for (final String column : columns) {
+            final int separator = column.indexOf(':');
+            if (separator < 0) {
+                result.addColumn(column, Types.VARCHAR, Integer.MAX_VALUE, 0);
+            } else {
+                result.addColumn(column.substring(0, separator), Types.BIGINT, 19, 0);
+            }
+        }
+        return result;
+    }
+
+    private static boolean getBoolean(final Map<String, Object> options, final String key,
+        final boolean defaultValue) {
+        final String value = getString(options, key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    private static String getString(final Map<String, Object> options, final String key, final String defaultValue) {
+        final Object value = options.get(key);
+        return value == null ? defaultValue : value.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> getOptions(final Map<String, Object> options, final String key)
+        throws SQLException {
+        final Object value = options.get(key);
+        if (value == null) {
+            return Map.of();
+        }
+        if (!(value instanceof Map)) {
+            throw new SQLFeatureNotSupportedException("Named file formats are not supported: " + value);
+        }
+        return (Map<String, Object>)value;
+    }
+
+    /**
+     * Loads a single staged file via the insert statement for the given columns.
+     */
+    @FunctionalInterface
+    private interface FileLoader {
+        long load(Path file, InsertSupplier insert) throws SQLException;
+    }
+
+    /**
+     * Returns the batched insert statement for the given table columns.
+     */
+    @FunctionalInterface
+    private interface InsertSupplier {
+        PreparedStatement apply(List<String> columns) throws SQLException;
+    }
+
+    /**
+     * The result of a Snowflake specific command.
+     */
+    static final class Result {
+
+        private final ResultSet m_resultSet;
+
+        private final long m_updateCount;
+
+        Result(final ResultSet resultSet, final long updateCount) {
+            m_resultSet = resultSet;
+            m_updateCount = updateCount;
+        }
+
+        /**
+         * @return the result set of the command
+         */
+        ResultSet getResultSet() {
+            return m_resultSet;
+        }
+
+        /**
+         * @return the number of loaded rows or 0 for commands that do not modify tables
+         */
+        long getUpdateCount() {
+            return m_updateCount;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.snowflake.testing.local;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Proxies of the H2 {@link Connection} and its {@link Statement}s that execute the Snowflake specific commands via
+ * {@link LocalSnowflakeCommands}, rewrite all other statements for H2 and record the latency of each executed
+ * statement in the {@link LocalSnowflakeStatistics}. Snowflake specific commands are only supported by plain
+ * statements and not by prepared statements.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class LocalSnowflakeConnection implements InvocationHandler {
+
+    private final Connection m_delegate;
+
+    private final LocalSnowflakeCommands m_commands;
+
+    private final LocalSnowflakeStatistics m_statistics;
+
+    private Connection m_proxy;
+
+    private LocalSnowflakeConnection(final Connection delegate, final LocalSnowflakeCommands commands,
+        final LocalSnowflakeStatistics statistics) {
+        m_delegate = delegate;
+        m_commands = commands;
+        m_statistics = statistics;
+    }
+
+    /**
+     * Creates the connection proxy.
+     *
+     * @param delegate the H2 connection
+     * @param commands the Snowflake specific commands of the connection
+     * @param statistics the statistics to record the statement latencies in
+     * @return the connection proxy
+     */
+    static Connection create(final Connection delegate, final LocalSnowflakeCommands commands,
+        final LocalSnowflakeStatistics statistics) {
+        final LocalSnowflakeConnection handler = new LocalSnowflakeConnection(delegate, commands, statistics);
+        handler.m_proxy = createProxy(Connection.class, handler);
+        return handler.m_proxy;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "createStatement":
+                return createProxy(Statement.class,
+                    new StatementHandler((Statement)delegate(m_delegate, method, args), null));
+            case "prepareStatement":
+                final String sql = (String)args[0];
+                return createProxy(PreparedStatement.class,
+                    new StatementHandler((PreparedStatement)delegate(m_delegate, method, rewrite(args)), sql));
+            case "prepareCall":
+                return createProxy(CallableStatement.class,
+                    new StatementHandler((CallableStatement)delegate(m_delegate, method, rewrite(args)),
+                        (String)args[0]));
+            case "close":
+                if (!m_delegate.isClosed()) {
+                    m_commands.close();
+                }
+                return delegate(m_delegate, method, args);
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return delegate(m_delegate, method, args);
+        }
+    }
+
+    private static Object[] rewrite(final Object[] args) {
+        final Object[] rewritten = args.clone();
+        rewritten[0] = LocalSnowflakeCommands.rewrite((String)args[0]);
+        return rewritten;
+    }
+
+    private static <T> T createProxy(final Class<T> type, final InvocationHandler handler) {
+        return type.cast(
+            Proxy.newProxyInstance(LocalSnowflakeConnection.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object delegate(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Handles the statements of the connection.
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement m_statement;
+
+        private final String m_preparedSql;
+
+        private ResultSet m_resultSet;
+
+        private boolean m_handled;
+
+        StatementHandler(final Statement statement, final String preparedSql) {
+            m_statement = statement;
+            m_preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if (name.startsWith("execute")) {
+                if (args != null && args.length > 0 && args[0] instanceof String) {
+                    return execute(method, args);
+                }
+                final long start = System.nanoTime();
+                try {
+                    return delegate(m_statement, method, args);
+                } finally {
+                    m_statistics.record(m_preparedSql == null ? "BATCH" : m_preparedSql, System.nanoTime() - start);
+                }
+            }
+            switch (name) {
+                case "addBatch":
+                    return delegate(m_statement, method,
+                        args != null && args.length == 1 ? rewrite(args) : args);
+                case "getResultSet":
+                    return m_handled ? m_resultSet : delegate(m_statement, method, args);
+                case "getUpdateCount":
+                    return m_handled ? -1 : delegate(m_statement, method, args);
+                case "getLargeUpdateCount":
+                    return m_handled ? -1L : delegate(m_statement, method, args);
+                case "getMoreResults":
+                    if (m_handled) {
+                        closeResultSet();
+                        return false;
+                    }
+                    return delegate(m_statement, method, args);
+                case "getConnection":
+                    return m_proxy;
+                case "close":
+                    closeResultSet();
+                    return delegate(m_statement, method, args);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return delegate(m_statement, method, args);
+            }
+        }
+
+        private Object execute(final Method method, final Object[] args) throws Throwable {
+            final String sql = (String)args[0];
+            closeResultSet();
+            m_handled = false;
+            final long start = System.nanoTime();
+            try {
+                final LocalSnowflakeCommands.Result result = m_commands.execute(sql);
+                if (result == null) {
+                    return delegate(m_statement, method, rewrite(args));
+                }
+                m_handled = true;
+                m_resultSet = result.getResultSet();
+                switch (method.getName()) {
+                    case "executeQuery":
+                        return m_resultSet;
+                    case "executeUpdate":
+                        return (int)result.getUpdateCount();
+                    case "executeLargeUpdate":
+                        return result.getUpdateCount();
+                    default:
+                        return true;
+                }
+            } finally {
+                m_statistics.record(sql, System.nanoTime() - start);
+            }
+        }
+
+        private void closeResultSet() throws Exception {
+            if (m_resultSet != null) {
+                m_resultSet.close();
+                m_resultSet = null;
+            }
+        }
+    }
+}
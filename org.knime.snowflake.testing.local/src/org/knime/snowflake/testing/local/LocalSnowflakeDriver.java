@@ -0,0 +1,206 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.snowflake.testing.local;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * JDBC driver of a local Snowflake stand-in that allows to test and benchmark the Snowflake loader and UDF paths
+ * without a Snowflake account. The SQL statements are executed by an embedded in-memory H2 database with the name
+ * of the Snowflake database whereas the Snowflake specific stage commands {@code PUT}, {@code GET}, {@code LS},
+ * {@code REMOVE}, {@code CREATE STAGE}, {@code DROP STAGE} as well as {@code COPY INTO} for CSV and Parquet files
+ * are handled by the driver itself with stages that are backed by local directories. COPY transformations,
+ * unloading and Snowflake only SQL such as {@code QUALIFY} or {@code VARIANT} columns are not supported.
+ * <p>
+ * The JDBC URL has the form {@code jdbc:snowflake-local://<account>/?db=<database>&schema=<schema>}. The stages are
+ * stored below the directory given by the optional {@value #PROPERTY_STAGE_ROOT} parameter which defaults to a
+ * directory per account within the temporary directory. The latency of all executed statements is recorded in the
+ * {@link #getStatistics() statistics}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class LocalSnowflakeDriver implements Driver {
+
+    /** The prefix of the JDBC URLs that are accepted by this driver. */
+    public static final String URL_PREFIX = "jdbc:snowflake-local://";
+
+    /** The name of the URL parameter or connection property with the root directory of the stages. */
+    public static final String PROPERTY_STAGE_ROOT = "stage_root";
+
+    private static final String DEFAULT_DATABASE = "KNIME";
+
+    private static final String DEFAULT_SCHEMA = "PUBLIC";
+
+    private static final LocalSnowflakeStatistics STATISTICS = new LocalSnowflakeStatistics();
+
+    static {
+        try {
+            DriverManager.registerDriver(new LocalSnowflakeDriver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Returns the latencies of all statements that have been executed via this driver.
+     *
+     * @return the statement statistics
+     */
+    public static LocalSnowflakeStatistics getStatistics() {
+        return STATISTICS;
+    }
+
+    @Override
+    public Connection connect(final String url, final Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        final String location = url.substring(URL_PREFIX.length());
+        final int queryStart = location.indexOf('?');
+        String host = queryStart < 0 ? location : location.substring(0, queryStart);
+        host = host.endsWith("/") ? host.substring(0, host.length() - 1) : host;
+        final String account = host.contains(".") ? host.substring(0, host.indexOf('.')) : host;
+        if (account.isEmpty()) {
+            throw new SQLException("Missing account name in URL: " + url, "08001");
+        }
+        final Map<String, String> parameters = new HashMap<>();
+        if (info != null) {
+            info.stringPropertyNames()
+                .forEach(key -> parameters.put(key.toLowerCase(Locale.ROOT), info.getProperty(key)));
+        }
+        if (queryStart >= 0) {
+            for (final String parameter : location.substring(queryStart + 1).split("&")) {
+                final int separator = parameter.indexOf('=');
+                if (separator > 0) {
+                    parameters.put(parameter.substring(0, separator).toLowerCase(Locale.ROOT),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        final String database = getIdentifier(parameters, "db", DEFAULT_DATABASE);
+        final String schema = getIdentifier(parameters, "schema", DEFAULT_SCHEMA);
+        final String stageRoot = parameters.get(PROPERTY_STAGE_ROOT);
+        final Path stageDirectory = stageRoot == null || stageRoot.isBlank()
+            ? Paths.get(System.getProperty("java.io.tmpdir"), "knime-snowflake-local", account.toLowerCase(Locale.ROOT))
+            : Paths.get(stageRoot);
+
+        final Properties h2Properties = new Properties();
+        h2Properties.setProperty("user", "sa");
+        h2Properties.setProperty("password", "");
+        //the in-memory database is kept until the JVM exits to share it between connections like a real account
+        final Connection connection =
+            new org.h2.Driver().connect("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1", h2Properties);
+        try (Statement statement = connection.createStatement()) {
+            final String delimitedSchema = "\"" + schema.replace("\"", "\"\"") + "\"";
+            statement.execute("CREATE SCHEMA IF NOT EXISTS " + delimitedSchema);
+            statement.execute("SET SCHEMA " + delimitedSchema);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return LocalSnowflakeConnection.create(connection,
+            new LocalSnowflakeCommands(connection, stageDirectory, database, schema), STATISTICS);
+    }
+
+    @Override
+    public boolean acceptsURL(final String url) {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(final String url, final Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    /**
+     * Unquoted identifiers are upper case in Snowflake.
+     */
+    private static String getIdentifier(final Map<String, String> parameters, final String key,
+        final String defaultValue) {
+        final String value = parameters.get(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,487 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.snowflake.testing.local;
+
+import java.sql.SQLSyntaxErrorException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal parser for the Snowflake specific commands that are handled by the {@link LocalSnowflakeDriver} itself
+ * such as {@code PUT}, {@code LS} or {@code COPY INTO}. The statement is split into words, string literals, quoted
+ * identifiers and symbols which are consumed one after the other.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class LocalSnowflakeParser {
+
+    private enum TokenType {
+            WORD, STRING, IDENTIFIER, SYMBOL
+    }
+
+    private static final String SYMBOLS = "(),=;";
+
+    private final String m_sql;
+
+    private final List<Token> m_tokens;
+
+    private int m_position;
+
+    /**
+     * Constructor.
+     *
+     * @param sql the statement to parse
+     * @throws SQLSyntaxErrorException if the statement contains an unterminated literal
+     */
+    LocalSnowflakeParser(final String sql) throws SQLSyntaxErrorException {
+        m_sql = sql;
+        m_tokens = tokenize(sql);
+    }
+
+    /**
+     * @return {@code true} if all tokens have been consumed ignoring a trailing semicolon
+     */
+    boolean isAtEnd() {
+        return m_position >= m_tokens.size()
+            || (m_position == m_tokens.size() - 1 && isSymbol(m_tokens.get(m_position), ';'));
+    }
+
+    /**
+     * Consumes the next token if it is one of the given keywords.
+     *
+     * @param keywords the keywords to check
+     * @return {@code true} if a keyword has been consumed
+     */
+    boolean acceptKeyword(final String... keywords) {
+        if (m_position < m_tokens.size()) {
+            final Token token = m_tokens.get(m_position);
+            if (token.m_type == TokenType.WORD) {
+                for (final String keyword : keywords) {
+                    if (keyword.equalsIgnoreCase(token.m_value)) {
+                        m_position++;
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Consumes the next token which must be the given keyword.
+     *
+     * @param keyword the expected keyword
+     * @throws SQLSyntaxErrorException if the next token is not the keyword
+     */
+    void expectKeyword(final String keyword) throws SQLSyntaxErrorException {
+        if (!acceptKeyword(keyword)) {
+            throw error("Expected " + keyword);
+        }
+    }
+
+    /**
+     * Consumes the next token if it is the given symbol.
+     *
+     * @param symbol the symbol to check
+     * @return {@code true} if the symbol has been consumed
+     */
+    boolean acceptSymbol(final char symbol) {
+        if (m_position < m_tokens.size() && isSymbol(m_tokens.get(m_position), symbol)) {
+            m_position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consumes the next token which must be the given symbol.
+     *
+     * @param symbol the expected symbol
+     * @throws SQLSyntaxErrorException if the next token is not the symbol
+     */
+    void expectSymbol(final char symbol) throws SQLSyntaxErrorException {
+        if (!acceptSymbol(symbol)) {
+            throw error("Expected '" + symbol + "'");
+        }
+    }
+
+    /**
+     * @return {@code true} if the next token is the given symbol without consuming it
+     */
+    boolean isNextSymbol(final char symbol) {
+        return m_position < m_tokens.size() && isSymbol(m_tokens.get(m_position), symbol);
+    }
+
+    /**
+     * Consumes the next token which must be a string literal.
+     *
+     * @return the unescaped value of the literal
+     * @throws SQLSyntaxErrorException if the next token is not a string literal
+     */
+    String nextString() throws SQLSyntaxErrorException {
+        final Token token = next();
+        if (token.m_type != TokenType.STRING) {
+            throw error("Expected a string literal instead of " + token.m_value);
+        }
+        return token.m_value;
+    }
+
+    /**
+     * Consumes the next word, quoted identifier or string literal.
+     *
+     * @return the value of the token
+     * @throws SQLSyntaxErrorException if the next token is a symbol
+     */
+    String nextValue() throws SQLSyntaxErrorException {
+        final Token token = next();
+        if (token.m_type == TokenType.SYMBOL) {
+            throw error("Unexpected '" + token.m_value + "'");
+        }
+        return token.m_value;
+    }
+
+    /**
+     * Consumes a stage reference that is either given as a string literal e.g. {@code '@"STAGE"/path'} or without
+     * quotes e.g. {@code @STAGE/path}.
+     *
+     * @return the stage reference without the leading {@code @}
+     * @throws SQLSyntaxErrorException if the next token is no stage reference
+     */
+    String nextStageReference() throws SQLSyntaxErrorException {
+        final String reference = nextReference();
+        if (!reference.startsWith("@")) {
+            throw error("Expected a stage reference instead of " + reference);
+        }
+        return reference.substring(1);
+    }
+
+    /**
+     * Consumes a reference that is either given as a string literal e.g. {@code 'file:///tmp/data.csv'} or without
+     * quotes up to the next white space outside of quoted identifiers e.g. {@code "DB"."SCHEMA"."STAGE"}.
+     *
+     * @return the reference
+     * @throws SQLSyntaxErrorException if the statement has no further tokens
+     */
+    String nextReference() throws SQLSyntaxErrorException {
+        if (m_position >= m_tokens.size()) {
+            throw error("Expected a reference");
+        }
+        final Token token = m_tokens.get(m_position);
+        if (token.m_type == TokenType.STRING) {
+            m_position++;
+            return token.m_value;
+        }
+        final int end = findReferenceEnd(token.m_start);
+        while (m_position < m_tokens.size() && m_tokens.get(m_position).m_start < end) {
+            m_position++;
+        }
+        return m_sql.substring(token.m_start, end);
+    }
+
+    /**
+     * @return {@code true} if the next token is an unquoted stage reference or a string literal that starts with
+     *         {@code @}
+     */
+    boolean isNextStageReference() {
+        if (m_position >= m_tokens.size()) {
+            return false;
+        }
+        final Token token = m_tokens.get(m_position);
+        return token.m_type != TokenType.SYMBOL && token.m_type != TokenType.IDENTIFIER
+            && token.m_value.startsWith("@");
+    }
+
+    /**
+     * Consumes the raw SQL text up to the next top level token that matches one of the given keywords or symbols.
+     *
+     * @param stopWords the keywords or symbols that end the text
+     * @return the trimmed SQL text
+     * @throws SQLSyntaxErrorException if the text is empty
+     */
+    String nextSqlUntil(final String... stopWords) throws SQLSyntaxErrorException {
+        final int start = m_position;
+        int depth = 0;
+        while (m_position < m_tokens.size()) {
+            final Token token = m_tokens.get(m_position);
+            if (depth == 0 && token.m_type != TokenType.STRING && token.m_type != TokenType.IDENTIFIER) {
+                boolean stop = false;
+                for (final String stopWord : stopWords) {
+                    stop |= stopWord.equalsIgnoreCase(token.m_value);
+                }
+                if (stop) {
+                    break;
+                }
+            }
+            if (isSymbol(token, '(')) {
+                depth++;
+            } else if (isSymbol(token, ')')) {
+                depth--;
+            }
+            m_position++;
+        }
+        if (start == m_position) {
+            throw error("Expected an SQL expression");
+        }
+        return m_sql.substring(m_tokens.get(start).m_start, m_tokens.get(m_position - 1).m_end).trim();
+    }
+
+    /**
+     * Consumes a comma separated list of identifiers in parentheses e.g. the column list of a {@code COPY INTO}
+     * command.
+     *
+     * @return the identifiers which are upper case if they are not quoted
+     * @throws SQLSyntaxErrorException if the list is malformed
+     */
+    List<String> nextIdentifierList() throws SQLSyntaxErrorException {
+        expectSymbol('(');
+        final List<String> identifiers = new ArrayList<>();
+        do {
+            final Token token = next();
+            if (token.m_type == TokenType.IDENTIFIER) {
+                identifiers.add(token.m_value);
+            } else if (token.m_type == TokenType.WORD) {
+                identifiers.add(token.m_value.toUpperCase(Locale.ROOT));
+            } else {
+                throw error("Expected an identifier instead of " + token.m_value);
+            }
+        } while (acceptSymbol(','));
+        expectSymbol(')');
+        return identifiers;
+    }
+
+    /**
+     * Consumes all remaining options of the form {@code NAME = value} where the value is either a single value, a
+     * list of values in parentheses e.g. {@code FILES=('a','b')} or nested options in parentheses e.g.
+     * {@code FILE_FORMAT=(TYPE='CSV')}. Options without a value are treated as {@code NAME = TRUE}.
+     *
+     * @return the options with upper case names that map to a {@link String}, a {@link List} or a {@link Map}
+     * @throws SQLSyntaxErrorException if the options are malformed
+     */
+    Map<String, Object> nextOptions() throws SQLSyntaxErrorException {
+        final Map<String, Object> options = new LinkedHashMap<>();
+        while (!isAtEnd() && !isNextSymbol(')')) {
+            final Token name = next();
+            if (name.m_type != TokenType.WORD) {
+                throw error("Expected an option name instead of " + name.m_value);
+            }
+            final String key = name.m_value.toUpperCase(Locale.ROOT);
+            if (!acceptSymbol('=')) {
+                options.put(key, "TRUE");
+            } else if (!acceptSymbol('(')) {
+                options.put(key, nextValue());
+            } else if (m_position + 1 < m_tokens.size() && isSymbol(m_tokens.get(m_position + 1), '=')) {
+                options.put(key, nextOptions());
+                expectSymbol(')');
+            } else {
+                final List<String> values = new ArrayList<>();
+                if (!isNextSymbol(')')) {
+                    do {
+                        values.add(nextValue());
+                    } while (acceptSymbol(','));
+                }
+                expectSymbol(')');
+                options.put(key, values);
+            }
+            acceptSymbol(',');
+        }
+        return options;
+    }
+
+    /**
+     * Creates an exception that reports a syntax error at the current position.
+     *
+     * @param message the error message
+     * @return the exception to throw
+     */
+    SQLSyntaxErrorException error(final String message) {
+        final int offset = m_position < m_tokens.size() ? m_tokens.get(m_position).m_start : m_sql.length();
+        return new SQLSyntaxErrorException(message + " at position " + offset + " of: " + m_sql, "42000");
+    }
+
+    private Token next() throws SQLSyntaxErrorException {
+        if (m_position >= m_tokens.size()) {
+            throw error("Unexpected end of statement");
+        }
+        return m_tokens.get(m_position++);
+    }
+
+    private int findReferenceEnd(final int start) {
+        boolean quoted = false;
+        int i = start;
+        for (; i < m_sql.length(); i++) {
+            final char c = m_sql.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (Character.isWhitespace(c) || c == ')' || c == ',' || c == ';')) {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isSymbol(final Token token, final char symbol) {
+        return token.m_type == TokenType.SYMBOL && token.m_value.charAt(0) == symbol;
+    }
+
+    private static List<Token> tokenize(final String sql) throws SQLSyntaxErrorException {
+        final List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < sql.length()) {
+            final char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && sql.startsWith("--", i)) {
+                final int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end;
+            } else if (c == '\'') {
+                final StringBuilder value = new StringBuilder();
+                final int end = readString(sql, i, value);
+                tokens.add(new Token(TokenType.STRING, value.toString(), i, end));
+                i = end;
+            } else if (c == '"') {
+                final StringBuilder value = new StringBuilder();
+                int j = i + 1;
+                while (true) {
+                    if (j >= sql.length()) {
+                        throw new SQLSyntaxErrorException("Unterminated identifier in: " + sql, "42000");
+                    }
+                    if (sql.charAt(j) == '"') {
+                        if (j + 1 < sql.length() && sql.charAt(j + 1) == '"') {
+                            value.append('"');
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    value.append(sql.charAt(j++));
+                }
+                tokens.add(new Token(TokenType.IDENTIFIER, value.toString(), i, j + 1));
+                i = j + 1;
+            } else if (SYMBOLS.indexOf(c) >= 0) {
+                tokens.add(new Token(TokenType.SYMBOL, String.valueOf(c), i, i + 1));
+                i++;
+            } else {
+                int j = i;
+                while (j < sql.length() && !Character.isWhitespace(sql.charAt(j))
+                    && SYMBOLS.indexOf(sql.charAt(j)) < 0 && sql.charAt(j) != '\'' && sql.charAt(j) != '"') {
+                    j++;
+                }
+                tokens.add(new Token(TokenType.WORD, sql.substring(i, j), i, j));
+                i = j;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Reads a Snowflake string literal that supports doubled single quotes as well as backslash escape sequences.
+     */
+    private static int readString(final String sql, final int start, final StringBuilder value)
+        throws SQLSyntaxErrorException {
+        int j = start + 1;
+        while (j < sql.length()) {
+            final char c = sql.charAt(j);
+            if (c == '\'') {
+                if (j + 1 < sql.length() && sql.charAt(j + 1) == '\'') {
+                    value.append('\'');
+                    j += 2;
+                    continue;
+                }
+                return j + 1;
+            }
+            if (c == '\\' && j + 1 < sql.length()) {
+                final char escaped = sql.charAt(j + 1);
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case '0':
+                        value.append('\0');
+                        break;
+                    default:
+                        value.append(escaped);
+                }
+                j += 2;
+                continue;
+            }
+            value.append(c);
+            j++;
+        }
+        throw new SQLSyntaxErrorException("Unterminated string literal in: " + sql, "42000");
+    }
+
+    private static final class Token {
+
+        private final TokenType m_type;
+
+        private final String m_value;
+
+        private final int m_start;
+
+        private final int m_end;
+
+        Token(final TokenType type, final String value, final int start, final int end) {
+            m_type = type;
+            m_value = value;
+            m_start = start;
+            m_end = end;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.snowflake.testing.local;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the latencies of the statements that are executed via the {@link LocalSnowflakeDriver} grouped by the
+ * command of the statement e.g. {@code PUT}, {@code COPY} or {@code CREATE STAGE}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class LocalSnowflakeStatistics {
+
+    private static final Set<String> OBJECT_COMMANDS = Set.of("CREATE", "DROP", "ALTER");
+
+    private static final Set<String> OBJECT_MODIFIERS =
+        Set.of("OR", "REPLACE", "TEMP", "TEMPORARY", "TRANSIENT", "VOLATILE", "LOCAL", "GLOBAL", "IF", "NOT", "EXISTS");
+
+    private final Map<String, Latency> m_latencies = new ConcurrentHashMap<>();
+
+    LocalSnowflakeStatistics() {
+    }
+
+    /**
+     * Records the latency of the given statement.
+     *
+     * @param sql the executed statement
+     * @param nanos the latency in nanoseconds
+     */
+    void record(final String sql, final long nanos) {
+        m_latencies.computeIfAbsent(getCommand(sql), k -> new Latency()).add(nanos);
+    }
+
+    /**
+     * Returns the commands with at least one recorded statement.
+     *
+     * @return the sorted commands
+     */
+    public Set<String> getCommands() {
+        return new TreeSet<>(m_latencies.keySet());
+    }
+
+    /**
+     * Returns the number of statements that have been executed for the given command.
+     *
+     * @param command the command e.g. {@code PUT}
+     * @return the number of executed statements
+     */
+    public long getCount(final String command) {
+        final Latency latency = m_latencies.get(command);
+        return latency == null ? 0 : latency.getCount();
+    }
+
+    /**
+     * Returns the total time of all statements of the given command.
+     *
+     * @param command the command e.g. {@code PUT}
+     * @return the total time
+     */
+    public Duration getTotalTime(final String command) {
+        final Latency latency = m_latencies.get(command);
+        return Duration.ofNanos(latency == null ? 0 : latency.getTotalNanos());
+    }
+
+    /**
+     * Returns the time of the slowest statement of the given command.
+     *
+     * @param command the command e.g. {@code PUT}
+     * @return the maximum time
+     */
+    public Duration getMaxTime(final String command) {
+        final Latency latency = m_latencies.get(command);
+        return Duration.ofNanos(latency == null ? 0 : latency.getMaxNanos());
+    }
+
+    /**
+     * Removes all recorded latencies e.g. between two benchmark iterations.
+     */
+    public void reset() {
+        m_latencies.clear();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder();
+        for (final String command : getCommands()) {
+            final Latency latency = m_latencies.get(command);
+            final long count = latency.getCount();
+            buf.append(String.format(Locale.ROOT, "%-15s count=%d total=%.3fms mean=%.3fms max=%.3fms%n", command,
+                count, latency.getTotalNanos() / 1e6, latency.getTotalNanos() / 1e6 / Math.max(1, count),
+                latency.getMaxNanos() / 1e6));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Returns the command of the given statement which is its first keyword and for the {@code CREATE},
+     * {@code DROP} and {@code ALTER} statements the type of the object e.g. {@code CREATE STAGE}.
+     *
+     * @param sql the statement
+     * @return the upper case command
+     */
+    static String getCommand(final String sql) {
+        final String[] words = sql.trim().split("[\\s(]+", 12);
+        if (words.length == 0 || words[0].isEmpty()) {
+            return "";
+        }
+        final String command = words[0].toUpperCase(Locale.ROOT);
+        if (!OBJECT_COMMANDS.contains(command)) {
+            return command;
+        }
+        for (int i = 1; i < words.length; i++) {
+            final String word = words[i].toUpperCase(Locale.ROOT);
+            if (!OBJECT_MODIFIERS.contains(word)) {
+                return command + " " + word;
+            }
+        }
+        return command;
+    }
+
+    private static final class Latency {
+
+        private long m_count;
+
+        private long m_totalNanos;
+
+        private long m_maxNanos;
+
+        synchronized void add(final long nanos) {
+            m_count++;
+            m_totalNanos += nanos;
+            m_maxNanos = Math.max(m_maxNanos, nanos);
+        }
+
+        synchronized long getCount() {
+            return m_count;
+        }
+
+        synchronized long getTotalNanos() {
+            return m_totalNanos;
+        }
+
+        synchronized long getMaxNanos() {
+            return m_maxNanos;
+        }
+    }
+}
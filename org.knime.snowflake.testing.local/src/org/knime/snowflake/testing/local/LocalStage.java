@@ -0,0 +1,281 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.snowflake.testing.local;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * A location within a Snowflake stage that is backed by a local directory. The user stage {@code @~}, the table
+ * stages {@code @%table} and the named internal stages are stored in the following directories below the stage root
+ * of the {@link LocalSnowflakeDriver}:
+ * <ul>
+ * <li>{@code user/}</li>
+ * <li>{@code <database>/<schema>/tables/<table>/}</li>
+ * <li>{@code <database>/<schema>/stages/<stage>/}</li>
+ * </ul>
+ * Named stages need to be created with {@code CREATE STAGE} first whereas the directories of the user and table
+ * stages are created on demand.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class LocalStage {
+
+    private final Path m_directory;
+
+    private final String m_name;
+
+    private final boolean m_named;
+
+    private final String m_path;
+
+    private LocalStage(final Path directory, final String name, final boolean named, final String path) {
+        m_directory = directory;
+        m_name = name;
+        m_named = named;
+        m_path = path;
+    }
+
+    /**
+     * Resolves a stage reference e.g. {@code "DB"."SCHEMA"."STAGE"/path/}, {@code %"TABLE"} or {@code ~/path}.
+     * Unquoted identifiers are converted to upper case and missing namespaces are taken from the session.
+     *
+     * @param root the stage root directory
+     * @param reference the stage reference without the leading {@code @}
+     * @param database the current database of the session
+     * @param schema the current schema of the session
+     * @return the stage location
+     * @throws SQLException if the reference is malformed
+     */
+    static LocalStage resolve(final Path root, final String reference, final String database, final String schema)
+        throws SQLException {
+        if (reference.startsWith("~")) {
+            return new LocalStage(root.resolve("user"), "~", false, stripSlash(reference.substring(1)));
+        }
+        final List<String> segments = new ArrayList<>(3);
+        boolean table = false;
+        int i = 0;
+        while (i < reference.length()) {
+            if (reference.charAt(i) == '%') {
+                table = true;
+                i++;
+            }
+            final StringBuilder segment = new StringBuilder();
+            if (i < reference.length() && reference.charAt(i) == '"') {
+                i++;
+                while (i < reference.length()
+                    && (reference.charAt(i) != '"' || reference.startsWith("\"\"", i))) {
+                    segment.append(reference.charAt(i));
+                    i += reference.charAt(i) == '"' ? 2 : 1;
+                }
+                i++;
+            } else {
+                while (i < reference.length() && reference.charAt(i) != '.' && reference.charAt(i) != '/') {
+                    segment.append(reference.charAt(i++));
+                }
+                segment.replace(0, segment.length(), segment.toString().toUpperCase(Locale.ROOT));
+            }
+            segments.add(segment.toString());
+            if (i < reference.length() && reference.charAt(i) == '.') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        final int count = segments.size();
+        if (count == 0 || count > 3 || segments.get(count - 1).isEmpty()) {
+            throw new SQLException("Invalid stage reference: @" + reference, "42000");
+        }
+        final String name = segments.get(count - 1);
+        final Path namespace = root.resolve(toFileName(count == 3 ? segments.get(0) : database))
+            .resolve(toFileName(count >= 2 ? segments.get(count - 2) : schema));
+        final Path directory = namespace.resolve(table ? "tables" : "stages").resolve(toFileName(name));
+        return new LocalStage(directory, name, !table, stripSlash(reference.substring(i)));
+    }
+
+    /**
+     * @return the directory of the whole stage
+     */
+    Path getDirectory() {
+        return m_directory;
+    }
+
+    /**
+     * @return the path within the stage that might be empty
+     */
+    String getPath() {
+        return m_path;
+    }
+
+    /**
+     * @return the directory the path within the stage refers to when used as target of a {@code PUT} command
+     */
+    Path getPathDirectory() {
+        return m_path.isEmpty() ? m_directory : m_directory.resolve(m_path);
+    }
+
+    /**
+     * Checks that the stage exists and creates the directories of the user and table stages on demand.
+     *
+     * @throws SQLException if the named stage does not exist
+     */
+    void checkExists() throws SQLException {
+        if (Files.isDirectory(m_directory)) {
+            return;
+        }
+        if (m_named) {
+            throw new SQLException("Stage '" + m_name + "' does not exist or not authorized.", "02000");
+        }
+        try {
+            Files.createDirectories(m_directory);
+        } catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates the directory of this named stage.
+     *
+     * @param replace {@code true} if an existing stage should be replaced
+     * @param ifNotExists {@code true} if an existing stage should be kept
+     * @throws SQLException if the stage already exists
+     */
+    void create(final boolean replace, final boolean ifNotExists) throws SQLException {
+        try {
+            if (Files.isDirectory(m_directory)) {
+                if (replace) {
+                    deleteDirectory();
+                } else if (ifNotExists) {
+                    return;
+                } else {
+                    throw new SQLException("Object '" + m_name + "' already exists.", "42710");
+                }
+            }
+            Files.createDirectories(m_directory);
+        } catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes the directory of this named stage including all staged files.
+     *
+     * @param ifExists {@code true} if a missing stage should be ignored
+     * @throws SQLException if the stage does not exist
+     */
+    void drop(final boolean ifExists) throws SQLException {
+        if (!Files.isDirectory(m_directory)) {
+            if (ifExists) {
+                return;
+            }
+            throw new SQLException("Stage '" + m_name + "' does not exist or not authorized.", "02000");
+        }
+        try {
+            deleteDirectory();
+        } catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns all staged files whose path within the stage starts with the path of this location.
+     *
+     * @return the sorted staged files
+     * @throws SQLException if the stage does not exist or can not be listed
+     */
+    List<Path> listFiles() throws SQLException {
+        checkExists();
+        try (Stream<Path> files = Files.walk(m_directory)) {
+            return files.filter(Files::isRegularFile) //
+                .filter(f -> getRelativeName(f).startsWith(m_path)) //
+                .sorted() //
+                .toList();
+        } catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param file a staged file
+     * @return the path of the file within the stage with forward slashes
+     */
+    String getRelativeName(final Path file) {
+        return m_directory.relativize(file).toString().replace('\\', '/');
+    }
+
+    /**
+     * Returns the name of a staged file as reported by {@code LS} which is prefixed with the lower case stage name
+     * for named stages.
+     *
+     * @param file a staged file
+     * @return the listed name of the file
+     */
+    String getListedName(final Path file) {
+        final String relativeName = getRelativeName(file);
+        return m_named ? m_name.toLowerCase(Locale.ROOT) + "/" + relativeName : relativeName;
+    }
+
+    private void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(m_directory)) {
+            for (final Path file : files.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static String stripSlash(final String path) {
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    private static String toFileName(final String identifier) {
+        return identifier.replaceAll("[^\\w-]", "_");
+    }
+}
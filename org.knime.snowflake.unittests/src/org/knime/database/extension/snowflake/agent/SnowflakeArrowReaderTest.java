@@ -0,0 +1,134 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.knime.database.extension.snowflake.agent.SnowflakeArrowReader.ArrowBatchAccess;
+
+/**
+ * Tests that the {@link SnowflakeArrowReader} only reads Arrow batches if the classes of the driver can be accessed
+ * and falls back to the {@link java.sql.ResultSet} otherwise.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeArrowReaderTest {
+
+    /** Stand-in for the shaded Arrow {@code ValueVector} interface. */
+    public interface ValueVector {
+        boolean isNull(int index);
+
+        Object getObject(int index);
+
+        Field getField();
+    }
+
+    /** Stand-in for a {@code ValueVector} interface with a changed signature. */
+    public interface ChangedValueVector {
+        boolean isNull(long index);
+
+        Object getObject(int index);
+
+        Field getField();
+    }
+
+    /** Stand-in for the shaded Arrow {@code Field}. */
+    public static final class Field {
+        public Map<String, String> getMetadata() {
+            return Map.of();
+        }
+    }
+
+    /** Stand-in for the {@code ArrowBatches} of the driver. */
+    public static final class ArrowBatches {
+        public boolean hasNext() {
+            return false;
+        }
+
+        public ArrowBatch next() {
+            return new ArrowBatch();
+        }
+    }
+
+    /** Stand-in for the {@code ArrowBatch} of the driver. */
+    public static final class ArrowBatch {
+        public long getRowCount() {
+            return 0;
+        }
+
+        public List<Object> fetch() {
+            return List.of();
+        }
+    }
+
+    @Test
+    void testResolve() {
+        assertTrue(SnowflakeArrowVector.isAccessible(ValueVector.class));
+        assertNotNull(ArrowBatchAccess.resolve(ArrowBatches.class, ArrowBatch.class, ValueVector.class));
+    }
+
+    @Test
+    void testFallbackForMissingClasses() {
+        assertNull(ArrowBatchAccess.resolve(null, ArrowBatch.class, ValueVector.class));
+        assertNull(ArrowBatchAccess.resolve(ArrowBatches.class, null, ValueVector.class));
+        assertNull(ArrowBatchAccess.resolve(ArrowBatches.class, ArrowBatch.class, null));
+    }
+
+    @Test
+    void testFallbackForChangedClasses() {
+        assertFalse(SnowflakeArrowVector.isAccessible(ChangedValueVector.class));
+        assertFalse(SnowflakeArrowVector.isAccessible(Field.class));
+        assertNull(ArrowBatchAccess.resolve(ArrowBatches.class, ArrowBatch.class, ChangedValueVector.class));
+        //the batch class lacks the fetch method
+        assertNull(ArrowBatchAccess.resolve(ArrowBatches.class, ArrowBatches.class, ValueVector.class));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.time.localdate.LocalDateCellFactory;
+import org.knime.core.data.time.localdatetime.LocalDateTimeCellFactory;
+import org.knime.core.data.time.localtime.LocalTimeCellFactory;
+import org.knime.core.data.time.zoneddatetime.ZonedDateTimeCellFactory;
+
+/**
+ * Tests the {@link SnowflakeArrowValues} and the type derivation of the {@link SnowflakeArrowColumnType}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeArrowValuesTest {
+
+    @Test
+    void testLongExact() throws SQLException {
+        assertEquals(Long.MAX_VALUE, SnowflakeArrowValues.toLongExact(BigDecimal.valueOf(Long.MAX_VALUE)));
+        assertEquals(-42, SnowflakeArrowValues.toLongExact(new BigDecimal("-42.000")));
+        assertEquals(42, SnowflakeArrowValues.toLongExact(BigInteger.valueOf(42)));
+        //values beyond the range of a long and fractions are not silently truncated
+        assertThrows(SQLException.class, () -> SnowflakeArrowValues
+            .toLongExact(BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE)));
+        assertThrows(SQLException.class,
+            () -> SnowflakeArrowValues.toLongExact(new BigDecimal("99999999999999999999999999999999999999")));
+        assertThrows(SQLException.class, () -> SnowflakeArrowValues.toLongExact(new BigDecimal("1.5")));
+    }
+
+    @Test
+    void testScaledNumbers() {
+        assertEquals(123.45, SnowflakeArrowValues.toDouble(12345, 2));
+        assertEquals(-0.001, SnowflakeArrowValues.toDouble(-1, 3));
+        assertEquals(42, SnowflakeArrowValues.toDouble(42, 0));
+        //values beyond the exact double range are converted via BigDecimal
+        assertEquals(92233720368547758.07, SnowflakeArrowValues.toDouble(Long.MAX_VALUE, 2));
+        assertEquals("123.45", SnowflakeArrowValues.toString(12345, 2));
+        assertEquals("-0.001", SnowflakeArrowValues.toString(-1, 3));
+        assertEquals("7", SnowflakeArrowValues.toString(7, 0));
+    }
+
+    @Test
+    void testTimes() {
+        assertEquals(LocalTime.of(1, 2, 3, 4_000), SnowflakeArrowValues.toLocalTime(3_723_000_004L, 6));
+        assertEquals(LocalTime.of(23, 59, 59), SnowflakeArrowValues.toLocalTime(86_399, 0));
+        assertEquals(Instant.parse("2023-11-14T22:13:20.123Z"), SnowflakeArrowValues.toInstant(1_700_000_000_123L, 3));
+        //timestamps before the epoch have a positive fraction
+        assertEquals(Instant.parse("1969-12-31T23:59:59.999999999Z"), SnowflakeArrowValues.toInstant(-1, 9));
+        assertEquals(ZoneOffset.ofHours(2), SnowflakeArrowValues.toZoneOffset(1440 + 120));
+        assertEquals(ZoneOffset.ofHoursMinutes(-5, -30), SnowflakeArrowValues.toZoneOffset(1440 - 330));
+    }
+
+    @Test
+    void testHex() {
+        assertEquals("00FF7F80", SnowflakeArrowValues.toHex(new byte[]{0, -1, 127, -128}));
+        assertEquals("", SnowflakeArrowValues.toHex(new byte[0]));
+    }
+
+    @Test
+    void testSpecFromDBSpec() {
+        final DataTableSpec dbSpec = new DataTableSpec(new DataColumnSpecCreator("flag", BooleanCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("id", IntCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("value", DoubleCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("day", LocalDateCellFactory.TYPE).createSpec(),
+            new DataColumnSpecCreator("time", LocalTimeCellFactory.TYPE).createSpec(),
+            new DataColumnSpecCreator("ts", LocalDateTimeCellFactory.TYPE).createSpec(),
+            new DataColumnSpecCreator("zoned", ZonedDateTimeCellFactory.TYPE).createSpec(),
+            new DataColumnSpecCreator("json", StringCell.TYPE).createSpec());
+        final SnowflakeArrowColumnType[] types = new SnowflakeArrowColumnType[dbSpec.getNumColumns()];
+        final DataTableSpec spec = SnowflakeArrowColumnType.createSpec(dbSpec, types);
+        assertArrayEquals(new SnowflakeArrowColumnType[]{SnowflakeArrowColumnType.BOOLEAN,
+            SnowflakeArrowColumnType.LONG, SnowflakeArrowColumnType.DOUBLE, SnowflakeArrowColumnType.DATE,
+            SnowflakeArrowColumnType.TIME, SnowflakeArrowColumnType.TIMESTAMP, SnowflakeArrowColumnType.TIMESTAMP_TZ,
+            SnowflakeArrowColumnType.STRING}, types);
+        assertArrayEquals(dbSpec.getColumnNames(), spec.getColumnNames());
+        assertEquals(LongCell.TYPE, spec.getColumnSpec("id").getType());
+        final DataTableSpec readerSpec = SnowflakeArrowReader.createSpec(dbSpec);
+        for (int i = 0; i < types.length; i++) {
+            assertEquals(types[i].getType(), readerSpec.getColumnSpec(i).getType());
+        }
+    }
+
+    @Test
+    void testColumnTypes() {
+        assertEquals(SnowflakeArrowColumnType.BOOLEAN, SnowflakeArrowColumnType.of(Types.BOOLEAN, 0, 0));
+        assertEquals(SnowflakeArrowColumnType.LONG, SnowflakeArrowColumnType.of(Types.BIGINT, 38, 0));
+        assertEquals(SnowflakeArrowColumnType.DOUBLE, SnowflakeArrowColumnType.of(Types.BIGINT, 38, 2));
+        assertEquals(SnowflakeArrowColumnType.LONG, SnowflakeArrowColumnType.of(Types.DECIMAL, 18, 0));
+        assertEquals(SnowflakeArrowColumnType.DOUBLE, SnowflakeArrowColumnType.of(Types.DECIMAL, 38, 0));
+        assertEquals(SnowflakeArrowColumnType.DOUBLE, SnowflakeArrowColumnType.of(Types.DECIMAL, 10, 2));
+        assertEquals(SnowflakeArrowColumnType.DOUBLE, SnowflakeArrowColumnType.of(Types.DOUBLE, 0, 0));
+        assertEquals(SnowflakeArrowColumnType.DATE, SnowflakeArrowColumnType.of(Types.DATE, 0, 0));
+        assertEquals(SnowflakeArrowColumnType.TIME, SnowflakeArrowColumnType.of(Types.TIME, 0, 9));
+        assertEquals(SnowflakeArrowColumnType.TIMESTAMP, SnowflakeArrowColumnType.of(Types.TIMESTAMP, 0, 9));
+        assertEquals(SnowflakeArrowColumnType.TIMESTAMP_TZ,
+            SnowflakeArrowColumnType.of(Types.TIMESTAMP_WITH_TIMEZONE, 0, 9));
+        assertEquals(SnowflakeArrowColumnType.STRING, SnowflakeArrowColumnType.of(Types.VARCHAR, 0, 0));
+        assertEquals(SnowflakeArrowColumnType.STRING, SnowflakeArrowColumnType.of(Types.BINARY, 0, 0));
+        assertEquals(SnowflakeArrowColumnType.STRING, SnowflakeArrowColumnType.of(Types.OTHER, 0, 0));
+    }
+}
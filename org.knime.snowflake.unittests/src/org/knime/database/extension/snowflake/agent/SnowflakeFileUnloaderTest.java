@@ -0,0 +1,87 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the commands of the {@link SnowflakeFileUnloader}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeFileUnloaderTest {
+
+    @Test
+    void testFileFormat() {
+        assertEquals("TYPE=PARQUET COMPRESSION=SNAPPY",
+            SnowflakeFileUnloader.createFileFormat(SnowflakeLoaderFileFormat.PARQUET, true));
+        assertEquals("TYPE=PARQUET COMPRESSION=NONE",
+            SnowflakeFileUnloader.createFileFormat(SnowflakeLoaderFileFormat.PARQUET, false));
+        assertEquals("TYPE=CSV COMPRESSION=GZIP FIELD_OPTIONALLY_ENCLOSED_BY='\"'",
+            SnowflakeFileUnloader.createFileFormat(SnowflakeLoaderFileFormat.CSV, true));
+    }
+
+    @Test
+    void testUnloadCommand() {
+        assertEquals("COPY INTO '@~/knime_unload_1/' FROM (SELECT * FROM \"T\") FILE_FORMAT=(TYPE=PARQUET) "
+            + "HEADER=TRUE MAX_FILE_SIZE=67108864 DETAILED_OUTPUT=TRUE",
+            SnowflakeFileUnloader.createUnloadCommand("~/knime_unload_1", "SELECT * FROM \"T\"", "TYPE=PARQUET",
+                true, 64));
+        //the size is computed in long to support the maximum file size of 5 GB
+        assertEquals("COPY INTO '@\"STAGE\"/x/' FROM (SELECT 1) FILE_FORMAT=(TYPE=CSV) "
+            + "HEADER=FALSE MAX_FILE_SIZE=5368709120 DETAILED_OUTPUT=TRUE",
+            SnowflakeFileUnloader.createUnloadCommand("\"STAGE\"/x", "SELECT 1", "TYPE=CSV", false,
+                SnowflakeFileUnloader.MAX_FILE_SIZE_MB));
+    }
+
+    @Test
+    void testUnloadedFileName() {
+        assertEquals("data_0_0_0.csv.gz", new SnowflakeFileUnloader.UnloadedFile("data_0_0_0.csv.gz", 1, 1).getName());
+        assertEquals("data_0_1_0.parquet",
+            new SnowflakeFileUnloader.UnloadedFile("sub/data_0_1_0.parquet", 1, 1).getName());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.knime.core.node.CanceledExecutionException;
+
+/**
+ * Tests the {@link SnowflakeResultCache}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeResultCacheTest {
+
+    @TempDir
+    Path m_directory;
+
+    private static void store(final SnowflakeResultCache cache, final String key, final int size)
+        throws IOException, CanceledExecutionException {
+        cache.store(key, "T=" + size, file -> Files.write(file.toPath(), new byte[size]), 100);
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("SELECT * FROM T WHERE A = 'x  y'",
+            SnowflakeResultCache.normalize("\n SELECT *\n\tFROM   T WHERE A = 'x  y' ;"));
+        assertEquals("SELECT \"a  b\" FROM T WHERE A = 'it''s  ' AND B = 'c\\'  d'",
+            SnowflakeResultCache.normalize("SELECT \"a  b\"  FROM T WHERE A = 'it''s  '  AND B = 'c\\'  d'"));
+    }
+
+    @Test
+    void testCreateKey() {
+        final List<String> context = List.of("ACCOUNT", "USER", "ROLE", "DB", "PUBLIC");
+        final String key = SnowflakeResultCache.createKey("SELECT 1", context);
+        assertEquals(64, key.length());
+        assertEquals(key,
+            SnowflakeResultCache.createKey("SELECT 1", List.of("ACCOUNT", "USER", "ROLE", "DB", "PUBLIC")));
+        assertNotEquals(key, SnowflakeResultCache.createKey("SELECT 2", context));
+        assertNotEquals(key,
+            SnowflakeResultCache.createKey("SELECT 1", List.of("ACCOUNT", "USER", "ADMIN", "DB", "PUBLIC")));
+    }
+
+    @Test
+    void testCreateCommitTimeQuery() {
+        assertEquals("SELECT SYSTEM$LAST_CHANGE_COMMIT_TIME('DB.PUBLIC.A'), "
+            + "SYSTEM$LAST_CHANGE_COMMIT_TIME('DB.PUBLIC.B''S')",
+            SnowflakeResultCache.createCommitTimeQuery("DB.PUBLIC.A", "DB.PUBLIC.B'S"));
+    }
+
+    @Test
+    void testLookup() throws IOException, CanceledExecutionException {
+        final SnowflakeResultCache cache = new SnowflakeResultCache(m_directory);
+        assertNull(cache.lookup("a", "T=10"));
+        store(cache, "a", 10);
+        assertNotNull(cache.lookup("a", "T=10"));
+        //a changed table invalidates the entry
+        assertNull(cache.lookup("a", "T=11"));
+        assertFalse(cache.contains("a"));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void testEviction() throws IOException, CanceledExecutionException {
+        final SnowflakeResultCache cache = new SnowflakeResultCache(m_directory);
+        store(cache, "a", 40);
+        store(cache, "b", 40);
+        //using the first entry makes the second one the least recently used
+        assertNotNull(cache.lookup("a", "T=40"));
+        store(cache, "c", 40);
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertEquals(80, cache.getSize());
+        //an entry that exceeds the maximum size alone is not kept
+        store(cache, "d", 101);
+        assertFalse(cache.contains("d"));
+        //the entries are restored from the directory
+        final SnowflakeResultCache restored = new SnowflakeResultCache(m_directory);
+        assertEquals(80, restored.getSize());
+        assertNotNull(restored.lookup("c", "T=40"));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.knime.database.session.DBSession;
+
+/**
+ * Tests the {@link SnowflakeResultReuse}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeResultReuseTest {
+
+    private static final String QUERY = "SELECT * FROM \"T\"";
+
+    private static DBSession createSession() {
+        return (DBSession)Proxy.newProxyInstance(DBSession.class.getClassLoader(), new Class<?>[]{DBSession.class},
+            (p, m, args) -> {
+                if (m.getName().equals("hashCode")) {
+                    return System.identityHashCode(p);
+                }
+                if (m.getName().equals("equals")) {
+                    return p == args[0];
+                }
+                return null;
+            });
+    }
+
+    @Test
+    void testResolve() {
+        final DBSession session = createSession();
+        assertNull(SnowflakeResultReuse.resolve(session, QUERY));
+        SnowflakeResultReuse.remember(session, QUERY, "01a2-b3");
+        assertEquals("SELECT * FROM TABLE(RESULT_SCAN('01a2-b3'))", SnowflakeResultReuse.resolve(session, QUERY));
+        //the SQL text is compared without surrounding white space
+        assertEquals("SELECT * FROM TABLE(RESULT_SCAN('01a2-b3'))",
+            SnowflakeResultReuse.resolve(session, " " + QUERY + "\n"));
+        assertNull(SnowflakeResultReuse.resolve(createSession(), QUERY));
+        SnowflakeResultReuse.remember(session, "SELECT 1", null);
+        assertNull(SnowflakeResultReuse.resolve(session, "SELECT 1"));
+        SnowflakeResultReuse.invalidate(session);
+        assertNull(SnowflakeResultReuse.resolve(session, QUERY));
+    }
+
+    @Test
+    void testMaxQueries() {
+        final DBSession session = createSession();
+        for (int i = 0; i <= SnowflakeResultReuse.MAX_QUERIES; i++) {
+            SnowflakeResultReuse.remember(session, "SELECT " + i, "id" + i);
+        }
+        assertNull(SnowflakeResultReuse.resolve(session, "SELECT 0"));
+        assertEquals("SELECT * FROM TABLE(RESULT_SCAN('id1'))", SnowflakeResultReuse.resolve(session, "SELECT 1"));
+    }
+
+    @Test
+    void testExecuteFallsBackToQuery() throws SQLException {
+        final DBSession session = createSession();
+        final List<String> executed = new ArrayList<>();
+        assertEquals(QUERY, SnowflakeResultReuse.execute(session, QUERY, true, (sql, reused) -> {
+            assertFalse(reused);
+            executed.add(sql);
+            return sql;
+        }));
+        SnowflakeResultReuse.remember(session, QUERY, "purged");
+        //the reuse is only applied if requested
+        SnowflakeResultReuse.execute(session, QUERY, false, (sql, reused) -> executed.add(sql));
+        assertEquals(QUERY, SnowflakeResultReuse.execute(session, QUERY, true, (sql, reused) -> {
+            executed.add(sql);
+            if (reused) {
+                throw new SQLException("Result for query purged has expired");
+            }
+            return sql;
+        }));
+        assertEquals(List.of(QUERY, QUERY, "SELECT * FROM TABLE(RESULT_SCAN('purged'))", QUERY), executed);
+        assertNull(SnowflakeResultReuse.resolve(session, QUERY));
+        assertThrows(SQLException.class, () -> SnowflakeResultReuse.execute(session, QUERY, true, (sql, reused) -> {
+            throw new SQLException("Query failed");
+        }));
+        assertTrue(SnowflakeResultReuse.createResultScanQuery("a'b").contains("'a''b'"));
+    }
+}
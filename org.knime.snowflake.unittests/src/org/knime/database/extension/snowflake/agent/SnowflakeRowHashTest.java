@@ -0,0 +1,118 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.lang.reflect.Proxy;
+import java.sql.JDBCType;
+import java.sql.SQLType;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.database.dialect.DBSQLDialect;
+import org.knime.database.model.DBColumn;
+
+/**
+ * Tests the {@link SnowflakeRowHash}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeRowHashTest {
+
+    private static DBColumn column(final String name, final SQLType type) {
+        return (DBColumn)Proxy.newProxyInstance(DBColumn.class.getClassLoader(), new Class<?>[]{DBColumn.class},
+            (p, m, args) -> "getName".equals(m.getName()) ? name : type);
+    }
+
+    @Test
+    void testHashMatchesMd5NumberLower64() {
+        final SnowflakeRowHash hash = new SnowflakeRowHash();
+        //MD5_NUMBER_LOWER64('3:abc2:42-')
+        assertEquals(-3007989469482912825L, hash.hash(
+            new DefaultRow("Row0", new StringCell("abc"), new IntCell(42), DataType.getMissingCell()),
+            new int[]{0, 1, 2}));
+        //MD5_NUMBER_UPPER64('3:abc2:42-')
+        assertEquals(-5983587706393997656L, hash.getUpperHash());
+        //the length is the number of characters and not of UTF-16 code units
+        assertEquals(-5076540549591560583L,
+            hash.hash(new DefaultRow("Row1", new StringCell("x\u00e9\ud83d\ude00y")), new int[]{0}));
+        //MD5_NUMBER_LOWER64('4:true1:7-1:1')
+        assertEquals(8685468778440837587L, hash.hash(new DefaultRow("Row2", BooleanCell.TRUE, new IntCell(7),
+            DataType.getMissingCell(), new DoubleCell(1.0)), new int[]{0, 1, 2, 3}));
+    }
+
+    @Test
+    void testHashIsUnambiguous() {
+        final SnowflakeRowHash hash = new SnowflakeRowHash();
+        final int[] columns = {0, 1};
+        assertNotEquals(hash.hash(new DefaultRow("Row0", new StringCell("ab"), new StringCell("c")), columns),
+            hash.hash(new DefaultRow("Row1", new StringCell("a"), new StringCell("bc")), columns));
+        assertNotEquals(hash.hash(new DefaultRow("Row0", new StringCell("-"), DataType.getMissingCell()), columns),
+            hash.hash(new DefaultRow("Row1", DataType.getMissingCell(), new StringCell("-")), columns));
+        assertNotEquals(hash.hash(new DefaultRow("Row0", new StringCell(""), DataType.getMissingCell()), columns),
+            hash.hash(new DefaultRow("Row1", DataType.getMissingCell(), new StringCell("")), columns));
+        //only the selected columns are hashed in the given order
+        assertEquals(hash.hash(new DefaultRow("Row0", new StringCell("a"), new StringCell("b")), new int[]{1}),
+            hash.hash(new DefaultRow("Row1", new StringCell("b"), new StringCell("c")), new int[]{0}));
+    }
+
+    @Test
+    void testCreateHashExpression() {
+        final DBSQLDialect dialect = (DBSQLDialect)Proxy.newProxyInstance(DBSQLDialect.class.getClassLoader(),
+            new Class<?>[]{DBSQLDialect.class}, (p, m, args) -> "\"" + args[0] + "\"");
+        assertEquals("MD5_NUMBER_LOWER64(COALESCE(LENGTH(TO_VARCHAR(t.\"ID\")) || ':' || TO_VARCHAR(t.\"ID\"), '-') "
+            + "|| COALESCE(LENGTH(TO_VARCHAR(t.\"D\", 'YYYY-MM-DD')) || ':' || TO_VARCHAR(t.\"D\", 'YYYY-MM-DD'), "
+            + "'-'))", SnowflakeRowHash.createHashExpression(dialect, "t",
+                List.of(column("ID", JDBCType.BIGINT), column("D", JDBCType.DATE))));
+    }
+}
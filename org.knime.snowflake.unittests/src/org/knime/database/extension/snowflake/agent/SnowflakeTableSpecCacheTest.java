@@ -0,0 +1,187 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.knime.database.dialect.DBSQLDialect;
+import org.knime.database.model.DBTable;
+import org.knime.database.session.DBSession;
+
+/**
+ * Tests the {@link SnowflakeTableSpecCache}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeTableSpecCacheTest {
+
+    private static final DBTable TABLE = proxy(DBTable.class, "getName", "TABLE");
+
+    private static final DBTable OTHER_TABLE = proxy(DBTable.class, "getName", "OTHER");
+
+    private final AtomicInteger m_loadCount = new AtomicInteger();
+
+    private static <T> T proxy(final Class<T> type, final String method, final Object result) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            if (m.getName().equals(method)) {
+                return result;
+            }
+            if (m.getName().equals("hashCode")) {
+                return System.identityHashCode(p);
+            }
+            if (m.getName().equals("equals")) {
+                return p == args[0];
+            }
+            return null;
+        }));
+    }
+
+    private static DBSession createSession() {
+        final DBSQLDialect dialect = (DBSQLDialect)Proxy.newProxyInstance(DBSQLDialect.class.getClassLoader(),
+            new Class<?>[]{DBSQLDialect.class}, (p, m, args) -> "createFullName".equals(m.getName())
+                ? ((DBTable)args[0]).getName() : null);
+        return proxy(DBSession.class, "getDialect", dialect);
+    }
+
+    private int load(final DBSession session, final DBTable table) throws Exception {
+        return load(session, table, System.nanoTime());
+    }
+
+    private int load(final DBSession session, final DBTable table, final long now) throws Exception {
+        SnowflakeTableSpecCache.get(session, table, () -> {
+            m_loadCount.incrementAndGet();
+            return null;
+        }, now);
+        return m_loadCount.get();
+    }
+
+    @Test
+    void testNoCachingOutsideOfScope() throws Exception {
+        final DBSession session = createSession();
+        assertEquals(1, load(session, TABLE));
+        assertEquals(2, load(session, TABLE));
+    }
+
+    @Test
+    void testCachingWithinScope() throws Exception {
+        final DBSession session = createSession();
+        try (SnowflakeTableSpecCache.Scope scope = SnowflakeTableSpecCache.openScope(session)) {
+            assertEquals(1, load(session, TABLE));
+            assertEquals(1, load(session, TABLE));
+            assertEquals(2, load(session, OTHER_TABLE));
+            assertEquals(3, load(createSession(), TABLE));
+        }
+    }
+
+    @Test
+    void testInvalidate() throws Exception {
+        final DBSession session = createSession();
+        try (SnowflakeTableSpecCache.Scope scope = SnowflakeTableSpecCache.openScope(session)) {
+            assertEquals(1, load(session, TABLE));
+            SnowflakeTableSpecCache.invalidate(session, TABLE);
+            assertEquals(2, load(session, TABLE));
+            assertEquals(2, load(session, TABLE));
+            SnowflakeTableSpecCache.invalidate(session);
+            assertEquals(3, load(session, TABLE));
+        }
+    }
+
+    @Test
+    void testNestedScopes() throws Exception {
+        final DBSession session = createSession();
+        try (SnowflakeTableSpecCache.Scope outer = SnowflakeTableSpecCache.openScope(session)) {
+            assertEquals(1, load(session, TABLE));
+            try (SnowflakeTableSpecCache.Scope inner = SnowflakeTableSpecCache.openScope(session)) {
+                assertEquals(1, load(session, TABLE));
+            }
+            assertEquals(1, load(session, TABLE));
+        }
+        assertEquals(2, load(session, TABLE));
+    }
+
+    @Test
+    void testSpecsAreKeptAcrossScopes() throws Exception {
+        final DBSession session = createSession();
+        try (SnowflakeTableSpecCache.Scope scope = SnowflakeTableSpecCache.openScope(session)) {
+            assertEquals(1, load(session, TABLE));
+        }
+        //e.g. the spec fetched during the configuration is reused during the execution
+        try (SnowflakeTableSpecCache.Scope scope = SnowflakeTableSpecCache.openScope(session)) {
+            assertEquals(1, load(session, TABLE));
+        }
+    }
+
+    @Test
+    void testSpecsExpire() throws Exception {
+        final DBSession session = createSession();
+        final long ttl = SnowflakeTableSpecCache.TIME_TO_LIVE.toNanos();
+        final long now = System.nanoTime();
+        try (SnowflakeTableSpecCache.Scope scope = SnowflakeTableSpecCache.openScope(session)) {
+            assertEquals(1, load(session, TABLE, now));
+            assertEquals(1, load(session, TABLE, now + ttl - 1));
+            assertEquals(2, load(session, TABLE, now + ttl));
+        }
+    }
+
+    @Test
+    void testScopeIsSharedWithWorkerThreads() throws Exception {
+        final DBSession session = createSession();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (SnowflakeTableSpecCache.Scope scope = SnowflakeTableSpecCache.openScope(session)) {
+            assertEquals(1, load(session, TABLE));
+            //a worker thread that uses the same session reuses the spec
+            assertEquals(1, executor.submit(() -> load(session, TABLE)).get());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, load(session, TABLE));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.jupiter.api.Test;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Tests the {@link SnowflakeTaskExecutor}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeTaskExecutorTest {
+
+    private static final String INTERRUPTED = "interrupted";
+
+    @Test
+    void testCreateExecutor() throws Exception {
+        final ExecutorService executor = SnowflakeTaskExecutor.createExecutor("Test", 2);
+        try {
+            final Thread thread = SnowflakeTaskExecutor.await(new ExecutionMonitor(),
+                executor.submit(Thread::currentThread), INTERRUPTED);
+            assertTrue(thread.isDaemon());
+            assertTrue(thread.getName().matches("Snowflake-Test-\\d+"), thread.getName());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testAwait() throws Exception {
+        final ExecutionMonitor exec = new ExecutionMonitor();
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        new Thread(() -> {
+            try {
+                Thread.sleep(250);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            future.complete("done");
+        }).start();
+        assertEquals("done", SnowflakeTaskExecutor.await(exec, future, INTERRUPTED));
+        final IOException failure = new IOException("failed");
+        final ExecutionException e = assertThrows(ExecutionException.class,
+            () -> SnowflakeTaskExecutor.await(exec, CompletableFuture.failedFuture(failure), INTERRUPTED));
+        assertSame(failure, e.getCause());
+    }
+
+    @Test
+    void testAwaitResultRethrowsCause() {
+        final ExecutionMonitor exec = new ExecutionMonitor();
+        final SQLException sqlException = new SQLException("sql");
+        assertSame(sqlException, assertThrows(SQLException.class,
+            () -> SnowflakeTaskExecutor.awaitResult(exec, CompletableFuture.failedFuture(sqlException), INTERRUPTED)));
+        final IOException ioException = new IOException("io");
+        assertSame(ioException, assertThrows(IOException.class,
+            () -> SnowflakeTaskExecutor.awaitResult(exec, CompletableFuture.failedFuture(ioException), INTERRUPTED)));
+        final CanceledExecutionException canceled = new CanceledExecutionException("canceled");
+        assertSame(canceled, assertThrows(CanceledExecutionException.class,
+            () -> SnowflakeTaskExecutor.awaitResult(exec, CompletableFuture.failedFuture(canceled), INTERRUPTED)));
+        final IllegalStateException unexpected = new IllegalStateException("unexpected");
+        final SQLException wrapped = assertThrows(SQLException.class,
+            () -> SnowflakeTaskExecutor.awaitResult(exec, CompletableFuture.failedFuture(unexpected), INTERRUPTED));
+        assertSame(unexpected, wrapped.getCause());
+        assertEquals("unexpected", wrapped.getMessage());
+    }
+
+    @Test
+    void testAwaitInterrupted() {
+        Thread.currentThread().interrupt();
+        try {
+            final CanceledExecutionException e = assertThrows(CanceledExecutionException.class,
+                () -> SnowflakeTaskExecutor.await(new ExecutionMonitor(), new CompletableFuture<>(), INTERRUPTED));
+            assertEquals(INTERRUPTED, e.getMessage());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            //clear the interrupted flag
+            Thread.interrupted();
+        }
+    }
+}
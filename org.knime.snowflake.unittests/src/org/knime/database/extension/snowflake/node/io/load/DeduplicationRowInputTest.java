@@ -0,0 +1,147 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.streamable.RowInput;
+
+/**
+ * Tests the {@link DeduplicationRowInput}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class DeduplicationRowInputTest {
+
+    private static final class TestRowInput extends RowInput {
+
+        private final Iterator<DataRow> m_rows;
+
+        TestRowInput(final DataRow... rows) {
+            m_rows = Arrays.asList(rows).iterator();
+        }
+
+        @Override
+        public DataTableSpec getDataTableSpec() {
+            return new DataTableSpec();
+        }
+
+        @Override
+        public DataRow poll() {
+            return m_rows.hasNext() ? m_rows.next() : null;
+        }
+
+        @Override
+        public void close() {
+            //nothing to close
+        }
+    }
+
+    private static DataRow row(final String key, final String name, final int id) {
+        return new DefaultRow(key, new StringCell(name), new IntCell(id));
+    }
+
+    private static List<String> readKeys(final RowInput input) throws InterruptedException {
+        final List<String> keys = new ArrayList<>();
+        DataRow row;
+        while ((row = input.poll()) != null) {
+            keys.add(row.getKey().getString());
+        }
+        return keys;
+    }
+
+    @Test
+    void testDropDuplicates() throws InterruptedException {
+        final DeduplicationRowInput input = new DeduplicationRowInput(new TestRowInput(row("Row0", "a", 1),
+            row("Row1", "b", 1), row("Row2", "a", 2), row("Row3", "a", 1), row("Row4", "b", 1),
+            new DefaultRow("Row5", DataType.getMissingCell(), new IntCell(1)),
+            new DefaultRow("Row6", DataType.getMissingCell(), new IntCell(1))), new int[]{1, 0}, 100);
+        assertEquals(List.of("Row0", "Row1", "Row2", "Row5"), readKeys(input));
+        assertEquals(3, input.getDuplicateRowCount());
+    }
+
+    @Test
+    void testMaxKeys() throws InterruptedException {
+        final DeduplicationRowInput input = new DeduplicationRowInput(new TestRowInput(row("Row0", "a", 1),
+            row("Row1", "b", 1), row("Row2", "a", 1), row("Row3", "c", 1), row("Row4", "c", 1), row("Row5", "b", 1)),
+            new int[]{0}, 2);
+        //the untracked key c is spilled and deduplicated after the input is exhausted
+        assertEquals(List.of("Row0", "Row1", "Row3"), readKeys(input));
+        assertEquals(3, input.getDuplicateRowCount());
+    }
+
+    @Test
+    void testKeepFirstRowOfUntrackedKeys() throws InterruptedException {
+        final DataRow[] rows = new DataRow[5000];
+        final Map<String, String> firstRows = new LinkedHashMap<>();
+        for (int i = 0; i < rows.length; i++) {
+            //spread the duplicates of each name over the input
+            final String name = "name" + (i * 7919 % 1000);
+            rows[i] = row("Row" + i, name, i);
+            firstRows.putIfAbsent(name, "Row" + i);
+        }
+        //too few tracked keys per partition such that the partitions are split up again
+        final DeduplicationRowInput input = new DeduplicationRowInput(new TestRowInput(rows), new int[]{0}, 4);
+        final List<String> keys = readKeys(input);
+        input.close();
+        assertEquals(firstRows.size(), keys.size());
+        assertEquals(firstRows.values().stream().sorted().toList(), keys.stream().sorted().toList());
+        assertEquals(rows.length - firstRows.size(), input.getDuplicateRowCount());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.time.localdate.LocalDateCellFactory;
+import org.knime.core.data.time.localdatetime.LocalDateTimeCellFactory;
+import org.knime.core.data.time.localtime.LocalTimeCellFactory;
+import org.knime.core.node.streamable.RowInput;
+
+/**
+ * Tests the {@link PartitionRowInput}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class PartitionRowInputTest {
+
+    private static final class TestRowInput extends RowInput {
+
+        private final Iterator<DataRow> m_rows;
+
+        private boolean m_closed;
+
+        TestRowInput(final DataRow... rows) {
+            m_rows = Arrays.asList(rows).iterator();
+        }
+
+        @Override
+        public DataTableSpec getDataTableSpec() {
+            return new DataTableSpec();
+        }
+
+        @Override
+        public DataRow poll() {
+            return m_rows.hasNext() ? m_rows.next() : null;
+        }
+
+        @Override
+        public void close() {
+            m_closed = true;
+        }
+    }
+
+    private static DataRow row(final String key, final String region, final int year, final double value) {
+        return new DefaultRow(key, new StringCell(region), new DoubleCell(value), new IntCell(year));
+    }
+
+    @Test
+    void testDistinctPartitions() throws InterruptedException {
+        final TestRowInput input = new TestRowInput(row("Row0", "EU", 2024, 1), row("Row1", "EU", 2024, 2),
+            row("Row2", "US", 2024, 3), row("Row3", "EU", 2025, 4), row("Row4", "EU", 2024, 5),
+            new DefaultRow("Row5", DataType.getMissingCell(), new DoubleCell(6), new IntCell(2025)));
+        final PartitionRowInput partitionInput = new PartitionRowInput(input, new int[]{0, 2});
+        int rowCount = 0;
+        while (partitionInput.poll() != null) {
+            rowCount++;
+        }
+        assertEquals(6, rowCount);
+        assertEquals(List.of(List.of("EU", 2024L), List.of("US", 2024L), List.of("EU", 2025L),
+            Arrays.asList(null, 2025L)), partitionInput.getPartitionValues());
+        partitionInput.close();
+        assertTrue(input.m_closed);
+    }
+
+    @Test
+    void testToValue() {
+        assertNull(PartitionRowInput.toValue(DataType.getMissingCell()));
+        assertEquals(Boolean.TRUE, PartitionRowInput.toValue(BooleanCell.TRUE));
+        assertEquals(42L, PartitionRowInput.toValue(new IntCell(42)));
+        assertEquals(1.5, PartitionRowInput.toValue(new DoubleCell(1.5)));
+        assertEquals("abc", PartitionRowInput.toValue(new StringCell("abc")));
+        assertEquals("2024-02-29", PartitionRowInput.toValue(LocalDateCellFactory.create(LocalDate.of(2024, 2, 29))));
+        assertEquals("13:05:07", PartitionRowInput.toValue(LocalTimeCellFactory.create(LocalTime.of(13, 5, 7))));
+        assertEquals("2024-02-29 13:05:07.000000001", PartitionRowInput
+            .toValue(LocalDateTimeCellFactory.create(LocalDateTime.of(2024, 2, 29, 13, 5, 7, 1))));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.node.streamable.RowInput;
+
+/**
+ * Tests the {@link PrefetchedRowInput}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class PrefetchedRowInputTest {
+
+    private static final class TestRowInput extends RowInput {
+
+        private final int m_rowCount;
+
+        private int m_index;
+
+        private boolean m_closed;
+
+        TestRowInput(final int rowCount) {
+            m_rowCount = rowCount;
+        }
+
+        @Override
+        public DataTableSpec getDataTableSpec() {
+            return new DataTableSpec();
+        }
+
+        @Override
+        public DataRow poll() {
+            if (m_index >= m_rowCount) {
+                return null;
+            }
+            final int i = m_index++;
+            return new DefaultRow("Row" + i, new IntCell(i));
+        }
+
+        @Override
+        public void close() {
+            m_closed = true;
+        }
+    }
+
+    private static List<String> readKeys(final RowInput input) throws InterruptedException {
+        final List<String> keys = new ArrayList<>();
+        DataRow row;
+        while ((row = input.poll()) != null) {
+            keys.add(row.getKey().getString());
+        }
+        return keys;
+    }
+
+    @Test
+    void testPrefetchAndReplay() throws InterruptedException {
+        final TestRowInput input = new TestRowInput(5);
+        final PrefetchedRowInput prefetched = PrefetchedRowInput.prefetch(input, 3);
+        assertEquals(List.of("Row0", "Row1", "Row2"), readKeys(prefetched.getPrefetchedRows()));
+        assertEquals(List.of("Row0", "Row1", "Row2", "Row3", "Row4"), readKeys(prefetched));
+        prefetched.close();
+        assertTrue(input.m_closed);
+    }
+
+    @Test
+    void testPrefetchMoreRowsThanAvailable() throws InterruptedException {
+        final TestRowInput input = new TestRowInput(2);
+        final PrefetchedRowInput prefetched = PrefetchedRowInput.prefetch(input, 10);
+        final RowInput sample = prefetched.getPrefetchedRows();
+        assertEquals(List.of("Row0", "Row1"), readKeys(sample));
+        sample.close();
+        assertFalse(input.m_closed);
+        assertEquals(List.of("Row0", "Row1"), readKeys(prefetched));
+        assertNull(prefetched.poll());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link RowHashMap}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class RowHashMapTest {
+
+    @Test
+    void testPutAndLookup() {
+        final RowHashMap map = new RowHashMap(0);
+        map.put(1, 10);
+        map.put(-1, -10);
+        map.put(0, 0);
+        map.put(1, 11);
+        assertEquals(3, map.size());
+        assertEquals(11, map.getValue(map.indexOf(1)));
+        assertEquals(-10, map.getValue(map.indexOf(-1)));
+        assertEquals(0, map.getValue(map.indexOf(0)));
+        assertEquals(-1, map.indexOf(2));
+    }
+
+    @Test
+    void testUnseenKeys() {
+        final RowHashMap map = new RowHashMap(4);
+        for (long key = 0; key < 5; key++) {
+            map.put(key, key);
+        }
+        map.markSeen(map.indexOf(1));
+        map.markSeen(map.indexOf(3));
+        //marking a key twice has no effect
+        map.markSeen(map.indexOf(3));
+        final long[] unseen = map.getUnseenKeys();
+        Arrays.sort(unseen);
+        assertArrayEquals(new long[]{0, 2, 4}, unseen);
+        //the value of a seen key is still available
+        assertEquals(3, map.getValue(map.indexOf(3)));
+    }
+
+    @Test
+    void testRehashKeepsEntries() {
+        final RowHashMap map = new RowHashMap(16);
+        final int size = 100_000;
+        for (int i = 0; i < size; i++) {
+            //keys that only differ in the upper bits
+            map.put((long)i << 40, i);
+        }
+        map.markSeen(map.indexOf(7L << 40));
+        assertEquals(size, map.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals(i, map.getValue(map.indexOf((long)i << 40)));
+        }
+        map.put(1, 1);
+        final long[] unseen = map.getUnseenKeys();
+        assertEquals(size, unseen.length);
+        assertTrue(Arrays.stream(unseen).noneMatch(k -> k == 7L << 40));
+    }
+}
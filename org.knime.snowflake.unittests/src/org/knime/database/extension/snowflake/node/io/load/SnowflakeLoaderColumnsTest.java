@@ -0,0 +1,127 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.time.localdatetime.LocalDateTimeCellFactory;
+import org.knime.core.data.time.zoneddatetime.ZonedDateTimeCellFactory;
+import org.knime.core.node.InvalidSettingsException;
+
+/**
+ * Tests the COPY transformation and column name parsing and the staged column types of {@link SnowflakeLoaderColumns}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeLoaderColumnsTest {
+
+    @Test
+    void testParseEmptyTransformations() throws InvalidSettingsException {
+        assertTrue(SnowflakeLoaderColumns.parseTransformations(null).isEmpty());
+        assertTrue(SnowflakeLoaderColumns.parseTransformations("").isEmpty());
+        assertTrue(SnowflakeLoaderColumns.parseTransformations(" \n\t\n").isEmpty());
+    }
+
+    @Test
+    void testParseTransformations() throws InvalidSettingsException {
+        final Map<String, String> transformations = SnowflakeLoaderColumns.parseTransformations(
+            "FULL_NAME = $1 || ' ' || $2\r\n\n  HASH=SHA2($3)  \nFLAG = IFF($4 = 'Y', TRUE, FALSE)");
+        assertEquals(List.of("FULL_NAME", "HASH", "FLAG"), List.copyOf(transformations.keySet()));
+        assertEquals("$1 || ' ' || $2", transformations.get("FULL_NAME"));
+        assertEquals("SHA2($3)", transformations.get("HASH"));
+        assertEquals("IFF($4 = 'Y', TRUE, FALSE)", transformations.get("FLAG"));
+    }
+
+    @Test
+    void testParseQuotedColumn() throws InvalidSettingsException {
+        final Map<String, String> transformations =
+            SnowflakeLoaderColumns.parseTransformations("\"a=\"\"b\"\"\" = UPPER($1)");
+        assertEquals(Map.of("a=\"b\"", "UPPER($1)"), transformations);
+    }
+
+    @Test
+    void testParseInvalidTransformations() {
+        assertThrows(InvalidSettingsException.class, () -> SnowflakeLoaderColumns.parseTransformations("COL"));
+        assertThrows(InvalidSettingsException.class, () -> SnowflakeLoaderColumns.parseTransformations("= $1"));
+        assertThrows(InvalidSettingsException.class, () -> SnowflakeLoaderColumns.parseTransformations("COL ="));
+        assertThrows(InvalidSettingsException.class,
+            () -> SnowflakeLoaderColumns.parseTransformations("COL = $1\nCOL = $2"));
+    }
+
+    @Test
+    void testParseColumnNames() {
+        assertTrue(SnowflakeLoaderColumns.parseColumnNames(null).isEmpty());
+        assertTrue(SnowflakeLoaderColumns.parseColumnNames(" , ").isEmpty());
+        assertEquals(List.of("ID", "Valid From"), SnowflakeLoaderColumns.parseColumnNames(" ID,Valid From "));
+        assertEquals(List.of("a,\"b\"", " c ", "D"),
+            SnowflakeLoaderColumns.parseColumnNames("\"a,\"\"b\"\"\" , \" c \",D"));
+    }
+
+    @Test
+    void testStagedColumnTypes() {
+        final DataTableSpec spec = new DataTableSpec(new DataColumnSpecCreator("id", IntCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("value", DoubleCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("flag", BooleanCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("name", StringCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("created", LocalDateTimeCellFactory.TYPE).createSpec(),
+            new DataColumnSpecCreator("zoned", ZonedDateTimeCellFactory.TYPE).createSpec());
+        final Map<String, String> types = SnowflakeLoaderColumns.getStagedColumnTypes(spec);
+        assertEquals(List.of("id", "value", "flag", "name", "created", "zoned"), List.copyOf(types.keySet()));
+        assertEquals(List.of("BIGINT", "DOUBLE", "BOOLEAN", "VARCHAR", "TIMESTAMP_NTZ", "VARCHAR"),
+            List.copyOf(types.values()));
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.database.extension.snowflake.pipe.SnowpipeStreamingChannel;
+
+/**
+ * Tests the {@link SnowflakeStreamingSink} with an in-process stand-in channel.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeStreamingSinkTest {
+
+    private static final DataTableSpec SPEC = new DataTableSpec(
+        new DataColumnSpecCreator("ID", IntCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("NAME", StringCell.TYPE).createSpec());
+
+    /** In-process stand-in channel that commits each append immediately unless told otherwise. */
+    private static final class TestChannel implements SnowpipeStreamingChannel {
+
+        private final List<Map<String, Object>> m_rows = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<Integer> m_batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        private final CountDownLatch m_appended = new CountDownLatch(1);
+
+        private volatile String m_committedToken;
+
+        private volatile boolean m_commit = true;
+
+        @Override
+        public Optional<String> getLatestCommittedOffsetToken() {
+            return Optional.ofNullable(m_committedToken);
+        }
+
+        @Override
+        public void appendRows(final List<Map<String, Object>> rows, final String offsetToken) {
+            m_batchSizes.add(rows.size());
+            if (m_commit) {
+                m_rows.addAll(rows);
+                m_committedToken = offsetToken;
+            }
+            m_appended.countDown();
+        }
+
+        @Override
+        public void close() {
+            //nothing to close
+        }
+    }
+
+    private static class TestRowInput extends RowInput {
+
+        private final Iterator<DataRow> m_rows;
+
+        TestRowInput(final List<DataRow> rows) {
+            m_rows = rows.iterator();
+        }
+
+        @Override
+        public DataTableSpec getDataTableSpec() {
+            return SPEC;
+        }
+
+        @Override
+        public DataRow poll() throws InterruptedException {
+            return m_rows.hasNext() ? m_rows.next() : null;
+        }
+
+        @Override
+        public void close() {
+            //nothing to close
+        }
+    }
+
+    private static List<DataRow> rows(final int count) {
+        final List<DataRow> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new DefaultRow("Row" + i, new IntCell(i), new StringCell("value" + i)));
+        }
+        return rows;
+    }
+
+    private static SnowflakeStreamingSettings settings(final int maxRows, final long maxBytes) {
+        return new SnowflakeStreamingSettings(Duration.ofHours(1), maxRows, maxBytes, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void testRowLimit() throws Exception {
+        final TestChannel channel = new TestChannel();
+        final SnowflakeStreamingSink sink = new SnowflakeStreamingSink(channel, settings(4, Long.MAX_VALUE));
+        assertEquals(10, sink.write(new TestRowInput(rows(10)), "source", new ExecutionMonitor()));
+        assertEquals(List.of(4, 4, 2), channel.m_batchSizes);
+        assertEquals(3, sink.getFlushCount());
+        assertEquals("source:10", channel.m_committedToken);
+        assertEquals(Map.of("ID", 9L, "NAME", "value9"), channel.m_rows.get(9));
+    }
+
+    @Test
+    void testByteLimit() throws Exception {
+        final TestChannel channel = new TestChannel();
+        //each row is estimated with 8 bytes for the int and 12 bytes for the string
+        final SnowflakeStreamingSink sink = new SnowflakeStreamingSink(channel, settings(100, 40));
+        sink.write(new TestRowInput(rows(5)), "source", new ExecutionMonitor());
+        assertEquals(List.of(2, 2, 1), channel.m_batchSizes);
+    }
+
+    @Test
+    void testFlushIntervalWhileInputWaits() throws Exception {
+        final TestChannel channel = new TestChannel();
+        final SnowflakeStreamingSink sink = new SnowflakeStreamingSink(channel,
+            new SnowflakeStreamingSettings(Duration.ofMillis(20), 100, Long.MAX_VALUE, Duration.ofSeconds(1)));
+        final TestRowInput input = new TestRowInput(rows(2)) {
+
+            private int m_polls;
+
+            @Override
+            public DataRow poll() throws InterruptedException {
+                if (++m_polls == 3) {
+                    //the buffered rows must be appended while the input waits for further rows
+                    assertTrue(channel.m_appended.await(10, TimeUnit.SECONDS));
+                }
+                return super.poll();
+            }
+        };
+        assertEquals(2, sink.write(input, "source", new ExecutionMonitor()));
+        assertEquals(List.of(2), channel.m_batchSizes);
+    }
+
+    @Test
+    void testResumeSkipsCommittedRowsOfSameSource() throws Exception {
+        final TestChannel channel = new TestChannel();
+        channel.m_committedToken = "source:7";
+        final SnowflakeStreamingSink sink = new SnowflakeStreamingSink(channel, settings(100, Long.MAX_VALUE));
+        assertEquals(3, sink.write(new TestRowInput(rows(10)), "source", new ExecutionMonitor()));
+        assertEquals(3, channel.m_rows.size());
+        assertEquals(7L, channel.m_rows.get(0).get("ID"));
+        assertEquals("source:10", channel.m_committedToken);
+        //writing the same input again appends nothing
+        assertEquals(0, sink.write(new TestRowInput(rows(10)), "source", new ExecutionMonitor()));
+        assertEquals(3, channel.m_rows.size());
+    }
+
+    @Test
+    void testOtherSourceIsAppendedCompletely() throws Exception {
+        final TestChannel channel = new TestChannel();
+        channel.m_committedToken = "source:7";
+        final SnowflakeStreamingSink sink = new SnowflakeStreamingSink(channel, settings(100, Long.MAX_VALUE));
+        assertEquals(10, sink.write(new TestRowInput(rows(10)), "other:source", new ExecutionMonitor()));
+        assertEquals(0L, channel.m_rows.get(0).get("ID"));
+        assertEquals("other:source:10", channel.m_committedToken);
+    }
+
+    @Test
+    void testOffsetToken() throws Exception {
+        assertEquals(0, SnowflakeStreamingSink.getCommittedRows("a", Optional.empty()));
+        assertEquals(5, SnowflakeStreamingSink.getCommittedRows("a:b", Optional.of("a:b:5")));
+        assertEquals(0, SnowflakeStreamingSink.getCommittedRows("a", Optional.of("a:b:5")));
+        assertEquals(0, SnowflakeStreamingSink.getCommittedRows("a", Optional.of("5")));
+        assertThrows(IOException.class, () -> SnowflakeStreamingSink.getCommittedRows("a", Optional.of("a:x")));
+    }
+
+    @Test
+    void testCommitTimeout() {
+        final TestChannel channel = new TestChannel();
+        channel.m_commit = false;
+        final SnowflakeStreamingSink sink = new SnowflakeStreamingSink(channel,
+            new SnowflakeStreamingSettings(Duration.ofHours(1), 100, Long.MAX_VALUE, Duration.ofMillis(200)));
+        assertThrows(IOException.class,
+            () -> sink.write(new TestRowInput(rows(2)), "source", new ExecutionMonitor()));
+    }
+
+    @Test
+    void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new SnowflakeStreamingSettings(Duration.ofSeconds(1), 0, 1, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class,
+            () -> new SnowflakeStreamingSettings(Duration.ZERO, 1, 1, Duration.ofSeconds(1)));
+    }
+}
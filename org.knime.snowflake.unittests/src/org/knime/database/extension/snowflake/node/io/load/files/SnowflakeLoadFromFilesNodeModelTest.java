@@ -0,0 +1,140 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.database.extension.snowflake.node.io.load.files.SnowflakeLoadFromFilesNodeParameters.SourceMode;
+import org.knime.filehandling.core.connections.DefaultFSConnectionFactory;
+import org.knime.filehandling.core.connections.FSConnection;
+import org.knime.filehandling.core.connections.FSFileSystem;
+import org.knime.filehandling.core.connections.FSPath;
+
+/**
+ * Tests the file listing and collection of the {@link SnowflakeLoadFromFilesNodeModel}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeLoadFromFilesNodeModelTest {
+
+    @TempDir
+    Path m_tempDir;
+
+    private Path createFiles() throws Exception {
+        final Path source = Files.createDirectories(m_tempDir.resolve("source"));
+        Files.writeString(source.resolve("b.csv"), "2", UTF_8);
+        Files.writeString(source.resolve("a.csv"), "1", UTF_8);
+        Files.writeString(Files.createDirectories(source.resolve("sub")).resolve("a.csv"), "3", UTF_8);
+        return source;
+    }
+
+    private static List<String> names(final List<FSPath> files, final Path folder) {
+        return files.stream().map(f -> folder.relativize(Path.of(f.toAbsolutePath().toString())).toString())
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    void testListFiles() throws Exception {
+        final Path source = createFiles();
+        final SnowflakeLoadFromFilesNodeParameters settings = new SnowflakeLoadFromFilesNodeParameters();
+        try (FSConnection connection = DefaultFSConnectionFactory.createLocalFSConnection();
+                FSFileSystem<?> fs = connection.getFileSystem()) {
+            final FSPath folder = fs.getPath(source.toString());
+            settings.m_sourceMode = SourceMode.FOLDER;
+            assertEquals(List.of("a.csv", "b.csv"), names(SnowflakeLoadFromFilesNodeModel.listFiles(folder, settings),
+                source));
+            settings.m_includeSubfolders = true;
+            assertEquals(List.of("a.csv", "b.csv", Path.of("sub", "a.csv").toString()),
+                names(SnowflakeLoadFromFilesNodeModel.listFiles(folder, settings), source));
+            settings.m_sourceMode = SourceMode.FILE;
+            final FSPath file = fs.getPath(source.resolve("b.csv").toString());
+            assertEquals(List.of(file), SnowflakeLoadFromFilesNodeModel.listFiles(file, settings));
+        }
+    }
+
+    @Test
+    void testCollectFilesKeepsFilesWithSameName() throws Exception {
+        final Path source = createFiles();
+        final Path target = Files.createDirectories(m_tempDir.resolve("target"));
+        final SnowflakeLoadFromFilesNodeParameters settings = new SnowflakeLoadFromFilesNodeParameters();
+        settings.m_sourceMode = SourceMode.FOLDER;
+        settings.m_includeSubfolders = true;
+        try (FSConnection connection = DefaultFSConnectionFactory.createLocalFSConnection();
+                FSFileSystem<?> fs = connection.getFileSystem()) {
+            final List<FSPath> files =
+                SnowflakeLoadFromFilesNodeModel.listFiles(fs.getPath(source.toString()), settings);
+            SnowflakeLoadFromFilesNodeModel.collectFiles(new ExecutionMonitor(), files, target);
+        }
+        try (Stream<Path> collected = Files.list(target)) {
+            assertEquals(List.of("2_a.csv", "a.csv", "b.csv"),
+                collected.map(p -> p.getFileName().toString()).sorted().collect(Collectors.toList()));
+        }
+        assertEquals("1", Files.readString(target.resolve("a.csv"), UTF_8));
+        assertEquals("3", Files.readString(target.resolve("2_a.csv"), UTF_8));
+        //the source files remain unchanged
+        assertTrue(Files.exists(source.resolve("a.csv")));
+    }
+
+    @Test
+    void testCollectNoFiles() throws Exception {
+        final Path target = Files.createDirectories(m_tempDir.resolve("target"));
+        SnowflakeLoadFromFilesNodeModel.collectFiles(new ExecutionMonitor(), List.of(), target);
+        try (Stream<Path> collected = Files.list(target)) {
+            assertFalse(collected.findAny().isPresent());
+        }
+    }
+}
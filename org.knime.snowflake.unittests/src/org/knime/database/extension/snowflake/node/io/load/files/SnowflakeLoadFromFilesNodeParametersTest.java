@@ -0,0 +1,203 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.knime.base.node.io.csvwriter.FileWriterSettings;
+import org.knime.base.node.io.csvwriter.FileWriterSettings.LineEnding;
+import org.knime.base.node.io.csvwriter.FileWriterSettings.quoteMode;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.webui.node.dialog.defaultdialog.internal.file.FileSelection;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderFileFormat;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderSettings;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
+import org.knime.database.extension.snowflake.node.io.load.files.SnowflakeLoadFromFilesNodeParameters.SourceMode;
+import org.knime.filehandling.core.connections.FSCategory;
+import org.knime.filehandling.core.connections.FSLocation;
+import org.knime.testing.node.dialog.DefaultNodeSettingsSnapshotTest;
+import org.knime.testing.node.dialog.SnapshotTestConfiguration;
+
+/**
+ * Snapshot and settings test of the {@link SnowflakeLoadFromFilesNodeParameters}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+@SuppressWarnings("restriction")
+class SnowflakeLoadFromFilesNodeParametersTest extends DefaultNodeSettingsSnapshotTest {
+
+    SnowflakeLoadFromFilesNodeParametersTest() {
+        super(getConfig());
+    }
+
+    private static SnapshotTestConfiguration getConfig() {
+        return SnapshotTestConfiguration.builder() //
+            .testJsonFormsForModel(SnowflakeLoadFromFilesNodeParameters.class) //
+            .testNodeSettingsStructure(SnowflakeLoadFromFilesNodeParameters::new) //
+            .build();
+    }
+
+    private static SnowflakeLoadFromFilesNodeParameters createValidParameters() {
+        final SnowflakeLoadFromFilesNodeParameters params = new SnowflakeLoadFromFilesNodeParameters();
+        params.m_file = new FileSelection(new FSLocation(FSCategory.LOCAL, "/data/orders.csv"));
+        params.m_table = "ORDERS";
+        return params;
+    }
+
+    private static void assertInvalid(final SnowflakeLoadFromFilesNodeParameters params, final String message) {
+        assertEquals(message, assertThrows(InvalidSettingsException.class, params::checkSettings).getMessage());
+    }
+
+    @Test
+    void testCheckSettings() throws InvalidSettingsException {
+        createValidParameters().checkSettings();
+
+        final SnowflakeLoadFromFilesNodeParameters noFile = createValidParameters();
+        noFile.m_file = new FileSelection();
+        assertInvalid(noFile, "Please select the file to load.");
+
+        final SnowflakeLoadFromFilesNodeParameters noFolder = createValidParameters();
+        noFolder.m_sourceMode = SourceMode.FOLDER;
+        assertInvalid(noFolder, "Please select the folder whose files should be loaded.");
+
+        final SnowflakeLoadFromFilesNodeParameters noTable = createValidParameters();
+        noTable.m_table = " ";
+        assertInvalid(noTable, "Please enter the name of the target table.");
+
+        final SnowflakeLoadFromFilesNodeParameters noStage = createValidParameters();
+        noStage.m_stageType = SnowflakeLoaderStageType.INTERNAL;
+        assertInvalid(noStage, "Please enter the name of the internal stage.");
+    }
+
+    @Test
+    void testCheckSnowpipeSettings() {
+        final SnowflakeLoadFromFilesNodeParameters params = createValidParameters();
+        params.m_useSnowpipe = true;
+        assertInvalid(params, "Snowpipe does not support the user stage.");
+        params.m_stageType = SnowflakeLoaderStageType.INTERNAL;
+        params.m_stageName = "KNIME_STAGE";
+        assertInvalid(params, "Please enter the name of the pipe.");
+        params.m_pipeName = "ORDERS_PIPE";
+        assertInvalid(params, "Please select the private key file of the connected user.");
+        params.m_privateKeyFile = "/keys/rsa_key.p8";
+        params.m_snowpipeTimeout = 0;
+        assertInvalid(params, "The Snowpipe timeout must be positive.");
+    }
+
+    @Test
+    void testCheckCsvSettings() {
+        final SnowflakeLoadFromFilesNodeParameters params = createValidParameters();
+        params.m_fileFormat = SnowflakeLoaderFileFormat.CSV;
+        params.m_columnDelimiter = "";
+        assertInvalid(params, "Please enter a column delimiter.");
+        params.m_columnDelimiter = ";";
+        params.m_quoteCharacter = "''";
+        assertInvalid(params, "The quote and escape character must be single characters.");
+        params.m_quoteCharacter = "'";
+        params.m_lineEnding = "UNKNOWN";
+        assertInvalid(params, "Unsupported line ending: UNKNOWN");
+    }
+
+    @Test
+    void testGetTable() {
+        final SnowflakeLoadFromFilesNodeParameters params = createValidParameters();
+        assertNull(params.getTable().getSchemaName());
+        assertEquals("ORDERS", params.getTable().getName());
+        params.m_schema = "SALES";
+        assertEquals("SALES", params.getTable().getSchemaName());
+    }
+
+    @Test
+    void testParquetLoaderSettings() throws InvalidSettingsException {
+        final SnowflakeLoaderSettings settings = createValidParameters().createLoaderSettings();
+        assertEquals(SnowflakeLoaderFileFormat.PARQUET, settings.getFileFormat());
+        assertEquals(SnowflakeLoaderFileFormat.NONE_COMPRESSION, settings.getCompression());
+        assertEquals(SnowflakeLoaderStageType.USER, settings.getStageType());
+        assertFalse(settings.getFileWriterSettings().isPresent());
+        assertFalse(settings.getSnowpipe().isPresent());
+    }
+
+    @Test
+    void testCsvLoaderSettings() throws InvalidSettingsException {
+        final SnowflakeLoadFromFilesNodeParameters params = createValidParameters();
+        params.m_fileFormat = SnowflakeLoaderFileFormat.CSV;
+        params.m_stageType = SnowflakeLoaderStageType.INTERNAL;
+        params.m_stageName = "KNIME_STAGE";
+        params.m_columnDelimiter = ";";
+        params.m_quoteCharacter = "'";
+        params.m_escapeCharacter = "\\";
+        params.m_missingValuePattern = "NA";
+        params.m_hasHeader = false;
+        params.m_lineEnding = LineEnding.CRLF.name();
+        params.m_encoding = "ISO-8859-1";
+
+        SnowflakeLoaderSettings settings = params.createLoaderSettings();
+        assertEquals(SnowflakeLoaderFileFormat.CSV, settings.getFileFormat());
+        assertEquals(SnowflakeLoaderFileFormat.NONE_COMPRESSION, settings.getCompression());
+        assertEquals(SnowflakeLoaderStageType.INTERNAL, settings.getStageType());
+        assertEquals("KNIME_STAGE", settings.getStageName());
+        final FileWriterSettings writerSettings = settings.getFileWriterSettings().orElseThrow();
+        assertEquals(";", writerSettings.getColSeparator());
+        assertEquals("'", writerSettings.getQuoteBegin());
+        assertEquals("'", writerSettings.getQuoteEnd());
+        assertEquals(quoteMode.IF_NEEDED, writerSettings.getQuoteMode());
+        assertEquals("\\", writerSettings.getQuoteReplacement());
+        assertEquals("NA", writerSettings.getMissValuePattern());
+        assertFalse(writerSettings.writeColumnHeader());
+        assertEquals(LineEnding.CRLF, writerSettings.getLineEndingMode());
+        assertEquals("ISO-8859-1", writerSettings.getCharacterEncoding());
+
+        params.m_gzipCompressed = true;
+        params.m_hasHeader = true;
+        settings = params.createLoaderSettings();
+        assertEquals(SnowflakeLoaderFileFormat.GZIP_COMPRESSION, settings.getCompression());
+        assertTrue(settings.getFileWriterSettings().orElseThrow().writeColumnHeader());
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.multi;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.knime.base.node.io.csvwriter.FileWriterSettings;
+import org.knime.base.node.io.csvwriter.FileWriterSettings.quoteMode;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
+import org.knime.database.extension.snowflake.node.io.load.multi.SnowflakeMultiTableLoaderNodeParameters.TargetTable;
+import org.knime.database.model.DBTable;
+
+/**
+ * Tests the table grouping and the settings of the {@link SnowflakeMultiTableLoaderNodeModel}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeMultiTableLoaderNodeModelTest {
+
+    private static SnowflakeMultiTableLoaderNodeParameters createSettings(final TargetTable... tables) {
+        final SnowflakeMultiTableLoaderNodeParameters settings = new SnowflakeMultiTableLoaderNodeParameters();
+        settings.m_tables = tables;
+        return settings;
+    }
+
+    @Test
+    void testTableFiles() {
+        final Map<String, DBTable> tableFiles = SnowflakeMultiTableLoaderNodeModel.createTableFiles(new TargetTable[]{
+            new TargetTable("SALES", "ORDERS"), new TargetTable(" ", "CUSTOMERS"), new TargetTable("SALES", "ORDERS")});
+        assertEquals(List.of("table_0.csv.gz", "table_1.csv.gz", "table_2.csv.gz"), List.copyOf(tableFiles.keySet()));
+        assertEquals("ORDERS", tableFiles.get("table_0.csv.gz").getName());
+        assertEquals("SALES", tableFiles.get("table_0.csv.gz").getSchemaName());
+        //a blank schema refers to the default schema of the connection
+        assertNull(tableFiles.get("table_1.csv.gz").getSchemaName());
+        //each input table is written into its own file even if it is loaded into the same table
+        assertEquals("ORDERS", tableFiles.get("table_2.csv.gz").getName());
+    }
+
+    @Test
+    void testValidate() {
+        final SnowflakeMultiTableLoaderNodeParameters settings =
+            createSettings(new TargetTable("", "A"), new TargetTable("", "B"));
+        assertDoesNotThrow(() -> SnowflakeMultiTableLoaderNodeModel.validate(settings, 2));
+        assertThrows(InvalidSettingsException.class, () -> SnowflakeMultiTableLoaderNodeModel.validate(settings, 3));
+        assertThrows(InvalidSettingsException.class,
+            () -> SnowflakeMultiTableLoaderNodeModel.validate(createSettings(), 0));
+        assertThrows(InvalidSettingsException.class, () -> SnowflakeMultiTableLoaderNodeModel
+            .validate(createSettings(new TargetTable("", "A"), new TargetTable("S", " ")), 2));
+    }
+
+    @Test
+    void testValidateStage() {
+        final SnowflakeMultiTableLoaderNodeParameters settings = createSettings(new TargetTable("", "A"));
+        settings.m_stageType = SnowflakeLoaderStageType.TABLE;
+        assertThrows(InvalidSettingsException.class, () -> SnowflakeMultiTableLoaderNodeModel.validate(settings, 1));
+        settings.m_stageType = SnowflakeLoaderStageType.INTERNAL;
+        assertThrows(InvalidSettingsException.class, () -> SnowflakeMultiTableLoaderNodeModel.validate(settings, 1));
+        settings.m_stageName = "MY_STAGE";
+        assertDoesNotThrow(() -> SnowflakeMultiTableLoaderNodeModel.validate(settings, 1));
+    }
+
+    @Test
+    void testDefaultSettings() {
+        final SnowflakeMultiTableLoaderNodeParameters settings = new SnowflakeMultiTableLoaderNodeParameters();
+        assertEquals(0, settings.m_tables.length);
+        assertEquals(SnowflakeLoaderStageType.USER, settings.m_stageType);
+        assertEquals(4, settings.m_parallelLoads);
+    }
+
+    @Test
+    void testFileWriterSettings() {
+        final FileWriterSettings settings = SnowflakeMultiTableLoaderNodeModel.createFileWriterSettings();
+        assertEquals(",", settings.getColSeparator());
+        assertEquals("\"", settings.getQuoteBegin());
+        //all strings are quoted to distinguish empty strings from missing values
+        assertEquals(quoteMode.STRINGS, settings.getQuoteMode());
+        assertEquals("", settings.getMissValuePattern());
+        assertFalse(settings.writeColumnHeader());
+        assertEquals(FileWriterSettings.LineEnding.LF, settings.getLineEndingMode());
+        assertEquals("UTF-8", settings.getCharacterEncoding());
+    }
+}
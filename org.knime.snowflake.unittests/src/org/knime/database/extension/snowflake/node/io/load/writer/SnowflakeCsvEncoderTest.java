@@ -0,0 +1,221 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.writer;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.time.localdate.LocalDateCellFactory;
+import org.knime.core.data.time.localdatetime.LocalDateTimeCellFactory;
+import org.knime.core.data.time.localtime.LocalTimeCellFactory;
+import org.knime.database.extension.snowflake.node.io.load.writer.SnowflakeCsvEncoder.QuoteMode;
+
+/**
+ * Tests the {@link SnowflakeCsvEncoder}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeCsvEncoderTest {
+
+    private static DataTableSpec createSpec(final DataType... types) {
+        final DataColumnSpec[] specs = new DataColumnSpec[types.length];
+        for (int i = 0; i < types.length; i++) {
+            specs[i] = new DataColumnSpecCreator("col" + i, types[i]).createSpec();
+        }
+        return new DataTableSpec(specs);
+    }
+
+    private static String encode(final DataTableSpec spec, final String separator, final Character escape,
+        final QuoteMode quoteMode, final String missingValue, final boolean header, final DataCell[]... rows)
+        throws IOException {
+        return new String(encodeBytes(spec, separator, escape, quoteMode, missingValue, UTF_8, header, rows), UTF_8);
+    }
+
+    private static byte[] encodeBytes(final DataTableSpec spec, final String separator, final Character escape,
+        final QuoteMode quoteMode, final String missingValue, final Charset charset, final boolean header,
+        final DataCell[]... rows) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SnowflakeCsvEncoder encoder = new SnowflakeCsvEncoder(spec, out, separator, '"', escape, quoteMode,
+            missingValue, "\n", charset, header);
+        if (header) {
+            encoder.writeHeader();
+        }
+        int rowIndex = 0;
+        for (DataCell[] cells : rows) {
+            encoder.writeRow(new DefaultRow("Row" + rowIndex++, cells));
+        }
+        encoder.flush();
+        return out.toByteArray();
+    }
+
+    @Test
+    void testNumbersAndBooleans() throws IOException {
+        final DataTableSpec spec = createSpec(IntCell.TYPE, LongCell.TYPE, DoubleCell.TYPE, BooleanCell.TYPE);
+        assertEquals("-42,9223372036854775807,1.5,true\n" //
+            + "0,-9223372036854775808,NaN,false\n" //
+            + "2147483647,10000000000,Infinity,true\n" //
+            + "-2147483648,-1,-Infinity,false\n", //
+            encode(spec, ",", null, QuoteMode.STRINGS, "", false, //
+                new DataCell[]{new IntCell(-42), new LongCell(Long.MAX_VALUE), new DoubleCell(1.5),
+                    BooleanCell.TRUE},
+                new DataCell[]{new IntCell(0), new LongCell(Long.MIN_VALUE), new DoubleCell(Double.NaN),
+                    BooleanCell.FALSE},
+                new DataCell[]{new IntCell(Integer.MAX_VALUE), new LongCell(10_000_000_000L),
+                    new DoubleCell(Double.POSITIVE_INFINITY), BooleanCell.TRUE},
+                new DataCell[]{new IntCell(Integer.MIN_VALUE), new LongCell(-1),
+                    new DoubleCell(Double.NEGATIVE_INFINITY), BooleanCell.FALSE}));
+    }
+
+    @Test
+    void testDoubleMatchesJavaRepresentation() throws IOException {
+        final DataTableSpec spec = createSpec(DoubleCell.TYPE);
+        final double[] values = {0.1, -123.456, 1e-300, 1.7976931348623157E308, 12345678.0};
+        final StringBuilder expected = new StringBuilder();
+        final DataCell[][] rows = new DataCell[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            expected.append(values[i]).append('\n');
+            rows[i] = new DataCell[]{new DoubleCell(values[i])};
+        }
+        assertEquals(expected.toString(), encode(spec, ",", null, QuoteMode.IF_NEEDED, "", false, rows));
+    }
+
+    @Test
+    void testQuoteModes() throws IOException {
+        final DataTableSpec spec = createSpec(IntCell.TYPE, StringCell.TYPE);
+        final DataCell[] row = {new IntCell(1), new StringCell("abc")};
+        assertEquals("\"1\",\"abc\"\n", encode(spec, ",", null, QuoteMode.ALWAYS, "", false, row));
+        assertEquals("1,\"abc\"\n", encode(spec, ",", null, QuoteMode.STRINGS, "", false, row));
+        assertEquals("1,abc\n", encode(spec, ",", null, QuoteMode.IF_NEEDED, "", false, row));
+    }
+
+    @Test
+    void testSpecialCharactersAreQuoted() throws IOException {
+        final DataTableSpec spec = createSpec(StringCell.TYPE);
+        assertEquals("\"a,b\"\n\"say \"\"hi\"\"\"\n\"line\nbreak\"\n\"back\\slash\"\n\"\"\n", //
+            encode(spec, ",", null, QuoteMode.IF_NEEDED, "", false, //
+                new DataCell[]{new StringCell("a,b")}, //
+                new DataCell[]{new StringCell("say \"hi\"")}, //
+                new DataCell[]{new StringCell("line\nbreak")}, //
+                new DataCell[]{new StringCell("back\\slash")}, //
+                new DataCell[]{new StringCell("")}));
+    }
+
+    @Test
+    void testEscapeCharacter() throws IOException {
+        final DataTableSpec spec = createSpec(StringCell.TYPE);
+        assertEquals("\"say \\\"hi\\\" \\\\ bye\"\n", encode(spec, ",", '\\', QuoteMode.STRINGS, "", false,
+            new DataCell[]{new StringCell("say \"hi\" \\ bye")}));
+    }
+
+    @Test
+    void testMissingValues() throws IOException {
+        final DataTableSpec spec = createSpec(IntCell.TYPE, StringCell.TYPE, DoubleCell.TYPE);
+        final DataCell missing = DataType.getMissingCell();
+        assertEquals("NULL,NULL,NULL\n1,\"NULL\",2.0\n", encode(spec, ",", null, QuoteMode.IF_NEEDED, "NULL", false,
+            new DataCell[]{missing, missing, missing},
+            new DataCell[]{new IntCell(1), new StringCell("NULL"), new DoubleCell(2)}));
+    }
+
+    @Test
+    void testDateAndTime() throws IOException {
+        final DataTableSpec spec =
+            createSpec(LocalDateCellFactory.TYPE, LocalTimeCellFactory.TYPE, LocalDateTimeCellFactory.TYPE);
+        assertEquals("2021-05-28,07:05:00,1999-12-31T23:59:59.123\n" //
+            + "0001-01-01,00:00:00.000001,2021-01-02T03:04:05.123456789\n", //
+            encode(spec, ",", null, QuoteMode.IF_NEEDED, "", false,
+                new DataCell[]{LocalDateCellFactory.create(LocalDate.of(2021, 5, 28)),
+                    LocalTimeCellFactory.create(LocalTime.of(7, 5)),
+                    LocalDateTimeCellFactory.create(LocalDateTime.of(1999, 12, 31, 23, 59, 59, 123_000_000))},
+                new DataCell[]{LocalDateCellFactory.create(LocalDate.of(1, 1, 1)),
+                    LocalTimeCellFactory.create(LocalTime.of(0, 0, 0, 1000)),
+                    LocalDateTimeCellFactory.create(LocalDateTime.of(2021, 1, 2, 3, 4, 5, 123_456_789))}));
+    }
+
+    @Test
+    void testSeparatorWithinNumberCharactersIsQuoted() throws IOException {
+        final DataTableSpec spec = createSpec(IntCell.TYPE, LocalDateCellFactory.TYPE, DoubleCell.TYPE);
+        assertEquals("\"-1\"-\"2021-05-28\"-1.5\n", encode(spec, "-", null, QuoteMode.IF_NEEDED, "", false,
+            new DataCell[]{new IntCell(-1), LocalDateCellFactory.create(LocalDate.of(2021, 5, 28)),
+                new DoubleCell(1.5)}));
+    }
+
+    @Test
+    void testHeaderAndMultiCharacterSeparator() throws IOException {
+        final DataTableSpec spec = createSpec(IntCell.TYPE, StringCell.TYPE);
+        assertEquals("col0||\"col1\"\n1||\"a|b\"\n", encode(spec, "||", null, QuoteMode.STRINGS, "", true,
+            new DataCell[]{new IntCell(1), new StringCell("a|b")}));
+    }
+
+    @Test
+    void testCharacterEncoding() throws IOException {
+        final DataTableSpec spec = createSpec(StringCell.TYPE);
+        final String value = "\u00e4\u20ac\ud83d\ude00";
+        assertArrayEquals(("\"" + value + "\"\n").getBytes(UTF_8), encodeBytes(spec, ",", null, QuoteMode.STRINGS,
+            "", UTF_8, false, new DataCell[]{new StringCell(value)}));
+        assertArrayEquals(("\"" + value + "\"\n").getBytes(ISO_8859_1), encodeBytes(spec, ",", null,
+            QuoteMode.STRINGS, "", ISO_8859_1, false, new DataCell[]{new StringCell(value)}));
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.database.node.io.load.impl.fs.util.DBRowWriter;
+import org.knime.filehandling.core.connections.DefaultFSConnectionFactory;
+import org.knime.filehandling.core.connections.FSConnection;
+import org.knime.filehandling.core.connections.FSFileSystem;
+import org.knime.filehandling.core.connections.FSPath;
+
+/**
+ * Tests the {@link SnowflakeParallelRowWriter}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeParallelRowWriterTest {
+
+    private static final String SUFFIX = ".parquet.gz";
+
+    @TempDir
+    Path m_tempDir;
+
+    /** Writer that keeps the written rows in memory and signals a full file after a fixed number of rows. */
+    private static final class RecordingWriter implements DBRowWriter {
+
+        private final List<DataRow> m_rows = new ArrayList<>();
+
+        private final int m_rowsPerFile;
+
+        private boolean m_closed;
+
+        RecordingWriter(final int rowsPerFile) {
+            m_rowsPerFile = rowsPerFile;
+        }
+
+        @Override
+        public boolean writeRow(final DataRow row) throws IOException {
+            if (m_closed) {
+                throw new IOException("Writer already closed");
+            }
+            m_rows.add(row);
+            return m_rows.size() >= m_rowsPerFile;
+        }
+
+        @Override
+        public void close() {
+            m_closed = true;
+        }
+    }
+
+    private static void writeRows(final DBRowWriter writer, final int noOfRows) throws IOException {
+        for (int i = 0; i < noOfRows; i++) {
+            assertFalse(writer.writeRow(new DefaultRow("Row" + i, new IntCell(i))));
+        }
+    }
+
+    @Test
+    void testAllRowsAreWrittenOnce() throws Exception {
+        try (FSConnection connection = DefaultFSConnectionFactory.createLocalFSConnection();
+                FSFileSystem<?> fs = connection.getFileSystem()) {
+            final FSPath firstPath = fs.getPath(m_tempDir.resolve("file" + SUFFIX).toString());
+            final Map<FSPath, RecordingWriter> writers = new ConcurrentHashMap<>();
+            final int noOfRows = 100_000;
+            try (SnowflakeParallelRowWriter writer = new SnowflakeParallelRowWriter(firstPath, SUFFIX, 3, path -> {
+                final RecordingWriter recordingWriter = new RecordingWriter(7_000);
+                assertEquals(null, writers.put(path, recordingWriter), "File written twice: " + path);
+                return recordingWriter;
+            })) {
+                writeRows(writer, noOfRows);
+            }
+            assertTrue(writers.containsKey(firstPath));
+            final BitSet written = new BitSet(noOfRows);
+            for (final Map.Entry<FSPath, RecordingWriter> entry : writers.entrySet()) {
+                final RecordingWriter recordingWriter = entry.getValue();
+                assertTrue(recordingWriter.m_closed);
+                assertTrue(recordingWriter.m_rows.size() <= 7_000);
+                assertTrue(entry.getKey().getFileName().toString().endsWith(SUFFIX));
+                for (final DataRow row : recordingWriter.m_rows) {
+                    final int value = ((IntCell)row.getCell(0)).getIntValue();
+                    assertFalse(written.get(value), "Row written twice: " + value);
+                    written.set(value);
+                }
+            }
+            assertEquals(noOfRows, written.cardinality());
+        }
+    }
+
+    @Test
+    void testFirstFileIsCreatedWithoutRows() throws Exception {
+        try (FSConnection connection = DefaultFSConnectionFactory.createLocalFSConnection();
+                FSFileSystem<?> fs = connection.getFileSystem()) {
+            final FSPath firstPath = fs.getPath(m_tempDir.resolve("file" + SUFFIX).toString());
+            final Map<FSPath, RecordingWriter> writers = new ConcurrentHashMap<>();
+            try (SnowflakeParallelRowWriter writer = new SnowflakeParallelRowWriter(firstPath, SUFFIX, 4, path -> {
+                final RecordingWriter recordingWriter = new RecordingWriter(10);
+                writers.put(path, recordingWriter);
+                return recordingWriter;
+            })) {
+                //no rows to write
+            }
+            assertEquals(1, writers.size());
+            assertTrue(writers.get(firstPath).m_closed);
+        }
+    }
+
+    @Test
+    void testWorkerFailureIsPropagated() throws Exception {
+        try (FSConnection connection = DefaultFSConnectionFactory.createLocalFSConnection();
+                FSFileSystem<?> fs = connection.getFileSystem()) {
+            final FSPath firstPath = fs.getPath(m_tempDir.resolve("file" + SUFFIX).toString());
+            final SnowflakeParallelRowWriter writer = new SnowflakeParallelRowWriter(firstPath, SUFFIX, 2, path -> {
+                throw new IOException("Disk full");
+            });
+            final Exception e = assertThrows(Exception.class, () -> {
+                try (writer) {
+                    writeRows(writer, 1_000_000);
+                }
+            });
+            assertTrue(e.getMessage().contains("Disk full"), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.writer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.JDBCType;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.time.localdate.LocalDateCellFactory;
+import org.knime.core.data.time.localdatetime.LocalDateTimeCellFactory;
+import org.knime.core.data.time.localtime.LocalTimeCellFactory;
+
+/**
+ * Tests the {@link SnowflakeParquetColumnWriter}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeParquetColumnWriterTest {
+
+    private static String write(final SnowflakeParquetColumnWriter writer, final DataCell cell) {
+        final List<String> values = new ArrayList<>();
+        writer.write(new RecordingConsumer(values), cell, new SnowflakeParquetColumnWriter.Utf8Buffer());
+        assertEquals(1, values.size());
+        return values.get(0);
+    }
+
+    @Test
+    void testSupportedTypes() {
+        assertEquals(Optional.of(SnowflakeParquetColumnWriter.BOOLEAN),
+            SnowflakeParquetColumnWriter.of(BooleanCell.TYPE, JDBCType.BOOLEAN));
+        assertEquals(Optional.of(SnowflakeParquetColumnWriter.DOUBLE),
+            SnowflakeParquetColumnWriter.of(IntCell.TYPE, JDBCType.DOUBLE));
+        assertEquals(Optional.of(SnowflakeParquetColumnWriter.INT64),
+            SnowflakeParquetColumnWriter.of(LongCell.TYPE, JDBCType.BIGINT));
+        assertEquals(Optional.of(SnowflakeParquetColumnWriter.UTF8),
+            SnowflakeParquetColumnWriter.of(StringCell.TYPE, JDBCType.VARCHAR));
+        assertEquals(Optional.of(SnowflakeParquetColumnWriter.TIMESTAMP_MICROS),
+            SnowflakeParquetColumnWriter.of(LocalDateTimeCellFactory.TYPE, JDBCType.TIMESTAMP));
+        assertTrue(SnowflakeParquetColumnWriter.of(StringCell.TYPE, JDBCType.BIGINT).isEmpty());
+        assertTrue(SnowflakeParquetColumnWriter.of(DoubleCell.TYPE, JDBCType.NUMERIC).isEmpty());
+    }
+
+    @Test
+    void testValues() {
+        assertEquals("boolean:true", write(SnowflakeParquetColumnWriter.BOOLEAN, BooleanCell.TRUE));
+        assertEquals("double:42.0", write(SnowflakeParquetColumnWriter.DOUBLE, new IntCell(42)));
+        assertEquals("long:" + Long.MIN_VALUE,
+            write(SnowflakeParquetColumnWriter.INT64, new LongCell(Long.MIN_VALUE)));
+        assertEquals("binary:\u00e4bc", write(SnowflakeParquetColumnWriter.UTF8, new StringCell("\u00e4bc")));
+        assertEquals("int:-1",
+            write(SnowflakeParquetColumnWriter.DATE, LocalDateCellFactory.create(LocalDate.of(1969, 12, 31))));
+        assertEquals("int:3723004", write(SnowflakeParquetColumnWriter.TIME_MILLIS,
+            LocalTimeCellFactory.create(LocalTime.of(1, 2, 3, 4_999_999))));
+        assertEquals("long:-999999", write(SnowflakeParquetColumnWriter.TIMESTAMP_MICROS,
+            LocalDateTimeCellFactory.create(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1_000))));
+    }
+
+    @Test
+    void testUtf8BufferIsReused() {
+        final SnowflakeParquetColumnWriter.Utf8Buffer buffer = new SnowflakeParquetColumnWriter.Utf8Buffer();
+        final String[] values = {"", "abc", "\u00e4\u20ac\ud83d\ude00", "\ud83d", "x".repeat(5000), "abc"};
+        for (final String value : values) {
+            final Binary binary = buffer.encode(value);
+            assertTrue(binary.isBackingBytesReused());
+            assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), binary.getBytes());
+        }
+    }
+
+    @Test
+    void testSchema() {
+        final DataTableSpec spec = new DataTableSpec(new DataColumnSpecCreator("b", BooleanCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("s", StringCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("ts", LocalDateTimeCellFactory.TYPE).createSpec());
+        final MessageType schema = SnowflakeParquetRowWriter.createSchema(spec, new SnowflakeParquetColumnWriter[]{
+            SnowflakeParquetColumnWriter.BOOLEAN, SnowflakeParquetColumnWriter.UTF8,
+            SnowflakeParquetColumnWriter.TIMESTAMP_MICROS});
+        assertEquals(MessageTypeParser.parseMessageType("message knime { optional boolean b; "
+            + "optional binary s (UTF8); optional int64 ts (TIMESTAMP_MICROS); }"), schema);
+    }
+
+    private static final class RecordingConsumer extends RecordConsumer {
+
+        private final List<String> m_values;
+
+        RecordingConsumer(final List<String> values) {
+            m_values = values;
+        }
+
+        @Override
+        public void startMessage() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void endMessage() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void startField(final String field, final int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void endField(final String field, final int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void startGroup() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void endGroup() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addInteger(final int value) {
+            m_values.add("int:" + value);
+        }
+
+        @Override
+        public void addLong(final long value) {
+            m_values.add("long:" + value);
+        }
+
+        @Override
+        public void addBoolean(final boolean value) {
+            m_values.add("boolean:" + value);
+        }
+
+        @Override
+        public void addBinary(final Binary value) {
+            m_values.add("binary:" + value.toStringUsingUTF8());
+        }
+
+        @Override
+        public void addFloat(final float value) {
+            m_values.add("float:" + value);
+        }
+
+        @Override
+        public void addDouble(final double value) {
+            m_values.add("double:" + value);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.pipe;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knime.core.node.ExecutionMonitor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the {@link SnowpipeClient} against a local stub server.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowpipeClientTest {
+
+    private static final String PIPE_PATH = "/v1/data/pipes/DB.PUBLIC.PIPE/";
+
+    private HttpServer m_server;
+
+    private SnowpipeClient m_client;
+
+    private final List<String> m_requests = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void startServer() throws IOException {
+        m_server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        m_server.start();
+        m_client = new SnowpipeClient(URI.create("http://127.0.0.1:" + m_server.getAddress().getPort()),
+            "DB.PUBLIC.PIPE", () -> "token", Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void stopServer() {
+        m_server.stop(0);
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+        final byte[] bytes = body.getBytes(UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    @Test
+    void testInsertFilesSplitsRequests() throws IOException {
+        m_server.createContext(PIPE_PATH + "insertFiles", exchange -> {
+            assertEquals("POST", exchange.getRequestMethod());
+            assertEquals("Bearer token", exchange.getRequestHeaders().getFirst("Authorization"));
+            assertEquals("KEYPAIR_JWT",
+                exchange.getRequestHeaders().getFirst("X-Snowflake-Authorization-Token-Type"));
+            assertTrue(exchange.getRequestURI().getQuery().startsWith("requestId="));
+            m_requests.add(new String(exchange.getRequestBody().readAllBytes(), UTF_8));
+            respond(exchange, 200, "{\"requestId\":\"1\",\"responseCode\":\"SUCCESS\"}");
+        });
+        final List<String> paths = IntStream.range(0, SnowpipeClient.MAX_FILES_PER_REQUEST + 1)
+            .mapToObj(i -> "file_" + i + ".csv.gz").collect(Collectors.toList());
+        m_client.insertFiles(paths);
+        assertEquals(2, m_requests.size());
+        assertTrue(m_requests.get(0).startsWith("{\"files\":[{\"path\":\"file_0.csv.gz\"}"));
+        assertEquals("{\"files\":[{\"path\":\"file_5000.csv.gz\"}]}", m_requests.get(1));
+    }
+
+    @Test
+    void testRetryAndFailure() throws IOException {
+        final AtomicInteger attempts = new AtomicInteger();
+        m_server.createContext(PIPE_PATH + "insertFiles", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            if (attempts.incrementAndGet() == 1) {
+                respond(exchange, 429, "");
+            } else {
+                respond(exchange, 404, "{\"message\":\"Specified object does not exist\"}");
+            }
+        });
+        final IOException e = assertThrows(IOException.class, () -> m_client.insertFiles(List.of("file.csv")));
+        assertEquals(2, attempts.get());
+        assertTrue(e.getMessage().contains("404"));
+        assertTrue(e.getMessage().contains("Specified object does not exist"));
+    }
+
+    @Test
+    void testAwaitFiles() throws Exception {
+        m_server.createContext(PIPE_PATH + "insertReport", exchange -> {
+            final String query = exchange.getRequestURI().getQuery();
+            m_requests.add(query);
+            if (!query.contains("beginMark")) {
+                respond(exchange, 200, "{\"nextBeginMark\":\"1_0\",\"files\":["
+                    + "{\"path\":\"a.csv\",\"status\":\"LOADED\",\"complete\":true,\"rowsInserted\":10},"
+                    + "{\"path\":\"b.csv\",\"status\":\"LOAD_IN_PROGRESS\",\"complete\":false},"
+                    + "{\"path\":\"other.csv\",\"status\":\"LOADED\",\"complete\":true}]}");
+            } else {
+                assertTrue(query.contains("beginMark=1_0"));
+                respond(exchange, 200, "{\"nextBeginMark\":\"2_0\",\"files\":["
+                    + "{\"path\":\"b.csv\",\"status\":\"LOAD_FAILED\",\"complete\":true,\"errorsSeen\":1,"
+                    + "\"firstError\":\"Numeric value 'x' is not recognized\"}]}");
+            }
+        });
+        final Map<String, SnowpipeFileStatus> result =
+            m_client.awaitFiles(new ExecutionMonitor(), List.of("b.csv", "a.csv"), Duration.ofSeconds(10));
+        assertEquals(List.of("b.csv", "a.csv"), new ArrayList<>(result.keySet()));
+        assertTrue(result.get("a.csv").isLoaded());
+        assertEquals(10, result.get("a.csv").getRowsInserted());
+        assertFalse(result.get("b.csv").isLoaded());
+        assertEquals("Numeric value 'x' is not recognized", result.get("b.csv").getFirstError());
+        assertEquals(2, m_requests.size());
+    }
+
+    @Test
+    void testAwaitFilesTimeout() {
+        m_server.createContext(PIPE_PATH + "insertReport",
+            exchange -> respond(exchange, 200, "{\"nextBeginMark\":\"1_0\",\"files\":[]}"));
+        final IOException e = assertThrows(IOException.class,
+            () -> m_client.awaitFiles(new ExecutionMonitor(), List.of("a.csv"), Duration.ofMillis(50)));
+        assertTrue(e.getMessage().startsWith("Snowpipe did not process 1 of 1 files"));
+    }
+
+    @Test
+    void testGetBaseUri() {
+        assertEquals(URI.create("https://xy12345.us-east-2.aws.snowflakecomputing.com"), SnowpipeClient
+            .getBaseUri("jdbc:snowflake://xy12345.us-east-2.aws.snowflakecomputing.com/?db=DB&warehouse=WH"));
+        assertEquals(URI.create("https://org-acc.snowflakecomputing.com:443"),
+            SnowpipeClient.getBaseUri("jdbc:snowflake://org-acc.snowflakecomputing.com:443"));
+        assertThrows(IllegalArgumentException.class, () -> SnowpipeClient.getBaseUri("jdbc:h2:mem:test"));
+    }
+}
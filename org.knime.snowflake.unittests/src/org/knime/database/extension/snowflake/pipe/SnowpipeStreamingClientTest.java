@@ -0,0 +1,198 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.pipe;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the {@link SnowpipeStreamingClient} against a local stub server that serves both the account and the ingest
+ * host.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowpipeStreamingClientTest {
+
+    private static final String PIPE_PATH = "/v2/streaming/databases/DB/schemas/PUBLIC/pipes/ORDERS-STREAMING";
+
+    private static final String CHANNEL_PATH = PIPE_PATH + "/channels/orders%201";
+
+    private static final String ROWS_PATH =
+        "/v2/streaming/data/databases/DB/schemas/PUBLIC/pipes/ORDERS-STREAMING/channels/orders%201/rows";
+
+    private HttpServer m_server;
+
+    private URI m_baseUri;
+
+    private final List<String> m_requests = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger m_tokenExchanges = new AtomicInteger();
+
+    private volatile String m_status = "{\"channel_statuses\":{\"orders 1\":{}}}";
+
+    @BeforeEach
+    void startServer() throws IOException {
+        m_server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        m_server.createContext("/", this::handle);
+        m_server.start();
+        m_baseUri = URI.create("http://127.0.0.1:" + m_server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void stopServer() {
+        m_server.stop(0);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getRawPath();
+        final String body = new String(exchange.getRequestBody().readAllBytes(), UTF_8);
+        final String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        m_requests.add(exchange.getRequestMethod() + " " + path);
+        if ("/v2/streaming/hostname".equals(path)) {
+            assertEquals("Bearer jwt", authorization);
+            assertEquals("KEYPAIR_JWT", exchange.getRequestHeaders().getFirst("X-Snowflake-Authorization-Token-Type"));
+            respond(exchange, 200, "127.0.0.1:" + m_server.getAddress().getPort() + "\n");
+            return;
+        }
+        if ("/oauth/token".equals(path)) {
+            m_tokenExchanges.incrementAndGet();
+            assertTrue(body.startsWith("grant_type=urn%3Aietf%3Aparams%3Aoauth%3Agrant-type%3Ajwt-bearer&scope="));
+            assertTrue(body.endsWith("&assertion=jwt"));
+            respond(exchange, 200, "scoped");
+            return;
+        }
+        assertEquals("Bearer scoped", authorization);
+        if (CHANNEL_PATH.equals(path)) {
+            assertEquals("PUT", exchange.getRequestMethod());
+            respond(exchange, 200, "{\"next_continuation_token\":\"c0\"}");
+        } else if (ROWS_PATH.equals(path)) {
+            assertEquals("application/x-ndjson", exchange.getRequestHeaders().getFirst("Content-Type"));
+            m_requests.add(exchange.getRequestURI().getRawQuery());
+            m_requests.add(body);
+            respond(exchange, 200, "{\"next_continuation_token\":\"c" + m_requests.size() + "\"}");
+        } else if ((PIPE_PATH + ":bulk-channel-status").equals(path)) {
+            assertEquals("{\"channel_names\":[\"orders 1\"]}", body);
+            respond(exchange, 200, m_status);
+        } else {
+            respond(exchange, 404, "{\"message\":\"Unknown path " + path + "\"}");
+        }
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+        final byte[] bytes = body.getBytes(UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private SnowpipeStreamingClient open() throws IOException {
+        return SnowpipeStreamingClient.open(m_baseUri, "DB", "PUBLIC", "ORDERS-STREAMING", "orders 1", () -> "jwt");
+    }
+
+    @Test
+    void testOpenAndAppendRows() throws IOException {
+        final SnowpipeStreamingClient client = open();
+        assertEquals(List.of("GET /v2/streaming/hostname", "POST /oauth/token", "PUT " + CHANNEL_PATH), m_requests);
+        m_requests.clear();
+        final Map<String, Object> first = new LinkedHashMap<>();
+        first.put("ID", 1L);
+        first.put("NAME", "a");
+        final Map<String, Object> second = new LinkedHashMap<>();
+        second.put("ID", 2L);
+        second.put("NAME", null);
+        client.appendRows(List.of(first, second), "orders:2");
+        assertEquals("POST " + ROWS_PATH, m_requests.get(0));
+        assertEquals("continuationToken=c0&offsetToken=orders%3A2", m_requests.get(1));
+        assertEquals("{\"ID\":1,\"NAME\":\"a\"}\n{\"ID\":2,\"NAME\":null}\n", m_requests.get(2));
+        //the next append continues with the token of the previous response
+        client.appendRows(List.of(first), "orders:3");
+        assertEquals("continuationToken=c3&offsetToken=orders%3A3", m_requests.get(4));
+        assertEquals(1, m_tokenExchanges.get());
+    }
+
+    @Test
+    void testCommittedOffsetToken() throws IOException {
+        final SnowpipeStreamingClient client = open();
+        assertEquals(Optional.empty(), client.getLatestCommittedOffsetToken());
+        m_status = "{\"channel_statuses\":{\"orders 1\":{\"committed_offset_token\":\"orders:5\"}}}";
+        assertEquals(Optional.of("orders:5"), client.getLatestCommittedOffsetToken());
+    }
+
+    @Test
+    void testChannelError() throws IOException {
+        final SnowpipeStreamingClient client = open();
+        m_status = "{\"channel_statuses\":{\"orders 1\":{\"rows_error_count\":2,"
+            + "\"last_error_message\":\"Numeric value 'x' is not recognized\"}}}";
+        final IOException e = assertThrows(IOException.class, client::getLatestCommittedOffsetToken);
+        assertEquals("The channel orders 1 rejected 2 rows: Numeric value 'x' is not recognized", e.getMessage());
+    }
+
+    @Test
+    void testUnknownPipe() {
+        final IOException e = assertThrows(IOException.class, () -> SnowpipeStreamingClient.open(m_baseUri, "DB",
+            "PUBLIC", "UNKNOWN", "orders 1", () -> "jwt"));
+        assertTrue(e.getMessage().contains("404"));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link SnowflakeFetchSettings}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+class SnowflakeFetchSettingsTest {
+
+    private static final long GB = 1024L * 1024L * 1024L;
+
+    private static void assertSettings(final SnowflakeFetchSettings settings, final int threads, final int chunkSize,
+        final int memoryLimit) {
+        assertEquals(threads, settings.getPrefetchThreads(), "prefetch threads");
+        assertEquals(chunkSize, settings.getResultChunkSizeMB(), "chunk size");
+        assertEquals(memoryLimit, settings.getMemoryLimitMB(), "memory limit");
+        assertEquals("ARROW", settings.getQueryResultFormat());
+    }
+
+    @Test
+    void testSmallExecutor() {
+        //a single thread with the minimal chunk size fits into the lower bound of the memory limit
+        assertSettings(new SnowflakeFetchSettings(GB / 4, 2), 1, 48, 96);
+        assertSettings(new SnowflakeFetchSettings(GB, 4), 2, 64, 256);
+    }
+
+    @Test
+    void testDefaultHeap() {
+        //the threads are limited by the memory and not by the cores
+        assertSettings(new SnowflakeFetchSettings(2 * GB, 8), 5, 51, 512);
+        assertSettings(new SnowflakeFetchSettings(8 * GB, 4), 4, 160, 2048);
+    }
+
+    @Test
+    void testLargeServer() {
+        assertSettings(new SnowflakeFetchSettings(64 * GB, 32), 10, 160, 16 * 1024);
+        assertSettings(new SnowflakeFetchSettings(256 * GB, 128), 10, 160, 16 * 1024);
+    }
+
+    @Test
+    void testCurrentJvm() {
+        final SnowflakeFetchSettings settings = SnowflakeFetchSettings.forCurrentJvm();
+        assertTrue(settings.getPrefetchThreads() >= 1 && settings.getPrefetchThreads() <= 10);
+        assertTrue(settings.getResultChunkSizeMB() >= 48 && settings.getResultChunkSizeMB() <= 160);
+        assertTrue(2L * settings.getPrefetchThreads() * SnowflakeFetchSettings.MIN_RESULT_CHUNK_SIZE_MB
+            <= settings.getMemoryLimitMB());
+    }
+
+    @Test
+    void testAddToProperties() {
+        final Properties properties = new Properties();
+        properties.setProperty("user", "knime");
+        new SnowflakeFetchSettings(2 * GB, 8).addTo(properties);
+        assertEquals("5", properties.getProperty("CLIENT_PREFETCH_THREADS"));
+        assertEquals("51", properties.getProperty("CLIENT_RESULT_CHUNK_SIZE"));
+        assertEquals("512", properties.getProperty("CLIENT_MEMORY_LIMIT"));
+        assertEquals("ARROW", properties.getProperty("JDBC_QUERY_RESULT_FORMAT"));
+        assertEquals("knime", properties.getProperty("user"));
+    }
+}
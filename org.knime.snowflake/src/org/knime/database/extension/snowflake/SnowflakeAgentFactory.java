@@ -57,6 +57,7 @@
 import org.knime.database.attribute.AttributeCollection;
 import org.knime.database.attribute.AttributeCollection.Accessibility;
 import org.knime.database.extension.snowflake.agent.SnowflakeDBLoader;
+import org.knime.database.extension.snowflake.agent.SnowflakeDBMetadataReader;
 import org.knime.database.extension.snowflake.agent.SnowflakeDBSampling;
 
 /**
@@ -104,7 +105,7 @@ public SnowflakeAgentFactory() {
 
         putAttributes(DBMetadataReader.class, METADATA_ATTRIBUTES);
         putCreator(DBMetadataReader.class,
-            parameters -> new DefaultDBMetadataReader(parameters.getSessionReference()));
+            parameters -> new SnowflakeDBMetadataReader(parameters.getSessionReference()));
 
         putAttributes(DBStructureManipulator.class, STRUCTURE_MANIPULATION_ATTRIBUTES);
         putCreator(DBStructureManipulator.class,
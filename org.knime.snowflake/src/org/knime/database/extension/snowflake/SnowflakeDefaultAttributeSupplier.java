@@ -51,12 +51,14 @@
 import org.knime.database.connection.DBConnectionManagerAttributes;
 import org.knime.database.extension.snowflake.type.Snowflake;
 import org.knime.database.extension.snowflake.util.SnowflakeAbstractDriverLocator;
+import org.knime.database.extension.snowflake.util.SnowflakeFetchSettings;
 import org.knime.database.util.DerivableProperties;
 import org.knime.database.util.DerivableProperties.ValueType;
 
 /**
  * Supplier of all the default database attribute definitions for Snowflake. For Snowflake we use it to ensure
- * that the partner application ID is also used by default for user registered JDBC drivers.
+ * that the partner application ID and the {@link SnowflakeFetchSettings} are also used by default for user
+ * registered JDBC drivers.
  *
  * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
  */
@@ -75,6 +77,7 @@ public class SnowflakeDefaultAttributeSupplier extends DefaultAttributeSupplier
         //Snowflake partner use only: Specifies the name of a partner application to connect through JDBC.
         final DerivableProperties jdbcProperties = new DerivableProperties();
         jdbcProperties.setDerivableProperty("application", ValueType.LITERAL, Snowflake.PARTNER_ID);
+        SnowflakeFetchSettings.forCurrentJvm().addTo(jdbcProperties);
         ATTRIBUTE_JDBC_PROPERTIES = builder.add(Accessibility.EDITABLE,
             DBConnectionManagerAttributes.ATTRIBUTE_JDBC_PROPERTIES, jdbcProperties);
         // Snowflake needs to be added here for all user registered drivers
@@ -0,0 +1,538 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.knime.core.data.BooleanValue;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.time.localdate.LocalDateCellFactory;
+import org.knime.core.data.time.localdate.LocalDateValue;
+import org.knime.core.data.time.localdatetime.LocalDateTimeCellFactory;
+import org.knime.core.data.time.localdatetime.LocalDateTimeValue;
+import org.knime.core.data.time.localtime.LocalTimeCellFactory;
+import org.knime.core.data.time.localtime.LocalTimeValue;
+import org.knime.core.data.time.zoneddatetime.ZonedDateTimeCellFactory;
+import org.knime.core.data.time.zoneddatetime.ZonedDateTimeValue;
+import org.knime.core.data.v2.RowWrite;
+import org.knime.core.data.v2.time.LocalDateTimeValueFactory.LocalDateTimeWriteValue;
+import org.knime.core.data.v2.time.LocalDateValueFactory.LocalDateWriteValue;
+import org.knime.core.data.v2.time.LocalTimeValueFactory.LocalTimeWriteValue;
+import org.knime.core.data.v2.time.ZonedDateTimeValueFactory2.ZonedDateTimeWriteValue;
+import org.knime.core.data.v2.value.BooleanValueFactory.BooleanWriteValue;
+import org.knime.core.data.v2.value.DoubleValueFactory.DoubleWriteValue;
+import org.knime.core.data.v2.value.LongValueFactory.LongWriteValue;
+import org.knime.core.data.v2.value.StringValueFactory.StringWriteValue;
+import org.knime.core.util.UniqueNameGenerator;
+
+/**
+ * The KNIME column types of the {@link SnowflakeArrowReader}. Each type writes the values of an Arrow vector of a
+ * Snowflake result chunk directly into the {@link RowWrite} of a KNIME table without creating intermediate cells. The
+ * type of a column is derived from the JDBC type of the result column similar to the default type mapping of the DB
+ * nodes.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+enum SnowflakeArrowColumnType {
+
+    /** Boolean columns. */
+    BOOLEAN(BooleanCell.TYPE) {
+        @Override
+        CellReader createReader(final SnowflakeArrowVector vector) throws SQLException {
+            if (!vector.hasLong()) {
+                throw unsupported(vector);
+            }
+            return (index, row, column) -> ((BooleanWriteValue)row.getWriteValue(column))
+                .setBooleanValue(vector.getLong(index) != 0);
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int index, final RowWrite row, final int column)
+            throws SQLException {
+            final boolean value = resultSet.getBoolean(index);
+            if (resultSet.wasNull()) {
+                row.setMissing(column);
+            } else {
+                ((BooleanWriteValue)row.getWriteValue(column)).setBooleanValue(value);
+            }
+        }
+    },
+
+    /**
+     * Integer numbers i.e. {@code NUMBER} columns without scale. Values that exceed the range of a long fail the read
+     * instead of overflowing.
+     */
+    LONG(LongCell.TYPE) {
+        @Override
+        CellReader createReader(final SnowflakeArrowVector vector) throws SQLException {
+            if (vector.getScale() != 0 || vector.hasDouble()) {
+                throw unsupported(vector);
+            }
+            if (vector.hasLong()) {
+                return (index, row, column) -> ((LongWriteValue)row.getWriteValue(column))
+                    .setLongValue(vector.getLong(index));
+            }
+            //decimal vectors of values that do not fit into a 64 bit vector
+            return (index, row, column) -> ((LongWriteValue)row.getWriteValue(column))
+                .setLongValue(SnowflakeArrowValues.toLongExact(vector.getObject(index)));
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int index, final RowWrite row, final int column)
+            throws SQLException {
+            final long value = resultSet.getLong(index);
+            if (resultSet.wasNull()) {
+                row.setMissing(column);
+            } else {
+                ((LongWriteValue)row.getWriteValue(column)).setLongValue(value);
+            }
+        }
+    },
+
+    /** Floating point numbers and {@code NUMBER} columns with scale. */
+    DOUBLE(DoubleCell.TYPE) {
+        @Override
+        CellReader createReader(final SnowflakeArrowVector vector) throws SQLException {
+            if (vector.hasDouble()) {
+                return (index, row, column) -> ((DoubleWriteValue)row.getWriteValue(column))
+                    .setDoubleValue(vector.getDouble(index));
+            }
+            if (vector.hasLong()) {
+                final int scale = vector.getScale();
+                return (index, row, column) -> ((DoubleWriteValue)row.getWriteValue(column))
+                    .setDoubleValue(SnowflakeArrowValues.toDouble(vector.getLong(index), scale));
+            }
+            //decimal vectors of numbers with a precision above 18
+            return (index, row, column) -> ((DoubleWriteValue)row.getWriteValue(column))
+                .setDoubleValue(((Number)vector.getObject(index)).doubleValue());
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int index, final RowWrite row, final int column)
+            throws SQLException {
+            final double value = resultSet.getDouble(index);
+            if (resultSet.wasNull()) {
+                row.setMissing(column);
+            } else {
+                ((DoubleWriteValue)row.getWriteValue(column)).setDoubleValue(value);
+            }
+        }
+    },
+
+    /** Text, binary and semi-structured columns as well as all other columns. */
+    STRING(StringCell.TYPE) {
+        @Override
+        CellReader createReader(final SnowflakeArrowVector vector) throws SQLException {
+            if (vector.hasBytes()) {
+                if ("BINARY".equals(vector.getLogicalType())) {
+                    return (index, row, column) -> ((StringWriteValue)row.getWriteValue(column))
+                        .setStringValue(SnowflakeArrowValues.toHex(vector.getBytes(index)));
+                }
+                return (index, row, column) -> ((StringWriteValue)row.getWriteValue(column))
+                    .setStringValue(new String(vector.getBytes(index), StandardCharsets.UTF_8));
+            }
+            if (vector.hasLong() && "FIXED".equals(vector.getLogicalType())) {
+                final int scale = vector.getScale();
+                return (index, row, column) -> ((StringWriteValue)row.getWriteValue(column))
+                    .setStringValue(SnowflakeArrowValues.toString(vector.getLong(index), scale));
+            }
+            return (index, row, column) -> ((StringWriteValue)row.getWriteValue(column))
+                .setStringValue(String.valueOf(vector.getObject(index)));
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int index, final RowWrite row, final int column)
+            throws SQLException {
+            final String value = resultSet.getString(index);
+            if (value == null) {
+                row.setMissing(column);
+            } else {
+                ((StringWriteValue)row.getWriteValue(column)).setStringValue(value);
+            }
+        }
+    },
+
+    /** {@code DATE} columns. */
+    DATE(LocalDateCellFactory.TYPE) {
+        @Override
+        CellReader createReader(final SnowflakeArrowVector vector) throws SQLException {
+            if (!vector.hasLong()) {
+                throw unsupported(vector);
+            }
+            if ("DateMilliVector".equals(vector.getTypeName())) {
+                return (index, row, column) -> ((LocalDateWriteValue)row.getWriteValue(column))
+                    .setLocalDate(LocalDate.ofEpochDay(Math.floorDiv(vector.getLong(index), MILLIS_PER_DAY)));
+            }
+            return (index, row, column) -> ((LocalDateWriteValue)row.getWriteValue(column))
+                .setLocalDate(LocalDate.ofEpochDay(vector.getLong(index)));
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int index, final RowWrite row, final int column)
+            throws SQLException {
+            final LocalDate value = resultSet.getObject(index, LocalDate.class);
+            if (value == null) {
+                row.setMissing(column);
+            } else {
+                ((LocalDateWriteValue)row.getWriteValue(column)).setLocalDate(value);
+            }
+        }
+    },
+
+    /** {@code TIME} columns. */
+    TIME(LocalTimeCellFactory.TYPE) {
+        @Override
+        CellReader createReader(final SnowflakeArrowVector vector) throws SQLException {
+            if (!vector.hasLong()) {
+                throw unsupported(vector);
+            }
+            final int scale = getTimeUnitScale(vector);
+            return (index, row, column) -> ((LocalTimeWriteValue)row.getWriteValue(column))
+                .setLocalTime(SnowflakeArrowValues.toLocalTime(vector.getLong(index), scale));
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int index, final RowWrite row, final int column)
+            throws SQLException {
+            final LocalTime value = resultSet.getObject(index, LocalTime.class);
+            if (value == null) {
+                row.setMissing(column);
+            } else {
+                ((LocalTimeWriteValue)row.getWriteValue(column)).setLocalTime(value);
+            }
+        }
+    },
+
+    /**
+     * {@code TIMESTAMP_NTZ} and {@code TIMESTAMP_LTZ} columns. Values with local time zone are converted into the
+     * time zone of the JVM.
+     */
+    TIMESTAMP(LocalDateTimeCellFactory.TYPE) {
+        @Override
+        CellReader createReader(final SnowflakeArrowVector vector) throws SQLException {
+            final InstantReader instants = createInstantReader(vector);
+            final ZoneReader zones = createZoneReader(vector);
+            return (index, row, column) -> ((LocalDateTimeWriteValue)row.getWriteValue(column))
+                .setLocalDateTime(LocalDateTime.ofInstant(instants.read(index), zones.read(index)));
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int index, final RowWrite row, final int column)
+            throws SQLException {
+            final LocalDateTime value = resultSet.getObject(index, LocalDateTime.class);
+            if (value == null) {
+                row.setMissing(column);
+            } else {
+                ((LocalDateTimeWriteValue)row.getWriteValue(column)).setLocalDateTime(value);
+            }
+        }
+    },
+
+    /** {@code TIMESTAMP_TZ} columns whose values keep the offset they have been stored with. */
+    TIMESTAMP_TZ(ZonedDateTimeCellFactory.TYPE) {
+        @Override
+        CellReader createReader(final SnowflakeArrowVector vector) throws SQLException {
+            final InstantReader instants = createInstantReader(vector);
+            final ZoneReader zones = createZoneReader(vector);
+            return (index, row, column) -> ((ZonedDateTimeWriteValue)row.getWriteValue(column))
+                .setZonedDateTime(ZonedDateTime.ofInstant(instants.read(index), zones.read(index)));
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int index, final RowWrite row, final int column)
+            throws SQLException {
+            final OffsetDateTime value = resultSet.getObject(index, OffsetDateTime.class);
+            if (value == null) {
+                row.setMissing(column);
+            } else {
+                ((ZonedDateTimeWriteValue)row.getWriteValue(column)).setZonedDateTime(value.toZonedDateTime());
+            }
+        }
+    };
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * Writes the value of a non-missing Arrow vector entry into a {@link RowWrite}.
+     */
+    @FunctionalInterface
+    interface CellReader {
+
+        /**
+         * @param index the index of the entry within the vector
+         * @param row the {@link RowWrite} of the current row
+         * @param column the index of the column in the KNIME table
+         * @throws SQLException if the value can not be read
+         */
+        void read(int index, RowWrite row, int column) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface InstantReader {
+        Instant read(int index) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface ZoneReader {
+        ZoneId read(int index) throws SQLException;
+    }
+
+    private final DataType m_type;
+
+    SnowflakeArrowColumnType(final DataType type) {
+        m_type = type;
+    }
+
+    /**
+     * @return the KNIME {@link DataType} of the column
+     */
+    DataType getType() {
+        return m_type;
+    }
+
+    /**
+     * @param vector the {@link SnowflakeArrowVector} of the column in the current result chunk
+     * @return the {@link CellReader} that writes the values of the vector
+     * @throws SQLException if the vector can not be read as this type
+     */
+    abstract CellReader createReader(SnowflakeArrowVector vector) throws SQLException;
+
+    /**
+     * Reads the value of the current row of a result set that does not provide Arrow batches.
+     *
+     * @param resultSet the {@link ResultSet} positioned at the current row
+     * @param index the 1-based index of the result set column
+     * @param row the {@link RowWrite} of the current row
+     * @param column the index of the column in the KNIME table
+     * @throws SQLException if the value can not be read
+     */
+    abstract void read(ResultSet resultSet, int index, RowWrite row, int column) throws SQLException;
+
+    /**
+     * @param sqlType the {@link Types JDBC type} of the result column
+     * @param precision the precision of the result column
+     * @param scale the scale of the result column
+     * @return the {@link SnowflakeArrowColumnType} of the column
+     */
+    static SnowflakeArrowColumnType of(final int sqlType, final int precision, final int scale) {
+        return switch (sqlType) {
+            case Types.BOOLEAN, Types.BIT -> BOOLEAN;
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> LONG;
+            //the driver reports all NUMBER columns without scale as BIGINT
+            case Types.BIGINT -> scale == 0 ? LONG : DOUBLE;
+            //numbers with a fraction or more digits than a long has are not read as long
+            case Types.DECIMAL, Types.NUMERIC -> scale == 0 && precision <= 18 ? LONG : DOUBLE;
+            case Types.FLOAT, Types.REAL, Types.DOUBLE -> DOUBLE;
+            case Types.DATE -> DATE;
+            case Types.TIME -> TIME;
+            case Types.TIMESTAMP -> TIMESTAMP;
+            case Types.TIMESTAMP_WITH_TIMEZONE -> TIMESTAMP_TZ;
+            default -> STRING;
+        };
+    }
+
+    /**
+     * @param type the KNIME {@link DataType} the DB type mapping assigns to a result column
+     * @return the {@link SnowflakeArrowColumnType} whose type is closest to the given type
+     */
+    static SnowflakeArrowColumnType of(final DataType type) {
+        //boolean cells are also compatible with the numeric values
+        if (type.isCompatible(BooleanValue.class)) {
+            return BOOLEAN;
+        }
+        if (type.isCompatible(LongValue.class)) {
+            return LONG;
+        }
+        if (type.isCompatible(DoubleValue.class)) {
+            return DOUBLE;
+        }
+        if (type.isCompatible(LocalDateValue.class)) {
+            return DATE;
+        }
+        if (type.isCompatible(LocalTimeValue.class)) {
+            return TIME;
+        }
+        if (type.isCompatible(LocalDateTimeValue.class)) {
+            return TIMESTAMP;
+        }
+        return type.isCompatible(ZonedDateTimeValue.class) ? TIMESTAMP_TZ : STRING;
+    }
+
+    /**
+     * Creates the spec of the KNIME table from the spec of an incoming DB port. The columns keep their names and are
+     * typed by {@link #of(DataType)}. This allows to report the spec of the table already during configure.
+     *
+     * @param dbSpec the {@link DataTableSpec} of the DB port
+     * @param types the array to store the {@link SnowflakeArrowColumnType} of each column in
+     * @return the {@link DataTableSpec} of the table
+     */
+    static DataTableSpec createSpec(final DataTableSpec dbSpec, final SnowflakeArrowColumnType[] types) {
+        final DataColumnSpec[] columns = new DataColumnSpec[types.length];
+        for (int i = 0; i < types.length; i++) {
+            final DataColumnSpec column = dbSpec.getColumnSpec(i);
+            types[i] = of(column.getType());
+            columns[i] = new DataColumnSpecCreator(column.getName(), types[i].getType()).createSpec();
+        }
+        return new DataTableSpec(columns);
+    }
+
+    /**
+     * Creates the spec of the KNIME table for a query result. If the spec of the incoming DB port is given, the
+     * result columns are read as described by {@link #createSpec(DataTableSpec, SnowflakeArrowColumnType[])} so that
+     * the table has the spec reported during configure.
+     *
+     * @param metaData the {@link ResultSetMetaData} of the result
+     * @param dbSpec the {@link DataTableSpec} of the DB port or {@code null} to derive the spec from the result
+     * @param types the array to store the {@link SnowflakeArrowColumnType} of each result column in
+     * @return the {@link DataTableSpec} of the result
+     * @throws SQLException if the meta data can not be read or does not match the given spec
+     */
+    static DataTableSpec createSpec(final ResultSetMetaData metaData, final DataTableSpec dbSpec,
+        final SnowflakeArrowColumnType[] types) throws SQLException {
+        if (dbSpec == null) {
+            return createSpec(metaData, types);
+        }
+        if (dbSpec.getNumColumns() != types.length) {
+            throw new SQLException(String.format("The query returns %d instead of the configured %d columns.",
+                types.length, dbSpec.getNumColumns()));
+        }
+        return createSpec(dbSpec, types);
+    }
+
+    /**
+     * Creates the spec of the KNIME table for a query result. The columns are named by their result labels.
+     *
+     * @param metaData the {@link ResultSetMetaData} of the result
+     * @param types the array to store the {@link SnowflakeArrowColumnType} of each result column in
+     * @return the {@link DataTableSpec} of the result
+     * @throws SQLException if the meta data can not be read
+     */
+    static DataTableSpec createSpec(final ResultSetMetaData metaData, final SnowflakeArrowColumnType[] types)
+        throws SQLException {
+        final UniqueNameGenerator nameGenerator = new UniqueNameGenerator(Set.of());
+        final DataColumnSpec[] columns = new DataColumnSpec[types.length];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = SnowflakeArrowColumnType.of(metaData.getColumnType(i + 1), metaData.getPrecision(i + 1),
+                metaData.getScale(i + 1));
+            final String name = StringUtils.defaultIfBlank(metaData.getColumnLabel(i + 1), "column" + i);
+            columns[i] = nameGenerator.newColumn(name, types[i].getType());
+        }
+        return new DataTableSpec(columns);
+    }
+
+    SQLException unsupported(final SnowflakeArrowVector vector) {
+        return new SQLException("Arrow vector " + vector + " can not be read as " + name() + " column.");
+    }
+
+    /**
+     * @return the number of fractional digits of the time values of the vector
+     */
+    private static int getTimeUnitScale(final SnowflakeArrowVector vector) {
+        final String typeName = vector.getTypeName();
+        if (!typeName.startsWith("Time")) {
+            //Snowflake encoded value with the scale of the column
+            return vector.getScale();
+        }
+        if (typeName.contains("Nano")) {
+            return 9;
+        }
+        if (typeName.contains("Micro")) {
+            return 6;
+        }
+        return typeName.contains("Milli") ? 3 : 0;
+    }
+
+    private static InstantReader createInstantReader(final SnowflakeArrowVector vector) throws SQLException {
+        if (vector.isStruct()) {
+            final SnowflakeArrowVector epoch = vector.getChild("epoch");
+            final SnowflakeArrowVector fraction = vector.getChild("fraction");
+            if (epoch != null && epoch.hasLong()) {
+                if (fraction != null && fraction.hasLong()) {
+                    //seconds since the epoch and nanoseconds
+                    return index -> Instant.ofEpochSecond(epoch.getLong(index), fraction.getLong(index));
+                }
+                final int scale = vector.getScale();
+                return index -> SnowflakeArrowValues.toInstant(epoch.getLong(index), scale);
+            }
+        } else if (vector.hasLong()) {
+            final int scale = getTimeUnitScale(vector);
+            return index -> SnowflakeArrowValues.toInstant(vector.getLong(index), scale);
+        }
+        throw new SQLException("Arrow vector " + vector + " does not contain timestamps.");
+    }
+
+    private static ZoneReader createZoneReader(final SnowflakeArrowVector vector) throws SQLException {
+        final SnowflakeArrowVector timezone = vector.isStruct() ? vector.getChild("timezone") : null;
+        if (timezone != null && timezone.hasLong()) {
+            return index -> SnowflakeArrowValues.toZoneOffset(timezone.getLong(index));
+        }
+        final ZoneId zone =
+            "TIMESTAMP_LTZ".equals(vector.getLogicalType()) ? ZoneId.systemDefault() : ZoneOffset.UTC;
+        return index -> zone;
+    }
+}
@@ -0,0 +1,488 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.v2.RowContainer;
+import org.knime.core.data.v2.RowWrite;
+import org.knime.core.data.v2.RowWriteCursor;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.ThreadUtils;
+import org.knime.database.extension.snowflake.agent.SnowflakeArrowColumnType.CellReader;
+import org.knime.database.session.DBSession;
+
+/**
+ * Reads the result of a query column-wise from the Arrow record batches of the Snowflake JDBC driver into a KNIME
+ * table instead of reading it cell by cell via the {@link ResultSet}. The values of each Arrow vector are written
+ * directly into the {@link RowContainer} of the table which stores them column-wise if the columnar table backend is
+ * used. The batches are split into contiguous groups whose rows are converted concurrently into separate tables that
+ * are concatenated in the end.
+ * <p>
+ * If the driver does not provide Arrow batches e.g. because the result has been returned as JSON or because the
+ * classes of the driver can not be accessed as expected, the result is read row by row via the {@link ResultSet}
+ * into the same table structure.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowflakeArrowReader {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(SnowflakeArrowReader.class);
+
+    private static final String SNOWFLAKE_STATEMENT = "net.snowflake.client.jdbc.SnowflakeStatement";
+
+    private static final String SNOWFLAKE_RESULT_SET = "net.snowflake.client.jdbc.SnowflakeResultSet";
+
+    private static final String ARROW_BATCHES = "net.snowflake.client.jdbc.ArrowBatches";
+
+    private static final String ARROW_BATCH = "net.snowflake.client.jdbc.ArrowBatch";
+
+    private static final String VALUE_VECTOR = "net.snowflake.client.jdbc.internal.apache.arrow.vector.ValueVector";
+
+    private static final String ROW_KEY_PREFIX = "Row";
+
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    private final DBSession m_session;
+
+    private final int m_parallelism;
+
+    private final boolean m_reuseResults;
+
+    /**
+     * Constructor.
+     *
+     * @param session the Snowflake {@link DBSession} to execute the queries with
+     * @param parallelism the maximum number of threads that convert Arrow batches concurrently
+     */
+    public SnowflakeArrowReader(final DBSession session, final int parallelism) {
+        this(session, parallelism, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param session the Snowflake {@link DBSession} to execute the queries with
+     * @param parallelism the maximum number of threads that convert Arrow batches concurrently
+     * @param reuseResults {@code true} if the persisted result of a query that has already been executed with the
+     *            session should be read via {@code RESULT_SCAN}, see {@link SnowflakeResultReuse}
+     */
+    public SnowflakeArrowReader(final DBSession session, final int parallelism, final boolean reuseResults) {
+        m_session = requireNonNull(session, "session");
+        m_parallelism = Math.max(1, parallelism);
+        m_reuseResults = reuseResults;
+    }
+
+    /**
+     * @param dbSpec the {@link DataTableSpec} of an incoming DB port
+     * @return the spec of the table that {@link #read(ExecutionContext, String, DataTableSpec)} creates for the
+     *         query of the port
+     */
+    public static DataTableSpec createSpec(final DataTableSpec dbSpec) {
+        return SnowflakeArrowColumnType.createSpec(dbSpec, new SnowflakeArrowColumnType[dbSpec.getNumColumns()]);
+    }
+
+    /**
+     * Executes the given query and reads its result into a KNIME table. The columns are named by their result labels
+     * and typed as described by {@link SnowflakeArrowColumnType}. The query ID is remembered by the
+     * {@link SnowflakeResultReuse} so that downstream reads can reuse the persisted result.
+     *
+     * @param exec the {@link ExecutionContext} to create the table with
+     * @param query the query to execute
+     * @return the table with the result of the query
+     * @throws CanceledExecutionException if the execution was canceled
+     * @throws SQLException if the query or reading its result failed
+     * @throws IOException if the table could not be written
+     */
+    public BufferedDataTable read(final ExecutionContext exec, final String query)
+        throws CanceledExecutionException, SQLException, IOException {
+        return read(exec, query, null);
+    }
+
+    /**
+     * Executes the given query and reads its result into a KNIME table with the spec
+     * {@link #createSpec(DataTableSpec)} returns for the given DB port spec.
+     *
+     * @param exec the {@link ExecutionContext} to create the table with
+     * @param query the query to execute
+     * @param dbSpec the {@link DataTableSpec} of the DB port the query comes from or {@code null} to derive the spec
+     *            from the result
+     * @return the table with the result of the query
+     * @throws CanceledExecutionException if the execution was canceled
+     * @throws SQLException if the query or reading its result failed
+     * @throws IOException if the table could not be written
+     */
+    public BufferedDataTable read(final ExecutionContext exec, final String query, final DataTableSpec dbSpec)
+        throws CanceledExecutionException, SQLException, IOException {
+        exec.setMessage("Executing query");
+        try (Connection connection = m_session.getConnectionProvider().getConnection(exec);
+                Statement statement = connection.createStatement()) {
+            requestArrowResult(statement);
+            try (ResultSet resultSet = SnowflakeResultReuse.execute(m_session, query, m_reuseResults,
+                (sql, reused) -> executeQuery(statement, query, sql, reused))) {
+                exec.checkCanceled();
+                final ResultSetMetaData metaData = resultSet.getMetaData();
+                final SnowflakeArrowColumnType[] types = new SnowflakeArrowColumnType[metaData.getColumnCount()];
+                final DataTableSpec spec = SnowflakeArrowColumnType.createSpec(metaData, dbSpec, types);
+                final ArrowBatchAccess access = ArrowBatchAccess.resolve(getDriverClass(ARROW_BATCHES),
+                    getDriverClass(ARROW_BATCH), getDriverClass(VALUE_VECTOR));
+                //the batches are only requested if they can be read since they consume the result
+                final Object arrowBatches = access == null ? null : getArrowBatches(resultSet);
+                if (arrowBatches == null) {
+                    LOGGER.debug("Result does not provide Arrow batches. Reading it row by row.");
+                    return readRows(exec, resultSet, spec, types);
+                }
+                return readBatches(exec, access, arrowBatches, spec, types);
+            }
+        }
+    }
+
+    private ResultSet executeQuery(final Statement statement, final String query, final String sql,
+        final boolean reused) throws SQLException {
+        final ResultSet resultSet = statement.executeQuery(sql);
+        if (!reused) {
+            SnowflakeResultReuse.remember(m_session, query, getQueryId(resultSet));
+        }
+        return resultSet;
+    }
+
+    /**
+     * @return the Snowflake query ID of the result or {@code null} if the driver does not provide it
+     */
+    private String getQueryId(final ResultSet resultSet) {
+        final Class<?> resultSetClass = getDriverClass(SNOWFLAKE_RESULT_SET);
+        try {
+            if (resultSetClass != null && resultSet.isWrapperFor(resultSetClass)) {
+                return (String)resultSetClass.getMethod("getQueryID").invoke(resultSet.unwrap(resultSetClass));
+            }
+        } catch (final SQLException | ReflectiveOperationException e) {
+            LOGGER.debug("Query ID not available: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private Class<?> getDriverClass(final String name) {
+        try {
+            return m_session.getDriver().getDriverClass(name, false).orElse(null);
+        } catch (final Exception e) { //NOSONAR older drivers do not provide all classes
+            LOGGER.debug("Driver class " + name + " not available: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Requests the result in Arrow format which is the default of the driver but might be changed via the
+     * {@code JDBC_QUERY_RESULT_FORMAT} session parameter.
+     */
+    private void requestArrowResult(final Statement statement) {
+        final Class<?> statementClass = getDriverClass(SNOWFLAKE_STATEMENT);
+        if (statementClass == null) {
+            return;
+        }
+        try {
+            if (statement.isWrapperFor(statementClass)) {
+                statementClass.getMethod("setParameter", String.class, Object.class)
+                    .invoke(statement.unwrap(statementClass), "JDBC_QUERY_RESULT_FORMAT", "ARROW");
+            }
+        } catch (final SQLException | ReflectiveOperationException e) {
+            LOGGER.debug("Arrow result format could not be requested: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the {@code ArrowBatches} of the result or {@code null} if the result does not provide them
+     */
+    private Object getArrowBatches(final ResultSet resultSet) throws SQLException {
+        final Class<?> resultSetClass = getDriverClass(SNOWFLAKE_RESULT_SET);
+        if (resultSetClass == null || !resultSet.isWrapperFor(resultSetClass)) {
+            return null;
+        }
+        try {
+            return resultSetClass.getMethod("getArrowBatches").invoke(resultSet.unwrap(resultSetClass));
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            LOGGER.debug("Driver does not support Arrow batches: " + e.getMessage());
+            return null;
+        } catch (final InvocationTargetException e) {
+            //thrown if the result has not been returned in Arrow format
+            LOGGER.debug("Arrow batches not available: " + e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    private BufferedDataTable readBatches(final ExecutionContext exec, final ArrowBatchAccess access,
+        final Object arrowBatches, final DataTableSpec spec, final SnowflakeArrowColumnType[] types)
+        throws CanceledExecutionException, SQLException, IOException {
+        final List<Object> batches = new ArrayList<>();
+        final List<Long> offsets = new ArrayList<>();
+        final Method fetch = access.m_fetch;
+        long rowCount = 0;
+        try {
+            while ((boolean)access.m_hasNext.invoke(arrowBatches)) {
+                final Object batch = access.m_next.invoke(arrowBatches);
+                batches.add(batch);
+                offsets.add(rowCount);
+                rowCount += ((Number)access.m_getRowCount.invoke(batch)).longValue();
+            }
+        } catch (final ReflectiveOperationException e) {
+            throw toSQLException(e);
+        }
+        LOGGER.debugWithFormat("Reading %d rows from %d Arrow batches", rowCount, batches.size());
+        final int groupCount = Math.max(1, Math.min(m_parallelism, batches.size()));
+        final List<List<Object>> groups = new ArrayList<>(groupCount);
+        final long[] groupOffsets = new long[groupCount];
+        final long[] groupRows = new long[groupCount];
+        for (int g = 0; g < groupCount; g++) {
+            groups.add(new ArrayList<>());
+            groupOffsets[g] = -1;
+        }
+        for (int i = 0; i < batches.size(); i++) {
+            final long offset = offsets.get(i);
+            //contiguous groups with about the same number of rows
+            final int group = rowCount == 0 ? 0 : (int)Math.min(groupCount - 1, offset * groupCount / rowCount);
+            groups.get(group).add(batches.get(i));
+            if (groupOffsets[group] < 0) {
+                groupOffsets[group] = offset;
+            }
+            final long end = i + 1 < batches.size() ? offsets.get(i + 1) : rowCount;
+            groupRows[group] += end - offset;
+        }
+        final ExecutorService executor = SnowflakeTaskExecutor.createExecutor("Arrow-Reader", groupCount);
+        try {
+            final List<Future<BufferedDataTable>> futures = new ArrayList<>(groupCount);
+            for (int g = 0; g < groupCount; g++) {
+                final List<Object> group = groups.get(g);
+                final long firstRow = Math.max(0, groupOffsets[g]);
+                final long rows = groupRows[g];
+                final ExecutionContext subExec =
+                    exec.createSubExecutionContext(rowCount == 0 ? (1d / groupCount) : (rows / (double)rowCount));
+                futures.add(executor.submit(ThreadUtils.callableWithContext(
+                    () -> readGroup(subExec, group, fetch, spec, types, firstRow, rows))));
+            }
+            final BufferedDataTable[] tables = new BufferedDataTable[groupCount];
+            for (int g = 0; g < groupCount; g++) {
+                tables[g] = SnowflakeTaskExecutor.awaitResult(exec, futures.get(g),
+                    "Reading of the Arrow batches has been interrupted.");
+            }
+            exec.setMessage("Concatenating tables");
+            return tables.length == 1 ? tables[0] : exec.createConcatenateTable(exec, tables);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static BufferedDataTable readGroup(final ExecutionContext exec, final List<Object> batches,
+        final Method fetch, final DataTableSpec spec, final SnowflakeArrowColumnType[] types, final long firstRow,
+        final long rowCount) throws CanceledExecutionException, SQLException, IOException {
+        try (RowContainer container = exec.createRowContainer(spec);
+                RowWriteCursor cursor = container.createCursor()) {
+            long rowIndex = firstRow;
+            for (final Object batch : batches) {
+                exec.checkCanceled();
+                final List<?> roots;
+                try {
+                    roots = (List<?>)fetch.invoke(batch);
+                } catch (final ReflectiveOperationException e) {
+                    throw toSQLException(e);
+                }
+                try {
+                    for (final Object root : roots) {
+                        rowIndex = writeRoot(root, cursor, types, rowIndex);
+                    }
+                } finally {
+                    close(roots);
+                }
+                exec.setProgress((rowIndex - firstRow) / (double)Math.max(1, rowCount),
+                    "Reading Arrow batches");
+            }
+            return container.finish();
+        }
+    }
+
+    private static long writeRoot(final Object root, final RowWriteCursor cursor,
+        final SnowflakeArrowColumnType[] types, final long firstRow) throws SQLException {
+        final List<?> vectors;
+        final int rows;
+        try {
+            vectors = (List<?>)root.getClass().getMethod("getFieldVectors").invoke(root);
+            rows = ((Number)root.getClass().getMethod("getRowCount").invoke(root)).intValue();
+        } catch (final ReflectiveOperationException e) {
+            throw toSQLException(e);
+        }
+        if (vectors.size() != types.length) {
+            throw new SQLException(String.format("Arrow batch has %d instead of %d columns.", vectors.size(),
+                types.length));
+        }
+        final SnowflakeArrowVector[] columns = new SnowflakeArrowVector[types.length];
+        final CellReader[] readers = new CellReader[types.length];
+        for (int c = 0; c < types.length; c++) {
+            //the vector types might change between batches e.g. the width of the integer vectors
+            columns[c] = new SnowflakeArrowVector(vectors.get(c));
+            readers[c] = types[c].createReader(columns[c]);
+        }
+        long rowIndex = firstRow;
+        for (int r = 0; r < rows; r++) {
+            final RowWrite row = cursor.forward();
+            row.setRowKey(ROW_KEY_PREFIX + rowIndex++);
+            for (int c = 0; c < columns.length; c++) {
+                if (columns[c].isNull(r)) {
+                    row.setMissing(c);
+                } else {
+                    readers[c].read(r, row, c);
+                }
+            }
+        }
+        return rowIndex;
+    }
+
+    private static void close(final List<?> roots) {
+        for (final Object root : roots) {
+            if (root instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable)root).close();
+                } catch (final Exception e) {
+                    LOGGER.debug("Exception while releasing Arrow batch: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static BufferedDataTable readRows(final ExecutionContext exec, final ResultSet resultSet,
+        final DataTableSpec spec, final SnowflakeArrowColumnType[] types)
+        throws CanceledExecutionException, SQLException, IOException {
+        try (RowContainer container = exec.createRowContainer(spec);
+                RowWriteCursor cursor = container.createCursor()) {
+            long rowIndex = 0;
+            while (resultSet.next()) {
+                if (rowIndex % PROGRESS_INTERVAL == 0) {
+                    exec.checkCanceled();
+                    exec.setMessage("Reading row " + rowIndex);
+                }
+                final RowWrite row = cursor.forward();
+                row.setRowKey(ROW_KEY_PREFIX + rowIndex++);
+                for (int c = 0; c < types.length; c++) {
+                    types[c].read(resultSet, c + 1, row, c);
+                }
+            }
+            return container.finish();
+        }
+    }
+
+    private static SQLException toSQLException(final ReflectiveOperationException e) {
+        final Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+        if (cause instanceof SQLException) {
+            return (SQLException)cause;
+        }
+        return new SQLException("Reading of Arrow batches failed: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * The methods of the Arrow batches of the driver.
+     */
+    static final class ArrowBatchAccess {
+
+        private final Method m_hasNext;
+
+        private final Method m_next;
+
+        private final Method m_getRowCount;
+
+        private final Method m_fetch;
+
+        private ArrowBatchAccess(final Method hasNext, final Method next, final Method getRowCount,
+            final Method fetch) {
+            m_hasNext = hasNext;
+            m_next = next;
+            m_getRowCount = getRowCount;
+            m_fetch = fetch;
+        }
+
+        /**
+         * Resolves the methods of the Arrow batches and checks that their vectors can be accessed.
+         *
+         * @param batchesClass the {@code ArrowBatches} class of the driver or {@code null} if not available
+         * @param batchClass the {@code ArrowBatch} class of the driver or {@code null} if not available
+         * @param valueVectorClass the shaded Arrow {@code ValueVector} interface of the driver or {@code null} if
+         *            not available
+         * @return the {@link ArrowBatchAccess} or {@code null} if the result has to be read via the
+         *         {@link ResultSet}
+         */
+        static ArrowBatchAccess resolve(final Class<?> batchesClass, final Class<?> batchClass,
+            final Class<?> valueVectorClass) {
+            if (batchesClass == null || batchClass == null || valueVectorClass == null) {
+                LOGGER.debug("Arrow classes not found in Snowflake driver.");
+                return null;
+            }
+            if (!SnowflakeArrowVector.isAccessible(valueVectorClass)) {
+                LOGGER.debug("Arrow vectors of the Snowflake driver can not be accessed.");
+                return null;
+            }
+            try {
+                return new ArrowBatchAccess(batchesClass.getMethod("hasNext"), batchesClass.getMethod("next"),
+                    batchClass.getMethod("getRowCount"), batchClass.getMethod("fetch"));
+            } catch (final NoSuchMethodException | RuntimeException e) { //NOSONAR the caller falls back
+                LOGGER.debug("Arrow batches of the Snowflake driver can not be accessed: " + e.getMessage());
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/**
+ * Conversions of the values in the Arrow result chunks of Snowflake into Java values. Snowflake encodes numbers with
+ * a scale as unscaled integers, times and timestamps as scaled integers since midnight or the epoch and the time zone
+ * of a {@code TIMESTAMP_TZ} value as offset in minutes plus 1440.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SnowflakeArrowValues {
+
+    /** The largest integer up to which all integers are exactly representable as double. */
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    private static final int NANO_SCALE = 9;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = new double[23];
+    static {
+        DOUBLE_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < DOUBLE_POWERS_OF_TEN.length; i++) {
+            DOUBLE_POWERS_OF_TEN[i] = DOUBLE_POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private SnowflakeArrowValues() {
+        //utility class
+    }
+
+    /**
+     * @param unscaled the unscaled value of a {@code NUMBER}
+     * @param scale the scale of the number
+     * @return the closest double to the number
+     */
+    static double toDouble(final long unscaled, final int scale) {
+        if (scale == 0) {
+            return unscaled;
+        }
+        if (scale < DOUBLE_POWERS_OF_TEN.length && Math.abs(unscaled) <= MAX_EXACT_DOUBLE) {
+            //both operands are exact so that the division is correctly rounded
+            return unscaled / DOUBLE_POWERS_OF_TEN[scale];
+        }
+        return BigDecimal.valueOf(unscaled, scale).doubleValue();
+    }
+
+    /**
+     * @param value the value of an integral {@code NUMBER} that is not stored as primitive value e.g. because it
+     *            exceeds the range of a long
+     * @return the value as long
+     * @throws SQLException if the value has a fraction or exceeds the range of a long
+     */
+    static long toLongExact(final Object value) throws SQLException {
+        try {
+            final BigDecimal decimal =
+                value instanceof BigDecimal ? (BigDecimal)value : new BigDecimal(value.toString());
+            return decimal.longValueExact();
+        } catch (final ArithmeticException | NumberFormatException e) {
+            throw new SQLException("Value " + value + " can not be read as long: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param unscaled the unscaled value of a {@code NUMBER}
+     * @param scale the scale of the number
+     * @return the number without exponent
+     */
+    static String toString(final long unscaled, final int scale) {
+        return scale == 0 ? Long.toString(unscaled) : BigDecimal.valueOf(unscaled, scale).toPlainString();
+    }
+
+    /**
+     * @param scaled the fractional seconds since midnight
+     * @param scale the number of fractional digits
+     * @return the time
+     */
+    static LocalTime toLocalTime(final long scaled, final int scale) {
+        return LocalTime.ofNanoOfDay(scaled * POWERS_OF_TEN[NANO_SCALE - scale]);
+    }
+
+    /**
+     * @param scaled the fractional seconds since the epoch
+     * @param scale the number of fractional digits
+     * @return the instant
+     */
+    static Instant toInstant(final long scaled, final int scale) {
+        final long factor = POWERS_OF_TEN[scale];
+        return Instant.ofEpochSecond(Math.floorDiv(scaled, factor),
+            Math.floorMod(scaled, factor) * POWERS_OF_TEN[NANO_SCALE - scale]);
+    }
+
+    /**
+     * @param timezone the time zone index of a {@code TIMESTAMP_TZ} value
+     * @return the offset of the time zone
+     */
+    static ZoneOffset toZoneOffset(final long timezone) {
+        return ZoneOffset.ofTotalSeconds((int)(timezone - 1440) * 60);
+    }
+
+    /**
+     * @param bytes the value of a {@code BINARY} column
+     * @return the upper case hex string as returned by the {@code ResultSet}
+     */
+    static String toHex(final byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = Character.toUpperCase(Character.forDigit((bytes[i] >> 4) & 0xF, 16));
+            chars[2 * i + 1] = Character.toUpperCase(Character.forDigit(bytes[i] & 0xF, 16));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reflective view on an Arrow vector of a Snowflake result chunk. The Snowflake JDBC driver ships a shaded copy of
+ * Apache Arrow that is loaded by the driver class loader which is why the vectors are accessed via method handles
+ * that are resolved once per vector instead of per value.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SnowflakeArrowVector {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private static final MethodType IS_NULL_TYPE = MethodType.methodType(boolean.class, int.class);
+
+    private static final MethodType LONG_TYPE = MethodType.methodType(long.class, int.class);
+
+    private static final MethodType DOUBLE_TYPE = MethodType.methodType(double.class, int.class);
+
+    private static final MethodType BYTES_TYPE = MethodType.methodType(byte[].class, int.class);
+
+    private static final MethodType OBJECT_TYPE = MethodType.methodType(Object.class, int.class);
+
+    private final Object m_vector;
+
+    private final String m_typeName;
+
+    private final String m_logicalType;
+
+    private final int m_scale;
+
+    private final MethodHandle m_isNull;
+
+    private final MethodHandle m_getLong;
+
+    private final MethodHandle m_getDouble;
+
+    private final MethodHandle m_getBytes;
+
+    private final MethodHandle m_getObject;
+
+    /**
+     * Constructor.
+     *
+     * @param vector the shaded Arrow {@code FieldVector}
+     * @throws SQLException if the vector can not be accessed
+     */
+    SnowflakeArrowVector(final Object vector) throws SQLException {
+        m_vector = vector;
+        final Class<?> vectorClass = vector.getClass();
+        m_typeName = vectorClass.getSimpleName();
+        try {
+            final Map<?, ?> metadata = getMetadata(vector);
+            final Object logicalType = metadata.get("logicalType");
+            m_logicalType = logicalType == null ? "" : logicalType.toString().toUpperCase(Locale.ROOT);
+            final Object scale = metadata.get("scale");
+            m_scale = scale == null ? 0 : Integer.parseInt(scale.toString());
+            m_isNull = LOOKUP.findVirtual(vectorClass, "isNull", IS_NULL_TYPE).bindTo(vector);
+            m_getObject = LOOKUP.unreflect(vectorClass.getMethod("getObject", int.class)).bindTo(vector)
+                .asType(OBJECT_TYPE);
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            throw new SQLException("Unsupported Arrow vector " + m_typeName + ": " + e.getMessage(), e);
+        }
+        final MethodHandle get = findGetter(vectorClass);
+        final Class<?> valueType = get == null ? null : get.type().returnType();
+        m_getLong = valueType == long.class || valueType == int.class || valueType == short.class
+            || valueType == byte.class ? get.bindTo(vector).asType(LONG_TYPE) : null;
+        m_getDouble = valueType == double.class || valueType == float.class ? get.bindTo(vector).asType(DOUBLE_TYPE)
+            : null;
+        m_getBytes = valueType == byte[].class ? get.bindTo(vector).asType(BYTES_TYPE) : null;
+    }
+
+    /**
+     * Checks if the methods that are needed for every vector can be resolved on the vector interface of the driver.
+     * This allows the reader to fall back to the {@link java.sql.ResultSet} before it consumes the Arrow batches of a
+     * driver whose shaded Arrow classes do not match.
+     *
+     * @param valueVectorClass the shaded Arrow {@code ValueVector} interface of the driver
+     * @return {@code true} if the vectors of the driver can be accessed
+     */
+    static boolean isAccessible(final Class<?> valueVectorClass) {
+        try {
+            LOOKUP.findVirtual(valueVectorClass, "isNull", IS_NULL_TYPE);
+            LOOKUP.unreflect(valueVectorClass.getMethod("getObject", int.class));
+            valueVectorClass.getMethod("getField").getReturnType().getMethod("getMetadata");
+            return true;
+        } catch (final ReflectiveOperationException | RuntimeException e) { //NOSONAR the caller falls back
+            return false;
+        }
+    }
+
+    private static Map<?, ?> getMetadata(final Object vector) throws ReflectiveOperationException {
+        final Object field = vector.getClass().getMethod("getField").invoke(vector);
+        final Object metadata = field.getClass().getMethod("getMetadata").invoke(field);
+        return metadata instanceof Map ? (Map<?, ?>)metadata : Map.of();
+    }
+
+    /**
+     * @return the {@code get(int)} method of the vector that returns the primitive value or {@code null} if the
+     *         vector does not have such a method e.g. for decimal or struct vectors
+     */
+    private static MethodHandle findGetter(final Class<?> vectorClass) {
+        try {
+            final Method method = vectorClass.getMethod("get", int.class);
+            return LOOKUP.unreflect(method);
+        } catch (final ReflectiveOperationException | RuntimeException e) { //NOSONAR not all vectors have a getter
+            return null;
+        }
+    }
+
+    private static SQLException failure(final Throwable t) {
+        if (t instanceof Error) {
+            throw (Error)t;
+        }
+        if (t instanceof SQLException) {
+            return (SQLException)t;
+        }
+        return new SQLException("Reading of Arrow vector value failed: " + t.getMessage(), t);
+    }
+
+    /**
+     * @return the simple class name of the vector e.g. {@code BigIntVector}
+     */
+    String getTypeName() {
+        return m_typeName;
+    }
+
+    /**
+     * @return the upper case Snowflake type of the column e.g. {@code FIXED} or {@code TIMESTAMP_NTZ} or an empty
+     *         string if the vector has no Snowflake metadata
+     */
+    String getLogicalType() {
+        return m_logicalType;
+    }
+
+    /**
+     * @return the scale of the column or 0 if the vector has no Snowflake metadata
+     */
+    int getScale() {
+        return m_scale;
+    }
+
+    /**
+     * @return {@code true} if {@link #getLong(int)} is supported
+     */
+    boolean hasLong() {
+        return m_getLong != null;
+    }
+
+    /**
+     * @return {@code true} if {@link #getDouble(int)} is supported
+     */
+    boolean hasDouble() {
+        return m_getDouble != null;
+    }
+
+    /**
+     * @return {@code true} if {@link #getBytes(int)} is supported
+     */
+    boolean hasBytes() {
+        return m_getBytes != null;
+    }
+
+    /**
+     * @return {@code true} if the vector is a struct vector with child vectors
+     */
+    boolean isStruct() {
+        return "StructVector".equals(m_typeName);
+    }
+
+    /**
+     * @param name the name of the child vector
+     * @return the child vector of a {@linkplain #isStruct() struct vector} or {@code null} if it does not exist
+     * @throws SQLException if the child can not be accessed
+     */
+    SnowflakeArrowVector getChild(final String name) throws SQLException {
+        try {
+            final Object child = m_vector.getClass().getMethod("getChild", String.class).invoke(m_vector, name);
+            return child == null ? null : new SnowflakeArrowVector(child);
+        } catch (final ReflectiveOperationException e) {
+            throw failure(e);
+        }
+    }
+
+    boolean isNull(final int index) throws SQLException {
+        try {
+            return (boolean)m_isNull.invokeExact(index);
+        } catch (final Throwable t) { //NOSONAR method handles throw Throwable
+            throw failure(t);
+        }
+    }
+
+    long getLong(final int index) throws SQLException {
+        try {
+            return (long)m_getLong.invokeExact(index);
+        } catch (final Throwable t) { //NOSONAR method handles throw Throwable
+            throw failure(t);
+        }
+    }
+
+    double getDouble(final int index) throws SQLException {
+        try {
+            return (double)m_getDouble.invokeExact(index);
+        } catch (final Throwable t) { //NOSONAR method handles throw Throwable
+            throw failure(t);
+        }
+    }
+
+    byte[] getBytes(final int index) throws SQLException {
+        try {
+            return (byte[])m_getBytes.invokeExact(index);
+        } catch (final Throwable t) { //NOSONAR method handles throw Throwable
+            throw failure(t);
+        }
+    }
+
+    Object getObject(final int index) throws SQLException {
+        try {
+            return (Object)m_getObject.invokeExact(index);
+        } catch (final Throwable t) { //NOSONAR method handles throw Throwable
+            throw failure(t);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return m_typeName + (m_logicalType.isEmpty() ? "" : ("(" + m_logicalType + ")"));
+    }
+}
@@ -49,15 +49,30 @@
 import static org.apache.commons.io.FileUtils.byteCountToDisplaySize;
 import static org.apache.commons.io.FileUtils.sizeOf;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.security.GeneralSecurityException;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.URIUtil;
@@ -69,7 +84,13 @@
 import org.knime.database.agent.loader.DBLoadTableFromFileParameters;
 import org.knime.database.agent.loader.DBLoader;
 import org.knime.database.dialect.DBSQLDialect;
+import org.knime.database.extension.snowflake.pipe.SnowpipeClient;
+import org.knime.database.extension.snowflake.pipe.SnowpipeFileStatus;
+import org.knime.database.extension.snowflake.pipe.SnowpipeKeyPairToken;
+import org.knime.database.extension.snowflake.pipe.SnowpipeLoadSettings;
+import org.knime.database.model.DBColumn;
 import org.knime.database.model.DBTable;
+import org.knime.database.model.impl.DefaultDBTable;
 import org.knime.database.session.DBSession;
 import org.knime.database.session.DBSessionReference;
 import org.knime.filehandling.core.connections.DefaultFSConnectionFactory;
@@ -90,6 +111,14 @@ public class SnowflakeDBLoader implements DBLoader {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(SnowflakeDBLoader.class);
 
+    private static final int MAX_REPORTED_VALIDATION_ERRORS = 10;
+
+    private static final int DELETED_KEYS_BATCH_SIZE = 100_000;
+
+    private static final String DELTA_TABLE_PREFIX = "KNIME_DELTA_";
+
+    private static final int PARTITION_BATCH_SIZE = 1_000;
+
     private final DBSessionReference m_sessionReference;
 
     /**
@@ -106,23 +135,28 @@ public void load(final ExecutionMonitor exec, final Object parameters) throws Ex
         @SuppressWarnings("unchecked")
         final DBLoadTableFromFileParameters<SnowflakeLoaderSettings> loadParameters =
             (DBLoadTableFromFileParameters<SnowflakeLoaderSettings>)parameters;
+        //the persisted results of the session might no longer reflect the loaded table
+        SnowflakeResultReuse.invalidate(m_sessionReference.get());
         final String filePath = loadParameters.getFilePath();
         try (FSConnection fsConnection = DefaultFSConnectionFactory.createLocalFSConnection();
                 FSFileSystem<?> fs = fsConnection.getFileSystem();) {
             final FSPath tempFile = fs.getPath(filePath);
-            final List<FSPath> files;
             if (FSFiles.isDirectory(tempFile, LinkOption.NOFOLLOW_LINKS)) {
-                files = FSFiles.getFilePathsFromFolder(tempFile);
+                copyAndLoadFile(exec, loadParameters, fsConnection, FSFiles.getFilePathsFromFolder(tempFile),
+                    tempFile);
             } else {
-                files = List.of(tempFile);
+                copyAndLoadFile(exec, loadParameters, fsConnection, List.of(tempFile), null);
             }
-            copyAndLoadFile(exec, loadParameters, fsConnection, files);
         }
     }
 
+    /**
+     * @param folder the folder that contains only the given files or {@code null} if the files are not loaded from
+     *            a folder
+     */
     private void copyAndLoadFile(final ExecutionMonitor exec,
         final DBLoadTableFromFileParameters<SnowflakeLoaderSettings> loadParameters, final FSConnection fsConnection,
-        final List<FSPath> tempFiles)
+        final List<FSPath> tempFiles, final FSPath folder)
         throws URISyntaxException, CanceledExecutionException, SQLException, InvalidSettingsException {
         final DBTable table = loadParameters.getTable();
         final SnowflakeLoaderSettings additionalSettings = loadParameters.getAdditionalSettings()
@@ -131,49 +165,101 @@ private void copyAndLoadFile(final ExecutionMonitor exec,
         final DBSQLDialect dialect = session.getDialect();
 
         exec.setMessage("Loading data files into Snowflake...");
-        final String stageName = getStageName(additionalSettings, table, dialect);
+        final boolean stageOnly = additionalSettings.getLoadMode() == SnowflakeLoaderMode.STAGE_ONLY;
+        //the files that are queried in place are uploaded into a named stage that is visible to all connections
+        final String stageName = stageOnly ? dialect.createFullName(getStagedFilesView(table, dialect))
+            : getStageName(additionalSettings, table, dialect);
         final SnowflakeLoaderFileFormat fileFormat = additionalSettings.getFileFormat();
         //https://docs.snowflake.com/en/sql-reference/sql/put.html
         final String putParameter = fileFormat.getPutParameter(additionalSettings);
         //https://docs.snowflake.com/en/sql-reference/sql/copy-into-table.html#optional-parameters
         final String copyParameter = fileFormat.getCopyParameter(additionalSettings);
+        final String copyTarget =
+            dialect.createFullName(table) + SnowflakeLoaderFileFormat.getCopyColumnList(additionalSettings, dialect);
         final List<String> stagedFileNames = new LinkedList<>();
         try (Connection connection = session.getConnectionProvider().getConnection(exec);
                 Statement statement = connection.createStatement()) {
             final ExecutionMonitor subexec = exec.createSubProgress(0.4);
-            int i = 1;
+            if (stageOnly) {
+                exec.setMessage("Creating stage");
+                //replaces the stage and thus the staged files of a previous load of the same table
+                statement.execute("CREATE OR REPLACE STAGE " + stageName + " \nFILE_FORMAT=("
+                    + SnowflakeLoaderFileFormat.getCsvFormatOptions(additionalSettings) + "\n)");
+            }
             final int fileCount = tempFiles.size();
-            for (FSPath tempFile : tempFiles) {
-                stagedFileNames.add(tempFile.getFileName().toString());
-                final String fileURI = toLocalURI(fsConnection, tempFile);
-                //https://docs.snowflake.com/en/sql-reference/sql/put.html#required-parameters for path specification
-                final String putFileCommand = "PUT '" + fileURI + "' " + "'@" + stageName + "' " + putParameter;
+            if (folder != null && fileCount > 1) {
+                //a single PUT with a wildcard uploads the files of the folder in parallel
+                tempFiles.forEach(tempFile -> stagedFileNames.add(tempFile.getFileName().toString()));
+                String folderURI = toLocalURI(fsConnection, folder);
+                if (!folderURI.endsWith("/")) {
+                    folderURI += "/";
+                }
                 subexec.checkCanceled();
+                final long totalSize = tempFiles.stream().mapToLong(tempFile -> sizeOf(tempFile.toFile())).sum();
                 subexec.setMessage(
-                    format("Uploading file %d of %d of size %s (this might take some time without progress changes)", i,
+                    format("Uploading %d files of size %s (this might take some time without progress changes)",
+                        fileCount, byteCountToDisplaySize(totalSize)));
+                statement.execute("PUT '" + folderURI + "*' " + "'@" + stageName + "' " + putParameter);
+            } else {
+                int i = 1;
+                for (FSPath tempFile : tempFiles) {
+                    stagedFileNames.add(tempFile.getFileName().toString());
+                    final String fileURI = toLocalURI(fsConnection, tempFile);
+                    //https://docs.snowflake.com/en/sql-reference/sql/put.html#required-parameters for path
+                    //specification
+                    final String putFileCommand = "PUT '" + fileURI + "' " + "'@" + stageName + "' " + putParameter;
+                    subexec.checkCanceled();
+                    subexec.setMessage(format(
+                        "Uploading file %d of %d of size %s (this might take some time without progress changes)", i,
                         fileCount, byteCountToDisplaySize(sizeOf(tempFile.toFile()))));
-                statement.execute(putFileCommand);
-                subexec.setProgress(i++ / (double)fileCount);
+                    statement.execute(putFileCommand);
+                    subexec.setProgress(i++ / (double)fileCount);
+                }
             }
             subexec.setProgress(1, "All data files successful loaded into Snowflake");
-            //the purge command tells Snowflake to delete the file after successful loading so we don't need to do it
-            //https://docs.snowflake.com/en/sql-reference/sql/copy-into-table.html
-            final String copyFileCommand = "COPY INTO " + dialect.createFullName(table) + " \nFROM '@" + stageName + "'"
-                + createFilesList(stagedFileNames) + copyParameter + "\n PURGE=TRUE";
+            final String copySource = fileFormat.getCopySource(additionalSettings, stageName, dialect)
+                + createFilesList(stagedFileNames) + copyParameter;
+            if (additionalSettings.isValidationOnly()) {
+                validateStagedFiles(exec, statement, copyTarget, stageName, stagedFileNames, copySource);
+                return;
+            }
+            if (stageOnly) {
+                createStagedFilesView(exec, statement, table, dialect, additionalSettings, stageName);
+                return;
+            }
+            if (additionalSettings.getSnowpipe().isPresent()) {
+                loadWithSnowpipe(exec, connection, table, additionalSettings.getSnowpipe().get(), stagedFileNames);
+                return;
+            }
+            if (additionalSettings.getLoadMode() == SnowflakeLoaderMode.DELTA) {
+                mergeStagedFiles(exec, connection, statement, table, dialect, additionalSettings, copySource);
+                exec.setMessage("Data merged successful into Snowflake table: " + table.toString());
+                exec.setProgress(1);
+                return;
+            }
             exec.checkCanceled();
-            exec.setMessage(
-                "Loading staged data into Snowflake table (this might take some time without progress changes)");
-            statement.execute(copyFileCommand);
+            if (additionalSettings.getLoadMode() == SnowflakeLoaderMode.PARTITION_OVERWRITE) {
+                overwritePartitions(exec, connection, statement, table, dialect, additionalSettings, copyTarget,
+                    copySource);
+                //the files are not purged by the copy command since the transaction might be rolled back
+                removeStagedFiles(exec, statement, stageName, stagedFileNames);
+            } else {
+                exec.setMessage(
+                    "Loading staged data into Snowflake table (this might take some time without progress changes)");
+                statement.execute(createCopyCommand(copyTarget, copySource));
+            }
             exec.setMessage("Data loaded successful into Snowflake table: " + table.toString());
             exec.setProgress(1);
         } catch (final Throwable throwable) {
             try (Connection connection = session.getConnectionProvider().getConnection(exec);
                     Statement statement = connection.createStatement()) {
-                for (String stagedFileName : stagedFileNames) {
-                    //try to remove the staged file only on exception since we use the purge option in the copy command
-                    final String deleteFileCommand = "REMOVE " + "'@" + stageName + "/" + stagedFileName + "'";
-                    exec.setMessage("Deleting staged file");
-                    statement.execute(deleteFileCommand);
+                if (stageOnly) {
+                    //the view and the stage of the stage only mode are only kept if the load succeeds
+                    dropStagedFilesView(statement, table, dialect);
+                } else {
+                    //try to remove the staged file only on exception since we use the purge option in the copy
+                    //command
+                    removeStagedFiles(exec, statement, stageName, stagedFileNames);
                 }
             } catch (final Throwable t) {
                 LOGGER.debug("Exception while removing staged file: " + t.getMessage());
@@ -182,6 +268,391 @@ private void copyAndLoadFile(final ExecutionMonitor exec,
         }
     }
 
+    /**
+     * Registers the staged files with the pipe and optionally waits until the pipe processed them. The staged files
+     * are owned by the pipe once they are registered which is why they are no longer removed on failure.
+     */
+    private static void loadWithSnowpipe(final ExecutionMonitor exec, final Connection connection,
+        final DBTable table, final SnowpipeLoadSettings snowpipe, final List<String> stagedFileNames)
+        throws SQLException, IOException, CanceledExecutionException {
+        final DatabaseMetaData metaData = connection.getMetaData();
+        final URI baseUri = SnowpipeClient.getBaseUri(metaData.getURL());
+        final SnowpipeKeyPairToken token;
+        try {
+            token = new SnowpipeKeyPairToken(SnowpipeKeyPairToken.getAccountIdentifier(baseUri.getHost()),
+                metaData.getUserName(), snowpipe.getPrivateKey());
+        } catch (final GeneralSecurityException e) {
+            throw new SQLException("Invalid private key for Snowpipe: " + e.getMessage(), e);
+        }
+        final String pipeName = getPipeName(connection, table, snowpipe.getPipeName());
+        final SnowpipeClient client = new SnowpipeClient(baseUri, pipeName, token);
+        exec.setMessage(format("Registering %d staged files with pipe %s", stagedFileNames.size(), pipeName));
+        client.insertFiles(stagedFileNames);
+        final List<String> files = new ArrayList<>(stagedFileNames);
+        stagedFileNames.clear();
+        final Optional<Duration> timeout = snowpipe.getTimeout();
+        if (timeout.isEmpty()) {
+            exec.setMessage("Staged files registered with pipe " + pipeName);
+            exec.setProgress(1);
+            return;
+        }
+        final Collection<SnowpipeFileStatus> states =
+            client.awaitFiles(exec.createSubProgress(0.6), files, timeout.get()).values();
+        final List<SnowpipeFileStatus> failed = states.stream().filter(state -> !state.isLoaded()).toList();
+        if (!failed.isEmpty()) {
+            throw new SQLException(format("Snowpipe failed to load %d of %d files:%n%s", failed.size(), files.size(),
+                failed.stream().limit(MAX_REPORTED_VALIDATION_ERRORS).map(SnowpipeFileStatus::toString)
+                    .collect(Collectors.joining(System.lineSeparator()))));
+        }
+        exec.setMessage(format("Snowpipe loaded %d rows into Snowflake table: %s",
+            states.stream().mapToLong(SnowpipeFileStatus::getRowsInserted).sum(), table));
+        exec.setProgress(1);
+    }
+
+    /**
+     * Qualifies the pipe name with the database and schema of the table or the connection if it does not contain
+     * them already.
+     */
+    private static String getPipeName(final Connection connection, final DBTable table, final String pipeName)
+        throws SQLException {
+        if (pipeName.indexOf('.') >= 0) {
+            return pipeName;
+        }
+        final String database = StringUtils.defaultIfBlank(table.getCatalogName(), connection.getCatalog());
+        final String schema = StringUtils.defaultIfBlank(table.getSchemaName(), connection.getSchema());
+        if (StringUtils.isAnyBlank(database, schema)) {
+            throw new SQLException("The pipe name must be fully qualified since the connection has no database or "
+                + "schema: " + pipeName);
+        }
+        return database + "." + schema + "." + pipeName;
+    }
+
+    /**
+     * Creates a view that queries the staged files in place. The file format is part of the stage. The view and the
+     * stage are no temporary objects since those are bound to the session of a single connection and would not be
+     * visible to downstream nodes that use another connection. They replace the objects of a previous load of the
+     * same table and remain until they are dropped.
+     */
+    private static void createStagedFilesView(final ExecutionMonitor exec, final Statement statement,
+        final DBTable table, final DBSQLDialect dialect, final SnowflakeLoaderSettings settings,
+        final String stageName) throws CanceledExecutionException, SQLException {
+        exec.checkCanceled();
+        exec.setMessage("Creating view on staged files");
+        final DBTable view = getStagedFilesView(table, dialect);
+        //https://docs.snowflake.com/en/user-guide/querying-stage
+        statement.execute(createStagedFilesViewCommand(dialect.createFullName(view), stageName,
+            settings.getStagedColumnTypes(), dialect));
+        exec.setMessage("Created view " + view + " on staged files");
+        exec.setProgress(1);
+    }
+
+    /**
+     * Returns the view that queries the files which are staged for the given table in the
+     * {@link SnowflakeLoaderMode#STAGE_ONLY stage only mode}. The stage of the files has the same name. The name is
+     * derived from the table name but differs from it so that an existing table is never replaced.
+     *
+     * @param table the table the files are staged for
+     * @param dialect the {@link DBSQLDialect} of the session
+     * @return the view that queries the staged files
+     */
+    public static DBTable getStagedFilesView(final DBTable table, final DBSQLDialect dialect) {
+        final String hash = Integer.toHexString(dialect.createFullName(table).hashCode());
+        final String name =
+            ("KNIME_STAGED_" + table.getName().replaceAll("\\W", "_") + "_" + hash).toUpperCase(Locale.ROOT);
+        return new DefaultDBTable(name, table.getSchemaName(), table.getCatalogName());
+    }
+
+    static String createStagedFilesViewCommand(final String viewName, final String stageName,
+        final Map<String, String> columnTypes, final DBSQLDialect dialect) {
+        final List<String> expressions = new ArrayList<>(columnTypes.size());
+        int position = 1;
+        for (final Map.Entry<String, String> column : columnTypes.entrySet()) {
+            expressions.add("$" + position++ + "::" + column.getValue() + " AS " + dialect.delimit(column.getKey()));
+        }
+        return "CREATE OR REPLACE VIEW " + viewName + " AS \nSELECT " + String.join(", ", expressions)
+            + " \nFROM @" + stageName;
+    }
+
+    /**
+     * Drops the view and the stage with the staged files of the {@link SnowflakeLoaderMode#STAGE_ONLY stage only
+     * mode} if they exist.
+     */
+    private static void dropStagedFilesView(final Statement statement, final DBTable table,
+        final DBSQLDialect dialect) {
+        final String name = dialect.createFullName(getStagedFilesView(table, dialect));
+        try {
+            statement.execute("DROP VIEW IF EXISTS " + name);
+            statement.execute("DROP STAGE IF EXISTS " + name);
+        } catch (final SQLException e) {
+            LOGGER.debug("Exception while dropping view and stage " + name + ": " + e.getMessage());
+        }
+    }
+
+    static String createCopyCommand(final String copyTarget, final String copySource) {
+        return createCopyCommand(copyTarget, copySource, true);
+    }
+
+    /**
+     * @param purge {@code true} if the loaded files should be removed from the stage by Snowflake. The purge is not
+     *            part of the transaction which is why files that are loaded within an explicit transaction must be
+     *            removed after the commit instead.
+     */
+    static String createCopyCommand(final String copyTarget, final String copySource, final boolean purge) {
+        //the purge command tells Snowflake to delete the file after successful loading so we don't need to do it
+        //https://docs.snowflake.com/en/sql-reference/sql/copy-into-table.html
+        return "COPY INTO " + copyTarget + " \nFROM " + copySource + (purge ? "\n PURGE=TRUE" : "");
+    }
+
+    /**
+     * Creates a transient table with the columns of the target table and copies the staged files into it. Regular
+     * transient tables are used since temporary tables are bound to the session of a single connection.
+     */
+    private static void copyIntoStagingTable(final ExecutionMonitor exec, final Statement statement,
+        final String tableName, final String stagingTable, final DBSQLDialect dialect,
+        final SnowflakeLoaderSettings settings, final String copySource)
+        throws CanceledExecutionException, SQLException {
+        exec.checkCanceled();
+        exec.setMessage("Loading staged data into staging table (this might take some time without progress "
+            + "changes)");
+        statement.execute("CREATE TRANSIENT TABLE " + stagingTable + " LIKE " + tableName);
+        statement.execute(createCopyCommand(
+            stagingTable + SnowflakeLoaderFileFormat.getCopyColumnList(settings, dialect), copySource));
+    }
+
+    private static String createStagingTableName(final DBTable table, final DBSQLDialect dialect,
+        final String prefix) {
+        final String suffix = UUID.randomUUID().toString().replace("-", "").toUpperCase(Locale.ROOT);
+        return dialect.createFullName(table.getCatalogName(), table.getSchemaName(), prefix + suffix);
+    }
+
+    /**
+     * Copies the staged files with the new and changed rows into a transient staging table and applies them with a
+     * set based {@code MERGE} to the target table. The table rows of the deleted keys are removed before the merge.
+     * This way rows whose key hash differs between KNIME and Snowflake are deleted and inserted again instead of
+     * being lost. Since DDL statements commit the current transaction in Snowflake, the staging tables are created
+     * and filled first and only the {@code DELETE} and {@code MERGE} are executed within one transaction.
+     */
+    private static void mergeStagedFiles(final ExecutionMonitor exec, final Connection connection,
+        final Statement statement, final DBTable table, final DBSQLDialect dialect,
+        final SnowflakeLoaderSettings settings, final String copySource)
+        throws CanceledExecutionException, SQLException {
+        final String tableName = dialect.createFullName(table);
+        final String stagingTable = createStagingTableName(table, dialect, DELTA_TABLE_PREFIX);
+        final String deletedKeysTable = createStagingTableName(table, dialect, DELTA_TABLE_PREFIX + "KEYS_");
+        try {
+            copyIntoStagingTable(exec, statement, tableName, stagingTable, dialect, settings, copySource);
+            final long[] deletedKeyHashes = settings.getDeletedKeyHashes();
+            if (deletedKeyHashes.length > 0) {
+                exec.checkCanceled();
+                statement.execute("CREATE TRANSIENT TABLE " + deletedKeysTable + " (KEY_HASH NUMBER(20,0))");
+                insertKeyHashes(exec, connection, deletedKeysTable, deletedKeyHashes);
+            }
+            exec.checkCanceled();
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (deletedKeyHashes.length > 0) {
+                    exec.setMessage(format("Deleting %d rows from Snowflake table", deletedKeyHashes.length));
+                    statement.execute("DELETE FROM " + tableName + " WHERE "
+                        + SnowflakeRowHash.createHashExpression(dialect, null, settings.getKeyColumns())
+                        + " IN (SELECT KEY_HASH FROM " + deletedKeysTable + ")");
+                    exec.checkCanceled();
+                }
+                exec.setMessage("Merging staged data into Snowflake table (this might take some time without "
+                    + "progress changes)");
+                statement.execute(createMergeCommand(tableName, stagingTable, dialect, settings));
+                connection.commit();
+            } catch (final CanceledExecutionException | SQLException | RuntimeException e) {
+                try {
+                    connection.rollback();
+                } catch (final SQLException rollbackException) {
+                    e.addSuppressed(rollbackException);
+                }
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } finally {
+            dropTable(statement, stagingTable);
+            dropTable(statement, deletedKeysTable);
+        }
+    }
+
+    /**
+     * Deletes the table rows of all partitions of the staged files and copies the staged files into the table within
+     * one transaction. The staged files are not purged so that they are still available if the transaction is rolled
+     * back and must be removed by the caller after the commit.
+     */
+    private static void overwritePartitions(final ExecutionMonitor exec, final Connection connection,
+        final Statement statement, final DBTable table, final DBSQLDialect dialect,
+        final SnowflakeLoaderSettings settings, final String copyTarget, final String copySource)
+        throws CanceledExecutionException, SQLException {
+        final String tableName = dialect.createFullName(table);
+        final List<List<Object>> partitions = settings.getPartitionValues();
+        final boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            exec.setMessage(format("Deleting %d partitions from Snowflake table", partitions.size()));
+            for (int start = 0; start < partitions.size(); start += PARTITION_BATCH_SIZE) {
+                exec.checkCanceled();
+                deletePartitions(connection, tableName, dialect, settings.getKeyColumns(),
+                    partitions.subList(start, Math.min(start + PARTITION_BATCH_SIZE, partitions.size())));
+            }
+            exec.setMessage(
+                "Loading staged data into Snowflake table (this might take some time without progress changes)");
+            statement.execute(createCopyCommand(copyTarget, copySource, false));
+            connection.commit();
+        } catch (final CanceledExecutionException | SQLException | RuntimeException e) {
+            try {
+                connection.rollback();
+            } catch (final SQLException rollbackException) {
+                e.addSuppressed(rollbackException);
+            }
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Deletes the table rows of the given partitions. Partitions without missing values are combined into a single
+     * {@code IN} predicate.
+     */
+    private static void deletePartitions(final Connection connection, final String tableName,
+        final DBSQLDialect dialect, final List<DBColumn> partitionColumns, final List<List<Object>> partitions)
+        throws SQLException {
+        final List<String> names =
+            partitionColumns.stream().map(c -> dialect.delimit(c.getName())).collect(Collectors.toList());
+        final boolean singleColumn = names.size() == 1;
+        final List<Object> parameters = new ArrayList<>();
+        final List<String> conditions = new ArrayList<>();
+        final List<String> inValues = new ArrayList<>();
+        final String tuple = singleColumn ? "?" : "(" + String.join(", ", Collections.nCopies(names.size(), "?")) + ")";
+        for (final List<Object> partition : partitions) {
+            if (!partition.contains(null)) {
+                inValues.add(tuple);
+                parameters.addAll(partition);
+            }
+        }
+        if (!inValues.isEmpty()) {
+            conditions.add((singleColumn ? names.get(0) : "(" + String.join(", ", names) + ")") + " IN ("
+                + String.join(", ", inValues) + ")");
+        }
+        for (final List<Object> partition : partitions) {
+            if (partition.contains(null)) {
+                final List<String> predicates = new ArrayList<>(names.size());
+                for (int i = 0; i < names.size(); i++) {
+                    final Object value = partition.get(i);
+                    if (value == null) {
+                        predicates.add(names.get(i) + " IS NULL");
+                    } else {
+                        predicates.add(names.get(i) + " = ?");
+                        parameters.add(value);
+                    }
+                }
+                conditions.add("(" + String.join(" AND ", predicates) + ")");
+            }
+        }
+        if (conditions.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement delete = connection
+            .prepareStatement("DELETE FROM " + tableName + " WHERE " + String.join("\n OR ", conditions))) {
+            for (int i = 0; i < parameters.size(); i++) {
+                delete.setObject(i + 1, parameters.get(i));
+            }
+            delete.executeUpdate();
+        }
+    }
+
+    private static void insertKeyHashes(final ExecutionMonitor exec, final Connection connection,
+        final String keyTable, final long[] keyHashes) throws CanceledExecutionException, SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + keyTable + " VALUES (?)")) {
+            for (int i = 0; i < keyHashes.length; i++) {
+                //the key hashes are unsigned 64 bit numbers
+                insert.setBigDecimal(1, new BigDecimal(Long.toUnsignedString(keyHashes[i])));
+                insert.addBatch();
+                if ((i + 1) % DELETED_KEYS_BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    exec.checkCanceled();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static String createMergeCommand(final String tableName, final String stagingTable,
+        final DBSQLDialect dialect, final SnowflakeLoaderSettings settings) {
+        final List<String> keyNames =
+            settings.getKeyColumns().stream().map(DBColumn::getName).collect(Collectors.toList());
+        final List<String> columnNames = settings.getColumnNames();
+        final String condition = keyNames.stream().map(c -> "t." + dialect.delimit(c) + " = s." + dialect.delimit(c))
+            .collect(Collectors.joining(" AND "));
+        final String update = columnNames.stream().filter(c -> !keyNames.contains(c))
+            .map(c -> "t." + dialect.delimit(c) + " = s." + dialect.delimit(c)).collect(Collectors.joining(", "));
+        final StringBuilder merge = new StringBuilder("MERGE INTO ").append(tableName).append(" t USING ")
+            .append(stagingTable).append(" s ON ").append(condition);
+        if (!update.isEmpty()) {
+            merge.append("\nWHEN MATCHED THEN UPDATE SET ").append(update);
+        }
+        merge.append("\nWHEN NOT MATCHED THEN INSERT (")
+            .append(columnNames.stream().map(dialect::delimit).collect(Collectors.joining(", ")))
+            .append(") VALUES (")
+            .append(columnNames.stream().map(c -> "s." + dialect.delimit(c)).collect(Collectors.joining(", ")))
+            .append(')');
+        return merge.toString();
+    }
+
+    private static void dropTable(final Statement statement, final String tableName) {
+        try {
+            statement.execute("DROP TABLE IF EXISTS " + tableName);
+        } catch (final SQLException e) {
+            LOGGER.debug("Exception while dropping table " + tableName + ": " + e.getMessage());
+        }
+    }
+
+    private static void removeStagedFiles(final ExecutionMonitor exec, final Statement statement,
+        final String stageName, final List<String> stagedFileNames) throws SQLException {
+        for (String stagedFileName : stagedFileNames) {
+            final String deleteFileCommand = "REMOVE " + "'@" + stageName + "/" + stagedFileName + "'";
+            exec.setMessage("Deleting staged file");
+            statement.execute(deleteFileCommand);
+        }
+    }
+
+    /**
+     * Validates the staged files with {@code VALIDATION_MODE = RETURN_ERRORS} without loading them and removes them
+     * afterwards.
+     *
+     * @throws SQLException if the validation returns errors
+     */
+    private static void validateStagedFiles(final ExecutionMonitor exec, final Statement statement,
+        final String copyTarget, final String stageName, final List<String> stagedFileNames, final String copySource)
+        throws CanceledExecutionException, SQLException {
+        //https://docs.snowflake.com/en/sql-reference/sql/copy-into-table.html#optional-parameters
+        final String validateCommand = "COPY INTO " + copyTarget + " \nFROM " + copySource
+            + "\n VALIDATION_MODE=RETURN_ERRORS";
+        exec.checkCanceled();
+        exec.setMessage("Validating staged sample data");
+        final List<String> errors = new LinkedList<>();
+        int errorCount = 0;
+        try (ResultSet resultSet = statement.executeQuery(validateCommand)) {
+            while (resultSet.next()) {
+                if (errorCount++ < MAX_REPORTED_VALIDATION_ERRORS) {
+                    errors.add(format("line %s, column %s: %s", resultSet.getString("LINE"),
+                        resultSet.getString("COLUMN_NAME"), resultSet.getString("ERROR")));
+                }
+            }
+        }
+        removeStagedFiles(exec, statement, stageName, stagedFileNames);
+        stagedFileNames.clear();
+        if (errorCount > 0) {
+            throw new SQLException(format("Validation of the sample data failed with %d error(s):%n%s", errorCount,
+                String.join(System.lineSeparator(), errors)));
+        }
+        exec.setMessage("Sample data successful validated");
+    }
+
     private static String toLocalURI(final FSConnection fsConnection, final FSPath tempFile) throws Exception {
         final URIExporter exporter =
             ((NoConfigURIExporterFactory)fsConnection.getURIExporterFactory(URIExporterIDs.KNIME_FILE)).getExporter();
@@ -190,11 +661,11 @@ private static String toLocalURI(final FSConnection fsConnection, final FSPath t
         return URIUtil.toUnencodedString(localPath.toUri());
     }
 
-    private static String createFilesList(final List<String> stagedFileNames) {
+    static String createFilesList(final List<String> stagedFileNames) {
         return " FILES=('" + String.join("','", stagedFileNames) + "') ";
     }
 
-    private static String getStageName(final SnowflakeLoaderSettings additionalSettings, final DBTable table,
+    static String getStageName(final SnowflakeLoaderSettings additionalSettings, final DBTable table,
         final DBSQLDialect dialect) throws InvalidSettingsException {
         //stage name must be in single quotes for special characters see
         //https://docs.snowflake.com/en/sql-reference/sql/put.html#required-parameters
@@ -0,0 +1,286 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.core.runtime.URIUtil;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
+import org.knime.database.session.DBSession;
+
+/**
+ * Unloads the result of a query with {@code COPY INTO <location>} as CSV or Parquet files into a unique folder of a
+ * stage and downloads them with a single parallel {@code GET} command into a local folder. The files keep the
+ * splitting and naming of Snowflake and their rows are never decoded locally. The staged files are removed
+ * afterwards.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowflakeFileUnloader {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(SnowflakeFileUnloader.class);
+
+    /** The default maximum size of an unloaded file in MB. */
+    public static final int DEFAULT_MAX_FILE_SIZE_MB = 64;
+
+    /** The maximum size of an unloaded file in MB supported by Snowflake. */
+    public static final int MAX_FILE_SIZE_MB = 5 * 1024;
+
+    /** The maximum number of threads Snowflake supports for downloading files with the GET command. */
+    private static final int MAX_GET_PARALLEL = 99;
+
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private final DBSession m_session;
+
+    private final SnowflakeLoaderStageType m_stageType;
+
+    private final String m_stageName;
+
+    private final int m_parallelism;
+
+    private final boolean m_reuseResults;
+
+    /**
+     * Constructor.
+     *
+     * @param session the Snowflake {@link DBSession} to execute the queries with
+     * @param stageType the {@link SnowflakeLoaderStageType} of the stage to unload the result into
+     * @param stageName the name of the internal stage if the stage type is {@link SnowflakeLoaderStageType#INTERNAL}
+     * @param parallelism the number of threads that download the files
+     * @param reuseResults {@code true} if the persisted result of a query that has already been executed with the
+     *            session should be unloaded via {@code RESULT_SCAN}, see {@link SnowflakeResultReuse}
+     */
+    public SnowflakeFileUnloader(final DBSession session, final SnowflakeLoaderStageType stageType,
+        final String stageName, final int parallelism, final boolean reuseResults) {
+        m_session = requireNonNull(session, "session");
+        m_stageType = requireNonNull(stageType, "stageType");
+        m_stageName = stageName;
+        m_parallelism = Math.max(1, Math.min(MAX_GET_PARALLEL, parallelism));
+        m_reuseResults = reuseResults;
+    }
+
+    /**
+     * Unloads the result of the given query into the stage and downloads the unloaded files into the given folder.
+     *
+     * @param exec the {@link ExecutionMonitor}
+     * @param query the query whose result to unload
+     * @param fileFormat the {@link SnowflakeLoaderFileFormat} of the files
+     * @param compressed {@code true} if CSV files should be gzip and Parquet files Snappy compressed
+     * @param header {@code true} if CSV files should start with a header row
+     * @param maxFileSizeMB the maximum size of an unloaded file in MB
+     * @param folder the existing local folder to download the files into
+     * @return the {@link UnloadedFile unloaded files} in the order reported by Snowflake
+     * @throws CanceledExecutionException if the execution was canceled
+     * @throws SQLException if the unload or the download failed
+     * @throws InvalidSettingsException if the stage can not be used for unloading
+     */
+    public List<UnloadedFile> unload(final ExecutionMonitor exec, final String query,
+        final SnowflakeLoaderFileFormat fileFormat, final boolean compressed, final boolean header,
+        final int maxFileSizeMB, final Path folder)
+        throws CanceledExecutionException, SQLException, InvalidSettingsException {
+        //the result is unloaded into a unique folder of the stage to separate concurrent unloads
+        final String stagePath = createStagePath(m_session, m_stageType, m_stageName);
+        try (Connection connection = m_session.getConnectionProvider().getConnection(exec);
+                Statement statement = connection.createStatement()) {
+            exec.setMessage("Unloading result into stage (this might take some time without progress changes)");
+            final List<UnloadedFile> files = new ArrayList<>();
+            final String fileFormatOptions = createFileFormat(fileFormat, compressed);
+            try (ResultSet resultSet = SnowflakeResultReuse.execute(m_session, query, m_reuseResults,
+                (sql, reused) -> statement
+                    .executeQuery(createUnloadCommand(stagePath, sql, fileFormatOptions, header, maxFileSizeMB)))) {
+                while (resultSet.next()) {
+                    files.add(new UnloadedFile(resultSet.getString("FILE_NAME"), resultSet.getLong("FILE_SIZE"),
+                        resultSet.getLong("ROW_COUNT")));
+                }
+            }
+            LOGGER.debugWithFormat("Result unloaded into %d files of stage %s", files.size(), stagePath);
+            exec.checkCanceled();
+            if (!files.isEmpty()) {
+                exec.setProgress(0.5, format("Downloading %d files (this might take some time without progress "
+                    + "changes)", files.size()));
+                String folderURI = URIUtil.toUnencodedString(folder.toUri());
+                if (!folderURI.endsWith("/")) {
+                    folderURI += "/";
+                }
+                //a single GET downloads the files of the folder in parallel
+                statement.execute("GET '@" + stagePath + "/' '" + folderURI + "' PARALLEL=" + m_parallelism);
+            }
+            exec.setProgress(1, "Unloaded files downloaded");
+            return files;
+        } finally {
+            removeStagedFiles(m_session, exec, stagePath);
+        }
+    }
+
+    /**
+     * @param fileFormat the {@link SnowflakeLoaderFileFormat} of the files
+     * @param compressed {@code true} if CSV files should be gzip and Parquet files Snappy compressed
+     * @return the {@code FILE_FORMAT} of the unload command
+     */
+    static String createFileFormat(final SnowflakeLoaderFileFormat fileFormat, final boolean compressed) {
+        //https://docs.snowflake.com/en/sql-reference/sql/copy-into-location#format-type-options-formattypeoptions
+        if (fileFormat == SnowflakeLoaderFileFormat.PARQUET) {
+            return "TYPE=PARQUET COMPRESSION=" + (compressed ? "SNAPPY" : "NONE");
+        }
+        return "TYPE=CSV COMPRESSION=" + (compressed ? "GZIP" : "NONE") + " FIELD_OPTIONALLY_ENCLOSED_BY='\"'";
+    }
+
+    /**
+     * @param stagePath the stage and folder to unload the result into
+     * @param query the query whose result to unload
+     * @param fileFormat the {@code FILE_FORMAT} options of the files
+     * @param header {@code true} if the files should contain the column names
+     * @param maxFileSizeMB the maximum size of an unloaded file in MB
+     * @return the {@code COPY INTO <location>} command that unloads the result
+     */
+    static String createUnloadCommand(final String stagePath, final String query, final String fileFormat,
+        final boolean header, final int maxFileSizeMB) {
+        //https://docs.snowflake.com/en/sql-reference/sql/copy-into-location
+        //the detailed output returns the name, size and row count of each unloaded file
+        return "COPY INTO '@" + stagePath + "/' FROM (" + query + ") FILE_FORMAT=(" + fileFormat + ") HEADER="
+            + String.valueOf(header).toUpperCase(Locale.ROOT) + " MAX_FILE_SIZE=" + (maxFileSizeMB * BYTES_PER_MB)
+            + " DETAILED_OUTPUT=TRUE";
+    }
+
+    /**
+     * @param session the {@link DBSession}
+     * @param stageType the {@link SnowflakeLoaderStageType} of the stage to unload into
+     * @param stageName the name of the internal stage
+     * @return a unique folder of the stage
+     * @throws InvalidSettingsException if the stage can not be used for unloading
+     */
+    static String createStagePath(final DBSession session, final SnowflakeLoaderStageType stageType,
+        final String stageName) throws InvalidSettingsException {
+        final String stage;
+        switch (stageType) {
+            case USER:
+                stage = "~";
+                break;
+            case INTERNAL:
+                if (StringUtils.isBlank(stageName)) {
+                    throw new InvalidSettingsException("Please specify the name of the internal stage.");
+                }
+                stage = session.getDialect().createFullName(stageName);
+                break;
+            case TABLE:
+                throw new InvalidSettingsException("Query results can not be unloaded into a table stage.");
+            default:
+                throw new InvalidSettingsException("Unknown stage type: " + stageType);
+        }
+        return stage + "/knime_unload_" + UUID.randomUUID().toString().replace("-", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Removes the files of the given stage folder and logs but otherwise ignores failures.
+     *
+     * @param session the {@link DBSession}
+     * @param exec the {@link ExecutionMonitor}
+     * @param stagePath the stage folder to remove
+     */
+    static void removeStagedFiles(final DBSession session, final ExecutionMonitor exec, final String stagePath) {
+        try (Connection connection = session.getConnectionProvider().getConnection(exec);
+                Statement statement = connection.createStatement()) {
+            statement.execute("REMOVE '@" + stagePath + "/'");
+        } catch (final Exception e) {
+            LOGGER.debug("Exception while removing unloaded files: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A file of the unloaded result.
+     */
+    public static final class UnloadedFile {
+
+        private final String m_name;
+
+        private final long m_size;
+
+        private final long m_rowCount;
+
+        UnloadedFile(final String name, final long size, final long rowCount) {
+            //GET stores the file without the folders of its staged path
+            m_name = StringUtils.substringAfterLast("/" + name, "/");
+            m_size = size;
+            m_rowCount = rowCount;
+        }
+
+        /**
+         * @return the name of the downloaded file
+         */
+        public String getName() {
+            return m_name;
+        }
+
+        /**
+         * @return the size of the unloaded file in bytes
+         */
+        public long getSize() {
+            return m_size;
+        }
+
+        /**
+         * @return the number of rows in the file
+         */
+        public long getRowCount() {
+            return m_rowCount;
+        }
+    }
+}
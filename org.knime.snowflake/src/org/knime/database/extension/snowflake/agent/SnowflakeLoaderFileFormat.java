@@ -44,15 +44,19 @@
  */
 package org.knime.database.extension.snowflake.agent;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.knime.base.node.io.csvwriter.FileWriterSettings;
 import org.knime.core.node.util.ButtonGroupEnumInterface;
+import org.knime.database.dialect.DBSQLDialect;
 import org.knime.database.extension.snowflake.node.io.load.writer.ConnectedSnowflakeLoaderNodeSettings;
 import org.knime.database.extension.snowflake.node.io.load.writer.SnowflakeCsvWriter;
 import org.knime.database.extension.snowflake.node.io.load.writer.SnowflakeParquetWriter;
@@ -304,6 +308,126 @@ String getPutParameter(final SnowflakeLoaderSettings settings) {
         return " AUTO_COMPRESS=FALSE";
     }
 
+    /**
+     * Returns the table columns the copy file command loads which are the table columns the data files are loaded
+     * into followed by the table columns that are only computed by a transformation.
+     *
+     * @param settings the user settings
+     * @return the table columns or an empty list if all table columns are loaded
+     */
+    static List<String> getCopyColumns(final SnowflakeLoaderSettings settings) {
+        final List<String> columnNames = new ArrayList<>(settings.getColumnNames());
+        for (final String transformedColumn : settings.getTransformations().keySet()) {
+            if (!columnNames.contains(transformedColumn)) {
+                columnNames.add(transformedColumn);
+            }
+        }
+        return columnNames;
+    }
+
+    /**
+     * Returns the optional column list of the copy file command that restricts the load to a subset of the table
+     * columns. All other table columns are set to their default values.
+     *
+     * @param settings the user settings
+     * @param dialect the {@link DBSQLDialect} to delimit the column names with
+     * @return the column list or an empty string if all table columns are loaded
+     */
+    static String getCopyColumnList(final SnowflakeLoaderSettings settings, final DBSQLDialect dialect) {
+        //https://docs.snowflake.com/en/sql-reference/sql/copy-into-table.html#optional-parameters
+        final List<String> columnNames = getCopyColumns(settings);
+        if (columnNames.isEmpty()) {
+            return "";
+        }
+        return columnNames.stream().map(dialect::delimit).collect(Collectors.joining(", ", " (", ")"));
+    }
+
+    /**
+     * Returns the source part of the copy file command. The data files are read via a transformation query if
+     * transformations are defined or if Parquet files are loaded into a subset of the table columns since
+     * {@code MATCH_BY_COLUMN_NAME} can not be combined with a column list.
+     *
+     * @param settings the user settings
+     * @param stageName the name of the stage that contains the data files
+     * @param dialect the {@link DBSQLDialect} to delimit the column names with
+     * @return the source of the copy file command
+     */
+    String getCopySource(final SnowflakeLoaderSettings settings, final String stageName,
+        final DBSQLDialect dialect) {
+        //https://docs.snowflake.com/en/sql-reference/sql/copy-into-table.html#transformation-parameters
+        final List<String> columnNames = settings.getColumnNames();
+        final List<String> fileColumnNames = settings.getFileColumnNames();
+        final Map<String, String> transformations = settings.getTransformations();
+        if (transformations.isEmpty() && (this != PARQUET || fileColumnNames.isEmpty())) {
+            return "'@" + stageName + "'";
+        }
+        final List<String> expressions = new ArrayList<>(columnNames.size() + transformations.size());
+        for (int i = 0; i < columnNames.size(); i++) {
+            final String transformation = transformations.get(columnNames.get(i));
+            expressions.add(transformation != null ? transformation
+                : getFieldReference(i, fileColumnNames.get(i), dialect));
+        }
+        transformations.forEach((column, expression) -> {
+            if (!columnNames.contains(column)) {
+                expressions.add(expression);
+            }
+        });
+        return "(SELECT " + String.join(", ", expressions) + " FROM @" + stageName + ")";
+    }
+
+    /**
+     * Indicates whether the data files can be validated with {@code VALIDATION_MODE = RETURN_ERRORS} prior loading.
+     * Snowflake does not support the validation mode for transformation queries and {@code MATCH_BY_COLUMN_NAME}
+     * which is why only CSV files without transformations can be validated.
+     *
+     * @param settings the user settings
+     * @return {@code true} if the data files can be validated
+     */
+    public boolean supportsValidation(final SnowflakeLoaderSettings settings) {
+        //https://docs.snowflake.com/en/sql-reference/sql/copy-into-table#optional-parameters
+        return this == CSV && settings.getTransformations().isEmpty();
+    }
+
+    private String getFieldReference(final int index, final String fileColumnName, final DBSQLDialect dialect) {
+        if (this == PARQUET) {
+            //Parquet files contain a single column with one object per row
+            return "$1:" + dialect.delimit(fileColumnName);
+        }
+        return "$" + (index + 1);
+    }
+
+    /**
+     * Returns the format options of the CSV files that are written with the {@link FileWriterSettings} of the
+     * given settings.
+     *
+     * @param settings the user settings
+     * @return the CSV format options
+     */
+    static String getCsvFormatOptions(final SnowflakeLoaderSettings settings) {
+        final FileWriterSettings s = settings.getFileWriterSettings()
+            .orElseThrow(() -> new IllegalArgumentException("Missing file writer settings."));
+        final String lineSeparator =
+            StringEscapeUtils.escapeJava(s.getLineEndingMode() == FileWriterSettings.LineEnding.SYST
+                ? System.getProperty("line.separator") : s.getLineEndingMode().getEndString());
+        final String compression;
+        if (GZIP_COMPRESSION.equals(settings.getCompression())) {
+            compression = " COMPRESSION = GZIP";
+        } else {
+            compression = "";
+        }
+        return "TYPE='CSV'" //enforced line break
+            + compression //enforced line break
+            + "\n RECORD_DELIMITER = '" + lineSeparator + "'" + "\n FIELD_DELIMITER = '" + s.getColSeparator()
+            + "'" //enforced line break
+            + "\n SKIP_HEADER = " + (s.writeColumnHeader() ? 1 : 0) //enforced line break
+            + "\n ESCAPE = "
+            + (StringUtils.isEmpty(s.getQuoteReplacement()) ? "NONE" : "'" + s.getQuoteReplacement() + "'")
+            + "\n FIELD_OPTIONALLY_ENCLOSED_BY  = '" + s.getQuoteBegin() + "'" //enforced line break
+            + "\n NULL_IF = '" + s.getMissValuePattern() + "'" //enforced line break
+            + "\n EMPTY_FIELD_AS_NULL  = FALSE" //enforced line break
+            + "\n ENCODING   = '" + s.getCharacterEncoding() + "'";
+    }
+
     /**
      * Returns the file format dependent part of the copy file command.
      *
@@ -314,32 +438,13 @@ String getCopyParameter(final SnowflakeLoaderSettings settings) {
         //https://docs.snowflake.com/en/sql-reference/sql/copy-into-table.html#optional-parameters
         switch (this) {
             case CSV:
-
-                final FileWriterSettings s = settings.getFileWriterSettings()
-                    .orElseThrow(() -> new IllegalArgumentException("Missing file writer settings."));
-                final String lineSeparator =
-                    StringEscapeUtils.escapeJava(s.getLineEndingMode() == FileWriterSettings.LineEnding.SYST
-                        ? System.getProperty("line.separator") : s.getLineEndingMode().getEndString());
-                final String compression;
-                if (GZIP_COMPRESSION.equals(settings.getCompression())) {
-                    compression = " COMPRESSION = GZIP";
-                } else {
-                    compression = "";
-                }
-                return "\nFILE_FORMAT=(TYPE='CSV'" //enforced line break
-                    + compression //enforced line break
-                    + "\n RECORD_DELIMITER = '" + lineSeparator + "'" + "\n FIELD_DELIMITER = '" + s.getColSeparator()
-                    + "'" //enforced line break
-                    + "\n SKIP_HEADER = " + (s.writeColumnHeader() ? 1 : 0) //enforced line break
-                    + "\n ESCAPE = "
-                    + (StringUtils.isEmpty(s.getQuoteReplacement()) ? "NONE" : "'" + s.getQuoteReplacement() + "'")
-                    + "\n FIELD_OPTIONALLY_ENCLOSED_BY  = '" + s.getQuoteBegin() + "'" //enforced line break
-                    + "\n NULL_IF = '" + s.getMissValuePattern() + "'" //enforced line break
-                    + "\n EMPTY_FIELD_AS_NULL  = FALSE" //enforced line break
-                    + "\n ENCODING   = '" + s.getCharacterEncoding() + "'" //enforced line break
-                    + "\n)";
+                return "\nFILE_FORMAT=(" + getCsvFormatOptions(settings) + "\n)";
             case PARQUET:
 
+                if (!getCopyColumns(settings).isEmpty()) {
+                    //the columns are selected by name in the transformation query of the copy source
+                    return "\nFILE_FORMAT=(TYPE='PARQUET')";
+                }
                 //https://docs.snowflake.com/en/sql-reference/sql/copy-into-table.html#copy-options-copyoptions
                 return "\nFILE_FORMAT=(TYPE='PARQUET') \nMATCH_BY_COLUMN_NAME=CASE_SENSITIVE";
             default:
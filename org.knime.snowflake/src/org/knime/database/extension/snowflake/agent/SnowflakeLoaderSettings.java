@@ -46,9 +46,16 @@
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.knime.base.node.io.csvwriter.FileWriterSettings;
+import org.knime.database.extension.snowflake.pipe.SnowpipeLoadSettings;
+import org.knime.database.model.DBColumn;
 
 /**
  * Additional settings for {@link SnowflakeDBLoader}.
@@ -72,6 +79,26 @@ public class SnowflakeLoaderSettings {
 
     private final long m_fileSize;
 
+    private final List<String> m_columnNames;
+
+    private final List<String> m_fileColumnNames;
+
+    private final Map<String, String> m_transformations;
+
+    private final boolean m_validationOnly;
+
+    private final SnowflakeLoaderMode m_loadMode;
+
+    private final List<DBColumn> m_keyColumns;
+
+    private final long[] m_deletedKeyHashes;
+
+    private final List<List<Object>> m_partitionValues;
+
+    private final Optional<SnowpipeLoadSettings> m_snowpipe;
+
+    private final Map<String, String> m_stagedColumnTypes;
+
     /**
      * Constructs a {@link SnowflakeLoaderSettings} object.
      *
@@ -87,6 +114,34 @@ public SnowflakeLoaderSettings(final SnowflakeLoaderFileFormat fileFormat,
         final FileWriterSettings fileWriterSettings, final SnowflakeLoaderStageType stageType,
         final String stageName, final String compression,
         final int chunkSize, final long fileSize) {
+        this(fileFormat, fileWriterSettings, stageType, stageName, compression, chunkSize, fileSize,
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyMap());
+    }
+
+    /**
+     * Constructs a {@link SnowflakeLoaderSettings} object that loads the data files into a subset of the table
+     * columns.
+     *
+     * @param fileFormat the selected intermediate file format.
+     * @param fileWriterSettings the optional file writer settings.
+     * @param stageType the {@link SnowflakeLoaderStageType}
+     * @param stageName the optional stage name
+     * @param compression compression method
+     * @param chunkSize within file chunk size
+     * @param fileSize file size
+     * @param columnNames the names of the table columns to load or an empty list to load all table columns
+     * @param fileColumnNames the names of the columns in the data files in the same order as the table columns
+     * @param transformations the SQL expression per table column that is evaluated during the load instead of
+     *            loading the staged value
+     */
+    public SnowflakeLoaderSettings(final SnowflakeLoaderFileFormat fileFormat,
+        final FileWriterSettings fileWriterSettings, final SnowflakeLoaderStageType stageType,
+        final String stageName, final String compression, final int chunkSize, final long fileSize,
+        final List<String> columnNames, final List<String> fileColumnNames,
+        final Map<String, String> transformations) {
+        if (columnNames.size() != fileColumnNames.size()) {
+            throw new IllegalArgumentException("The number of table and file columns differ.");
+        }
         m_fileFormat = requireNonNull(fileFormat, "fileFormat");
         m_fileWriterSettings = Optional.ofNullable(fileWriterSettings);
         m_stageType = stageType;
@@ -94,6 +149,200 @@ public SnowflakeLoaderSettings(final SnowflakeLoaderFileFormat fileFormat,
         m_compression = compression;
         m_chunkSize = chunkSize;
         m_fileSize = fileSize;
+        m_columnNames = List.copyOf(columnNames);
+        m_fileColumnNames = List.copyOf(fileColumnNames);
+        m_transformations = Collections.unmodifiableMap(new LinkedHashMap<>(transformations));
+        m_validationOnly = false;
+        m_loadMode = SnowflakeLoaderMode.APPEND;
+        m_keyColumns = Collections.emptyList();
+        m_deletedKeyHashes = new long[0];
+        m_partitionValues = Collections.emptyList();
+        m_snowpipe = Optional.empty();
+        m_stagedColumnTypes = Collections.emptyMap();
+    }
+
+    private SnowflakeLoaderSettings(final SnowflakeLoaderSettings settings, final boolean validationOnly,
+        final SnowflakeLoaderMode loadMode, final List<DBColumn> keyColumns, final long[] deletedKeyHashes,
+        final List<List<Object>> partitionValues, final Optional<SnowpipeLoadSettings> snowpipe,
+        final Map<String, String> stagedColumnTypes) {
+        m_fileFormat = settings.m_fileFormat;
+        m_fileWriterSettings = settings.m_fileWriterSettings;
+        m_stageType = settings.m_stageType;
+        m_stageName = settings.m_stageName;
+        m_compression = settings.m_compression;
+        m_chunkSize = settings.m_chunkSize;
+        m_fileSize = settings.m_fileSize;
+        m_columnNames = settings.m_columnNames;
+        m_fileColumnNames = settings.m_fileColumnNames;
+        m_transformations = settings.m_transformations;
+        m_validationOnly = validationOnly;
+        m_loadMode = loadMode;
+        m_keyColumns = keyColumns;
+        m_deletedKeyHashes = deletedKeyHashes;
+        m_partitionValues = partitionValues;
+        m_snowpipe = snowpipe;
+        m_stagedColumnTypes = stagedColumnTypes;
+    }
+
+    /**
+     * Creates a copy of these settings that only validates the data files with
+     * {@code VALIDATION_MODE = RETURN_ERRORS} instead of loading them. The staged files are always removed.
+     *
+     * @return the validation settings
+     * @see SnowflakeLoaderFileFormat#supportsValidation(SnowflakeLoaderSettings)
+     */
+    public SnowflakeLoaderSettings forValidation() {
+        return new SnowflakeLoaderSettings(this, true, m_loadMode, m_keyColumns, m_deletedKeyHashes,
+            m_partitionValues, m_snowpipe, m_stagedColumnTypes);
+    }
+
+    /**
+     * Creates a copy of these settings that merges the data files by key into the table instead of appending them.
+     * The data files contain only the new and changed rows.
+     *
+     * @param keyColumns the table columns that identify a row which must be part of the {@link #getColumnNames()
+     *            loaded columns}
+     * @param deletedKeyHashes the {@linkplain SnowflakeRowHash key hashes} of the table rows to delete
+     * @return the delta settings
+     */
+    public SnowflakeLoaderSettings forDelta(final List<DBColumn> keyColumns, final long[] deletedKeyHashes) {
+        if (keyColumns.isEmpty() || m_columnNames.isEmpty()) {
+            throw new IllegalArgumentException("The delta mode requires key columns and an explicit column list.");
+        }
+        return new SnowflakeLoaderSettings(this, m_validationOnly, SnowflakeLoaderMode.DELTA, List.copyOf(keyColumns),
+            deletedKeyHashes.clone(), Collections.emptyList(), m_snowpipe, m_stagedColumnTypes);
+    }
+
+    /**
+     * Creates a copy of these settings that deletes the table rows of the given partitions and loads the data files
+     * within one transaction.
+     *
+     * @param partitionColumns the table columns that identify a partition
+     * @param partitionValues the distinct values of the partition columns in the data files in the order of the
+     *            partition columns where {@code null} represents a missing value
+     * @return the partition overwrite settings
+     */
+    public SnowflakeLoaderSettings forPartitionOverwrite(final List<DBColumn> partitionColumns,
+        final List<List<Object>> partitionValues) {
+        if (partitionColumns.isEmpty()) {
+            throw new IllegalArgumentException("The partition overwrite mode requires partition columns.");
+        }
+        final List<List<Object>> values = new ArrayList<>(partitionValues.size());
+        for (final List<Object> partition : partitionValues) {
+            if (partition.size() != partitionColumns.size()) {
+                throw new IllegalArgumentException("The number of partition columns and values differ.");
+            }
+            values.add(Collections.unmodifiableList(new ArrayList<>(partition)));
+        }
+        return new SnowflakeLoaderSettings(this, m_validationOnly, SnowflakeLoaderMode.PARTITION_OVERWRITE,
+            List.copyOf(partitionColumns), new long[0], Collections.unmodifiableList(values), m_snowpipe,
+            m_stagedColumnTypes);
+    }
+
+    /**
+     * Creates a copy of these settings that registers the staged files with a Snowflake pipe via the Snowpipe REST
+     * API instead of loading them with a {@code COPY} command. The pipe defines the target table and the file
+     * format which is why only the {@link SnowflakeLoaderMode#APPEND append mode} is supported.
+     *
+     * @param snowpipe the {@link SnowpipeLoadSettings}
+     * @return the Snowpipe settings
+     */
+    public SnowflakeLoaderSettings forSnowpipe(final SnowpipeLoadSettings snowpipe) {
+        if (m_loadMode != SnowflakeLoaderMode.APPEND) {
+            throw new IllegalArgumentException("Snowpipe only supports appending the staged files.");
+        }
+        return new SnowflakeLoaderSettings(this, m_validationOnly, m_loadMode, m_keyColumns, m_deletedKeyHashes,
+            m_partitionValues, Optional.of(snowpipe), m_stagedColumnTypes);
+    }
+
+    /**
+     * Creates a copy of these settings that only uploads the CSV data files into a stage without loading them.
+     * Instead a {@linkplain SnowflakeDBLoader#getStagedFilesView view} is created that queries the staged files in
+     * place. The stage and the view replace those of a previous load of the same table.
+     *
+     * @param columnTypes the Snowflake data type per column of the data files in the order of the file columns
+     * @return the stage only settings
+     */
+    public SnowflakeLoaderSettings forStageOnly(final Map<String, String> columnTypes) {
+        if (m_fileFormat != SnowflakeLoaderFileFormat.CSV) {
+            throw new IllegalArgumentException("Only CSV files can be queried in place.");
+        }
+        if (columnTypes.isEmpty() || !m_transformations.isEmpty()) {
+            throw new IllegalArgumentException(
+                "The stage only mode requires column types and supports no transformations.");
+        }
+        return new SnowflakeLoaderSettings(this, m_validationOnly, SnowflakeLoaderMode.STAGE_ONLY,
+            Collections.emptyList(), new long[0], Collections.emptyList(), m_snowpipe,
+            Collections.unmodifiableMap(new LinkedHashMap<>(columnTypes)));
+    }
+
+    /**
+     * Gets the Snowflake data types of the staged file columns that are queried by the view in the
+     * {@link SnowflakeLoaderMode#STAGE_ONLY stage only mode}.
+     *
+     * @return the Snowflake data type per file column name in the order of the file columns or an empty map
+     */
+    public Map<String, String> getStagedColumnTypes() {
+        return m_stagedColumnTypes;
+    }
+
+    /**
+     * Gets the settings to load the staged files with a Snowflake pipe.
+     *
+     * @return {@linkplain Optional optionally} the {@link SnowpipeLoadSettings} or {@linkplain Optional#empty()
+     *         empty} if the staged files are loaded with a {@code COPY} command
+     */
+    public Optional<SnowpipeLoadSettings> getSnowpipe() {
+        return m_snowpipe;
+    }
+
+    /**
+     * Gets the load mode.
+     *
+     * @return the {@link SnowflakeLoaderMode}
+     */
+    public SnowflakeLoaderMode getLoadMode() {
+        return m_loadMode;
+    }
+
+    /**
+     * Gets the table columns that identify a row in the {@link SnowflakeLoaderMode#DELTA delta mode} or a partition in
+     * the {@link SnowflakeLoaderMode#PARTITION_OVERWRITE partition overwrite mode}.
+     *
+     * @return the key columns or an empty list
+     */
+    public List<DBColumn> getKeyColumns() {
+        return m_keyColumns;
+    }
+
+    /**
+     * Gets the {@linkplain SnowflakeRowHash key hashes} of the table rows that are deleted in the
+     * {@link SnowflakeLoaderMode#DELTA delta mode}. The returned array must not be modified.
+     *
+     * @return the key hashes of the deleted rows
+     */
+    public long[] getDeletedKeyHashes() {
+        return m_deletedKeyHashes;
+    }
+
+    /**
+     * Gets the distinct partition values that are replaced in the
+     * {@link SnowflakeLoaderMode#PARTITION_OVERWRITE partition overwrite mode}.
+     *
+     * @return the values of the {@link #getKeyColumns() partition columns} per partition where {@code null}
+     *         represents a missing value
+     */
+    public List<List<Object>> getPartitionValues() {
+        return m_partitionValues;
+    }
+
+    /**
+     * Indicates whether the data files are only validated instead of loaded.
+     *
+     * @return {@code true} if the data files are only validated
+     */
+    public boolean isValidationOnly() {
+        return m_validationOnly;
     }
 
     /**
@@ -160,4 +409,33 @@ public long getFileSize() {
         return m_fileSize;
     }
 
+    /**
+     * Gets the names of the table columns to load.
+     *
+     * @return the table column names or an empty list if all table columns are loaded by position
+     */
+    public List<String> getColumnNames() {
+        return m_columnNames;
+    }
+
+    /**
+     * Gets the names of the columns in the data files in the same order as the {@link #getColumnNames() table
+     * columns}.
+     *
+     * @return the file column names or an empty list if all table columns are loaded by position
+     */
+    public List<String> getFileColumnNames() {
+        return m_fileColumnNames;
+    }
+
+    /**
+     * Gets the SQL expressions that are evaluated during the load per table column. Table columns that are not
+     * {@linkplain #getColumnNames() loaded} from the data files are appended to the column list.
+     *
+     * @return the SQL expression per table column name
+     */
+    public Map<String, String> getTransformations() {
+        return m_transformations;
+    }
+
 }
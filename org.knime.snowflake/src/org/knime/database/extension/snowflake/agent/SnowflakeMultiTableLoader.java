@@ -0,0 +1,220 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.runtime.URIUtil;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.ThreadUtils;
+import org.knime.database.dialect.DBSQLDialect;
+import org.knime.database.model.DBTable;
+import org.knime.database.session.DBSession;
+
+/**
+ * Loads the data files of several tables with a single {@code PUT} command into a common folder of a stage and
+ * copies them with concurrent {@code COPY} commands into their tables. This avoids the per table overhead of the
+ * {@link SnowflakeDBLoader} when many small tables are loaded.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowflakeMultiTableLoader {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(SnowflakeMultiTableLoader.class);
+
+    /** The maximum number of threads Snowflake supports for uploading files with the PUT command. */
+    private static final int MAX_PUT_PARALLEL = 99;
+
+    private final DBSession m_session;
+
+    /**
+     * Constructor.
+     *
+     * @param session the {@link DBSession} to load the tables with
+     */
+    public SnowflakeMultiTableLoader(final DBSession session) {
+        m_session = requireNonNull(session, "session");
+    }
+
+    /**
+     * Uploads all data files of the given folder with a single {@code PUT} command and loads each file with its own
+     * {@code COPY} command into its table. The {@code COPY} commands run concurrently and all of them are executed
+     * even if one of them fails.
+     *
+     * @param exec the {@link ExecutionMonitor}
+     * @param folder the local folder that contains only the data files to load
+     * @param tableFiles the target table per data file name
+     * @param settings the {@link SnowflakeLoaderSettings} of all tables
+     * @param parallelism the maximum number of concurrent {@code COPY} commands
+     * @throws CanceledExecutionException if the execution was canceled
+     * @throws SQLException if the upload or the load of a table failed
+     * @throws InvalidSettingsException if the stage type does not support multiple tables
+     */
+    public void load(final ExecutionMonitor exec, final Path folder, final Map<String, DBTable> tableFiles,
+        final SnowflakeLoaderSettings settings, final int parallelism)
+        throws CanceledExecutionException, SQLException, InvalidSettingsException {
+        if (tableFiles.isEmpty()) {
+            return;
+        }
+        if (settings.getStageType() == SnowflakeLoaderStageType.TABLE) {
+            throw new InvalidSettingsException("The table stage can not be shared by multiple tables.");
+        }
+        //the persisted results of the session might no longer reflect the loaded tables
+        SnowflakeResultReuse.invalidate(m_session);
+        final DBSQLDialect dialect = m_session.getDialect();
+        //all files are uploaded into a unique folder of the stage to separate concurrent loads
+        final String stagePath = SnowflakeDBLoader.getStageName(settings, tableFiles.values().iterator().next(),
+            dialect) + "/knime_" + UUID.randomUUID().toString().replace("-", "").toLowerCase(Locale.ROOT);
+        final SnowflakeLoaderFileFormat fileFormat = settings.getFileFormat();
+        try (Connection connection = m_session.getConnectionProvider().getConnection(exec);
+                Statement statement = connection.createStatement()) {
+            String folderURI = URIUtil.toUnencodedString(folder.toUri());
+            if (!folderURI.endsWith("/")) {
+                folderURI += "/";
+            }
+            exec.setMessage(format("Uploading %d data files (this might take some time without progress changes)",
+                tableFiles.size()));
+            statement.execute(
+                createPutCommand(folderURI, stagePath, fileFormat.getPutParameter(settings), parallelism));
+            exec.setProgress(0.5, "All data files successful uploaded");
+            copyFiles(exec.createSubProgress(0.5), dialect, stagePath, tableFiles, settings, parallelism);
+        } catch (final CanceledExecutionException | SQLException | RuntimeException e) {
+            //the successfully loaded files are already purged
+            try (Connection connection = m_session.getConnectionProvider().getConnection(exec);
+                    Statement statement = connection.createStatement()) {
+                statement.execute("REMOVE '@" + stagePath + "/'");
+            } catch (final Exception removeException) {
+                LOGGER.debug("Exception while removing staged files: " + removeException.getMessage());
+            }
+            throw e;
+        }
+        exec.setProgress(1, "Data loaded successful into Snowflake tables");
+    }
+
+    /**
+     * Creates the {@code PUT} command that uploads all files of the local folder into the folder of the stage.
+     *
+     * @see <a href="https://docs.snowflake.com/en/sql-reference/sql/put.html">PUT</a>
+     */
+    static String createPutCommand(final String folderURI, final String stagePath, final String putParameter,
+        final int parallelism) {
+        return "PUT '" + folderURI + "*' '@" + stagePath + "/' " + putParameter + " PARALLEL="
+            + Math.max(1, Math.min(MAX_PUT_PARALLEL, parallelism));
+    }
+
+    /**
+     * Creates the {@code COPY} command that loads a single staged file into its table. The purge option of the copy
+     * parameter removes the file once it has been loaded successfully.
+     */
+    static String createCopyCommand(final String fullTableName, final String copySource, final String fileName,
+        final String copyParameter) {
+        return SnowflakeDBLoader.createCopyCommand(fullTableName,
+            copySource + SnowflakeDBLoader.createFilesList(List.of(fileName)) + copyParameter);
+    }
+
+    private void copyFiles(final ExecutionMonitor exec, final DBSQLDialect dialect, final String stagePath,
+        final Map<String, DBTable> tableFiles, final SnowflakeLoaderSettings settings, final int parallelism)
+        throws CanceledExecutionException, SQLException {
+        final SnowflakeLoaderFileFormat fileFormat = settings.getFileFormat();
+        final String copySource = fileFormat.getCopySource(settings, stagePath, dialect);
+        final String copyParameter = fileFormat.getCopyParameter(settings);
+        final int threadCount = Math.max(1, Math.min(parallelism, tableFiles.size()));
+        final ExecutorService executor = SnowflakeTaskExecutor.createExecutor("Multi-Table-Loader", threadCount);
+        try {
+            final Map<DBTable, Future<Void>> futures = new LinkedHashMap<>();
+            for (final Map.Entry<String, DBTable> entry : tableFiles.entrySet()) {
+                final String copyCommand = createCopyCommand(dialect.createFullName(entry.getValue()), copySource,
+                    entry.getKey(), copyParameter);
+                futures.put(entry.getValue(), executor.submit(ThreadUtils.callableWithContext(() -> {
+                    try (Connection connection = m_session.getConnectionProvider().getConnection(exec);
+                            Statement statement = connection.createStatement()) {
+                        statement.execute(copyCommand);
+                    }
+                    return null;
+                })));
+            }
+            final List<String> errors = new ArrayList<>();
+            final List<Throwable> causes = new ArrayList<>();
+            int done = 0;
+            for (final Map.Entry<DBTable, Future<Void>> entry : futures.entrySet()) {
+                exec.setMessage(format("Loading staged data into Snowflake tables (%d of %d done)", done,
+                    futures.size()));
+                try {
+                    SnowflakeTaskExecutor.await(exec, entry.getValue(), "Loading of the tables has been interrupted.");
+                } catch (final ExecutionException e) {
+                    errors.add(entry.getKey() + ": " + e.getCause().getMessage());
+                    causes.add(e.getCause());
+                }
+                exec.setProgress(++done / (double)futures.size());
+            }
+            if (!errors.isEmpty()) {
+                final SQLException exception = new SQLException(format("Loading of %d of %d tables failed:%n%s",
+                    errors.size(), futures.size(), String.join(System.lineSeparator(), errors)));
+                causes.forEach(exception::addSuppressed);
+                throw exception;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.io.api.RecordMaterializer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeUnit;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.knime.core.data.v2.RowWrite;
+import org.knime.core.data.v2.RowWriteCursor;
+import org.knime.core.data.v2.WriteValue;
+import org.knime.core.data.v2.time.LocalDateTimeValueFactory.LocalDateTimeWriteValue;
+import org.knime.core.data.v2.time.LocalDateValueFactory.LocalDateWriteValue;
+import org.knime.core.data.v2.time.LocalTimeValueFactory.LocalTimeWriteValue;
+import org.knime.core.data.v2.time.ZonedDateTimeValueFactory2.ZonedDateTimeWriteValue;
+import org.knime.core.data.v2.value.BooleanValueFactory.BooleanWriteValue;
+import org.knime.core.data.v2.value.DoubleValueFactory.DoubleWriteValue;
+import org.knime.core.data.v2.value.LongValueFactory.LongWriteValue;
+import org.knime.core.data.v2.value.StringValueFactory.StringWriteValue;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Reads the Parquet files that Snowflake unloads with {@code COPY INTO <location>} into the {@link RowWrite rows} of
+ * a KNIME table. The primitive values are passed by Parquet converters directly into the write values of the
+ * {@link SnowflakeArrowColumnType column types} of the query result without materializing intermediate records.
+ * The columns of the files are mapped by position to the result columns.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SnowflakeParquetResultReader extends RecordMaterializer<Void> {
+
+    private static final String ROW_KEY_PREFIX = "Row";
+
+    private final RowWriteCursor m_cursor;
+
+    private final boolean[] m_written;
+
+    private final GroupConverter m_root;
+
+    private RowWrite m_row;
+
+    private long m_rowIndex;
+
+    private SnowflakeParquetResultReader(final MessageType schema, final SnowflakeArrowColumnType[] types,
+        final RowWriteCursor cursor, final long firstRow) throws SQLException {
+        m_cursor = cursor;
+        m_rowIndex = firstRow;
+        m_written = new boolean[types.length];
+        final Converter[] converters = new Converter[types.length];
+        for (int c = 0; c < types.length; c++) {
+            final Type field = schema.getType(c);
+            if (!field.isPrimitive()) {
+                throw new SQLException("Nested Parquet column " + field.getName() + " is not supported.");
+            }
+            converters[c] = createConverter(c, field.asPrimitiveType(), types[c]);
+        }
+        m_root = new GroupConverter() {
+
+            @Override
+            public Converter getConverter(final int fieldIndex) {
+                return converters[fieldIndex];
+            }
+
+            @Override
+            public void start() {
+                m_row = m_cursor.forward();
+                m_row.setRowKey(ROW_KEY_PREFIX + m_rowIndex++);
+                Arrays.fill(m_written, false);
+            }
+
+            @Override
+            public void end() {
+                //missing values are not passed to the converters
+                for (int c = 0; c < m_written.length; c++) {
+                    if (!m_written[c]) {
+                        m_row.setMissing(c);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Reads all rows of the given file.
+     *
+     * @param exec the {@link ExecutionMonitor} to check for cancellation
+     * @param file the local Parquet file
+     * @param types the {@link SnowflakeArrowColumnType} of each result column
+     * @param cursor the {@link RowWriteCursor} to write the rows to
+     * @param firstRow the index of the first row of the file within the result
+     * @return the index of the row after the last row of the file
+     * @throws IOException if the file can not be read
+     * @throws SQLException if the file does not match the result columns
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    static long read(final ExecutionMonitor exec, final Path file, final SnowflakeArrowColumnType[] types,
+        final RowWriteCursor cursor, final long firstRow)
+        throws IOException, SQLException, CanceledExecutionException {
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(file),
+            ParquetReadOptions.builder(new PlainParquetConfiguration()).build())) {
+            final MessageType schema = reader.getFileMetaData().getSchema();
+            if (schema.getFieldCount() != types.length) {
+                throw new SQLException(String.format("Unloaded file %s has %d instead of %d columns.",
+                    file.getFileName(), schema.getFieldCount(), types.length));
+            }
+            final SnowflakeParquetResultReader materializer =
+                new SnowflakeParquetResultReader(schema, types, cursor, firstRow);
+            final MessageColumnIO columnIO = new ColumnIOFactory().getColumnIO(schema);
+            PageReadStore pages;
+            while ((pages = reader.readNextRowGroup()) != null) {
+                exec.checkCanceled();
+                final RecordReader<Void> recordReader = columnIO.getRecordReader(pages, materializer);
+                try {
+                    for (long i = 0, count = pages.getRowCount(); i < count; i++) {
+                        recordReader.read();
+                    }
+                } catch (final ArithmeticException e) {
+                    throw new SQLException(String.format("Value of unloaded file %s can not be read as long: %s",
+                        file.getFileName(), e.getMessage()), e);
+                }
+            }
+            return materializer.m_rowIndex;
+        }
+    }
+
+    @Override
+    public Void getCurrentRecord() {
+        //the values are written directly into the rows of the table
+        return null;
+    }
+
+    @Override
+    public GroupConverter getRootConverter() {
+        return m_root;
+    }
+
+    private WriteValue<?> value(final int column) {
+        m_written[column] = true;
+        return m_row.getWriteValue(column);
+    }
+
+    private Converter createConverter(final int column, final PrimitiveType type,
+        final SnowflakeArrowColumnType target) throws SQLException {
+        final PrimitiveTypeName primitive = type.getPrimitiveTypeName();
+        final LogicalTypeAnnotation logicalType = type.getLogicalTypeAnnotation();
+        final int scale = logicalType instanceof DecimalLogicalTypeAnnotation
+            ? ((DecimalLogicalTypeAnnotation)logicalType).getScale() : 0;
+        switch (target) {
+            case BOOLEAN:
+                if (primitive == PrimitiveTypeName.BOOLEAN) {
+                    return new PrimitiveConverter() {
+                        @Override
+                        public void addBoolean(final boolean value) {
+                            ((BooleanWriteValue)value(column)).setBooleanValue(value);
+                        }
+                    };
+                }
+                break;
+            case LONG:
+                if (scale != 0) {
+                    break;
+                }
+                if (primitive == PrimitiveTypeName.INT32 || primitive == PrimitiveTypeName.INT64) {
+                    return new LongConverter(v -> ((LongWriteValue)value(column)).setLongValue(v));
+                }
+                if (logicalType instanceof DecimalLogicalTypeAnnotation) {
+                    //fails with an ArithmeticException instead of overflowing
+                    return new BinaryConverter(v -> ((LongWriteValue)value(column))
+                        .setLongValue(toBigDecimal(v, scale).longValueExact()));
+                }
+                break;
+            case DOUBLE:
+                if (primitive == PrimitiveTypeName.DOUBLE || primitive == PrimitiveTypeName.FLOAT) {
+                    return new PrimitiveConverter() {
+                        @Override
+                        public void addDouble(final double value) {
+                            ((DoubleWriteValue)value(column)).setDoubleValue(value);
+                        }
+
+                        @Override
+                        public void addFloat(final float value) {
+                            ((DoubleWriteValue)value(column)).setDoubleValue(value);
+                        }
+                    };
+                }
+                if (primitive == PrimitiveTypeName.INT32 || primitive == PrimitiveTypeName.INT64) {
+                    return new LongConverter(v -> ((DoubleWriteValue)value(column))
+                        .setDoubleValue(SnowflakeArrowValues.toDouble(v, scale)));
+                }
+                if (logicalType instanceof DecimalLogicalTypeAnnotation) {
+                    return new BinaryConverter(v -> ((DoubleWriteValue)value(column))
+                        .setDoubleValue(toBigDecimal(v, scale).doubleValue()));
+                }
+                break;
+            case STRING:
+                return createStringConverter(column, primitive, logicalType, scale);
+            case DATE:
+                if (primitive == PrimitiveTypeName.INT32) {
+                    return new LongConverter(
+                        v -> ((LocalDateWriteValue)value(column)).setLocalDate(LocalDate.ofEpochDay(v)));
+                }
+                break;
+            case TIME:
+                if (logicalType instanceof TimeLogicalTypeAnnotation) {
+                    final int timeScale = getScale(((TimeLogicalTypeAnnotation)logicalType).getUnit());
+                    return new LongConverter(v -> ((LocalTimeWriteValue)value(column))
+                        .setLocalTime(SnowflakeArrowValues.toLocalTime(v, timeScale)));
+                }
+                break;
+            case TIMESTAMP:
+                if (logicalType instanceof TimestampLogicalTypeAnnotation) {
+                    final TimestampLogicalTypeAnnotation timestamp = (TimestampLogicalTypeAnnotation)logicalType;
+                    final int timeScale = getScale(timestamp.getUnit());
+                    //instants are converted into the time zone of the JVM like TIMESTAMP_LTZ values
+                    final ZoneId zone = timestamp.isAdjustedToUTC() ? ZoneId.systemDefault() : ZoneOffset.UTC;
+                    return new LongConverter(v -> ((LocalDateTimeWriteValue)value(column)).setLocalDateTime(
+                        LocalDateTime.ofInstant(SnowflakeArrowValues.toInstant(v, timeScale), zone)));
+                }
+                break;
+            case TIMESTAMP_TZ:
+                if (logicalType instanceof TimestampLogicalTypeAnnotation) {
+                    final int timeScale = getScale(((TimestampLogicalTypeAnnotation)logicalType).getUnit());
+                    //Parquet does not store the offset of the values
+                    return new LongConverter(v -> ((ZonedDateTimeWriteValue)value(column)).setZonedDateTime(
+                        ZonedDateTime.ofInstant(SnowflakeArrowValues.toInstant(v, timeScale), ZoneOffset.UTC)));
+                }
+                break;
+            default:
+                break;
+        }
+        throw new SQLException(String.format("Unloaded Parquet column %s of type %s can not be read as %s column.",
+            type.getName(), type, target.name()));
+    }
+
+    private Converter createStringConverter(final int column, final PrimitiveTypeName primitive,
+        final LogicalTypeAnnotation logicalType, final int scale) {
+        switch (primitive) {
+            case BOOLEAN:
+                return new PrimitiveConverter() {
+                    @Override
+                    public void addBoolean(final boolean value) {
+                        ((StringWriteValue)value(column)).setStringValue(Boolean.toString(value));
+                    }
+                };
+            case INT32:
+            case INT64:
+                return new LongConverter(v -> ((StringWriteValue)value(column))
+                    .setStringValue(SnowflakeArrowValues.toString(v, scale)));
+            case FLOAT:
+            case DOUBLE:
+                return new PrimitiveConverter() {
+                    @Override
+                    public void addDouble(final double value) {
+                        ((StringWriteValue)value(column)).setStringValue(Double.toString(value));
+                    }
+
+                    @Override
+                    public void addFloat(final float value) {
+                        ((StringWriteValue)value(column)).setStringValue(Float.toString(value));
+                    }
+                };
+            default:
+                if (logicalType instanceof DecimalLogicalTypeAnnotation) {
+                    return new BinaryConverter(v -> ((StringWriteValue)value(column))
+                        .setStringValue(toBigDecimal(v, scale).toPlainString()));
+                }
+                if (logicalType == null) {
+                    //binary values are returned as hex string like by the JDBC driver
+                    return new BinaryConverter(v -> ((StringWriteValue)value(column))
+                        .setStringValue(SnowflakeArrowValues.toHex(v.getBytes())));
+                }
+                return new BinaryConverter(
+                    v -> ((StringWriteValue)value(column)).setStringValue(v.toStringUsingUTF8()));
+        }
+    }
+
+    private static BigDecimal toBigDecimal(final Binary value, final int scale) {
+        return new BigDecimal(new BigInteger(value.getBytes()), scale);
+    }
+
+    private static int getScale(final TimeUnit unit) {
+        return switch (unit) {
+            case MILLIS -> 3;
+            case MICROS -> 6;
+            default -> 9;
+        };
+    }
+
+    @FunctionalInterface
+    private interface LongValueConsumer {
+        void accept(long value);
+    }
+
+    @FunctionalInterface
+    private interface BinaryValueConsumer {
+        void accept(Binary value);
+    }
+
+    /**
+     * Passes {@code INT32} and {@code INT64} values as long to a consumer.
+     */
+    private static final class LongConverter extends PrimitiveConverter {
+
+        private final LongValueConsumer m_consumer;
+
+        LongConverter(final LongValueConsumer consumer) {
+            m_consumer = consumer;
+        }
+
+        @Override
+        public void addInt(final int value) {
+            m_consumer.accept(value);
+        }
+
+        @Override
+        public void addLong(final long value) {
+            m_consumer.accept(value);
+        }
+    }
+
+    /**
+     * Passes {@code BINARY} and {@code FIXED_LEN_BYTE_ARRAY} values to a consumer.
+     */
+    private static final class BinaryConverter extends PrimitiveConverter {
+
+        private final BinaryValueConsumer m_consumer;
+
+        BinaryConverter(final BinaryValueConsumer consumer) {
+            m_consumer = consumer;
+        }
+
+        @Override
+        public void addBinary(final Binary value) {
+            m_consumer.accept(value);
+        }
+    }
+}
@@ -0,0 +1,537 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.container.DataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.database.session.DBSession;
+
+/**
+ * Local disk cache of the KNIME tables that have been read from Snowflake. An entry is identified by the normalized
+ * SQL text of the query and the context of the session i.e. the account, user, roles, database and schema, which
+ * determine the objects the query refers to and the rows it is allowed to see.
+ * <p>
+ * Each entry is stored with the fingerprint of the tables the query scans, which consists of the
+ * {@code SYSTEM$LAST_CHANGE_COMMIT_TIME} of each table as listed by {@code EXPLAIN}. An entry is only returned if
+ * the fingerprint is unchanged. Both statements are compiled by the cloud services layer which is why a hit does not
+ * resume the warehouse. Queries that read external data or table functions are not cached since their result can
+ * not be validated. The result of queries with non-deterministic expressions such as {@code CURRENT_TIMESTAMP} is
+ * cached anyway.
+ * </p>
+ * <p>
+ * The least recently used entries are evicted once the cache exceeds its maximum size on disk.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowflakeResultCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(SnowflakeResultCache.class);
+
+    /** The default maximum size of the cache on disk in MB. */
+    public static final int DEFAULT_MAX_SIZE_MB = 1024;
+
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    /** Changes whenever the stored tables or the key become incompatible with older entries. */
+    private static final String VERSION = "1";
+
+    private static final String TABLE_SUFFIX = ".table";
+
+    private static final String FINGERPRINT_SUFFIX = ".fingerprint";
+
+    private static final String SESSION_CONTEXT_QUERY = "SELECT CURRENT_ACCOUNT(), CURRENT_REGION(), CURRENT_USER(), "
+        + "CURRENT_ROLE(), CURRENT_SECONDARY_ROLES(), CURRENT_DATABASE(), CURRENT_SCHEMA()";
+
+    /** Plan operations whose result can not be validated by the commit time of a table. */
+    private static final Set<String> UNCACHEABLE_OPERATIONS =
+        Set.of("externalscan", "tablefunction", "generator");
+
+    private static SnowflakeResultCache defaultCache;
+
+    /**
+     * Reads the result of a query into a KNIME table if it is not cached.
+     */
+    @FunctionalInterface
+    public interface TableReader {
+
+        /**
+         * @param exec the {@link ExecutionContext} to create the table with
+         * @param query the query to execute
+         * @return the table with the result of the query
+         * @throws CanceledExecutionException if the execution was canceled
+         * @throws SQLException if the query failed
+         * @throws IOException if the table could not be written
+         * @throws InvalidSettingsException if the reader is not configured correctly
+         */
+        BufferedDataTable read(ExecutionContext exec, String query)
+            throws CanceledExecutionException, SQLException, IOException, InvalidSettingsException;
+    }
+
+    /**
+     * Writes the table of an entry into the given file.
+     */
+    @FunctionalInterface
+    interface EntryWriter {
+
+        /**
+         * @param file the file to write
+         * @throws IOException if the file could not be written
+         * @throws CanceledExecutionException if the execution was canceled
+         */
+        void write(File file) throws IOException, CanceledExecutionException;
+    }
+
+    private static final class Entry {
+
+        private final String m_fingerprint;
+
+        private final long m_size;
+
+        Entry(final String fingerprint, final long size) {
+            m_fingerprint = fingerprint;
+            m_size = size;
+        }
+    }
+
+    private final Path m_directory;
+
+    /** The entries in the order of their last use, loaded from the directory on first access. */
+    private Map<String, Entry> m_entries;
+
+    private long m_size;
+
+    /**
+     * @param directory the directory the entries are stored in
+     */
+    SnowflakeResultCache(final Path directory) {
+        m_directory = directory;
+    }
+
+    /**
+     * @return the cache that stores its entries in the KNIME temp directory
+     */
+    public static synchronized SnowflakeResultCache getDefault() {
+        if (defaultCache == null) {
+            defaultCache =
+                new SnowflakeResultCache(Path.of(KNIMEConstants.getKNIMETempDir(), "snowflake_result_cache"));
+        }
+        return defaultCache;
+    }
+
+    /**
+     * Returns the cached result of the given query if the tables it scans have not changed since it has been cached.
+     * Otherwise the query is read with the given reader and its result is cached.
+     *
+     * @param exec the {@link ExecutionContext} to create the table with
+     * @param session the {@link DBSession} to validate the entry with
+     * @param query the query to read
+     * @param maxSizeMB the maximum size of the cache on disk in MB
+     * @param reader the {@link TableReader} that reads the query if it is not cached
+     * @return the table with the result of the query
+     * @throws CanceledExecutionException if the execution was canceled
+     * @throws SQLException if the query failed
+     * @throws IOException if the table could not be written
+     * @throws InvalidSettingsException if the reader is not configured correctly
+     */
+    public BufferedDataTable read(final ExecutionContext exec, final DBSession session, final String query,
+        final int maxSizeMB, final TableReader reader)
+        throws CanceledExecutionException, SQLException, IOException, InvalidSettingsException {
+        exec.setMessage("Validating cached result");
+        final String key;
+        final String fingerprint;
+        try (Connection connection = session.getConnectionProvider().getConnection(exec)) {
+            key = createKey(normalize(query), readSessionContext(connection));
+            fingerprint = readFingerprint(connection, query);
+        }
+        if (fingerprint == null) {
+            return reader.read(exec, query);
+        }
+        final File cached = lookup(key, fingerprint);
+        if (cached != null) {
+            exec.setMessage("Reading cached result");
+            try {
+                return readTable(exec, cached);
+            } catch (final IOException e) {
+                LOGGER.debug("Cached result can not be read, executing the query again: " + e.getMessage());
+                remove(key);
+            }
+        }
+        final BufferedDataTable table = reader.read(exec.createSubExecutionContext(0.9), query);
+        exec.setMessage("Caching result");
+        try {
+            store(key, fingerprint, file -> DataContainer.writeToZip(table, file, exec.createSubExecutionContext(0.1)),
+                maxSizeMB * BYTES_PER_MB);
+        } catch (final IOException e) {
+            LOGGER.warn("Result could not be cached: " + e.getMessage());
+        }
+        return table;
+    }
+
+    private static BufferedDataTable readTable(final ExecutionContext exec, final File file)
+        throws IOException, CanceledExecutionException {
+        final ContainerTable cached = DataContainer.readFromZip(file);
+        try {
+            return exec.createBufferedDataTable(cached, exec);
+        } finally {
+            cached.clear();
+        }
+    }
+
+    private static List<String> readSessionContext(final Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(SESSION_CONTEXT_QUERY)) {
+            final List<String> context = new ArrayList<>();
+            if (resultSet.next()) {
+                final ResultSetMetaData metaData = resultSet.getMetaData();
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    context.add(resultSet.getString(i));
+                }
+            }
+            return context;
+        }
+    }
+
+    /**
+     * Reads the commit time of each table the query scans.
+     *
+     * @param connection the {@link Connection} to use
+     * @param query the query to validate
+     * @return the fingerprint of the scanned tables or {@code null} if the result of the query can not be validated
+     */
+    private static String readFingerprint(final Connection connection, final String query) {
+        try (Statement statement = connection.createStatement()) {
+            final SortedSet<String> tables = new TreeSet<>();
+            try (ResultSet resultSet = statement.executeQuery("EXPLAIN USING TABULAR " + query)) {
+                while (resultSet.next()) {
+                    final String operation = StringUtils.lowerCase(resultSet.getString("operation"));
+                    if (UNCACHEABLE_OPERATIONS.contains(operation)) {
+                        LOGGER.debug("Result is not cached since the query contains a " + operation + " operation");
+                        return null;
+                    }
+                    final String objects = resultSet.getString("objects");
+                    if ("tablescan".equals(operation) && StringUtils.isNotBlank(objects)) {
+                        tables.add(objects.strip());
+                    }
+                }
+            }
+            if (tables.isEmpty()) {
+                LOGGER.debug("Result is not cached since the query does not scan any table");
+                return null;
+            }
+            final String[] names = tables.toArray(String[]::new);
+            try (ResultSet resultSet = statement.executeQuery(createCommitTimeQuery(names))) {
+                final StringBuilder fingerprint = new StringBuilder();
+                if (resultSet.next()) {
+                    for (int i = 0; i < names.length; i++) {
+                        fingerprint.append(names[i]).append('=').append(resultSet.getString(i + 1)).append('\n');
+                    }
+                }
+                return fingerprint.toString();
+            }
+        } catch (final SQLException e) {
+            LOGGER.debug("Result is not cached since the scanned tables can not be validated: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @param tables the fully qualified names of the tables
+     * @return the query that returns the last commit time of each table in a single row
+     */
+    static String createCommitTimeQuery(final String... tables) {
+        //https://docs.snowflake.com/en/sql-reference/functions/system_last_change_commit_time
+        final StringBuilder query = new StringBuilder("SELECT ");
+        for (int i = 0; i < tables.length; i++) {
+            if (i > 0) {
+                query.append(", ");
+            }
+            query.append("SYSTEM$LAST_CHANGE_COMMIT_TIME('").append(tables[i].replace("'", "''")).append("')");
+        }
+        return query.toString();
+    }
+
+    /**
+     * Normalizes the SQL text of a query by collapsing whitespace outside of literals and quoted identifiers and by
+     * removing trailing semicolons.
+     *
+     * @param sql the SQL text of the query
+     * @return the normalized SQL text
+     */
+    static String normalize(final String sql) {
+        final String stripped = StringUtils.stripEnd(sql.strip(), ";").strip();
+        final StringBuilder normalized = new StringBuilder(stripped.length());
+        char quote = 0;
+        boolean whitespace = false;
+        for (int i = 0; i < stripped.length(); i++) {
+            final char c = stripped.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c)) {
+                whitespace = true;
+                continue;
+            }
+            if (whitespace) {
+                normalized.append(' ');
+                whitespace = false;
+            }
+            if (quote == '\'' && c == '\\' && i + 1 < stripped.length()) {
+                //a backslash escapes the next character of a string literal
+                normalized.append(c).append(stripped.charAt(++i));
+                continue;
+            }
+            if (quote == 0 && (c == '\'' || c == '"')) {
+                quote = c;
+            } else if (c == quote) {
+                //a doubled quote is escaped and closes and reopens the literal which keeps the state consistent
+                quote = 0;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * @param normalizedSql the normalized SQL text of the query
+     * @param sessionContext the context of the session the query is executed in
+     * @return the key of the entry which is also used as the file name
+     */
+    static String createKey(final String normalizedSql, final List<String> sessionContext) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((VERSION + '\n').getBytes(StandardCharsets.UTF_8));
+            for (final String value : sessionContext) {
+                digest.update((value + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(normalizedSql.getBytes(StandardCharsets.UTF_8)));
+        } catch (final NoSuchAlgorithmException e) {
+            //every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the file of an entry if its fingerprint matches and marks it as most recently used. An entry with a
+     * different fingerprint is stale and removed.
+     *
+     * @param key the key of the entry
+     * @param fingerprint the current fingerprint of the tables the query scans
+     * @return the file of the entry or {@code null} if the entry does not exist or is stale
+     * @throws IOException if the cache directory could not be read
+     */
+    synchronized File lookup(final String key, final String fingerprint) throws IOException {
+        final Entry entry = getEntries().get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.m_fingerprint.equals(fingerprint)) {
+            remove(key);
+            return null;
+        }
+        final Path table = m_directory.resolve(key + TABLE_SUFFIX);
+        if (!Files.isRegularFile(table)) {
+            remove(key);
+            return null;
+        }
+        //the modification time orders the entries by their last use when the cache is loaded again
+        Files.setLastModifiedTime(table, FileTime.fromMillis(System.currentTimeMillis()));
+        return table.toFile();
+    }
+
+    /**
+     * Stores an entry and evicts the least recently used entries until the cache does not exceed the given size.
+     * The entry is not stored if it exceeds the size alone.
+     *
+     * @param key the key of the entry
+     * @param fingerprint the fingerprint of the tables the query scans
+     * @param writer the {@link EntryWriter} that writes the table of the entry
+     * @param maxSize the maximum size of the cache on disk in bytes
+     * @throws IOException if the entry could not be written
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    void store(final String key, final String fingerprint, final EntryWriter writer, final long maxSize)
+        throws IOException, CanceledExecutionException {
+        Files.createDirectories(m_directory);
+        //the table is written outside of the lock and moved into place to not block concurrent reads
+        final Path temp = Files.createTempFile(m_directory, key, ".tmp");
+        try {
+            writer.write(temp.toFile());
+            synchronized (this) {
+                final Map<String, Entry> entries = getEntries();
+                remove(key);
+                if (Files.size(temp) > maxSize) {
+                    //caching the table would evict all other entries
+                    LOGGER.debug("Result is not cached since it exceeds the maximum size of the cache");
+                    evict(maxSize);
+                    return;
+                }
+                Files.writeString(m_directory.resolve(key + FINGERPRINT_SUFFIX), fingerprint, StandardCharsets.UTF_8);
+                final Path table = m_directory.resolve(key + TABLE_SUFFIX);
+                Files.move(temp, table, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                final Entry entry = new Entry(fingerprint, Files.size(table));
+                entries.put(key, entry);
+                m_size += entry.m_size;
+                evict(maxSize);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @return the total size of the cached tables in bytes
+     * @throws IOException if the cache directory could not be read
+     */
+    synchronized long getSize() throws IOException {
+        getEntries();
+        return m_size;
+    }
+
+    /**
+     * @param key the key of the entry
+     * @return {@code true} if the cache contains the entry
+     * @throws IOException if the cache directory could not be read
+     */
+    synchronized boolean contains(final String key) throws IOException {
+        return getEntries().containsKey(key);
+    }
+
+    private void evict(final long maxSize) {
+        final Iterator<Map.Entry<String, Entry>> iterator = m_entries.entrySet().iterator();
+        while (m_size > maxSize && iterator.hasNext()) {
+            final Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            m_size -= eldest.getValue().m_size;
+            deleteFiles(eldest.getKey());
+        }
+    }
+
+    private synchronized void remove(final String key) throws IOException {
+        final Entry entry = getEntries().remove(key);
+        if (entry != null) {
+            m_size -= entry.m_size;
+            deleteFiles(key);
+        }
+    }
+
+    private void deleteFiles(final String key) {
+        for (final String suffix : new String[]{TABLE_SUFFIX, FINGERPRINT_SUFFIX}) {
+            try {
+                Files.deleteIfExists(m_directory.resolve(key + suffix));
+            } catch (final IOException e) {
+                //the file might still be read on some platforms, it is ignored since it is no longer indexed
+                LOGGER.debug("Cached file can not be deleted: " + e.getMessage());
+            }
+        }
+    }
+
+    private Map<String, Entry> getEntries() throws IOException {
+        if (m_entries != null) {
+            return m_entries;
+        }
+        final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        m_size = 0;
+        if (Files.isDirectory(m_directory)) {
+            final List<Path> tables;
+            try (Stream<Path> files = Files.list(m_directory)) {
+                tables = files.filter(f -> f.getFileName().toString().endsWith(TABLE_SUFFIX)).toList();
+            }
+            final List<Path> sorted = new ArrayList<>(tables);
+            sorted.sort(Comparator.comparing(SnowflakeResultCache::getLastModified));
+            for (final Path table : sorted) {
+                final String name = table.getFileName().toString();
+                final String key = name.substring(0, name.length() - TABLE_SUFFIX.length());
+                final Path fingerprint = m_directory.resolve(key + FINGERPRINT_SUFFIX);
+                if (Files.isRegularFile(fingerprint)) {
+                    final Entry entry =
+                        new Entry(Files.readString(fingerprint, StandardCharsets.UTF_8), Files.size(table));
+                    entries.put(key, entry);
+                    m_size += entry.m_size;
+                }
+            }
+        }
+        m_entries = entries;
+        return entries;
+    }
+
+    private static FileTime getLastModified(final Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (final IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.knime.core.node.NodeLogger;
+import org.knime.database.session.DBSession;
+
+/**
+ * Remembers the query ID of each query that has been executed per {@link DBSession} and SQL text so that the
+ * persisted result of the query can be read again via {@code RESULT_SCAN} instead of recomputing it in the warehouse.
+ * Snowflake keeps persisted results for 24 hours which is why remembered queries expire after
+ * {@link #TIME_TO_LIVE}.
+ * <p>
+ * A persisted result does not change if the queried tables change, which is why the result should only be
+ * {@linkplain #resolve(DBSession, String) resolved} if the user requested the reuse. Queries are always
+ * {@linkplain #remember(DBSession, String, String) remembered} so that the result of a node can be reused by the
+ * downstream nodes.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowflakeResultReuse {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(SnowflakeResultReuse.class);
+
+    /** The time after which a remembered query expires, which is an hour less than Snowflake keeps the results. */
+    public static final Duration TIME_TO_LIVE = Duration.ofHours(23);
+
+    /** The maximum number of queries that are remembered per session. */
+    static final int MAX_QUERIES = 256;
+
+    private static final Map<DBSession, Map<String, RememberedQuery>> QUERIES =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Executes a query or its {@code RESULT_SCAN} replacement.
+     *
+     * @param <T> the result of the execution
+     */
+    @FunctionalInterface
+    interface Execution<T> {
+
+        /**
+         * @param sql the query to execute
+         * @param reused {@code true} if the query reads the persisted result of the original query
+         * @return the result of the execution
+         * @throws SQLException if the execution failed
+         */
+        T execute(String sql, boolean reused) throws SQLException;
+    }
+
+    private static final class RememberedQuery {
+
+        private final String m_queryId;
+
+        private final long m_expires;
+
+        RememberedQuery(final String queryId, final long expires) {
+            m_queryId = queryId;
+            m_expires = expires;
+        }
+    }
+
+    private SnowflakeResultReuse() {
+        //utility class
+    }
+
+    /**
+     * Returns the query that reads the persisted result of the given query if the query has been executed within
+     * the {@link #TIME_TO_LIVE}.
+     *
+     * @param session the {@link DBSession} the query has been executed with
+     * @param sql the SQL text of the query
+     * @return the {@code RESULT_SCAN} query or {@code null} if the query has not been executed or has expired
+     */
+    static String resolve(final DBSession session, final String sql) {
+        final String key = createKey(sql);
+        synchronized (QUERIES) {
+            final Map<String, RememberedQuery> queries = QUERIES.get(session);
+            final RememberedQuery query = queries == null ? null : queries.get(key);
+            if (query == null) {
+                return null;
+            }
+            if (System.nanoTime() - query.m_expires >= 0) {
+                queries.remove(key);
+                return null;
+            }
+            return createResultScanQuery(query.m_queryId);
+        }
+    }
+
+    /**
+     * Executes the {@code RESULT_SCAN} query of the given query if the reuse is requested and its persisted result
+     * is known. If the persisted result can not be read e.g. because it has been purged, the query is forgotten and
+     * the original query is executed instead.
+     *
+     * @param <T> the result of the execution
+     * @param session the {@link DBSession} to execute the query with
+     * @param sql the SQL text of the query
+     * @param reuse {@code true} if the persisted result should be reused
+     * @param execution the {@link Execution} that executes the query or its replacement
+     * @return the result of the execution
+     * @throws SQLException if the execution of the original query failed
+     */
+    static <T> T execute(final DBSession session, final String sql, final boolean reuse,
+        final Execution<T> execution) throws SQLException {
+        final String resultScan = reuse ? resolve(session, sql) : null;
+        if (resultScan != null) {
+            try {
+                return execution.execute(resultScan, true);
+            } catch (final SQLException e) {
+                LOGGER.debug("Persisted result can not be read, executing the query again: " + e.getMessage());
+                forget(session, sql);
+            }
+        }
+        return execution.execute(sql, false);
+    }
+
+    /**
+     * Remembers the ID of an executed query. The oldest query of the session is forgotten once more than
+     * {@link #MAX_QUERIES} are remembered.
+     *
+     * @param session the {@link DBSession} the query has been executed with
+     * @param sql the SQL text of the query
+     * @param queryId the Snowflake query ID of the execution or {@code null} if it is not known
+     */
+    static void remember(final DBSession session, final String sql, final String queryId) {
+        if (StringUtils.isBlank(queryId)) {
+            return;
+        }
+        final RememberedQuery query = new RememberedQuery(queryId, System.nanoTime() + TIME_TO_LIVE.toNanos());
+        synchronized (QUERIES) {
+            QUERIES.computeIfAbsent(session, s -> new LinkedHashMap<String, RememberedQuery>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, RememberedQuery> eldest) {
+                    return size() > MAX_QUERIES;
+                }
+            }).put(createKey(sql), query);
+        }
+    }
+
+    /**
+     * Forgets the given query e.g. because its persisted result could not be read.
+     *
+     * @param session the {@link DBSession} the query has been executed with
+     * @param sql the SQL text of the query
+     */
+    static void forget(final DBSession session, final String sql) {
+        synchronized (QUERIES) {
+            final Map<String, RememberedQuery> queries = QUERIES.get(session);
+            if (queries != null) {
+                queries.remove(createKey(sql));
+            }
+        }
+    }
+
+    /**
+     * Forgets all queries of the given session e.g. after the data of the session has been changed.
+     *
+     * @param session the {@link DBSession} to invalidate
+     */
+    public static void invalidate(final DBSession session) {
+        QUERIES.remove(session);
+    }
+
+    /**
+     * @param queryId the Snowflake query ID
+     * @return the query that reads the persisted result of the query
+     */
+    static String createResultScanQuery(final String queryId) {
+        //https://docs.snowflake.com/en/sql-reference/functions/result_scan
+        return "SELECT * FROM TABLE(RESULT_SCAN('" + queryId.replace("'", "''") + "'))";
+    }
+
+    private static String createKey(final String sql) {
+        return sql.strip();
+    }
+}
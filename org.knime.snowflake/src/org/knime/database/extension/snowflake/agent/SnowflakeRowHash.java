@@ -0,0 +1,257 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.JDBCType;
+import java.sql.SQLType;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.knime.core.data.BooleanValue;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.time.localdate.LocalDateValue;
+import org.knime.core.data.time.localdatetime.LocalDateTimeValue;
+import org.knime.core.data.time.localtime.LocalTimeValue;
+import org.knime.database.dialect.DBSQLDialect;
+import org.knime.database.model.DBColumn;
+
+/**
+ * Computes the 64 bit row hashes that are used by the {@link SnowflakeLoaderMode#DELTA delta mode} to detect changed
+ * rows without downloading the table content.
+ * <p>
+ * The hash is the lower half of the MD5 digest of a text representation of the column values. Each value is encoded
+ * as {@code <length>:<text>} and missing values as {@code -} which makes the encoding of a row unambiguous. Snowflake
+ * computes the same hash for the table rows with the SQL expression returned by
+ * {@link #createHashExpression(DBSQLDialect, String, List)}. Values whose text representation differs between KNIME
+ * and Snowflake e.g. decimal numbers with trailing zeros get different hashes and are treated as changed. This only
+ * increases the uploaded data but never skips a changed row.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowflakeRowHash {
+
+    private static final String MISSING = "-";
+
+    private static final String DATE_FORMAT = "YYYY-MM-DD";
+
+    private static final String TIME_FORMAT = "HH24:MI:SS.FF9";
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss.SSSSSSSSS");
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+        DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSSSSSSSS");
+
+    /** Largest absolute double value that is written without fraction and exponent. */
+    private static final double MAX_INTEGRAL_DOUBLE = 1e15;
+
+    private final MessageDigest m_digest;
+
+    private final byte[] m_hash = new byte[16];
+
+    private final CharsetEncoder m_encoder =
+        UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private final StringBuilder m_text = new StringBuilder(256);
+
+    private final StringBuilder m_value = new StringBuilder(64);
+
+    private ByteBuffer m_bytes = ByteBuffer.allocate(1024);
+
+    /**
+     * Constructor.
+     */
+    public SnowflakeRowHash() {
+        try {
+            m_digest = MessageDigest.getInstance("MD5");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not supported by the Java runtime.", e);
+        }
+    }
+
+    /**
+     * Creates the SQL expression that computes the hash of the given columns in Snowflake. The expression returns
+     * the hash as unsigned {@code NUMBER(20,0)} whose {@link java.math.BigDecimal#longValue() long value} is equal to
+     * the value returned by {@link #hash(DataRow, int[])}.
+     *
+     * @param dialect the {@link DBSQLDialect} to delimit the column names with
+     * @param alias the optional table alias to prefix the columns with or {@code null}
+     * @param columns the columns to hash in hash order
+     * @return the SQL expression
+     */
+    public static String createHashExpression(final DBSQLDialect dialect, final String alias,
+        final List<DBColumn> columns) {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("At least one column is required.");
+        }
+        final StringBuilder buf = new StringBuilder("MD5_NUMBER_LOWER64(");
+        for (int i = 0; i < columns.size(); i++) {
+            final DBColumn column = columns.get(i);
+            final String name = (alias == null ? "" : alias + ".") + dialect.delimit(column.getName());
+            final String text = toText(name, column.getColumnType());
+            if (i > 0) {
+                buf.append(" || ");
+            }
+            //the concatenation is null for missing values
+            buf.append("COALESCE(LENGTH(").append(text).append(") || ':' || ").append(text).append(", '")
+                .append(MISSING).append("')");
+        }
+        return buf.append(')').toString();
+    }
+
+    private static String toText(final String name, final SQLType type) {
+        if (JDBCType.DATE.equals(type)) {
+            return "TO_VARCHAR(" + name + ", '" + DATE_FORMAT + "')";
+        }
+        if (JDBCType.TIME.equals(type)) {
+            return "TO_VARCHAR(" + name + ", '" + TIME_FORMAT + "')";
+        }
+        if (JDBCType.TIMESTAMP.equals(type) || JDBCType.TIMESTAMP_WITH_TIMEZONE.equals(type)) {
+            return "TO_VARCHAR(" + name + ", '" + DATE_FORMAT + " " + TIME_FORMAT + "')";
+        }
+        return "TO_VARCHAR(" + name + ")";
+    }
+
+    /**
+     * Computes the hash of the given cells of a row.
+     *
+     * @param row the {@link DataRow} to hash
+     * @param columnIndices the indices of the cells to hash in hash order
+     * @return the hash
+     */
+    public long hash(final DataRow row, final int[] columnIndices) {
+        m_text.setLength(0);
+        for (final int columnIndex : columnIndices) {
+            append(row.getCell(columnIndex));
+        }
+        final int maxBytes = m_text.length() * 3;
+        if (m_bytes.capacity() < maxBytes) {
+            m_bytes = ByteBuffer.allocate(Math.max(maxBytes, m_bytes.capacity() * 2));
+        }
+        m_bytes.clear();
+        m_encoder.reset();
+        m_encoder.encode(CharBuffer.wrap(m_text), m_bytes, true);
+        m_encoder.flush(m_bytes);
+        m_digest.update(m_bytes.array(), 0, m_bytes.position());
+        try {
+            m_digest.digest(m_hash, 0, m_hash.length);
+        } catch (final DigestException e) {
+            throw new IllegalStateException(e);
+        }
+        //MD5_NUMBER_LOWER64 interprets the digest as big endian number and returns the lower 64 bits
+        return toLong(8);
+    }
+
+    /**
+     * Returns the upper 64 bits of the MD5 digest that has been computed by the last {@link #hash(DataRow, int[])}
+     * call. Together with the returned lower half they form the complete 128 bit digest which can be used to detect
+     * duplicate values without storing them.
+     *
+     * @return the upper half of the last digest
+     */
+    public long getUpperHash() {
+        return toLong(0);
+    }
+
+    private long toLong(final int offset) {
+        long hash = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            hash = (hash << 8) | (m_hash[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    private void append(final DataCell cell) {
+        if (cell.isMissing()) {
+            m_text.append(MISSING);
+            return;
+        }
+        m_value.setLength(0);
+        if (cell instanceof BooleanValue) {
+            m_value.append(((BooleanValue)cell).getBooleanValue());
+        } else if (cell instanceof IntValue) {
+            m_value.append(((IntValue)cell).getIntValue());
+        } else if (cell instanceof LongValue) {
+            m_value.append(((LongValue)cell).getLongValue());
+        } else if (cell instanceof DoubleValue) {
+            appendDouble(((DoubleValue)cell).getDoubleValue());
+        } else if (cell instanceof LocalDateValue) {
+            m_value.append(((LocalDateValue)cell).getLocalDate());
+        } else if (cell instanceof LocalTimeValue) {
+            TIME_FORMATTER.formatTo(((LocalTimeValue)cell).getLocalTime(), m_value);
+        } else if (cell instanceof LocalDateTimeValue) {
+            DATE_TIME_FORMATTER.formatTo(((LocalDateTimeValue)cell).getLocalDateTime(), m_value);
+        } else if (cell instanceof StringValue) {
+            m_value.append(((StringValue)cell).getStringValue());
+        } else {
+            m_value.append(cell.toString());
+        }
+        //Snowflake counts characters and not UTF-16 code units
+        m_text.append(m_value.codePointCount(0, m_value.length())).append(':').append(m_value);
+    }
+
+    private void appendDouble(final double value) {
+        //Snowflake writes integral floating point numbers without fraction
+        if (value == Math.rint(value) && Math.abs(value) < MAX_INTEGRAL_DOUBLE) {
+            m_value.append((long)value);
+        } else {
+            m_value.append(value);
+        }
+    }
+}
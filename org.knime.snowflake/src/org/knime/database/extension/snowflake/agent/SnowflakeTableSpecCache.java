@@ -0,0 +1,236 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.database.DBTableSpec;
+import org.knime.database.model.DBTable;
+import org.knime.database.session.DBSession;
+
+/**
+ * Short lived cache of {@link DBTableSpec}s per {@link DBSession} and fully qualified table name. Fetching table
+ * metadata from Snowflake requires a round trip to the cloud services layer which is why the Snowflake loader reuses a
+ * fetched table spec for the configuration, the column validation and the type mapping.
+ * <p>
+ * The cache is only used for a session while a {@link Scope} has been {@linkplain #openScope(DBSession) opened} for
+ * it. The scope is bound to the session and not to a thread so that worker threads that use the session e.g. to load
+ * several tables concurrently share the cached specs. All other metadata requests are passed through to the database
+ * so that the behavior of other nodes does not change. The cached specs of a session are kept across scopes so that
+ * e.g. the spec fetched during the configuration of a node is reused during its execution. They expire after
+ * {@link #TIME_TO_LIVE} and must be {@linkplain #invalidate(DBSession, DBTable) invalidated} whenever the table is
+ * changed e.g. by a DDL statement or a load.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowflakeTableSpecCache {
+
+    /** The time after which a cached table spec expires. */
+    public static final Duration TIME_TO_LIVE = Duration.ofSeconds(60);
+
+    /** The number of open scopes per session, guarded by {@link #CACHE}. */
+    private static final Map<DBSession, int[]> SCOPE_DEPTH = new WeakHashMap<>();
+
+    private static final Map<DBSession, Map<String, CachedSpec>> CACHE =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Loads the {@link DBTableSpec} from the database.
+     */
+    @FunctionalInterface
+    interface SpecLoader {
+
+        /**
+         * @return the loaded {@link DBTableSpec}
+         * @throws CanceledExecutionException if the execution was canceled
+         * @throws SQLException if the spec could not be loaded
+         */
+        DBTableSpec load() throws CanceledExecutionException, SQLException;
+    }
+
+    /**
+     * A scope in which the table specs of a session are cached and reused. Scopes are bound to the session they have
+     * been opened for, can be closed by any thread and can be nested. Closing the last scope of a session does not
+     * remove its cached specs.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final DBSession m_session;
+
+        private boolean m_closed;
+
+        private Scope(final DBSession session) {
+            m_session = session;
+            synchronized (CACHE) {
+                SCOPE_DEPTH.computeIfAbsent(session, s -> new int[1])[0]++;
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (CACHE) {
+                if (m_closed) {
+                    return;
+                }
+                m_closed = true;
+                final int[] depth = SCOPE_DEPTH.get(m_session);
+                if (depth != null && --depth[0] <= 0) {
+                    SCOPE_DEPTH.remove(m_session);
+                }
+            }
+        }
+    }
+
+    private static final class CachedSpec {
+
+        private final DBTableSpec m_spec;
+
+        private final long m_expires;
+
+        CachedSpec(final DBTableSpec spec, final long expires) {
+            m_spec = spec;
+            m_expires = expires;
+        }
+    }
+
+    private SnowflakeTableSpecCache() {
+        //utility class
+    }
+
+    /**
+     * Opens a new cache {@link Scope} for the given session. The scope should be closed via try-with-resources once
+     * the caller does not request any further specs.
+     *
+     * @param session the {@link DBSession} whose table specs should be cached
+     * @return the opened {@link Scope}
+     */
+    public static Scope openScope(final DBSession session) {
+        return new Scope(session);
+    }
+
+    /**
+     * Returns the cached table spec if it has not expired yet and a cache {@link Scope} is open for the session.
+     * Otherwise the spec is loaded with the given loader and cached if a scope is open for the session.
+     *
+     * @param session the {@link DBSession} the table belongs to
+     * @param table the {@link DBTable}
+     * @param loader the {@link SpecLoader} that fetches the spec from the database
+     * @return the {@link DBTableSpec}
+     * @throws CanceledExecutionException if the execution was canceled
+     * @throws SQLException if the spec could not be loaded
+     */
+    static DBTableSpec get(final DBSession session, final DBTable table, final SpecLoader loader)
+        throws CanceledExecutionException, SQLException {
+        return get(session, table, loader, System.nanoTime());
+    }
+
+    /**
+     * Same as {@link #get(DBSession, DBTable, SpecLoader)} with the given {@link System#nanoTime()}.
+     */
+    static DBTableSpec get(final DBSession session, final DBTable table, final SpecLoader loader, final long now)
+        throws CanceledExecutionException, SQLException {
+        final String key = createKey(session, table);
+        final boolean scoped;
+        synchronized (CACHE) {
+            scoped = SCOPE_DEPTH.containsKey(session);
+            final Map<String, CachedSpec> specs = scoped ? CACHE.get(session) : null;
+            final CachedSpec cached = specs == null ? null : specs.get(key);
+            if (cached != null && now - cached.m_expires < 0) {
+                return cached.m_spec;
+            }
+        }
+        if (!scoped) {
+            return loader.load();
+        }
+        final DBTableSpec spec = loader.load();
+        synchronized (CACHE) {
+            if (!SCOPE_DEPTH.containsKey(session)) {
+                //the last scope has been closed in the meantime
+                return spec;
+            }
+            final Map<String, CachedSpec> specs = CACHE.computeIfAbsent(session, s -> new HashMap<>());
+            //the specs outlive the scopes which is why expired specs of other tables are removed here
+            specs.values().removeIf(c -> now - c.m_expires >= 0);
+            specs.put(key, new CachedSpec(spec, now + TIME_TO_LIVE.toNanos()));
+        }
+        return spec;
+    }
+
+    /**
+     * Removes the cached spec of the given table e.g. after its structure has been changed.
+     *
+     * @param session the {@link DBSession} the table belongs to
+     * @param table the {@link DBTable} to invalidate
+     */
+    public static void invalidate(final DBSession session, final DBTable table) {
+        final String key = createKey(session, table);
+        synchronized (CACHE) {
+            final Map<String, CachedSpec> specs = CACHE.get(session);
+            if (specs != null) {
+                specs.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Removes all cached specs of the given session.
+     *
+     * @param session the {@link DBSession} to invalidate
+     */
+    public static void invalidate(final DBSession session) {
+        CACHE.remove(session);
+    }
+
+    private static String createKey(final DBSession session, final DBTable table) {
+        return session.getDialect().createFullName(table);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Creates the thread pools of the concurrent Snowflake readers, loaders and file transfers and waits for their tasks
+ * while checking the node for cancellation.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowflakeTaskExecutor {
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private SnowflakeTaskExecutor() {
+        //utility class
+    }
+
+    /**
+     * Creates a fixed thread pool with daemon threads named {@code Snowflake-<name>-<counter>}. The caller has to
+     * shut down the returned executor.
+     *
+     * @param name the name of the threads e.g. {@code Arrow-Reader}
+     * @param threadCount the number of threads
+     * @return the {@link ExecutorService}
+     */
+    public static ExecutorService createExecutor(final String name, final int threadCount) {
+        return Executors.newFixedThreadPool(threadCount, createThreadFactory(name));
+    }
+
+    /**
+     * Creates a single threaded scheduled executor with a daemon thread named {@code Snowflake-<name>-<counter>}. The
+     * caller has to shut down the returned executor.
+     *
+     * @param name the name of the thread e.g. {@code Streaming-Flusher}
+     * @return the {@link ScheduledExecutorService}
+     */
+    public static ScheduledExecutorService createScheduledExecutor(final String name) {
+        return Executors.newSingleThreadScheduledExecutor(createThreadFactory(name));
+    }
+
+    private static ThreadFactory createThreadFactory(final String name) {
+        return r -> {
+            final Thread thread = new Thread(r, "Snowflake-" + name + "-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Waits for the given task and checks the node for cancellation in between.
+     *
+     * @param <T> the result type
+     * @param exec the {@link ExecutionMonitor} to check for cancellation
+     * @param future the task to wait for
+     * @param interruptMessage the message of the {@link CanceledExecutionException} if the thread is interrupted
+     * @return the result of the task
+     * @throws CanceledExecutionException if the node has been canceled or the thread has been interrupted
+     * @throws ExecutionException if the task failed
+     */
+    public static <T> T await(final ExecutionMonitor exec, final Future<T> future, final String interruptMessage)
+        throws CanceledExecutionException, ExecutionException {
+        while (true) {
+            exec.checkCanceled();
+            try {
+                return future.get(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException e) {
+                //check for cancellation and wait again
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CanceledExecutionException(interruptMessage);
+            }
+        }
+    }
+
+    /**
+     * Waits for the given task like {@link #await(ExecutionMonitor, Future, String)} but rethrows the cause of a
+     * failed task. Causes other than {@link CanceledExecutionException}, {@link SQLException} and
+     * {@link IOException} are wrapped into a {@link SQLException}.
+     *
+     * @param <T> the result type
+     * @param exec the {@link ExecutionMonitor} to check for cancellation
+     * @param future the task to wait for
+     * @param interruptMessage the message of the {@link CanceledExecutionException} if the thread is interrupted
+     * @return the result of the task
+     * @throws CanceledExecutionException if the node or the task has been canceled
+     * @throws SQLException if the task failed with a {@link SQLException} or an unexpected exception
+     * @throws IOException if the task failed with an {@link IOException}
+     */
+    public static <T> T awaitResult(final ExecutionMonitor exec, final Future<T> future, final String interruptMessage)
+        throws CanceledExecutionException, SQLException, IOException {
+        try {
+            return await(exec, future, interruptMessage);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof CanceledExecutionException) {
+                throw (CanceledExecutionException)cause;
+            }
+            if (cause instanceof SQLException) {
+                throw (SQLException)cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            throw new SQLException(cause.getMessage(), cause);
+        }
+    }
+}
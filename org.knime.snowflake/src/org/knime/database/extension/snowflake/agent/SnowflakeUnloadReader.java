@@ -0,0 +1,342 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.agent;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.core.runtime.URIUtil;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.v2.RowContainer;
+import org.knime.core.data.v2.RowWriteCursor;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.FileUtil;
+import org.knime.core.util.ThreadUtils;
+import org.knime.database.session.DBSession;
+
+/**
+ * Reads the result of a query by unloading it with {@code COPY INTO <location>} as Parquet files into a unique folder
+ * of a stage instead of fetching it via JDBC. The files are downloaded with concurrent {@code GET} commands and
+ * decoded in parallel into separate tables that are concatenated in the end. The staged files are removed once the
+ * result has been read or the read failed.
+ * <p>
+ * Snowflake writes the files concurrently, which is why the order of the rows is only preserved within each file but
+ * not across files.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowflakeUnloadReader {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(SnowflakeUnloadReader.class);
+
+    private static final String PARQUET_FORMAT =
+        SnowflakeFileUnloader.createFileFormat(SnowflakeLoaderFileFormat.PARQUET, true);
+
+    private final DBSession m_session;
+
+    private final SnowflakeLoaderStageType m_stageType;
+
+    private final String m_stageName;
+
+    private final int m_maxFileSizeMB;
+
+    private final int m_parallelism;
+
+    private final boolean m_reuseResults;
+
+    /**
+     * Constructor.
+     *
+     * @param session the Snowflake {@link DBSession} to execute the queries with
+     * @param stageType the {@link SnowflakeLoaderStageType} of the stage to unload the result into
+     * @param stageName the name of the internal stage if the stage type is {@link SnowflakeLoaderStageType#INTERNAL}
+     * @param maxFileSizeMB the maximum size of an unloaded file in MB
+     * @param parallelism the maximum number of files that are downloaded and decoded concurrently
+     * @param reuseResults {@code true} if the persisted result of a query that has already been executed with the
+     *            session should be unloaded via {@code RESULT_SCAN}, see {@link SnowflakeResultReuse}
+     */
+    public SnowflakeUnloadReader(final DBSession session, final SnowflakeLoaderStageType stageType,
+        final String stageName, final int maxFileSizeMB, final int parallelism, final boolean reuseResults) {
+        m_session = requireNonNull(session, "session");
+        m_stageType = requireNonNull(stageType, "stageType");
+        m_stageName = stageName;
+        m_maxFileSizeMB = Math.max(1, Math.min(SnowflakeFileUnloader.MAX_FILE_SIZE_MB, maxFileSizeMB));
+        m_parallelism = Math.max(1, parallelism);
+        m_reuseResults = reuseResults;
+    }
+
+    /**
+     * Unloads the result of the given query into the stage and reads it into a KNIME table. The columns are named by
+     * their result labels and typed as described by {@link SnowflakeArrowColumnType}.
+     *
+     * @param exec the {@link ExecutionContext} to create the table with
+     * @param query the query to execute
+     * @return the table with the result of the query
+     * @throws CanceledExecutionException if the execution was canceled
+     * @throws SQLException if the query, the unload or the download failed
+     * @throws IOException if the files could not be read or the table could not be written
+     * @throws InvalidSettingsException if the stage can not be used for unloading
+     */
+    public BufferedDataTable read(final ExecutionContext exec, final String query)
+        throws CanceledExecutionException, SQLException, IOException, InvalidSettingsException {
+        return read(exec, query, null);
+    }
+
+    /**
+     * Unloads the result of the given query into the stage and reads it into a KNIME table with the spec
+     * {@link SnowflakeArrowReader#createSpec(DataTableSpec)} returns for the given DB port spec.
+     *
+     * @param exec the {@link ExecutionContext} to create the table with
+     * @param query the query to execute
+     * @param dbSpec the {@link DataTableSpec} of the DB port the query comes from or {@code null} to derive the spec
+     *            from the result
+     * @return the table with the result of the query
+     * @throws CanceledExecutionException if the execution was canceled
+     * @throws SQLException if the query, the unload or the download failed
+     * @throws IOException if the files could not be read or the table could not be written
+     * @throws InvalidSettingsException if the stage can not be used for unloading
+     */
+    public BufferedDataTable read(final ExecutionContext exec, final String query, final DataTableSpec dbSpec)
+        throws CanceledExecutionException, SQLException, IOException, InvalidSettingsException {
+        //the result is unloaded into a unique folder of the stage to separate concurrent reads
+        final String stagePath = SnowflakeFileUnloader.createStagePath(m_session, m_stageType, m_stageName);
+        final File folder = FileUtil.createTempDir("knime_snowflake_unload_reader");
+        try {
+            final ResultDescription result;
+            final List<UnloadedFile> files = new ArrayList<>();
+            try (Connection connection = m_session.getConnectionProvider().getConnection(exec)) {
+                exec.setMessage("Retrieving result columns");
+                //the description fails if the persisted result of a remembered query is no longer available
+                result = SnowflakeResultReuse.execute(m_session, query, m_reuseResults,
+                    (sql, reused) -> describe(connection, sql, dbSpec));
+                exec.checkCanceled();
+                exec.setMessage("Unloading result into stage (this might take some time without progress changes)");
+                try (Statement statement = connection.createStatement();
+                        ResultSet resultSet = statement.executeQuery(SnowflakeFileUnloader.createUnloadCommand(
+                            stagePath, result.m_sql, PARQUET_FORMAT, true, m_maxFileSizeMB))) {
+                    long rowCount = 0;
+                    while (resultSet.next()) {
+                        final long fileRows = resultSet.getLong("ROW_COUNT");
+                        files.add(new UnloadedFile(resultSet.getString("FILE_NAME"), rowCount, fileRows));
+                        rowCount += fileRows;
+                    }
+                }
+            }
+            LOGGER.debugWithFormat("Result unloaded into %d files of stage %s", files.size(), stagePath);
+            exec.setProgress(0.1, "Result unloaded into stage");
+            return readFiles(exec.createSubExecutionContext(0.9), stagePath, folder.toPath(), files, result.m_spec,
+                result.m_types);
+        } finally {
+            SnowflakeFileUnloader.removeStagedFiles(m_session, exec, stagePath);
+            FileUtil.deleteRecursively(folder);
+        }
+    }
+
+    private static ResultDescription describe(final Connection connection, final String sql,
+        final DataTableSpec dbSpec) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            final ResultSetMetaData metaData = statement.getMetaData();
+            final SnowflakeArrowColumnType[] types = new SnowflakeArrowColumnType[metaData.getColumnCount()];
+            return new ResultDescription(sql, types, SnowflakeArrowColumnType.createSpec(metaData, dbSpec, types));
+        }
+    }
+
+    /**
+     * @param stagePath the stage and folder the file was unloaded into
+     * @param fileName the name of the unloaded file relative to the folder
+     * @param folderURI the URI of the local folder to download the file into
+     * @return the {@code GET} command that downloads the file
+     */
+    static String createDownloadCommand(final String stagePath, final String fileName, final String folderURI) {
+        //https://docs.snowflake.com/en/sql-reference/sql/get
+        return "GET '@" + stagePath + "/" + fileName + "' '" + folderURI + "'";
+    }
+
+    private BufferedDataTable readFiles(final ExecutionContext exec, final String stagePath, final Path folder,
+        final List<UnloadedFile> files, final DataTableSpec spec, final SnowflakeArrowColumnType[] types)
+        throws CanceledExecutionException, SQLException, IOException {
+        if (files.isEmpty()) {
+            try (RowContainer container = exec.createRowContainer(spec)) {
+                return container.finish();
+            }
+        }
+        final long rowCount = files.stream().mapToLong(UnloadedFile::getRowCount).sum();
+        final int groupCount = Math.max(1, Math.min(m_parallelism, files.size()));
+        final List<List<UnloadedFile>> groups = new ArrayList<>(groupCount);
+        final long[] groupRows = new long[groupCount];
+        for (int g = 0; g < groupCount; g++) {
+            groups.add(new ArrayList<>());
+        }
+        for (final UnloadedFile file : files) {
+            //contiguous groups with about the same number of rows
+            final int group = rowCount == 0 ? 0
+                : (int)Math.min(groupCount - 1, file.getFirstRow() * groupCount / rowCount);
+            groups.get(group).add(file);
+            groupRows[group] += file.getRowCount();
+        }
+        String folderURI = URIUtil.toUnencodedString(folder.toUri());
+        if (!folderURI.endsWith("/")) {
+            folderURI += "/";
+        }
+        final String downloadFolder = folderURI;
+        final ExecutorService executor = SnowflakeTaskExecutor.createExecutor("Unload-Reader", groupCount);
+        try {
+            final List<Future<BufferedDataTable>> futures = new ArrayList<>(groupCount);
+            for (int g = 0; g < groupCount; g++) {
+                final List<UnloadedFile> group = groups.get(g);
+                final long rows = groupRows[g];
+                final ExecutionContext subExec =
+                    exec.createSubExecutionContext(rowCount == 0 ? (1d / groupCount) : (rows / (double)rowCount));
+                futures.add(executor.submit(ThreadUtils.callableWithContext(
+                    () -> readGroup(subExec, stagePath, folder, downloadFolder, group, spec, types, rows))));
+            }
+            final BufferedDataTable[] tables = new BufferedDataTable[groupCount];
+            for (int g = 0; g < groupCount; g++) {
+                exec.setMessage(format("Reading unloaded files (%d of %d groups done)", g, groupCount));
+                tables[g] = SnowflakeTaskExecutor.awaitResult(exec, futures.get(g),
+                    "Reading of the unloaded files has been interrupted.");
+            }
+            exec.setMessage("Concatenating tables");
+            return tables.length == 1 ? tables[0] : exec.createConcatenateTable(exec, tables);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BufferedDataTable readGroup(final ExecutionContext exec, final String stagePath, final Path folder,
+        final String folderURI, final List<UnloadedFile> files, final DataTableSpec spec,
+        final SnowflakeArrowColumnType[] types, final long rowCount)
+        throws CanceledExecutionException, SQLException, IOException {
+        try (Connection connection = m_session.getConnectionProvider().getConnection(exec);
+                Statement statement = connection.createStatement();
+                RowContainer container = exec.createRowContainer(spec);
+                RowWriteCursor cursor = container.createCursor()) {
+            long readRows = 0;
+            for (final UnloadedFile file : files) {
+                exec.checkCanceled();
+                statement.execute(createDownloadCommand(stagePath, file.getName(), folderURI));
+                //GET stores the file without the folders of its staged path
+                final Path localFile = folder.resolve(StringUtils.substringAfterLast("/" + file.getName(), "/"));
+                try {
+                    SnowflakeParquetResultReader.read(exec, localFile, types, cursor, file.getFirstRow());
+                } finally {
+                    Files.deleteIfExists(localFile);
+                }
+                readRows += file.getRowCount();
+                exec.setProgress(readRows / (double)Math.max(1, rowCount), "Reading unloaded files");
+            }
+            return container.finish();
+        }
+    }
+
+    /**
+     * The columns of the query whose result is unloaded.
+     */
+    private static final class ResultDescription {
+
+        private final String m_sql;
+
+        private final SnowflakeArrowColumnType[] m_types;
+
+        private final DataTableSpec m_spec;
+
+        ResultDescription(final String sql, final SnowflakeArrowColumnType[] types, final DataTableSpec spec) {
+            m_sql = sql;
+            m_types = types;
+            m_spec = spec;
+        }
+    }
+
+    /**
+     * A file of the unloaded result.
+     */
+    private static final class UnloadedFile {
+
+        private final String m_name;
+
+        private final long m_firstRow;
+
+        private final long m_rowCount;
+
+        UnloadedFile(final String name, final long firstRow, final long rowCount) {
+            m_name = name;
+            m_firstRow = firstRow;
+            m_rowCount = rowCount;
+        }
+
+        String getName() {
+            return m_name;
+        }
+
+        long getFirstRow() {
+            return m_firstRow;
+        }
+
+        long getRowCount() {
+            return m_rowCount;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import java.util.List;
+import java.util.Map;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.container.DataContainer;
+import org.knime.core.node.streamable.DataTableRowInput;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.database.extension.snowflake.agent.SnowflakeRowHash;
+import org.knime.database.model.DBColumn;
+
+/**
+ * {@link RowInput} that drops all input rows whose values in the deduplication columns have been returned before.
+ * The values are identified by their 128 bit {@link SnowflakeRowHash MD5 hash} which is kept in a compact
+ * {@link KeyHashSet}. Once the set contains the maximum number of keys, rows with new keys are spilled to disk into
+ * partitions by their key hash. The partitions are deduplicated one after another once the input is exhausted,
+ * so that always the first input row per key is returned independent of the number of distinct keys.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class DeduplicationRowInput extends RowInput {
+
+    /** The maximum number of tracked keys which requires about 70 MB of memory. */
+    static final int MAX_KEYS = 1 << 21;
+
+    /** The number of hash bits that select the spill partition of a row. */
+    private static final int PARTITION_BITS = 6;
+
+    /** The number of nesting levels until the upper key hash is used up for the partitioning. */
+    private static final int MAX_LEVEL = Long.SIZE / PARTITION_BITS - 1;
+
+    private final RowInput m_input;
+
+    private final int[] m_keyIndices;
+
+    private final int m_maxKeys;
+
+    private final int m_level;
+
+    private final SnowflakeRowHash m_hash = new SnowflakeRowHash();
+
+    private KeyHashSet m_keys = new KeyHashSet(1 << 10);
+
+    private DataContainer[] m_partitions;
+
+    private int m_partitionIndex;
+
+    private DeduplicationRowInput m_partitionInput;
+
+    private boolean m_inputExhausted;
+
+    private long m_duplicateRowCount;
+
+    /**
+     * Constructor.
+     *
+     * @param input the {@link RowInput} to filter
+     * @param keyIndices the indices of the input columns whose values must be unique
+     * @param maxKeys the maximum number of keys that are tracked in memory
+     */
+    DeduplicationRowInput(final RowInput input, final int[] keyIndices, final int maxKeys) {
+        this(input, keyIndices, maxKeys, 0);
+    }
+
+    private DeduplicationRowInput(final RowInput input, final int[] keyIndices, final int maxKeys,
+        final int level) {
+        m_input = input;
+        m_keyIndices = keyIndices;
+        m_maxKeys = maxKeys;
+        m_level = level;
+    }
+
+    /**
+     * Creates the {@link DeduplicationRowInput} for the given input.
+     *
+     * @param input the {@link RowInput} to filter
+     * @param columnMapping the target table column per input column name
+     * @param deduplicationColumns the table columns whose values must be unique which must be part of the column
+     *            mapping
+     * @return the {@link DeduplicationRowInput}
+     */
+    static DeduplicationRowInput create(final RowInput input, final Map<String, DBColumn> columnMapping,
+        final List<DBColumn> deduplicationColumns) {
+        final DataTableSpec spec = input.getDataTableSpec();
+        final int[] keyIndices = new int[deduplicationColumns.size()];
+        for (int i = 0; i < keyIndices.length; i++) {
+            final String name = deduplicationColumns.get(i).getName();
+            keyIndices[i] = columnMapping.entrySet().stream()
+                .filter(e -> e.getValue().getName().equals(name)).mapToInt(e -> spec.findColumnIndex(e.getKey()))
+                .findFirst().orElseThrow(() -> new IllegalArgumentException(
+                    "The deduplication column \"" + name + "\" is not loaded from the input table."));
+        }
+        return new DeduplicationRowInput(input, keyIndices, MAX_KEYS);
+    }
+
+    @Override
+    public DataTableSpec getDataTableSpec() {
+        return m_input.getDataTableSpec();
+    }
+
+    @Override
+    public DataRow poll() throws InterruptedException {
+        if (!m_inputExhausted) {
+            DataRow row;
+            while ((row = m_input.poll()) != null) {
+                final long lower = m_hash.hash(row, m_keyIndices);
+                final long upper = m_hash.getUpperHash();
+                if (m_keys.size() < m_maxKeys) {
+                    if (m_keys.add(upper, lower)) {
+                        return row;
+                    }
+                    m_duplicateRowCount++;
+                } else if (m_keys.contains(upper, lower)) {
+                    m_duplicateRowCount++;
+                } else {
+                    spill(row, upper);
+                }
+            }
+            m_inputExhausted = true;
+            //the keys of the spilled rows differ from all tracked keys
+            m_keys = null;
+        }
+        return pollPartitions();
+    }
+
+    private void spill(final DataRow row, final long upperHash) {
+        if (m_partitions == null) {
+            m_partitions = new DataContainer[1 << PARTITION_BITS];
+        }
+        //each level uses the next bits of the hash since all rows of a partition share the bits of the previous ones
+        final int partition =
+            (int)(upperHash >>> (Long.SIZE - PARTITION_BITS * (m_level + 1))) & (m_partitions.length - 1);
+        if (m_partitions[partition] == null) {
+            //the rows are written to disk right away
+            m_partitions[partition] = new DataContainer(m_input.getDataTableSpec(), false, 0);
+        }
+        m_partitions[partition].addRowToTable(row);
+    }
+
+    private DataRow pollPartitions() throws InterruptedException {
+        while (m_partitions != null) {
+            if (m_partitionInput == null) {
+                if (m_partitionIndex == m_partitions.length) {
+                    m_partitions = null;
+                    return null;
+                }
+                final DataContainer partition = m_partitions[m_partitionIndex++];
+                if (partition == null) {
+                    continue;
+                }
+                partition.close();
+                //a partition with too many distinct keys is split up again unless the hash bits are used up
+                m_partitionInput = new DeduplicationRowInput(new DataTableRowInput(partition.getTable()),
+                    m_keyIndices, m_level < MAX_LEVEL ? m_maxKeys : Integer.MAX_VALUE, m_level + 1);
+            }
+            final DataRow row = m_partitionInput.poll();
+            if (row != null) {
+                return row;
+            }
+            m_duplicateRowCount += m_partitionInput.getDuplicateRowCount();
+            closePartition(m_partitionIndex - 1);
+        }
+        return null;
+    }
+
+    private void closePartition(final int index) {
+        if (m_partitionInput != null) {
+            m_partitionInput.close();
+            m_partitionInput = null;
+        }
+        if (m_partitions[index] != null) {
+            m_partitions[index].clear();
+            m_partitions[index] = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        m_input.close();
+        if (m_partitions != null) {
+            for (int i = 0; i < m_partitions.length; i++) {
+                closePartition(i);
+            }
+            m_partitions = null;
+        }
+    }
+
+    /**
+     * Returns the number of dropped rows.
+     *
+     * @return the number of rows whose key has been returned before
+     */
+    long getDuplicateRowCount() {
+        return m_duplicateRowCount;
+    }
+}
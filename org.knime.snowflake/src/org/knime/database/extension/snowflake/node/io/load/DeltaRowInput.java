@@ -0,0 +1,227 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.database.dialect.DBSQLDialect;
+import org.knime.database.extension.snowflake.agent.SnowflakeRowHash;
+import org.knime.database.model.DBColumn;
+import org.knime.database.model.DBTable;
+import org.knime.database.session.DBSession;
+
+/**
+ * {@link RowInput} that only returns the input rows that are new or differ from the table row with the same key.
+ * The key and row hashes of the table rows are {@linkplain #create(ExecutionMonitor, DBSession, DBTable, RowInput,
+ * Map, List) fetched} once from Snowflake and compared with the {@link SnowflakeRowHash hashes} of the input rows.
+ * The keys of the table rows that are not part of the input are {@linkplain #getDeletedKeyHashes() available} once
+ * all rows have been read.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class DeltaRowInput extends RowInput {
+
+    private static final int CANCEL_CHECK_INTERVAL = 0xFFFF;
+
+    private final RowInput m_input;
+
+    private final RowHashMap m_tableRows;
+
+    private final int[] m_keyIndices;
+
+    private final int[] m_columnIndices;
+
+    private final SnowflakeRowHash m_hash = new SnowflakeRowHash();
+
+    private long m_newRowCount;
+
+    private long m_changedRowCount;
+
+    private long m_unchangedRowCount;
+
+    /**
+     * Constructor.
+     *
+     * @param input the {@link RowInput} to filter
+     * @param tableRows the row hash per key hash of the table rows
+     * @param keyIndices the indices of the input columns that are hashed as key
+     * @param columnIndices the indices of the input columns that are hashed as row
+     */
+    DeltaRowInput(final RowInput input, final RowHashMap tableRows, final int[] keyIndices,
+        final int[] columnIndices) {
+        m_input = input;
+        m_tableRows = tableRows;
+        m_keyIndices = keyIndices;
+        m_columnIndices = columnIndices;
+    }
+
+    /**
+     * Fetches the key and row hashes of all table rows and creates the {@link DeltaRowInput} for the given input.
+     *
+     * @param exec the {@link ExecutionMonitor}
+     * @param session the {@link DBSession} to query the table hashes with
+     * @param table the target table
+     * @param input the {@link RowInput} to filter
+     * @param columnMapping the target table column per input column name in input column order
+     * @param keyColumns the table columns that identify a row which must be part of the column mapping
+     * @return the {@link DeltaRowInput}
+     * @throws CanceledExecutionException if the execution was canceled
+     * @throws SQLException if the table hashes could not be fetched
+     */
+    static DeltaRowInput create(final ExecutionMonitor exec, final DBSession session, final DBTable table,
+        final RowInput input, final Map<String, DBColumn> columnMapping, final List<DBColumn> keyColumns)
+        throws CanceledExecutionException, SQLException {
+        final DataTableSpec spec = input.getDataTableSpec();
+        final int[] columnIndices = new int[columnMapping.size()];
+        final List<DBColumn> columns = new ArrayList<>(columnMapping.size());
+        final List<String> keyNames = new ArrayList<>(keyColumns.size());
+        keyColumns.forEach(c -> keyNames.add(c.getName()));
+        final int[] keyIndices = new int[keyColumns.size()];
+        int i = 0;
+        for (final Map.Entry<String, DBColumn> entry : columnMapping.entrySet()) {
+            final int inputIndex = spec.findColumnIndex(entry.getKey());
+            columnIndices[i++] = inputIndex;
+            columns.add(entry.getValue());
+            final int keyIndex = keyNames.indexOf(entry.getValue().getName());
+            if (keyIndex >= 0) {
+                keyIndices[keyIndex] = inputIndex;
+            }
+        }
+        final DBSQLDialect dialect = session.getDialect();
+        final String query = "SELECT " + SnowflakeRowHash.createHashExpression(dialect, null, keyColumns) + ", "
+            + SnowflakeRowHash.createHashExpression(dialect, null, columns) + " FROM " + dialect.createFullName(table);
+        final RowHashMap tableRows = new RowHashMap(1024);
+        exec.setMessage("Fetching row hashes of table " + table);
+        try (Connection connection = session.getConnectionProvider().getConnection(exec);
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(query)) {
+            while (resultSet.next()) {
+                if ((tableRows.size() & CANCEL_CHECK_INTERVAL) == 0) {
+                    exec.checkCanceled();
+                }
+                //the hashes are unsigned 64 bit numbers whose lower 64 bits are returned by longValue()
+                tableRows.put(resultSet.getBigDecimal(1).longValue(), resultSet.getBigDecimal(2).longValue());
+            }
+        }
+        return new DeltaRowInput(input, tableRows, keyIndices, columnIndices);
+    }
+
+    @Override
+    public DataTableSpec getDataTableSpec() {
+        return m_input.getDataTableSpec();
+    }
+
+    @Override
+    public DataRow poll() throws InterruptedException {
+        DataRow row;
+        while ((row = m_input.poll()) != null) {
+            final int index = m_tableRows.indexOf(m_hash.hash(row, m_keyIndices));
+            if (index < 0) {
+                m_newRowCount++;
+                return row;
+            }
+            m_tableRows.markSeen(index);
+            if (m_tableRows.getValue(index) != m_hash.hash(row, m_columnIndices)) {
+                m_changedRowCount++;
+                return row;
+            }
+            m_unchangedRowCount++;
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        m_input.close();
+    }
+
+    /**
+     * Returns the key hashes of the table rows that are not part of the input. Must only be called after all rows
+     * have been read.
+     *
+     * @return the key hashes of the rows to delete
+     */
+    long[] getDeletedKeyHashes() {
+        return m_tableRows.getUnseenKeys();
+    }
+
+    /**
+     * Returns the number of returned input rows whose key does not exist in the table.
+     *
+     * @return the number of new rows
+     */
+    long getNewRowCount() {
+        return m_newRowCount;
+    }
+
+    /**
+     * Returns the number of returned input rows that differ from the table row with the same key.
+     *
+     * @return the number of changed rows
+     */
+    long getChangedRowCount() {
+        return m_changedRowCount;
+    }
+
+    /**
+     * Returns the number of skipped input rows that are equal to the table row with the same key.
+     *
+     * @return the number of unchanged rows
+     */
+    long getUnchangedRowCount() {
+        return m_unchangedRowCount;
+    }
+}
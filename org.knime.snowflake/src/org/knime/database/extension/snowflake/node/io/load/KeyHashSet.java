@@ -0,0 +1,170 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+/**
+ * Compact open addressing hash set of 128 bit key hashes that is used to drop rows with duplicate keys while the
+ * input of the {@link SnowflakeLoaderNode} is written. The set requires about 17 bytes per slot and does not create
+ * an object per entry.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class KeyHashSet {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] m_upper;
+
+    private long[] m_lower;
+
+    private boolean[] m_used;
+
+    private int m_mask;
+
+    private int m_size;
+
+    /**
+     * Constructor.
+     *
+     * @param expectedSize the expected number of entries
+     */
+    KeyHashSet(final int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(final int size) {
+        //keep the load factor below 0.75
+        final long minCapacity = Math.max(16, (size * 4L) / 3 + 1);
+        if (minCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Too many entries: " + size);
+        }
+        return Integer.highestOneBit((int)minCapacity - 1) << 1;
+    }
+
+    private void allocate(final int capacity) {
+        m_upper = new long[capacity];
+        m_lower = new long[capacity];
+        m_used = new boolean[capacity];
+        m_mask = capacity - 1;
+    }
+
+    private int slot(final long lower) {
+        //the keys are hashes already but the lower bits might not be distributed well for other keys
+        final long h = lower * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32)) & m_mask;
+    }
+
+    private int find(final long upper, final long lower) {
+        int i = slot(lower);
+        while (m_used[i]) {
+            if (m_lower[i] == lower && m_upper[i] == upper) {
+                return i;
+            }
+            i = (i + 1) & m_mask;
+        }
+        return -1 - i;
+    }
+
+    /**
+     * Checks whether the given key hash is contained.
+     *
+     * @param upper the upper half of the key hash
+     * @param lower the lower half of the key hash
+     * @return {@code true} if the key hash has been {@linkplain #add(long, long) added}
+     */
+    boolean contains(final long upper, final long lower) {
+        return find(upper, lower) >= 0;
+    }
+
+    /**
+     * Adds the given key hash.
+     *
+     * @param upper the upper half of the key hash
+     * @param lower the lower half of the key hash
+     * @return {@code true} if the key hash has been added and {@code false} if it was already contained
+     */
+    boolean add(final long upper, final long lower) {
+        final int index = find(upper, lower);
+        if (index >= 0) {
+            return false;
+        }
+        final int i = -1 - index;
+        m_upper[i] = upper;
+        m_lower[i] = lower;
+        m_used[i] = true;
+        m_size++;
+        if (m_size * 4L > m_used.length * 3L) {
+            rehash();
+        }
+        return true;
+    }
+
+    private void rehash() {
+        final long[] upper = m_upper;
+        final long[] lower = m_lower;
+        final boolean[] used = m_used;
+        allocate(capacityFor(m_size));
+        for (int j = 0; j < used.length; j++) {
+            if (used[j]) {
+                int i = slot(lower[j]);
+                while (m_used[i]) {
+                    i = (i + 1) & m_mask;
+                }
+                m_upper[i] = upper[j];
+                m_lower[i] = lower[j];
+                m_used[i] = true;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    int size() {
+        return m_size;
+    }
+}
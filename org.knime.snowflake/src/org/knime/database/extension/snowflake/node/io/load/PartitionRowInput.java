@@ -0,0 +1,193 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.knime.core.data.BooleanValue;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.time.localdate.LocalDateValue;
+import org.knime.core.data.time.localdatetime.LocalDateTimeValue;
+import org.knime.core.data.time.localtime.LocalTimeValue;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.database.model.DBColumn;
+
+/**
+ * {@link RowInput} that collects the distinct values of the partition columns of all rows while they are read by
+ * the file writer. This way the partitions to replace are known without an additional pass over the input.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class PartitionRowInput extends RowInput {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+        DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSSSSSSSS");
+
+    private final RowInput m_input;
+
+    private final int[] m_partitionIndices;
+
+    private final Set<List<Object>> m_partitions = new LinkedHashSet<>();
+
+    private final DataCell[] m_cells;
+
+    /** The cells of the last partition to skip the conversion for sorted input. */
+    private DataCell[] m_lastCells;
+
+    /**
+     * Constructor.
+     *
+     * @param input the {@link RowInput} to read from
+     * @param partitionIndices the indices of the input columns that identify a partition
+     */
+    PartitionRowInput(final RowInput input, final int[] partitionIndices) {
+        m_input = input;
+        m_partitionIndices = partitionIndices;
+        m_cells = new DataCell[partitionIndices.length];
+    }
+
+    /**
+     * Creates the {@link PartitionRowInput} for the given input.
+     *
+     * @param input the {@link RowInput} to read from
+     * @param columnMapping the target table column per input column name
+     * @param partitionColumns the table columns that identify a partition which must be part of the column mapping
+     * @return the {@link PartitionRowInput}
+     */
+    static PartitionRowInput create(final RowInput input, final Map<String, DBColumn> columnMapping,
+        final List<DBColumn> partitionColumns) {
+        final DataTableSpec spec = input.getDataTableSpec();
+        final int[] partitionIndices = new int[partitionColumns.size()];
+        for (int i = 0; i < partitionIndices.length; i++) {
+            final String name = partitionColumns.get(i).getName();
+            partitionIndices[i] = columnMapping.entrySet().stream()
+                .filter(e -> e.getValue().getName().equals(name)).mapToInt(e -> spec.findColumnIndex(e.getKey()))
+                .findFirst().orElseThrow(() -> new IllegalArgumentException(
+                    "The partition column \"" + name + "\" is not loaded from the input table."));
+        }
+        return new PartitionRowInput(input, partitionIndices);
+    }
+
+    @Override
+    public DataTableSpec getDataTableSpec() {
+        return m_input.getDataTableSpec();
+    }
+
+    @Override
+    public DataRow poll() throws InterruptedException {
+        final DataRow row = m_input.poll();
+        if (row != null) {
+            for (int i = 0; i < m_cells.length; i++) {
+                m_cells[i] = row.getCell(m_partitionIndices[i]);
+            }
+            if (!Arrays.equals(m_cells, m_lastCells)) {
+                final List<Object> values = new ArrayList<>(m_cells.length);
+                for (final DataCell cell : m_cells) {
+                    values.add(toValue(cell));
+                }
+                m_partitions.add(values);
+                m_lastCells = m_cells.clone();
+            }
+        }
+        return row;
+    }
+
+    @Override
+    public void close() {
+        m_input.close();
+    }
+
+    /**
+     * Returns the distinct partition values of all rows that have been read so far.
+     *
+     * @return the partition values in the order of the partition columns where missing cells are {@code null}
+     */
+    List<List<Object>> getPartitionValues() {
+        return new ArrayList<>(m_partitions);
+    }
+
+    /**
+     * Converts a cell into a value that can be bound to a statement. Temporal values are converted into their
+     * Snowflake text representation to prevent time zone conversions by the JDBC driver.
+     */
+    static Object toValue(final DataCell cell) {
+        if (cell.isMissing()) {
+            return null;
+        }
+        if (cell instanceof BooleanValue) {
+            return ((BooleanValue)cell).getBooleanValue();
+        }
+        if (cell instanceof LongValue) {
+            return ((LongValue)cell).getLongValue();
+        }
+        if (cell instanceof DoubleValue) {
+            return ((DoubleValue)cell).getDoubleValue();
+        }
+        if (cell instanceof LocalDateValue) {
+            return ((LocalDateValue)cell).getLocalDate().toString();
+        }
+        if (cell instanceof LocalTimeValue) {
+            return ((LocalTimeValue)cell).getLocalTime().toString();
+        }
+        if (cell instanceof LocalDateTimeValue) {
+            return DATE_TIME_FORMATTER.format(((LocalDateTimeValue)cell).getLocalDateTime());
+        }
+        if (cell instanceof StringValue) {
+            return ((StringValue)cell).getStringValue();
+        }
+        return cell.toString();
+    }
+}
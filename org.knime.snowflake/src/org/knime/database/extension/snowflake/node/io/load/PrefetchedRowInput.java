@@ -0,0 +1,125 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.node.streamable.RowInput;
+
+/**
+ * {@link RowInput} that returns the rows that have been {@linkplain #prefetch(RowInput, int) prefetched} from another
+ * {@link RowInput} first followed by the remaining rows of that input.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class PrefetchedRowInput extends RowInput {
+
+    private final RowInput m_input;
+
+    private final List<DataRow> m_prefetchedRows;
+
+    private final Iterator<DataRow> m_prefetchedIterator;
+
+    private final boolean m_includeRemaining;
+
+    private PrefetchedRowInput(final RowInput input, final List<DataRow> prefetchedRows,
+        final boolean includeRemaining) {
+        m_input = input;
+        m_prefetchedRows = prefetchedRows;
+        m_prefetchedIterator = prefetchedRows.iterator();
+        m_includeRemaining = includeRemaining;
+    }
+
+    /**
+     * Reads up to the given number of rows from the input.
+     *
+     * @param input the {@link RowInput} to read from
+     * @param rowCount the maximum number of rows to read
+     * @return the {@link PrefetchedRowInput} that returns the prefetched rows followed by the remaining input rows
+     * @throws InterruptedException if the thread was interrupted while reading
+     */
+    static PrefetchedRowInput prefetch(final RowInput input, final int rowCount) throws InterruptedException {
+        final List<DataRow> rows = new ArrayList<>(Math.min(rowCount, 1024));
+        DataRow row;
+        while (rows.size() < rowCount && (row = input.poll()) != null) {
+            rows.add(row);
+        }
+        return new PrefetchedRowInput(input, rows, true);
+    }
+
+    /**
+     * Returns a new {@link RowInput} that only returns the prefetched rows. The returned input can be consumed
+     * independent of this input.
+     *
+     * @return a {@link RowInput} with the prefetched rows only
+     */
+    RowInput getPrefetchedRows() {
+        return new PrefetchedRowInput(m_input, m_prefetchedRows, false);
+    }
+
+    @Override
+    public DataTableSpec getDataTableSpec() {
+        return m_input.getDataTableSpec();
+    }
+
+    @Override
+    public DataRow poll() throws InterruptedException {
+        if (m_prefetchedIterator.hasNext()) {
+            return m_prefetchedIterator.next();
+        }
+        return m_includeRemaining ? m_input.poll() : null;
+    }
+
+    @Override
+    public void close() {
+        if (m_includeRemaining) {
+            m_input.close();
+        }
+    }
+}
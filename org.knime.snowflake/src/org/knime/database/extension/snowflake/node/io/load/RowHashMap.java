@@ -0,0 +1,212 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import java.util.Arrays;
+
+/**
+ * Compact open addressing hash map from the key hash to the row hash of the table rows that is used by the delta
+ * mode of the {@link SnowflakeLoaderNode}. Each entry additionally stores whether its key has been seen in the input
+ * to determine the deleted keys. The map requires about 17 bytes per slot and does not create an object per entry.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class RowHashMap {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private static final byte FREE = 0;
+
+    private static final byte USED = 1;
+
+    private static final byte SEEN = 2;
+
+    private long[] m_keys;
+
+    private long[] m_values;
+
+    private byte[] m_states;
+
+    private int m_mask;
+
+    private int m_size;
+
+    /**
+     * Constructor.
+     *
+     * @param expectedSize the expected number of entries
+     */
+    RowHashMap(final int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(final int size) {
+        //keep the load factor below 0.75
+        final long minCapacity = Math.max(16, (size * 4L) / 3 + 1);
+        if (minCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Too many entries: " + size);
+        }
+        return Integer.highestOneBit((int)minCapacity - 1) << 1;
+    }
+
+    private void allocate(final int capacity) {
+        m_keys = new long[capacity];
+        m_values = new long[capacity];
+        m_states = new byte[capacity];
+        m_mask = capacity - 1;
+    }
+
+    private int slot(final long key) {
+        //the keys are hashes already but the lower bits might not be distributed well for other keys
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32)) & m_mask;
+    }
+
+    /**
+     * Adds an entry or replaces the row hash of an existing entry.
+     *
+     * @param key the key hash
+     * @param value the row hash
+     */
+    void put(final long key, final long value) {
+        int i = slot(key);
+        while (m_states[i] != FREE) {
+            if (m_keys[i] == key) {
+                m_values[i] = value;
+                return;
+            }
+            i = (i + 1) & m_mask;
+        }
+        m_keys[i] = key;
+        m_values[i] = value;
+        m_states[i] = USED;
+        m_size++;
+        if (m_size * 4L > m_keys.length * 3L) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        final long[] keys = m_keys;
+        final long[] values = m_values;
+        final byte[] states = m_states;
+        allocate(capacityFor(m_size));
+        for (int j = 0; j < keys.length; j++) {
+            if (states[j] != FREE) {
+                int i = slot(keys[j]);
+                while (m_states[i] != FREE) {
+                    i = (i + 1) & m_mask;
+                }
+                m_keys[i] = keys[j];
+                m_values[i] = values[j];
+                m_states[i] = states[j];
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of the given key hash. The slot stays valid until the next {@link #put(long, long)}.
+     *
+     * @param key the key hash
+     * @return the slot of the key or -1 if the key is unknown
+     */
+    int indexOf(final long key) {
+        int i = slot(key);
+        while (m_states[i] != FREE) {
+            if (m_keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & m_mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the row hash of the given slot.
+     *
+     * @param index the slot returned by {@link #indexOf(long)}
+     * @return the row hash
+     */
+    long getValue(final int index) {
+        return m_values[index];
+    }
+
+    /**
+     * Marks the key of the given slot as seen in the input.
+     *
+     * @param index the slot returned by {@link #indexOf(long)}
+     */
+    void markSeen(final int index) {
+        m_states[index] = SEEN;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    int size() {
+        return m_size;
+    }
+
+    /**
+     * Returns the key hashes that have not been {@linkplain #markSeen(int) seen}.
+     *
+     * @return the unseen key hashes
+     */
+    long[] getUnseenKeys() {
+        long[] result = new long[16];
+        int count = 0;
+        for (int i = 0; i < m_states.length; i++) {
+            if (m_states[i] == USED) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = m_keys[i];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.time.localdate.LocalDateCellFactory;
+import org.knime.core.data.time.localdatetime.LocalDateTimeCellFactory;
+import org.knime.core.data.time.localtime.LocalTimeCellFactory;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.database.DBTableSpec;
+import org.knime.database.model.DBColumn;
+import org.knime.database.model.DBTable;
+
+/**
+ * Maps the input columns, the COPY transformations and the key or partition columns of the
+ * {@link SnowflakeLoaderNode} to the columns of the target table. Column names are matched exactly and case
+ * insensitive if the table contains exactly one such column.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SnowflakeLoaderColumns {
+
+    private final Map<String, DBColumn> m_columns = new HashMap<>();
+
+    private final Map<String, List<DBColumn>> m_columnsIgnoreCase = new HashMap<>();
+
+    private final List<DBColumn> m_columnList = new ArrayList<>();
+
+    private final DBTable m_table;
+
+    /**
+     * Constructor.
+     *
+     * @param tableSpec the {@link DBTableSpec} of the target table
+     * @param table the target {@link DBTable}
+     */
+    SnowflakeLoaderColumns(final DBTableSpec tableSpec, final DBTable table) {
+        m_table = table;
+        for (final DBColumn column : tableSpec) {
+            m_columnList.add(column);
+            m_columns.put(column.getName(), column);
+            m_columnsIgnoreCase.computeIfAbsent(column.getName().toUpperCase(Locale.ROOT), k -> new ArrayList<>())
+                .add(column);
+        }
+    }
+
+    private DBColumn find(final String name) {
+        final DBColumn column = m_columns.get(name);
+        if (column != null) {
+            return column;
+        }
+        final List<DBColumn> candidates = m_columnsIgnoreCase.get(name.toUpperCase(Locale.ROOT));
+        return candidates != null && candidates.size() == 1 ? candidates.get(0) : null;
+    }
+
+    /**
+     * Matches the input columns by name with the columns of the target table.
+     *
+     * @param inputSpec the {@link DataTableSpec} of the input table
+     * @return the target table column per input column name in input column order
+     * @throws InvalidSettingsException if an input column does not exist in the target table or several input
+     *             columns are matched with the same table column
+     */
+    Map<String, DBColumn> mapByName(final DataTableSpec inputSpec) throws InvalidSettingsException {
+        final Map<String, DBColumn> result = new LinkedHashMap<>();
+        final Set<String> mappedTableColumns = new HashSet<>();
+        final List<String> unknownColumns = new ArrayList<>();
+        for (final DataColumnSpec columnSpec : inputSpec) {
+            final String name = columnSpec.getName();
+            final DBColumn column = find(name);
+            if (column == null) {
+                unknownColumns.add(name);
+            } else if (!mappedTableColumns.add(column.getName())) {
+                throw new InvalidSettingsException(
+                    "More than one input column matches the column \"" + column.getName() + "\" of table " + m_table);
+            } else {
+                result.put(name, column);
+            }
+        }
+        if (!unknownColumns.isEmpty()) {
+            throw new InvalidSettingsException("The following input columns do not exist in table " + m_table + ": "
+                + String.join(", ", unknownColumns));
+        }
+        if (result.isEmpty()) {
+            throw new InvalidSettingsException("The input table does not contain any columns.");
+        }
+        return result;
+    }
+
+    /**
+     * Maps the input columns by position to the columns of the target table.
+     *
+     * @param inputSpec the {@link DataTableSpec} of the input table
+     * @return the target table column per input column name in input column order
+     * @throws InvalidSettingsException if the input table has more columns than the target table
+     */
+    Map<String, DBColumn> mapByPosition(final DataTableSpec inputSpec) throws InvalidSettingsException {
+        if (inputSpec.getNumColumns() > m_columnList.size()) {
+            throw new InvalidSettingsException("The input table has more columns than table " + m_table);
+        }
+        final Map<String, DBColumn> result = new LinkedHashMap<>();
+        final Iterator<DBColumn> columns = m_columnList.iterator();
+        for (final DataColumnSpec columnSpec : inputSpec) {
+            result.put(columnSpec.getName(), columns.next());
+        }
+        return result;
+    }
+
+    /**
+     * Parses the COPY transformations and resolves their target columns.
+     *
+     * @param transformations the transformations with one {@code column = expression} definition per line
+     * @return the SQL expression per target table column name in definition order
+     * @throws InvalidSettingsException if a definition is invalid or its column does not exist in the target table
+     */
+    Map<String, String> resolveTransformations(final String transformations) throws InvalidSettingsException {
+        final Map<String, String> result = new LinkedHashMap<>();
+        for (final Map.Entry<String, String> transformation : parseTransformations(transformations).entrySet()) {
+            final DBColumn column = find(transformation.getKey());
+            if (column == null) {
+                throw new InvalidSettingsException("The column \"" + transformation.getKey()
+                    + "\" of the COPY transformations does not exist in table " + m_table);
+            }
+            if (result.put(column.getName(), transformation.getValue()) != null) {
+                throw new InvalidSettingsException(
+                    "More than one COPY transformation defined for column \"" + column.getName() + "\".");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolves a comma separated list of table columns that must be loaded from the input table e.g. the key columns
+     * of the load mode.
+     *
+     * @param columnNames the comma separated names of the columns
+     * @param columnMapping the target table column per input column name
+     * @param description the description of the columns for error messages e.g. {@code key}
+     * @return the columns in definition order
+     * @throws InvalidSettingsException if no column is defined, a column does not exist in the target table or is not
+     *             loaded from the input table
+     */
+    List<DBColumn> resolveLoadedColumns(final String columnNames, final Map<String, DBColumn> columnMapping,
+        final String description) throws InvalidSettingsException {
+        final List<String> names = parseColumnNames(columnNames);
+        if (names.isEmpty()) {
+            throw new InvalidSettingsException("Please specify the " + description + " columns.");
+        }
+        final Set<String> mappedColumns = new HashSet<>();
+        columnMapping.values().forEach(c -> mappedColumns.add(c.getName()));
+        final List<DBColumn> result = new ArrayList<>(names.size());
+        for (final String name : names) {
+            final DBColumn column = find(name);
+            if (column == null) {
+                throw new InvalidSettingsException(
+                    "The " + description + " column \"" + name + "\" does not exist in table " + m_table);
+            }
+            if (!mappedColumns.contains(column.getName())) {
+                throw new InvalidSettingsException("The " + description + " column \"" + column.getName()
+                    + "\" is not loaded from the input table.");
+            }
+            if (result.contains(column)) {
+                throw new InvalidSettingsException(
+                    "The " + description + " column \"" + column.getName() + "\" is defined twice.");
+            }
+            result.add(column);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the Snowflake data types that the values of the input columns are cast to when the staged CSV files are
+     * queried in place. Cells of all other types are written with their string representation.
+     *
+     * @param inputSpec the {@link DataTableSpec} of the input table
+     * @return the Snowflake data type per input column name in input column order
+     */
+    static Map<String, String> getStagedColumnTypes(final DataTableSpec inputSpec) {
+        final Map<String, String> result = new LinkedHashMap<>();
+        for (final DataColumnSpec columnSpec : inputSpec) {
+            final DataType type = columnSpec.getType();
+            final String sqlType;
+            if (IntCell.TYPE.equals(type) || LongCell.TYPE.equals(type)) {
+                sqlType = "BIGINT";
+            } else if (DoubleCell.TYPE.equals(type)) {
+                sqlType = "DOUBLE";
+            } else if (BooleanCell.TYPE.equals(type)) {
+                sqlType = "BOOLEAN";
+            } else if (LocalDateCellFactory.TYPE.equals(type)) {
+                sqlType = "DATE";
+            } else if (LocalTimeCellFactory.TYPE.equals(type)) {
+                sqlType = "TIME";
+            } else if (LocalDateTimeCellFactory.TYPE.equals(type)) {
+                sqlType = "TIMESTAMP_NTZ";
+            } else {
+                sqlType = "VARCHAR";
+            }
+            result.put(columnSpec.getName(), sqlType);
+        }
+        return result;
+    }
+
+    /**
+     * Parses a comma separated list of column names. Column names can be enclosed in double quotes to include commas
+     * or leading and trailing spaces.
+     *
+     * @param columnNames the column names to parse
+     * @return the column names in definition order
+     */
+    static List<String> parseColumnNames(final String columnNames) {
+        final List<String> result = new ArrayList<>();
+        if (columnNames == null) {
+            return result;
+        }
+        int start = 0;
+        while (start < columnNames.length()) {
+            final int nameStart = skipWhitespace(columnNames, start);
+            final String name;
+            final int end;
+            if (nameStart < columnNames.length() && columnNames.charAt(nameStart) == '"') {
+                final int nameEnd = nameStart + closingQuote(columnNames.substring(nameStart));
+                name = columnNames.substring(nameStart + 1, nameEnd).replace("\"\"", "\"");
+                end = columnNames.indexOf(',', nameEnd);
+            } else {
+                end = columnNames.indexOf(',', start);
+                name = columnNames.substring(start, end < 0 ? columnNames.length() : end).strip();
+            }
+            if (!name.isEmpty()) {
+                result.add(name);
+            }
+            if (end < 0) {
+                break;
+            }
+            start = end + 1;
+        }
+        return result;
+    }
+
+    private static int skipWhitespace(final String text, final int start) {
+        int i = start;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Parses the COPY transformations. Each non blank line has the form {@code column = expression} where the column
+     * name can be enclosed in double quotes.
+     *
+     * @param transformations the transformations to parse
+     * @return the SQL expression per column name in definition order
+     * @throws InvalidSettingsException if a definition is invalid
+     */
+    static Map<String, String> parseTransformations(final String transformations) throws InvalidSettingsException {
+        final Map<String, String> result = new LinkedHashMap<>();
+        if (transformations == null) {
+            return result;
+        }
+        int lineNumber = 0;
+        for (final String line : transformations.split("\\R")) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            final String definition = line.strip();
+            //quoted column names may contain the separator
+            final int separator = definition.indexOf('=', definition.startsWith("\"") ? closingQuote(definition) : 0);
+            if (separator < 0) {
+                throw new InvalidSettingsException(
+                    "COPY transformation in line " + lineNumber + " is not of the form 'column = expression'.");
+            }
+            String column = definition.substring(0, separator).strip();
+            if (column.length() > 1 && column.startsWith("\"") && column.endsWith("\"")) {
+                column = column.substring(1, column.length() - 1).replace("\"\"", "\"");
+            }
+            final String expression = definition.substring(separator + 1).strip();
+            if (column.isEmpty() || expression.isEmpty()) {
+                throw new InvalidSettingsException(
+                    "COPY transformation in line " + lineNumber + " is missing the column or the expression.");
+            }
+            if (result.put(column, expression) != null) {
+                throw new InvalidSettingsException(
+                    "More than one COPY transformation defined for column \"" + column + "\".");
+            }
+        }
+        return result;
+    }
+
+    private static int closingQuote(final String definition) {
+        int i = 1;
+        while (i < definition.length()) {
+            if (definition.charAt(i) == '"') {
+                if (i + 1 < definition.length() && definition.charAt(i + 1) == '"') {
+                    //escaped quote
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+            i++;
+        }
+        return definition.length();
+    }
+}
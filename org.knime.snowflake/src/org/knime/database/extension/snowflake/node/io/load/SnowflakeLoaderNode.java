@@ -52,7 +52,9 @@
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.nio.charset.Charset;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.swing.BorderFactory;
@@ -62,6 +64,8 @@
 import javax.swing.JPanel;
 import javax.swing.border.TitledBorder;
 
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
 import org.knime.core.node.NodeLogger;
@@ -71,12 +75,18 @@
 import org.knime.core.node.defaultnodesettings.SettingsModel;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.streamable.RowInput;
+import org.knime.database.DBTableSpec;
 import org.knime.database.agent.loader.DBLoadTableFromFileParameters;
 import org.knime.database.agent.loader.DBLoader;
+import org.knime.database.agent.metadata.DBMetadataReader;
+import org.knime.database.extension.snowflake.agent.SnowflakeDBLoader;
 import org.knime.database.extension.snowflake.agent.SnowflakeLoaderFileFormat;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderMode;
 import org.knime.database.extension.snowflake.agent.SnowflakeLoaderSettings;
 import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
+import org.knime.database.extension.snowflake.agent.SnowflakeTableSpecCache;
 import org.knime.database.extension.snowflake.node.io.load.writer.ConnectedSnowflakeLoaderNodeSettings;
+import org.knime.database.model.DBColumn;
 import org.knime.database.model.DBTable;
 import org.knime.database.node.component.PreferredHeightPanel;
 import org.knime.database.node.io.load.DBLoaderNode2;
@@ -127,6 +137,15 @@ private static void onStageTypeSelectionChange(final SnowflakeLoaderNodeComponen
             .setEnabled(optionalStageType.isPresent() && optionalStageType.get() == SnowflakeLoaderStageType.INTERNAL);
     }
 
+    private static void onLoadModeSelectionChange(final SnowflakeLoaderNodeComponents components) {
+        final Optional<SnowflakeLoaderMode> optionalLoadMode =
+            SnowflakeLoaderMode.optionalValueOf(components.getLoadModeModel().getStringValue());
+        components.getKeyColumnsModel()
+            .setEnabled(optionalLoadMode.isPresent() && optionalLoadMode.get() == SnowflakeLoaderMode.DELTA);
+        components.getPartitionColumnsModel().setEnabled(
+            optionalLoadMode.isPresent() && optionalLoadMode.get() == SnowflakeLoaderMode.PARTITION_OVERWRITE);
+    }
+
     private void onFileFormatSelectionChange(final SnowflakeLoaderNodeComponents components) {
         final Optional<SnowflakeLoaderFileFormat> optionalFileFormat =
             SnowflakeLoaderFileFormat.optionalValueOf(components.getFileFormatSelectionModel().getStringValue());
@@ -162,6 +181,7 @@ private void onFileFormatSelectionChange(final SnowflakeLoaderNodeComponents com
         components.getFileFormatModel().setEnabled(isCSV);
         components.getChunkSizeModel().setEnabled(!isCSV);
         components.getFileSizeModel().setEnabled(!isCSV);
+        components.getParallelWritersModel().setEnabled(!isCSV);
     }
 
     private boolean m_init = false;
@@ -181,6 +201,8 @@ public void buildDialog(final DialogBuilder builder, final List<DialogComponent>
 
         optionsPanel.add(stagePanel(snowflakeCustomComponents));
 
+        optionsPanel.add(loadModePanel(snowflakeCustomComponents));
+
         builder.addTab(Integer.MAX_VALUE, "Options", optionsPanel, true);
         builder.addTab(Integer.MAX_VALUE, "Advanced", createAdvancedPanel(snowflakeCustomComponents), true);
 
@@ -188,6 +210,8 @@ public void buildDialog(final DialogBuilder builder, final List<DialogComponent>
             .addChangeListener(event -> onFileFormatSelectionChange(snowflakeCustomComponents));
         snowflakeCustomComponents.getStageTypeSelectionModel()
             .addChangeListener(event -> onStageTypeSelectionChange(snowflakeCustomComponents));
+        snowflakeCustomComponents.getLoadModeModel()
+            .addChangeListener(event -> onLoadModeSelectionChange(snowflakeCustomComponents));
     }
 
     private static JPanel createAdvancedPanel(final SnowflakeLoaderNodeComponents cc) {
@@ -197,6 +221,9 @@ private static JPanel createAdvancedPanel(final SnowflakeLoaderNodeComponents cc
         generalPanel.setBorder(BorderFactory.createTitledBorder(" General Settings "));
         generalPanel.add(cc.getCompressionComponent().getComponentPanel());
         generalPanel.add(cc.getCompressionComponent().getComponentPanel());
+        generalPanel.add(cc.getLoadByColumnNameComponent().getComponentPanel());
+        generalPanel.add(cc.getValidationSampleSizeComponent().getComponentPanel());
+        generalPanel.add(cc.getDeduplicationColumnsComponent().getComponentPanel());
         advancedBox.add(generalPanel);
         final JPanel csvPanel = cc.getFileFormatComponent().getComponentPanel();
         csvPanel.setBorder(BorderFactory.createTitledBorder(" CSV Settings "));
@@ -205,7 +232,11 @@ private static JPanel createAdvancedPanel(final SnowflakeLoaderNodeComponents cc
         orcParquetPanel.setBorder(BorderFactory.createTitledBorder(" Parquet Settings "));
         orcParquetPanel.add(cc.getChunkSizeComponent().getComponentPanel());
         orcParquetPanel.add(cc.getFileSizeComponent().getComponentPanel());
+        orcParquetPanel.add(cc.getParallelWritersComponent().getComponentPanel());
         advancedBox.add(orcParquetPanel);
+        final JPanel transformationsPanel = cc.getCopyTransformationsComponent().getComponentPanel();
+        transformationsPanel.setBorder(BorderFactory.createTitledBorder(" COPY Transformations "));
+        advancedBox.add(transformationsPanel);
         advancedPanel.add(advancedBox);
         return advancedPanel;
     }
@@ -244,13 +275,133 @@ private static JPanel stagePanel(final SnowflakeLoaderNodeComponents snowflakeCu
         return fileFormatPanel;
     }
 
+    private static JPanel loadModePanel(final SnowflakeLoaderNodeComponents snowflakeCustomComponents) {
+        final JPanel loadModePanel = new PreferredHeightPanel(new GridBagLayout());
+        loadModePanel.setBorder(new TitledBorder("Load mode"));
+        final GridBagConstraints gbc = new GridBagConstraints();
+        gbc.anchor = GridBagConstraints.WEST;
+        gbc.fill = GridBagConstraints.NONE;
+        gbc.weightx = 0;
+        loadModePanel.add(snowflakeCustomComponents.getLoadModeComponent().getComponentPanel(), gbc);
+        gbc.gridy = 1;
+        loadModePanel.add(snowflakeCustomComponents.getKeyColumnsComponent().getComponentPanel(), gbc);
+        gbc.gridy = 2;
+        loadModePanel.add(snowflakeCustomComponents.getPartitionColumnsComponent().getComponentPanel(), gbc);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weightx = 1;
+        gbc.gridx = 1;
+        loadModePanel.add(new JLabel(), gbc);
+        return loadModePanel;
+    }
+
     @Override
     public DBDataPortObjectSpec configureModel(final PortObjectSpec[] inSpecs, final List<SettingsModel> settingsModels,
         final UnconnectedCsvLoaderNodeSettings2 customSettings) throws InvalidSettingsException {
         final DBPortObject sessionPortObjectSpec = getDBSpec(inSpecs);
-        validateColumns(false, createModelConfigurationExecutionMonitor(sessionPortObjectSpec.getDBSession()),
-            getDataSpec(inSpecs), sessionPortObjectSpec, customSettings.getTableNameModel().toDBTable());
-        return super.configureModel(inSpecs, settingsModels, customSettings);
+        final DBSession session = sessionPortObjectSpec.getDBSession();
+        final DBTable table = customSettings.getTableNameModel().toDBTable();
+        final ExecutionMonitor exec = createModelConfigurationExecutionMonitor(session);
+        //fetch the table spec only once for the validation, the configuration and the execution
+        try (SnowflakeTableSpecCache.Scope scope = SnowflakeTableSpecCache.openScope(session)) {
+            final ConnectedSnowflakeLoaderNodeSettings connectedSettings = createConnectedSettings(exec,
+                (SnowflakeLoaderNodeSettings)customSettings, getDataSpec(inSpecs), sessionPortObjectSpec, table);
+            if (connectedSettings.getLoadMode() == SnowflakeLoaderMode.STAGE_ONLY) {
+                //the node returns the view on the staged files instead of the table and the view only exists once
+                //the files have been staged
+                return null;
+            }
+            return super.configureModel(inSpecs, settingsModels, customSettings);
+        } catch (final CanceledExecutionException | SQLException e) {
+            throw new InvalidSettingsException(
+                "Could not read the columns of table " + table + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Validates the input columns against the target table and creates the {@link ConnectedSnowflakeLoaderNodeSettings}
+     * with the resolved column mapping, COPY transformations and key columns.
+     */
+    private ConnectedSnowflakeLoaderNodeSettings createConnectedSettings(final ExecutionMonitor exec,
+        final SnowflakeLoaderNodeSettings customSettings, final DataTableSpec inputSpec,
+        final DBPortObject dbPortObject, final DBTable table)
+        throws InvalidSettingsException, CanceledExecutionException, SQLException {
+        final boolean loadByColumnName = customSettings.getLoadByColumnNameModel().getBooleanValue();
+        final String transformations = customSettings.getCopyTransformationsModel().getStringValue();
+        final SnowflakeLoaderMode loadMode =
+            SnowflakeLoaderMode.optionalValueOf(customSettings.getLoadModeModel().getStringValue())
+                .orElse(SnowflakeLoaderMode.getDefault());
+        final boolean hasTransformations = !SnowflakeLoaderColumns.parseTransformations(transformations).isEmpty();
+        if (loadMode == SnowflakeLoaderMode.DELTA && hasTransformations) {
+            //the row hashes of the table can only be compared with the input if the values are loaded unchanged
+            throw new InvalidSettingsException("COPY transformations are not supported in the delta merge mode.");
+        }
+        final String deduplicationColumns = customSettings.getDeduplicationColumnsModel().getStringValue();
+        if (loadMode == SnowflakeLoaderMode.STAGE_ONLY) {
+            //the staged files are queried by a view instead of being loaded thus there are no table columns to validate
+            checkStageOnly(customSettings, hasTransformations || !deduplicationColumns.isBlank());
+            return new ConnectedSnowflakeLoaderNodeSettings(customSettings);
+        }
+        if (!loadByColumnName) {
+            validateColumns(false, exec, inputSpec, dbPortObject, table);
+        }
+        if (!loadByColumnName && !hasTransformations && loadMode == SnowflakeLoaderMode.APPEND
+            && deduplicationColumns.isBlank()) {
+            return new ConnectedSnowflakeLoaderNodeSettings(customSettings);
+        }
+        final DBTableSpec tableSpec =
+            dbPortObject.getDBSession().getAgent(DBMetadataReader.class).getDBTableSpec(exec, table);
+        final SnowflakeLoaderColumns columns = new SnowflakeLoaderColumns(tableSpec, table);
+        //the transformations, the key columns of the load mode and the deduplication require an explicit column list
+        final Map<String, DBColumn> columnMapping =
+            loadByColumnName ? columns.mapByName(inputSpec) : columns.mapByPosition(inputSpec);
+        final Map<String, String> resolvedTransformations = columns.resolveTransformations(transformations);
+        final List<DBColumn> keyColumns;
+        switch (loadMode) {
+            case DELTA:
+                keyColumns = columns.resolveLoadedColumns(customSettings.getKeyColumnsModel().getStringValue(),
+                    columnMapping, "key");
+                break;
+            case PARTITION_OVERWRITE:
+                keyColumns = columns.resolveLoadedColumns(
+                    customSettings.getPartitionColumnsModel().getStringValue(), columnMapping, "partition");
+                checkNotTransformed(keyColumns, resolvedTransformations, "partition");
+                break;
+            default:
+                keyColumns = List.of();
+        }
+        final List<DBColumn> resolvedDeduplicationColumns;
+        if (deduplicationColumns.isBlank()) {
+            resolvedDeduplicationColumns = List.of();
+        } else {
+            //the duplicates are detected based on the input values
+            resolvedDeduplicationColumns =
+                columns.resolveLoadedColumns(deduplicationColumns, columnMapping, "deduplication");
+            checkNotTransformed(resolvedDeduplicationColumns, resolvedTransformations, "deduplication");
+        }
+        return new ConnectedSnowflakeLoaderNodeSettings(customSettings, columnMapping, resolvedTransformations,
+            keyColumns, resolvedDeduplicationColumns);
+    }
+
+    private static void checkStageOnly(final SnowflakeLoaderNodeSettings customSettings,
+        final boolean hasTransformationsOrDeduplication) throws InvalidSettingsException {
+        if (SnowflakeLoaderFileFormat.optionalValueOf(customSettings.getFileFormatSelectionModel().getStringValue())
+            .orElse(null) != SnowflakeLoaderFileFormat.CSV) {
+            throw new InvalidSettingsException("The stage only mode requires the CSV file format.");
+        }
+        if (hasTransformationsOrDeduplication) {
+            throw new InvalidSettingsException(
+                "COPY transformations and dropping duplicates are not supported in the stage only mode.");
+        }
+    }
+
+    private static void checkNotTransformed(final List<DBColumn> columns, final Map<String, String> transformations,
+        final String description) throws InvalidSettingsException {
+        for (final DBColumn column : columns) {
+            if (transformations.containsKey(column.getName())) {
+                throw new InvalidSettingsException(
+                    "The " + description + " column \"" + column.getName() + "\" must not be transformed.");
+            }
+        }
     }
 
     @Override
@@ -270,7 +421,10 @@ public List<DialogComponent> createDialogComponents(final UnconnectedCsvLoaderNo
         final SnowflakeLoaderNodeComponents cc = (SnowflakeLoaderNodeComponents)customComponents;
         return asList(cc.getTableNameComponent(), cc.getFileFormatComponent(), cc.getStageTypeSelectionComponent(),
             cc.getStageNameComponent(), cc.getFileFormatSelectionComponent(), cc.getCompressionComponent(),
-            cc.getChunkSizeComponent(), cc.getFileSizeComponent());
+            cc.getChunkSizeComponent(), cc.getFileSizeComponent(), cc.getParallelWritersComponent(),
+            cc.getLoadByColumnNameComponent(), cc.getCopyTransformationsComponent(),
+            cc.getValidationSampleSizeComponent(), cc.getLoadModeComponent(), cc.getKeyColumnsComponent(),
+            cc.getPartitionColumnsComponent(), cc.getDeduplicationColumnsComponent());
     }
 
     @Override
@@ -280,7 +434,10 @@ public List<SettingsModel> createSettingsModels(final UnconnectedCsvLoaderNodeSe
         final SnowflakeLoaderNodeSettings cs = (SnowflakeLoaderNodeSettings)customSettings;
         return asList(customSettings.getTableNameModel(), customSettings.getFileFormatModel(),
             cs.getStageTypeSelectionModel(), cs.getStageNameModel(), cs.getFileFormatSelectionModel(),
-            cs.getCompressionModel(), cs.getChunkSizeModel(), cs.getFileSizeModel());
+            cs.getCompressionModel(), cs.getChunkSizeModel(), cs.getFileSizeModel(), cs.getParallelWritersModel(),
+            cs.getLoadByColumnNameModel(), cs.getCopyTransformationsModel(), cs.getValidationSampleSizeModel(),
+            cs.getLoadModeModel(), cs.getKeyColumnsModel(), cs.getPartitionColumnsModel(),
+            cs.getDeduplicationColumnsModel());
     }
 
     @Override
@@ -313,21 +470,65 @@ public DBTable load(final ExecutionParameters<UnconnectedCsvLoaderNodeSettings2>
                 .orElseThrow(() -> new InvalidSettingsException("No file format is selected."));
 
         final ExecutionMonitor exec = parameters.getExecutionMonitor();
-        exec.setMessage("Validating input columns...");
         final DBPortObject dbPortObject = parameters.getDBPortObject();
+        final DBSession session = dbPortObject.getDBSession();
+        //the table spec fetched during the configuration is reused for the validation and the type mapping
+        try (SnowflakeTableSpecCache.Scope scope = SnowflakeTableSpecCache.openScope(session)) {
+            loadData(parameters, customSettings, table, fileFormat, exec, dbPortObject, session);
+        } finally {
+            //the load might have changed the table
+            SnowflakeTableSpecCache.invalidate(session, table);
+        }
+        // Output
+        if (SnowflakeLoaderMode.optionalValueOf(customSettings.getLoadModeModel().getStringValue())
+            .orElse(null) == SnowflakeLoaderMode.STAGE_ONLY) {
+            //the target table is left untouched and the view on the staged files is returned instead
+            return SnowflakeDBLoader.getStagedFilesView(table, session.getDialect());
+        }
+        return table;
+    }
+
+    private void loadData(final ExecutionParameters<UnconnectedCsvLoaderNodeSettings2> parameters,
+        final SnowflakeLoaderNodeSettings customSettings, final DBTable table,
+        final SnowflakeLoaderFileFormat fileFormat, final ExecutionMonitor exec, final DBPortObject dbPortObject,
+        final DBSession session) throws Exception {
+        exec.setMessage("Validating input columns...");
         final RowInput rowInput = parameters.getRowInput();
-        validateColumns(false, exec, rowInput.getDataTableSpec(), dbPortObject, table);
+        final ConnectedSnowflakeLoaderNodeSettings connectedNodeSettings =
+            createConnectedSettings(exec, customSettings, rowInput.getDataTableSpec(), dbPortObject, table);
         exec.setProgress(0.1, "Columns successful validated");
+        final SnowflakeLoaderMode loadMode = connectedNodeSettings.getLoadMode();
+        //duplicates are dropped first so that the load mode only sees the remaining rows
+        final DeduplicationRowInput deduplicationInput = connectedNodeSettings.getDeduplicationColumns().isEmpty()
+            ? null : DeduplicationRowInput.create(rowInput, connectedNodeSettings.getColumnMapping(),
+                connectedNodeSettings.getDeduplicationColumns());
+        final RowInput uniqueInput = deduplicationInput == null ? rowInput : deduplicationInput;
+        final DeltaRowInput deltaInput = loadMode == SnowflakeLoaderMode.DELTA
+            ? DeltaRowInput.create(exec, session, table, uniqueInput, connectedNodeSettings.getColumnMapping(),
+                connectedNodeSettings.getKeyColumns())
+            : null;
+        final PartitionRowInput partitionInput = loadMode == SnowflakeLoaderMode.PARTITION_OVERWRITE
+            ? PartitionRowInput.create(uniqueInput, connectedNodeSettings.getColumnMapping(),
+                connectedNodeSettings.getKeyColumns())
+            : null;
+        final RowInput modeInput;
+        if (deltaInput != null) {
+            modeInput = deltaInput;
+        } else if (partitionInput != null) {
+            modeInput = partitionInput;
+        } else {
+            modeInput = uniqueInput;
+        }
+        //the staged files of the stage only mode are not loaded into a table that could validate them
+        final RowInput dataInput = loadMode == SnowflakeLoaderMode.STAGE_ONLY ? modeInput
+            : validateSample(parameters, connectedNodeSettings, table, fileFormat, exec, dbPortObject, modeInput);
 
         //write file
-        final DBSession session = dbPortObject.getDBSession();
         try (DBFileWriter<ConnectedSnowflakeLoaderNodeSettings, SnowflakeLoaderSettings> writer =
             fileFormat.getWriter();) {
-            final ConnectedSnowflakeLoaderNodeSettings connectedNodeSettings =
-                new ConnectedSnowflakeLoaderNodeSettings(customSettings);
             final ExecutionParameters<ConnectedSnowflakeLoaderNodeSettings> connectedParameter =
-                new ExecutionParameters<>(rowInput, dbPortObject, parameters.getSettingsModels(), connectedNodeSettings,
-                    exec);
+                new ExecutionParameters<>(dataInput, dbPortObject, parameters.getSettingsModels(),
+                    connectedNodeSettings, exec);
             exec.setMessage("Writing data files...");
             final FSPath targetFile = writer.write(exec.createSubProgress(0.4), connectedParameter);
             final String targetFileString = targetFile.toAbsolutePath().toString();
@@ -336,11 +537,75 @@ public DBTable load(final ExecutionParameters<UnconnectedCsvLoaderNodeSettings2>
             // Load the data
             exec.setMessage("Data files successful written");
             exec.checkCanceled();
-            session.getAgent(DBLoader.class).load(exec, new DBLoadTableFromFileParameters<>(null, targetFileString,
-                table, writer.getLoadParameter(connectedNodeSettings)));
+            SnowflakeLoaderSettings loaderSettings = writer.getLoadParameter(connectedNodeSettings);
+            if (deduplicationInput != null && deduplicationInput.getDuplicateRowCount() > 0) {
+                //the loader API provides no node warnings which is why the dropped rows are reported in the log
+                final String message = String.format("Dropped %d input rows with duplicate values in columns %s",
+                    deduplicationInput.getDuplicateRowCount(),
+                    customSettings.getDeduplicationColumnsModel().getStringValue());
+                LOGGER.warn(message);
+                exec.setMessage(message);
+            }
+            if (deltaInput != null) {
+                final long[] deletedKeyHashes = deltaInput.getDeletedKeyHashes();
+                LOGGER.debugWithFormat("Delta merge of table %s: %d new, %d changed, %d unchanged and %d deleted rows",
+                    table, deltaInput.getNewRowCount(), deltaInput.getChangedRowCount(),
+                    deltaInput.getUnchangedRowCount(), deletedKeyHashes.length);
+                if (deltaInput.getNewRowCount() + deltaInput.getChangedRowCount() == 0
+                    && deletedKeyHashes.length == 0) {
+                    exec.setProgress(1, "Table is up to date");
+                    return;
+                }
+                loaderSettings = loaderSettings.forDelta(connectedNodeSettings.getKeyColumns(), deletedKeyHashes);
+            } else if (loadMode == SnowflakeLoaderMode.STAGE_ONLY) {
+                LOGGER.debugWithFormat("Creating view %s on the staged files",
+                    SnowflakeDBLoader.getStagedFilesView(table, session.getDialect()));
+                loaderSettings = loaderSettings
+                    .forStageOnly(SnowflakeLoaderColumns.getStagedColumnTypes(rowInput.getDataTableSpec()));
+            } else if (partitionInput != null) {
+                final List<List<Object>> partitionValues = partitionInput.getPartitionValues();
+                LOGGER.debugWithFormat("Overwriting %d partitions of table %s", partitionValues.size(), table);
+                loaderSettings =
+                    loaderSettings.forPartitionOverwrite(connectedNodeSettings.getKeyColumns(), partitionValues);
+            }
+            session.getAgent(DBLoader.class).load(exec,
+                new DBLoadTableFromFileParameters<>(null, targetFileString, table, loaderSettings));
+        }
+    }
+
+    /**
+     * Writes the configured number of leading rows into a sample file that is uploaded and validated with
+     * {@code VALIDATION_MODE = RETURN_ERRORS} to fail fast before the full data is written.
+     *
+     * @return the {@link RowInput} to read all rows from including the validated sample rows
+     */
+    private static RowInput validateSample(final ExecutionParameters<UnconnectedCsvLoaderNodeSettings2> parameters,
+        final ConnectedSnowflakeLoaderNodeSettings connectedNodeSettings, final DBTable table,
+        final SnowflakeLoaderFileFormat fileFormat, final ExecutionMonitor exec, final DBPortObject dbPortObject,
+        final RowInput rowInput) throws Exception {
+        final int sampleSize = connectedNodeSettings.getValidationSampleSizeModel().getIntValue();
+        if (sampleSize <= 0) {
+            return rowInput;
+        }
+        try (DBFileWriter<ConnectedSnowflakeLoaderNodeSettings, SnowflakeLoaderSettings> writer =
+            fileFormat.getWriter();) {
+            final SnowflakeLoaderSettings loaderSettings = writer.getLoadParameter(connectedNodeSettings);
+            if (!fileFormat.supportsValidation(loaderSettings)) {
+                LOGGER.warn("Sample validation is only supported for CSV files without COPY transformations. "
+                    + "Loading the data without validation.");
+                return rowInput;
+            }
+            exec.setMessage("Validating the first " + sampleSize + " rows...");
+            final PrefetchedRowInput prefetchedInput = PrefetchedRowInput.prefetch(rowInput, sampleSize);
+            final FSPath sampleFile = writer.write(exec.createSubProgress(0), new ExecutionParameters<>(
+                prefetchedInput.getPrefetchedRows(), dbPortObject, parameters.getSettingsModels(),
+                connectedNodeSettings, exec));
+            exec.checkCanceled();
+            dbPortObject.getDBSession().getAgent(DBLoader.class).load(exec.createSubProgress(0),
+                new DBLoadTableFromFileParameters<>(null, sampleFile.toAbsolutePath().toString(), table,
+                    loaderSettings.forValidation()));
+            return prefetchedInput;
         }
-        // Output
-        return table;
     }
 
     @Override
@@ -353,6 +618,7 @@ public void loadDialogSettingsFrom(final NodeSettingsRO settings, final PortObje
         final SnowflakeLoaderNodeComponents snowComponents = (SnowflakeLoaderNodeComponents)customComponents;
         onFileFormatSelectionChange(snowComponents);
         onStageTypeSelectionChange(snowComponents);
+        onLoadModeSelectionChange(snowComponents);
         m_init = false;
     }
 
@@ -46,22 +46,34 @@
 
 import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createChunkSizeModel;
 import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createCompressionModel;
+import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createCopyTransformationsModel;
+import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createDeduplicationColumnsModel;
 import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createFileFormatSelectionModel;
 import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createFileSizeModel;
+import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createKeyColumnsModel;
+import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createLoadByColumnNameModel;
+import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createLoadModeModel;
+import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createParallelWritersModel;
+import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createPartitionColumnsModel;
 import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createStageNameModel;
 import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createStageTypeSelectionModel;
+import static org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings.createValidationSampleSizeModel;
 
 import java.nio.charset.Charset;
 import java.util.List;
 
+import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
 import org.knime.core.node.defaultnodesettings.DialogComponentButtonGroup;
+import org.knime.core.node.defaultnodesettings.DialogComponentMultiLineString;
 import org.knime.core.node.defaultnodesettings.DialogComponentNumber;
 import org.knime.core.node.defaultnodesettings.DialogComponentString;
 import org.knime.core.node.defaultnodesettings.DialogComponentStringSelection;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
 import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
 import org.knime.core.node.defaultnodesettings.SettingsModelLong;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 import org.knime.database.extension.snowflake.agent.SnowflakeLoaderFileFormat;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderMode;
 import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
 import org.knime.database.node.io.load.DBLoaderNode2.DialogDelegate;
 import org.knime.database.node.io.load.impl.unconnected.UnconnectedCsvLoaderNodeComponents2;
@@ -91,6 +103,30 @@ public class SnowflakeLoaderNodeComponents extends UnconnectedCsvLoaderNodeCompo
     private final DialogComponentNumber m_fileSizeComponent;
     private final SettingsModelLong m_fileSizeModel;
 
+    private final DialogComponentNumber m_parallelWritersComponent;
+    private final SettingsModelInteger m_parallelWritersModel;
+
+    private final DialogComponentBoolean m_loadByColumnNameComponent;
+    private final SettingsModelBoolean m_loadByColumnNameModel;
+
+    private final DialogComponentMultiLineString m_copyTransformationsComponent;
+    private final SettingsModelString m_copyTransformationsModel;
+
+    private final DialogComponentNumber m_validationSampleSizeComponent;
+    private final SettingsModelInteger m_validationSampleSizeModel;
+
+    private final DialogComponentButtonGroup m_loadModeComponent;
+    private final SettingsModelString m_loadModeModel;
+
+    private final DialogComponentString m_keyColumnsComponent;
+    private final SettingsModelString m_keyColumnsModel;
+
+    private final DialogComponentString m_partitionColumnsComponent;
+    private final SettingsModelString m_partitionColumnsModel;
+
+    private final DialogComponentString m_deduplicationColumnsComponent;
+    private final SettingsModelString m_deduplicationColumnsModel;
+
     /**
      * Constructs a {@link SnowflakeLoaderNodeComponents} object.
      *
@@ -115,6 +151,30 @@ public SnowflakeLoaderNodeComponents(final DialogDelegate dialogDelegate) {
 
         m_fileSizeModel = createFileSizeModel();
         m_fileSizeComponent = createFileSizeComponent(m_fileSizeModel);
+
+        m_parallelWritersModel = createParallelWritersModel();
+        m_parallelWritersComponent = createParallelWritersComponent(m_parallelWritersModel);
+
+        m_loadByColumnNameModel = createLoadByColumnNameModel();
+        m_loadByColumnNameComponent = createLoadByColumnNameComponent(m_loadByColumnNameModel);
+
+        m_copyTransformationsModel = createCopyTransformationsModel();
+        m_copyTransformationsComponent = createCopyTransformationsComponent(m_copyTransformationsModel);
+
+        m_validationSampleSizeModel = createValidationSampleSizeModel();
+        m_validationSampleSizeComponent = createValidationSampleSizeComponent(m_validationSampleSizeModel);
+
+        m_loadModeModel = createLoadModeModel();
+        m_loadModeComponent = createLoadModeComponent(m_loadModeModel);
+
+        m_keyColumnsModel = createKeyColumnsModel();
+        m_keyColumnsComponent = createKeyColumnsComponent(m_keyColumnsModel);
+
+        m_partitionColumnsModel = createPartitionColumnsModel();
+        m_partitionColumnsComponent = createPartitionColumnsComponent(m_partitionColumnsModel);
+
+        m_deduplicationColumnsModel = createDeduplicationColumnsModel();
+        m_deduplicationColumnsComponent = createDeduplicationColumnsComponent(m_deduplicationColumnsModel);
     }
 
     /**
@@ -143,6 +203,30 @@ public SnowflakeLoaderNodeComponents(final DialogDelegate dialogDelegate, final
 
         m_fileSizeModel = createFileSizeModel();
         m_fileSizeComponent = createFileSizeComponent(m_fileSizeModel);
+
+        m_parallelWritersModel = createParallelWritersModel();
+        m_parallelWritersComponent = createParallelWritersComponent(m_parallelWritersModel);
+
+        m_loadByColumnNameModel = createLoadByColumnNameModel();
+        m_loadByColumnNameComponent = createLoadByColumnNameComponent(m_loadByColumnNameModel);
+
+        m_copyTransformationsModel = createCopyTransformationsModel();
+        m_copyTransformationsComponent = createCopyTransformationsComponent(m_copyTransformationsModel);
+
+        m_validationSampleSizeModel = createValidationSampleSizeModel();
+        m_validationSampleSizeComponent = createValidationSampleSizeComponent(m_validationSampleSizeModel);
+
+        m_loadModeModel = createLoadModeModel();
+        m_loadModeComponent = createLoadModeComponent(m_loadModeModel);
+
+        m_keyColumnsModel = createKeyColumnsModel();
+        m_keyColumnsComponent = createKeyColumnsComponent(m_keyColumnsModel);
+
+        m_partitionColumnsModel = createPartitionColumnsModel();
+        m_partitionColumnsComponent = createPartitionColumnsComponent(m_partitionColumnsModel);
+
+        m_deduplicationColumnsModel = createDeduplicationColumnsModel();
+        m_deduplicationColumnsComponent = createDeduplicationColumnsComponent(m_deduplicationColumnsModel);
     }
 
     /**
@@ -229,6 +313,73 @@ private static DialogComponentNumber createFileSizeComponent(final SettingsModel
         return new DialogComponentNumber(fileSizeModel, "File size: ", 1024, 15);
     }
 
+    private static DialogComponentNumber
+        createParallelWritersComponent(final SettingsModelInteger parallelWritersModel) {
+        final DialogComponentNumber component =
+            new DialogComponentNumber(parallelWritersModel, "Parallel writers: ", 1, 5);
+        component.setToolTipText("Number of threads that write Parquet files in parallel. "
+            + "Each thread keeps its own chunk in memory.");
+        return component;
+    }
+
+    private static DialogComponentBoolean
+        createLoadByColumnNameComponent(final SettingsModelBoolean loadByColumnNameModel) {
+        final DialogComponentBoolean component =
+            new DialogComponentBoolean(loadByColumnNameModel, "Load columns by name");
+        component.setToolTipText("Only load the input columns into the table columns with the same name. "
+            + "All other table columns are set to their default values.");
+        return component;
+    }
+
+    private static DialogComponentMultiLineString
+        createCopyTransformationsComponent(final SettingsModelString copyTransformationsModel) {
+        final DialogComponentMultiLineString component =
+            new DialogComponentMultiLineString(copyTransformationsModel, "Column = SQL expression", false, 50, 4);
+        component.setToolTipText("One 'column = expression' per line that is evaluated by Snowflake while loading. "
+            + "Staged fields are referenced as $1, $2, ... for CSV and as $1:\"column\" for Parquet.");
+        return component;
+    }
+
+    private static DialogComponentNumber
+        createValidationSampleSizeComponent(final SettingsModelInteger validationSampleSizeModel) {
+        final DialogComponentNumber component =
+            new DialogComponentNumber(validationSampleSizeModel, "Validate sample rows: ", 100, 10);
+        component.setToolTipText("Number of leading rows that are uploaded and validated with Snowflake before "
+            + "the full data is written. Use 0 to disable the validation. Only supported for CSV without COPY "
+            + "transformations.");
+        return component;
+    }
+
+    private static DialogComponentButtonGroup createLoadModeComponent(final SettingsModelString loadModeModel) {
+        return new DialogComponentButtonGroup(loadModeModel, null, false, SnowflakeLoaderMode.values());
+    }
+
+    private static DialogComponentString createKeyColumnsComponent(final SettingsModelString keyColumnsModel) {
+        final DialogComponentString component = new DialogComponentString(keyColumnsModel, "Key columns: ", false, 30);
+        component.setToolTipText("Comma separated names of the table columns that identify a row e.g. ID or "
+            + "\"Customer\", \"Valid From\".");
+        return component;
+    }
+
+    private static DialogComponentString
+        createPartitionColumnsComponent(final SettingsModelString partitionColumnsModel) {
+        final DialogComponentString component =
+            new DialogComponentString(partitionColumnsModel, "Partition columns: ", false, 30);
+        component.setToolTipText("Comma separated names of the table columns that identify a partition e.g. "
+            + "LOAD_DATE or TENANT, REGION.");
+        return component;
+    }
+
+    private static DialogComponentString
+        createDeduplicationColumnsComponent(final SettingsModelString deduplicationColumnsModel) {
+        final DialogComponentString component =
+            new DialogComponentString(deduplicationColumnsModel, "Drop duplicates of columns: ", false, 30);
+        component.setToolTipText("Comma separated names of the table columns whose values must be unique within the "
+            + "input e.g. ID. Only the first input row of each value combination is loaded. Leave empty to load all "
+            + "rows.");
+        return component;
+    }
+
     /**
      * Gets the stage name component.
      *
@@ -300,4 +451,148 @@ public DialogComponentNumber getFileSizeComponent() {
     public SettingsModelLong getFileSizeModel() {
         return m_fileSizeModel;
     }
+
+    /**
+     * Returns the parallel writers component.
+     *
+     * @return the parallelWritersComponent
+     */
+    public DialogComponentNumber getParallelWritersComponent() {
+        return m_parallelWritersComponent;
+    }
+
+    /**
+     * Returns the parallel writers model.
+     *
+     * @return the parallelWritersModel
+     */
+    public SettingsModelInteger getParallelWritersModel() {
+        return m_parallelWritersModel;
+    }
+
+    /**
+     * Returns the load by column name component.
+     *
+     * @return the loadByColumnNameComponent
+     */
+    public DialogComponentBoolean getLoadByColumnNameComponent() {
+        return m_loadByColumnNameComponent;
+    }
+
+    /**
+     * Returns the load by column name model.
+     *
+     * @return the loadByColumnNameModel
+     */
+    public SettingsModelBoolean getLoadByColumnNameModel() {
+        return m_loadByColumnNameModel;
+    }
+
+    /**
+     * Returns the COPY transformations component.
+     *
+     * @return the copyTransformationsComponent
+     */
+    public DialogComponentMultiLineString getCopyTransformationsComponent() {
+        return m_copyTransformationsComponent;
+    }
+
+    /**
+     * Returns the COPY transformations model.
+     *
+     * @return the copyTransformationsModel
+     */
+    public SettingsModelString getCopyTransformationsModel() {
+        return m_copyTransformationsModel;
+    }
+
+    /**
+     * Returns the validation sample size component.
+     *
+     * @return the validationSampleSizeComponent
+     */
+    public DialogComponentNumber getValidationSampleSizeComponent() {
+        return m_validationSampleSizeComponent;
+    }
+
+    /**
+     * Returns the validation sample size model.
+     *
+     * @return the validationSampleSizeModel
+     */
+    public SettingsModelInteger getValidationSampleSizeModel() {
+        return m_validationSampleSizeModel;
+    }
+
+    /**
+     * Returns the load mode component.
+     *
+     * @return the loadModeComponent
+     */
+    public DialogComponentButtonGroup getLoadModeComponent() {
+        return m_loadModeComponent;
+    }
+
+    /**
+     * Returns the load mode model.
+     *
+     * @return the loadModeModel
+     */
+    public SettingsModelString getLoadModeModel() {
+        return m_loadModeModel;
+    }
+
+    /**
+     * Returns the key columns component.
+     *
+     * @return the keyColumnsComponent
+     */
+    public DialogComponentString getKeyColumnsComponent() {
+        return m_keyColumnsComponent;
+    }
+
+    /**
+     * Returns the key columns model.
+     *
+     * @return the keyColumnsModel
+     */
+    public SettingsModelString getKeyColumnsModel() {
+        return m_keyColumnsModel;
+    }
+
+    /**
+     * Returns the partition columns component.
+     *
+     * @return the partitionColumnsComponent
+     */
+    public DialogComponentString getPartitionColumnsComponent() {
+        return m_partitionColumnsComponent;
+    }
+
+    /**
+     * Returns the partition columns model.
+     *
+     * @return the partitionColumnsModel
+     */
+    public SettingsModelString getPartitionColumnsModel() {
+        return m_partitionColumnsModel;
+    }
+
+    /**
+     * Returns the deduplication columns component.
+     *
+     * @return the deduplicationColumnsComponent
+     */
+    public DialogComponentString getDeduplicationColumnsComponent() {
+        return m_deduplicationColumnsComponent;
+    }
+
+    /**
+     * Returns the deduplication columns model.
+     *
+     * @return the deduplicationColumnsModel
+     */
+    public SettingsModelString getDeduplicationColumnsModel() {
+        return m_deduplicationColumnsModel;
+    }
 }
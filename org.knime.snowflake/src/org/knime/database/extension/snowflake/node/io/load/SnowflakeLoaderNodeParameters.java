@@ -51,6 +51,7 @@
 import org.knime.core.webui.node.dialog.defaultdialog.util.updates.StateComputationFailureException;
 import org.knime.core.webui.node.dialog.defaultdialog.widget.Modification;
 import org.knime.database.extension.snowflake.agent.SnowflakeLoaderFileFormat;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderMode;
 import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
 import org.knime.database.node.io.load.parameters.CSVFormatSettings;
 import org.knime.database.node.io.load.parameters.CSVFormatSettings.CSVFormatSettingsModifier;
@@ -72,7 +73,9 @@
 import org.knime.node.parameters.widget.choices.ChoicesProvider;
 import org.knime.node.parameters.widget.choices.StringChoicesProvider;
 import org.knime.node.parameters.widget.number.NumberInputWidget;
+import org.knime.node.parameters.widget.number.NumberInputWidgetValidation.MinValidation.IsNonNegativeValidation;
 import org.knime.node.parameters.widget.number.NumberInputWidgetValidation.MinValidation.IsPositiveIntegerValidation;
+import org.knime.node.parameters.widget.text.TextAreaWidget;
 
 /**
  * Web UI parameters for the Snowflake Loader node.
@@ -226,6 +229,87 @@ Long getForFileFormat(final SnowflakeLoaderFileFormat format) {
     @Effect(predicate = FileFormatIsParquet.class, type = EffectType.SHOW)
     long m_fileSize = SnowflakeLoaderFileFormat.PARQUET.getDefaultFileSize();
 
+    @Widget(title = "Parallel writers", description = "Number of threads that encode and write Parquet files in "
+        + "parallel. Each thread writes its own files and keeps its own chunk in memory.")
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    @Persist(configKey = "parallelWriters")
+    @Effect(predicate = FileFormatIsParquet.class, type = EffectType.SHOW)
+    int m_parallelWriters = 1;
+
+    @Widget(title = "Load columns by name", description = "If selected, each input column is loaded into the table "
+        + "column with the same name. The input may contain any subset of the table columns in any order. All other "
+        + "table columns are set to their default values. Otherwise, the input columns must match the table columns "
+        + "by position.")
+    @Persist(configKey = "loadByColumnName")
+    boolean m_loadByColumnName;
+
+    @Widget(title = "COPY transformations", description = "One definition of the form <i>column = SQL expression</i> "
+        + "per line. Snowflake evaluates the expression while loading the staged data and stores the result in the "
+        + "given table column instead of the staged value. Staged fields are referenced as $1, $2, ... for CSV and as "
+        + "$1:\"column\" for Parquet, e.g. <i>FULL_NAME = $1 || ' ' || $2</i>. Table columns that are not part of "
+        + "the input table are added to the load.")
+    @TextAreaWidget(rows = 4)
+    @Persist(configKey = "copyTransformations")
+    String m_copyTransformations = "";
+
+    @Widget(title = "Validate sample rows", description = "Number of leading input rows that are written, uploaded "
+        + "and validated by Snowflake with <i>VALIDATION_MODE = RETURN_ERRORS</i> before the full data is written. "
+        + "The node fails with the reported errors if the sample can not be loaded. Use 0 to disable the validation. "
+        + "The validation is only supported for CSV files without COPY transformations.")
+    @NumberInputWidget(minValidation = IsNonNegativeValidation.class)
+    @Persist(configKey = "validationSampleSize")
+    int m_validationSampleSize;
+
+    @Widget(title = "Load mode", description = "Defines how the input rows are loaded into the table.")
+    @Persist(configKey = "loadMode")
+    @ValueReference(LoadModeRef.class)
+    SnowflakeLoaderMode m_loadMode = SnowflakeLoaderMode.APPEND;
+
+    static final class LoadModeRef implements ParameterReference<SnowflakeLoaderMode> {
+    }
+
+    static final class LoadModeIsDelta implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getEnum(LoadModeRef.class).isOneOf(SnowflakeLoaderMode.DELTA);
+        }
+    }
+
+    @Widget(title = "Key columns", description = "Comma separated names of the table columns that identify a row "
+        + "e.g. <i>ID</i> or <i>\"Customer\", \"Valid From\"</i>. The key columns must be part of the input table. "
+        + "Snowflake computes a hash of the key and of all loaded columns for each table row. Only the input rows "
+        + "with a new key or a different hash are uploaded and merged into the table. Table rows whose key is not "
+        + "part of the input are deleted.")
+    @Persist(configKey = "keyColumns")
+    @Effect(predicate = LoadModeIsDelta.class, type = EffectType.SHOW)
+    String m_keyColumns = "";
+
+    static final class LoadModeIsPartitionOverwrite implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getEnum(LoadModeRef.class).isOneOf(SnowflakeLoaderMode.PARTITION_OVERWRITE);
+        }
+    }
+
+    @Widget(title = "Partition columns", description = "Comma separated names of the table columns that define a "
+        + "partition e.g. <i>REGION</i> or <i>\"Year\", \"Month\"</i>. The partition columns must be part of the "
+        + "input table and must not be transformed. All table rows of the partitions that are contained in the input "
+        + "are deleted and replaced by the input rows within one transaction.")
+    @Persist(configKey = "partitionColumns")
+    @Effect(predicate = LoadModeIsPartitionOverwrite.class, type = EffectType.SHOW)
+    String m_partitionColumns = "";
+
+    @Widget(title = "Drop duplicates of columns", description = "Comma separated names of the table columns whose "
+        + "values must be unique within the input e.g. <i>ID</i>. Only the first input row of each value combination "
+        + "is loaded and all later rows are dropped while the data files are written. If the input contains more than "
+        + "two million distinct values, the rows with further values are buffered on disk and deduplicated once the "
+        + "input has been read. The number of dropped rows is written to the KNIME log. Leave empty to load all "
+        + "rows.")
+    @Persist(configKey = "deduplicationColumns")
+    String m_deduplicationColumns = "";
+
     @Effect(predicate = FileFormatIsCSV.class, type = EffectType.SHOW)
     @Advanced
     @Section(title = "CSV Format Settings")
@@ -46,12 +46,14 @@
 
 import org.knime.core.node.InvalidSettingsException;
 import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
 import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
 import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
 import org.knime.core.node.defaultnodesettings.SettingsModelLong;
 import org.knime.core.node.defaultnodesettings.SettingsModelLongBounded;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 import org.knime.database.extension.snowflake.agent.SnowflakeLoaderFileFormat;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderMode;
 import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
 import org.knime.database.node.io.load.DBLoaderNode2.ModelDelegate;
 import org.knime.database.node.io.load.impl.unconnected.UnconnectedCsvLoaderNodeSettings2;
@@ -66,6 +68,14 @@ public class SnowflakeLoaderNodeSettings extends UnconnectedCsvLoaderNodeSetting
     private static final String CFG_FILE_COMPRESSION = "fileCompression";
     private static final String CFG_FILE_CHUNK_SIZE = "withinFileChunkSize";
     private static final String CFG_FILE_SIZE = "fileSize";
+    private static final String CFG_PARALLEL_WRITERS = "parallelWriters";
+    private static final String CFG_LOAD_BY_COLUMN_NAME = "loadByColumnName";
+    private static final String CFG_COPY_TRANSFORMATIONS = "copyTransformations";
+    private static final String CFG_VALIDATION_SAMPLE_SIZE = "validationSampleSize";
+    private static final String CFG_LOAD_MODE = "loadMode";
+    private static final String CFG_KEY_COLUMNS = "keyColumns";
+    private static final String CFG_PARTITION_COLUMNS = "partitionColumns";
+    private static final String CFG_DEDUPLICATION_COLUMNS = "deduplicationColumns";
 
     private final SettingsModelString m_fileFormatSelectionModel;
     private final SettingsModelString m_stageTypeSelectionModel;
@@ -74,6 +84,14 @@ public class SnowflakeLoaderNodeSettings extends UnconnectedCsvLoaderNodeSetting
     private final SettingsModelString m_compression;
     private final SettingsModelInteger m_chunkSize;
     private SettingsModelLong m_fileSize;
+    private final SettingsModelInteger m_parallelWriters;
+    private final SettingsModelBoolean m_loadByColumnName;
+    private final SettingsModelString m_copyTransformations;
+    private final SettingsModelInteger m_validationSampleSize;
+    private final SettingsModelString m_loadMode;
+    private final SettingsModelString m_keyColumns;
+    private final SettingsModelString m_partitionColumns;
+    private final SettingsModelString m_deduplicationColumns;
 
     /**
      * Constructs a {@link SnowflakeLoaderNodeSettings} object.
@@ -88,6 +106,14 @@ public SnowflakeLoaderNodeSettings(final ModelDelegate modelDelegate) {
         m_compression = createCompressionModel();
         m_chunkSize = createChunkSizeModel();
         m_fileSize = createFileSizeModel();
+        m_parallelWriters = createParallelWritersModel();
+        m_loadByColumnName = createLoadByColumnNameModel();
+        m_copyTransformations = createCopyTransformationsModel();
+        m_validationSampleSize = createValidationSampleSizeModel();
+        m_loadMode = createLoadModeModel();
+        m_keyColumns = createKeyColumnsModel();
+        m_partitionColumns = createPartitionColumnsModel();
+        m_deduplicationColumns = createDeduplicationColumnsModel();
     }
 
     /**
@@ -200,6 +226,151 @@ public SettingsModelLong getFileSizeModel() {
         return m_fileSize;
     }
 
+    /**
+     * Creates the parallel writers model.
+     *
+     * @return the number of parallel writers {@link SettingsModelInteger}
+     */
+    static SettingsModelInteger createParallelWritersModel() {
+        return new SettingsModelIntegerBounded(CFG_PARALLEL_WRITERS, 1, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the parallel writers model.
+     *
+     * @return the number of parallel writers
+     */
+    public SettingsModelInteger getParallelWritersModel() {
+        return m_parallelWriters;
+    }
+
+    /**
+     * Creates the load by column name model.
+     *
+     * @return the load by column name {@link SettingsModelBoolean}
+     */
+    static SettingsModelBoolean createLoadByColumnNameModel() {
+        return new SettingsModelBoolean(CFG_LOAD_BY_COLUMN_NAME, false);
+    }
+
+    /**
+     * Returns the load by column name model.
+     *
+     * @return {@code true} if the input columns should be matched by name with a subset of the table columns
+     */
+    public SettingsModelBoolean getLoadByColumnNameModel() {
+        return m_loadByColumnName;
+    }
+
+    /**
+     * Creates the COPY transformations model.
+     *
+     * @return the COPY transformations {@link SettingsModelString}
+     */
+    static SettingsModelString createCopyTransformationsModel() {
+        return new SettingsModelString(CFG_COPY_TRANSFORMATIONS, "");
+    }
+
+    /**
+     * Returns the COPY transformations model.
+     *
+     * @return the SQL expressions with one {@code column = expression} definition per line
+     */
+    public SettingsModelString getCopyTransformationsModel() {
+        return m_copyTransformations;
+    }
+
+    /**
+     * Creates the validation sample size model.
+     *
+     * @return the validation sample size {@link SettingsModelInteger}
+     */
+    static SettingsModelInteger createValidationSampleSizeModel() {
+        return new SettingsModelIntegerBounded(CFG_VALIDATION_SAMPLE_SIZE, 0, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the validation sample size model.
+     *
+     * @return the number of rows that are validated prior the load or 0 if no validation should be performed
+     */
+    public SettingsModelInteger getValidationSampleSizeModel() {
+        return m_validationSampleSize;
+    }
+
+    /**
+     * Creates the load mode model.
+     *
+     * @return the load mode {@link SettingsModelString}
+     */
+    static SettingsModelString createLoadModeModel() {
+        return new SettingsModelString(CFG_LOAD_MODE, SnowflakeLoaderMode.getDefault().name());
+    }
+
+    /**
+     * Returns the load mode model.
+     *
+     * @return the name of the selected {@link SnowflakeLoaderMode}
+     */
+    public SettingsModelString getLoadModeModel() {
+        return m_loadMode;
+    }
+
+    /**
+     * Creates the key columns model.
+     *
+     * @return the key columns {@link SettingsModelString}
+     */
+    static SettingsModelString createKeyColumnsModel() {
+        return new SettingsModelString(CFG_KEY_COLUMNS, "");
+    }
+
+    /**
+     * Returns the key columns model.
+     *
+     * @return the comma separated names of the table columns that identify a row
+     */
+    public SettingsModelString getKeyColumnsModel() {
+        return m_keyColumns;
+    }
+
+    /**
+     * Creates the partition columns model.
+     *
+     * @return the partition columns {@link SettingsModelString}
+     */
+    static SettingsModelString createPartitionColumnsModel() {
+        return new SettingsModelString(CFG_PARTITION_COLUMNS, "");
+    }
+
+    /**
+     * Returns the partition columns model.
+     *
+     * @return the comma separated names of the table columns that identify a partition
+     */
+    public SettingsModelString getPartitionColumnsModel() {
+        return m_partitionColumns;
+    }
+
+    /**
+     * Creates the deduplication columns model.
+     *
+     * @return the deduplication columns {@link SettingsModelString}
+     */
+    static SettingsModelString createDeduplicationColumnsModel() {
+        return new SettingsModelString(CFG_DEDUPLICATION_COLUMNS, "");
+    }
+
+    /**
+     * Returns the deduplication columns model.
+     *
+     * @return the comma separated names of the table columns whose values must be unique within the input or an
+     *         empty string if duplicates are loaded
+     */
+    public SettingsModelString getDeduplicationColumnsModel() {
+        return m_deduplicationColumns;
+    }
+
     /**
      * Validates the settings and takes care of backward compatibility.
      *
@@ -220,6 +391,31 @@ void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsExcep
         if (settings.containsKey(CFG_FILE_SIZE)) {
             m_fileSize.validateSettings(settings);
         }
+        //the following settings where introduced with 5.12
+        if (settings.containsKey(CFG_PARALLEL_WRITERS)) {
+            m_parallelWriters.validateSettings(settings);
+        }
+        if (settings.containsKey(CFG_LOAD_BY_COLUMN_NAME)) {
+            m_loadByColumnName.validateSettings(settings);
+        }
+        if (settings.containsKey(CFG_COPY_TRANSFORMATIONS)) {
+            m_copyTransformations.validateSettings(settings);
+        }
+        if (settings.containsKey(CFG_VALIDATION_SAMPLE_SIZE)) {
+            m_validationSampleSize.validateSettings(settings);
+        }
+        if (settings.containsKey(CFG_LOAD_MODE)) {
+            m_loadMode.validateSettings(settings);
+        }
+        if (settings.containsKey(CFG_KEY_COLUMNS)) {
+            m_keyColumns.validateSettings(settings);
+        }
+        if (settings.containsKey(CFG_PARTITION_COLUMNS)) {
+            m_partitionColumns.validateSettings(settings);
+        }
+        if (settings.containsKey(CFG_DEDUPLICATION_COLUMNS)) {
+            m_deduplicationColumns.validateSettings(settings);
+        }
     }
 
     /**
@@ -253,5 +449,46 @@ void loadValidatedModelSettingsFrom(final NodeSettingsRO settings) throws Invali
         } else {
             m_fileSize.setLongValue(fileFormat.getDefaultFileSize());
         }
+        //the following settings where introduced with 5.12
+        if (settings.containsKey(CFG_PARALLEL_WRITERS)) {
+            m_parallelWriters.loadSettingsFrom(settings);
+        } else {
+            m_parallelWriters.setIntValue(1);
+        }
+        if (settings.containsKey(CFG_LOAD_BY_COLUMN_NAME)) {
+            m_loadByColumnName.loadSettingsFrom(settings);
+        } else {
+            m_loadByColumnName.setBooleanValue(false);
+        }
+        if (settings.containsKey(CFG_COPY_TRANSFORMATIONS)) {
+            m_copyTransformations.loadSettingsFrom(settings);
+        } else {
+            m_copyTransformations.setStringValue("");
+        }
+        if (settings.containsKey(CFG_VALIDATION_SAMPLE_SIZE)) {
+            m_validationSampleSize.loadSettingsFrom(settings);
+        } else {
+            m_validationSampleSize.setIntValue(0);
+        }
+        if (settings.containsKey(CFG_LOAD_MODE)) {
+            m_loadMode.loadSettingsFrom(settings);
+        } else {
+            m_loadMode.setStringValue(SnowflakeLoaderMode.APPEND.name());
+        }
+        if (settings.containsKey(CFG_KEY_COLUMNS)) {
+            m_keyColumns.loadSettingsFrom(settings);
+        } else {
+            m_keyColumns.setStringValue("");
+        }
+        if (settings.containsKey(CFG_PARTITION_COLUMNS)) {
+            m_partitionColumns.loadSettingsFrom(settings);
+        } else {
+            m_partitionColumns.setStringValue("");
+        }
+        if (settings.containsKey(CFG_DEDUPLICATION_COLUMNS)) {
+            m_deduplicationColumns.loadSettingsFrom(settings);
+        } else {
+            m_deduplicationColumns.setStringValue("");
+        }
     }
 }
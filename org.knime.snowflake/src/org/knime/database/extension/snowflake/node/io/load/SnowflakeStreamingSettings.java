@@ -0,0 +1,119 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+
+/**
+ * Buffering and flush settings of the {@link SnowflakeStreamingSink}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowflakeStreamingSettings {
+
+    /** The default settings that flush at least every second and buffer up to 10,000 rows or 16 MB. */
+    public static final SnowflakeStreamingSettings DEFAULT =
+        new SnowflakeStreamingSettings(Duration.ofSeconds(1), 10_000, 16L << 20, Duration.ofMinutes(1));
+
+    private final Duration m_flushInterval;
+
+    private final int m_maxBufferedRows;
+
+    private final long m_maxBufferedBytes;
+
+    private final Duration m_commitTimeout;
+
+    /**
+     * Constructor.
+     *
+     * @param flushInterval the maximum time rows are buffered before they are appended
+     * @param maxBufferedRows the maximum number of buffered rows
+     * @param maxBufferedBytes the maximum estimated size of the buffered rows in bytes
+     * @param commitTimeout the maximum time to wait until the last appended rows are committed
+     */
+    public SnowflakeStreamingSettings(final Duration flushInterval, final int maxBufferedRows,
+        final long maxBufferedBytes, final Duration commitTimeout) {
+        if (maxBufferedRows < 1 || maxBufferedBytes < 1) {
+            throw new IllegalArgumentException("The buffer limits must be positive.");
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("The flush interval must be positive.");
+        }
+        m_flushInterval = flushInterval;
+        m_maxBufferedRows = maxBufferedRows;
+        m_maxBufferedBytes = maxBufferedBytes;
+        m_commitTimeout = requireNonNull(commitTimeout, "commitTimeout");
+    }
+
+    /**
+     * @return the maximum time rows are buffered before they are appended
+     */
+    public Duration getFlushInterval() {
+        return m_flushInterval;
+    }
+
+    /**
+     * @return the maximum number of buffered rows
+     */
+    public int getMaxBufferedRows() {
+        return m_maxBufferedRows;
+    }
+
+    /**
+     * @return the maximum estimated size of the buffered rows in bytes
+     */
+    public long getMaxBufferedBytes() {
+        return m_maxBufferedBytes;
+    }
+
+    /**
+     * @return the maximum time to wait until the last appended rows are committed
+     */
+    public Duration getCommitTimeout() {
+        return m_commitTimeout;
+    }
+}
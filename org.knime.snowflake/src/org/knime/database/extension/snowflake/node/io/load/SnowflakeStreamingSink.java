@@ -0,0 +1,281 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.database.extension.snowflake.agent.SnowflakeTaskExecutor;
+import org.knime.database.extension.snowflake.pipe.SnowpipeStreamingChannel;
+
+/**
+ * Appends the rows of a {@link RowInput} through a {@link SnowpipeStreamingChannel} without staging files. The rows
+ * are buffered on the client until the {@linkplain SnowflakeStreamingSettings buffer limits} are reached or the
+ * oldest buffered row is older than the flush interval. The flush interval is checked by a background thread so that
+ * buffered rows are also appended while the input waits for further rows.
+ * <p>
+ * The offset token of each flush consists of the id of the source and the number of rows consumed from it e.g.
+ * {@code orders-2024-06-01:1500}. When the rows of the same source are written again after a failure, all rows up
+ * to the committed offset token are skipped which loads every row exactly once. Rows of another source are always
+ * appended completely.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowflakeStreamingSink {
+
+    private static final long COMMIT_POLL_INTERVAL_MS = 100;
+
+    private static final long MIN_FLUSH_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final SnowpipeStreamingChannel m_channel;
+
+    private final SnowflakeStreamingSettings m_settings;
+
+    /** Guards the buffer since the rows are appended by the writing and the flushing thread. */
+    private final Object m_lock = new Object();
+
+    private final List<Map<String, Object>> m_buffer = new ArrayList<>();
+
+    private long m_bufferedBytes;
+
+    private long m_firstBufferedAt;
+
+    private String m_bufferedOffsetToken;
+
+    private long m_flushCount;
+
+    private Exception m_flushFailure;
+
+    /**
+     * Constructor.
+     *
+     * @param channel the {@link SnowpipeStreamingChannel} to append the rows to
+     * @param settings the {@link SnowflakeStreamingSettings}
+     */
+    public SnowflakeStreamingSink(final SnowpipeStreamingChannel channel, final SnowflakeStreamingSettings settings) {
+        m_channel = requireNonNull(channel, "channel");
+        m_settings = requireNonNull(settings, "settings");
+    }
+
+    /**
+     * Appends all rows of the input that have not been committed for the given source yet and waits until they are
+     * committed.
+     *
+     * @param input the {@link RowInput} whose cells are appended to the columns with the same name
+     * @param sourceId the id of the source of the input rows which must identify the same rows in the same order
+     *            whenever the input is written again
+     * @param exec the {@link ExecutionMonitor} to check for cancellation
+     * @return the number of appended rows
+     * @throws IOException if the rows could not be appended or committed
+     * @throws InterruptedException if the input has been interrupted
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    public long write(final RowInput input, final String sourceId, final ExecutionMonitor exec)
+        throws IOException, InterruptedException, CanceledExecutionException {
+        synchronized (m_lock) {
+            //the rows of a failed write are appended again based on the committed offset token
+            m_buffer.clear();
+            m_bufferedBytes = 0;
+            m_flushFailure = null;
+        }
+        final long committed = getCommittedRows(sourceId, m_channel.getLatestCommittedOffsetToken());
+        final String[] columnNames = input.getDataTableSpec().getColumnNames();
+        final long flushInterval = m_settings.getFlushInterval().toNanos();
+        final long checkInterval = Math.max(MIN_FLUSH_CHECK_NANOS, flushInterval / 4);
+        final ScheduledExecutorService flusher = SnowflakeTaskExecutor.createScheduledExecutor("Streaming-Flusher");
+        long offset = 0;
+        try {
+            flusher.scheduleWithFixedDelay(() -> flushIfDue(flushInterval), checkInterval, checkInterval,
+                TimeUnit.NANOSECONDS);
+            DataRow row;
+            while ((row = input.poll()) != null) {
+                offset++;
+                if (offset <= committed) {
+                    //the row has already been committed by a previous run
+                    continue;
+                }
+                exec.checkCanceled();
+                final Map<String, Object> values = new LinkedHashMap<>();
+                long size = 0;
+                for (int i = 0; i < columnNames.length; i++) {
+                    final Object value = PartitionRowInput.toValue(row.getCell(i));
+                    values.put(columnNames[i], value);
+                    size += estimateSize(value);
+                }
+                synchronized (m_lock) {
+                    checkFlushFailure();
+                    if (m_buffer.isEmpty()) {
+                        m_firstBufferedAt = System.nanoTime();
+                    }
+                    m_buffer.add(values);
+                    m_bufferedBytes += size;
+                    m_bufferedOffsetToken = createOffsetToken(sourceId, offset);
+                    if (m_buffer.size() >= m_settings.getMaxBufferedRows()
+                        || m_bufferedBytes >= m_settings.getMaxBufferedBytes()) {
+                        flush();
+                    }
+                }
+            }
+            //a running flush of the background thread completes before the remaining rows are flushed
+            flusher.shutdown();
+            synchronized (m_lock) {
+                checkFlushFailure();
+                flush();
+            }
+        } finally {
+            flusher.shutdownNow();
+        }
+        if (offset > committed) {
+            awaitCommit(exec, sourceId, offset);
+        }
+        return Math.max(0, offset - committed);
+    }
+
+    /**
+     * @return the number of appends that have been issued to the channel
+     */
+    public long getFlushCount() {
+        synchronized (m_lock) {
+            return m_flushCount;
+        }
+    }
+
+    private void flushIfDue(final long flushInterval) {
+        synchronized (m_lock) {
+            if (m_flushFailure != null || m_buffer.isEmpty() || System.nanoTime() - m_firstBufferedAt < flushInterval) {
+                return;
+            }
+            try {
+                flush();
+            } catch (final IOException | RuntimeException e) {
+                //reported by the writing thread
+                m_flushFailure = e;
+            }
+        }
+    }
+
+    /** Must be called while holding {@link #m_lock}. */
+    private void flush() throws IOException {
+        if (!m_buffer.isEmpty()) {
+            m_channel.appendRows(new ArrayList<>(m_buffer), m_bufferedOffsetToken);
+            m_buffer.clear();
+            m_bufferedBytes = 0;
+            m_flushCount++;
+        }
+    }
+
+    /** Must be called while holding {@link #m_lock}. */
+    private void checkFlushFailure() throws IOException {
+        if (m_flushFailure instanceof IOException) {
+            throw (IOException)m_flushFailure;
+        }
+        if (m_flushFailure != null) {
+            throw new IOException(m_flushFailure.getMessage(), m_flushFailure);
+        }
+    }
+
+    private void awaitCommit(final ExecutionMonitor exec, final String sourceId, final long offset)
+        throws IOException, CanceledExecutionException {
+        final long deadline = System.nanoTime() + m_settings.getCommitTimeout().toNanos();
+        while (getCommittedRows(sourceId, m_channel.getLatestCommittedOffsetToken()) < offset) {
+            exec.checkCanceled();
+            if (System.nanoTime() - deadline > 0) {
+                throw new IOException(format("The rows up to offset %d have not been committed within %d seconds.",
+                    offset, m_settings.getCommitTimeout().toSeconds()));
+            }
+            try {
+                Thread.sleep(COMMIT_POLL_INTERVAL_MS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CanceledExecutionException("Waiting for the commit has been interrupted.");
+            }
+        }
+    }
+
+    static String createOffsetToken(final String sourceId, final long offset) {
+        return sourceId + ":" + offset;
+    }
+
+    /**
+     * Returns the number of committed rows of the given source or 0 if the offset token belongs to another source.
+     */
+    static long getCommittedRows(final String sourceId, final Optional<String> offsetToken) throws IOException {
+        if (offsetToken.isEmpty()) {
+            return 0;
+        }
+        final String token = offsetToken.get();
+        final int separator = token.lastIndexOf(':');
+        if (separator < 0 || !token.substring(0, separator).equals(sourceId)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(token.substring(separator + 1));
+        } catch (final NumberFormatException e) {
+            throw new IOException("The channel has an unexpected offset token: " + token, e);
+        }
+    }
+
+    /** Estimates the size of a value which is only used to limit the memory of the buffer. */
+    private static long estimateSize(final Object value) {
+        if (value instanceof String) {
+            return 2L * ((String)value).length();
+        }
+        return Long.BYTES;
+    }
+}
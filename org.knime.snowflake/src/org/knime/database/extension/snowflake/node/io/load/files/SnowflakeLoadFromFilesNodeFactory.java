@@ -0,0 +1,149 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.files;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.apache.xmlbeans.XmlException;
+import org.knime.core.node.ConfigurableNodeFactory;
+import org.knime.core.node.NodeDescription;
+import org.knime.core.node.NodeDialogPane;
+import org.knime.core.node.NodeView;
+import org.knime.core.node.context.NodeCreationConfiguration;
+import org.knime.core.webui.node.dialog.NodeDialog;
+import org.knime.core.webui.node.dialog.NodeDialogFactory;
+import org.knime.core.webui.node.dialog.NodeDialogManager;
+import org.knime.core.webui.node.dialog.SettingsType;
+import org.knime.core.webui.node.dialog.defaultdialog.DefaultNodeDialog;
+import org.knime.core.webui.node.impl.WebUINodeConfiguration;
+import org.knime.core.webui.node.impl.WebUINodeFactory;
+import org.knime.database.port.DBSessionPortObject;
+import org.knime.filehandling.core.port.FileSystemPortObject;
+import org.xml.sax.SAXException;
+
+/**
+ * Node factory of the Snowflake Load From Files node.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public class SnowflakeLoadFromFilesNodeFactory extends ConfigurableNodeFactory<SnowflakeLoadFromFilesNodeModel>
+    implements NodeDialogFactory {
+
+    private static final String CONNECTION_PORT_NAME = "DB Connection";
+
+    /** The name of the optional file system input port group. */
+    static final String FS_CONNECTION_PORT_GROUP = "File System Connection";
+
+    static final WebUINodeConfiguration CONFIG = WebUINodeConfiguration.builder() //
+        .name("Snowflake Load From Files") //
+        .icon("snowflake_load_from_files.png") //
+        .shortDescription("Loads existing CSV or Parquet files into a Snowflake table.") //
+        .fullDescription("""
+                This node loads existing CSV or Parquet files into an existing Snowflake table without reading them
+                into KNIME first. The files are uploaded as they are into the selected
+                <a href="https://docs.snowflake.com/en/user-guide/data-load-local-file-system-create-stage">stage</a>
+                and loaded with a
+                <a href="https://docs.snowflake.com/en/sql-reference/sql/copy-into-table">COPY</a> command using
+                the configured file format.
+                <p>
+                Multiple files are uploaded in parallel by a single PUT command. Files that are not located on the
+                local file system are first copied byte by byte into a temporary folder since the PUT command only
+                supports local files.
+                </p>
+                """) //
+        .modelSettingsClass(SnowflakeLoadFromFilesNodeParameters.class) //
+        .addInputPort(CONNECTION_PORT_NAME, DBSessionPortObject.TYPE, "Snowflake DB Connection.") //
+        .addInputPort(FS_CONNECTION_PORT_GROUP, FileSystemPortObject.TYPE,
+            "The optional file system connection to read the files from.") //
+        .addOutputPort(CONNECTION_PORT_NAME, DBSessionPortObject.TYPE, "Snowflake DB Connection.") //
+        .keywords("db", "database", "bulk", "upload", "copy", "snowpipe") //
+        .build();
+
+    @Override
+    protected NodeDescription createNodeDescription() throws SAXException, IOException, XmlException {
+        return WebUINodeFactory.createNodeDescription(CONFIG);
+    }
+
+    @Override
+    protected Optional<PortsConfigurationBuilder> createPortsConfigBuilder() {
+        final var b = new PortsConfigurationBuilder();
+        b.addFixedInputPortGroup(CONNECTION_PORT_NAME, DBSessionPortObject.TYPE);
+        b.addOptionalInputPortGroup(FS_CONNECTION_PORT_GROUP, FileSystemPortObject.TYPE);
+        b.addFixedOutputPortGroup(CONNECTION_PORT_NAME, DBSessionPortObject.TYPE);
+        return Optional.of(b);
+    }
+
+    @Override
+    protected NodeDialogPane createNodeDialogPane(final NodeCreationConfiguration creationConfig) {
+        return NodeDialogManager.createLegacyFlowVariableNodeDialog(createNodeDialog());
+    }
+
+    @Override
+    protected int getNrNodeViews() {
+        return 0;
+    }
+
+    @Override
+    public NodeView<SnowflakeLoadFromFilesNodeModel> createNodeView(final int viewIndex,
+        final SnowflakeLoadFromFilesNodeModel nodeModel) {
+        return null;
+    }
+
+    @Override
+    protected boolean hasDialog() {
+        return true;
+    }
+
+    @Override
+    public NodeDialog createNodeDialog() {
+        return new DefaultNodeDialog(SettingsType.MODEL, SnowflakeLoadFromFilesNodeParameters.class);
+    }
+
+    @Override
+    protected SnowflakeLoadFromFilesNodeModel createNodeModel(final NodeCreationConfiguration creationConfig) {
+        return new SnowflakeLoadFromFilesNodeModel(creationConfig.getPortConfig().orElseThrow());
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.context.ports.PortsConfiguration;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.util.FileUtil;
+import org.knime.core.util.ThreadUtils;
+import org.knime.core.webui.node.impl.WebUINodeModel;
+import org.knime.database.agent.loader.DBLoadTableFromFileParameters;
+import org.knime.database.agent.loader.DBLoader;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderSettings;
+import org.knime.database.extension.snowflake.agent.SnowflakeTaskExecutor;
+import org.knime.database.extension.snowflake.node.io.load.files.SnowflakeLoadFromFilesNodeParameters.SourceMode;
+import org.knime.database.extension.snowflake.type.Snowflake;
+import org.knime.database.port.DBSessionPortObject;
+import org.knime.database.port.DBSessionPortObjectSpec;
+import org.knime.database.session.DBSession;
+import org.knime.filehandling.core.connections.FSCategory;
+import org.knime.filehandling.core.connections.FSConnection;
+import org.knime.filehandling.core.connections.FSLocation;
+import org.knime.filehandling.core.connections.FSPath;
+import org.knime.filehandling.core.connections.location.FSPathProvider;
+import org.knime.filehandling.core.connections.location.FSPathProviderFactory;
+import org.knime.filehandling.core.port.FileSystemPortObject;
+
+/**
+ * Node model of the Snowflake Load From Files node that loads existing CSV or Parquet files as they are into a
+ * Snowflake table using the {@link DBLoader} of the Snowflake session.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SnowflakeLoadFromFilesNodeModel extends WebUINodeModel<SnowflakeLoadFromFilesNodeParameters> {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(SnowflakeLoadFromFilesNodeModel.class);
+
+    /** The maximum number of files that are copied concurrently from a remote file system. */
+    private static final int MAX_COPY_THREADS = 8;
+
+    /** The index of the optional file system input port or -1 if the port is not present. */
+    private final int m_fsPortIndex;
+
+    SnowflakeLoadFromFilesNodeModel(final PortsConfiguration portsConfiguration) {
+        super(portsConfiguration.getInputPorts(), portsConfiguration.getOutputPorts(),
+            SnowflakeLoadFromFilesNodeParameters.class);
+        final int[] fsPorts = portsConfiguration.getInputPortLocation()
+            .get(SnowflakeLoadFromFilesNodeFactory.FS_CONNECTION_PORT_GROUP);
+        m_fsPortIndex = fsPorts == null || fsPorts.length == 0 ? -1 : fsPorts[0];
+    }
+
+    @Override
+    protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs,
+        final SnowflakeLoadFromFilesNodeParameters settings) throws InvalidSettingsException {
+        final DBSessionPortObjectSpec sessionSpec = (DBSessionPortObjectSpec)inSpecs[0];
+        if (!Snowflake.DB_TYPE.equals(sessionSpec.getDBSession().getDBType())) {
+            throw new InvalidSettingsException("The node only supports Snowflake connections.");
+        }
+        settings.checkSettings();
+        final boolean connected = settings.getSource().getFSCategory() == FSCategory.CONNECTED;
+        if (connected != (m_fsPortIndex >= 0)) {
+            throw new InvalidSettingsException(connected ? "Please connect the file system input port."
+                : "Please select the source again since the file system input port has been connected.");
+        }
+        return new PortObjectSpec[]{sessionSpec};
+    }
+
+    @Override
+    protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec,
+        final SnowflakeLoadFromFilesNodeParameters settings) throws Exception {
+        final DBSessionPortObject sessionPortObject = (DBSessionPortObject)inObjects[0];
+        final DBSession session = sessionPortObject.getDBSession();
+        final SnowflakeLoaderSettings loaderSettings = settings.createLoaderSettings();
+        final Optional<FSConnection> connection = m_fsPortIndex < 0 ? Optional.empty()
+            : ((FileSystemPortObject)inObjects[m_fsPortIndex]).getFileSystemConnection();
+        if (m_fsPortIndex >= 0 && connection.isEmpty()) {
+            throw new InvalidSettingsException(
+                "The file system connection is not available. Please re-execute the preceding connector node.");
+        }
+        final FSLocation source = settings.getSource();
+        try (FSPathProviderFactory factory = FSPathProviderFactory.newFactory(connection, source);
+                FSPathProvider pathProvider = factory.create(source)) {
+            final List<FSPath> files = listFiles(pathProvider.getPath(), settings);
+            if (files.isEmpty()) {
+                throw new InvalidSettingsException("No files to load found.");
+            }
+            if (files.size() == 1 && isLocal(files.get(0))) {
+                //a single local file is uploaded as it is
+                load(exec, session, files.get(0).toAbsolutePath().toString(), settings, loaderSettings);
+            } else {
+                final File folder = FileUtil.createTempDir("knime_snowflake_load_from_files");
+                try {
+                    collectFiles(exec.createSubProgress(0.3), files, folder.toPath());
+                    load(exec.createSubExecutionContext(0.7), session, folder.getAbsolutePath(), settings,
+                        loaderSettings);
+                } finally {
+                    FileUtil.deleteRecursively(folder);
+                }
+            }
+        }
+        return new PortObject[]{sessionPortObject};
+    }
+
+    /**
+     * Returns the selected file or the regular files of the selected folder in a stable order.
+     */
+    static List<FSPath> listFiles(final FSPath source, final SnowflakeLoadFromFilesNodeParameters settings)
+        throws IOException {
+        if (settings.m_sourceMode == SourceMode.FILE) {
+            return List.of(source);
+        }
+        final int depth = settings.m_includeSubfolders ? Integer.MAX_VALUE : 1;
+        try (Stream<Path> paths = Files.walk(source, depth)) {
+            return paths.filter(Files::isRegularFile).map(FSPath.class::cast).sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static void load(final ExecutionMonitor exec, final DBSession session, final String filePath,
+        final SnowflakeLoadFromFilesNodeParameters settings, final SnowflakeLoaderSettings loaderSettings)
+        throws Exception {
+        session.getAgent(DBLoader.class).load(exec,
+            new DBLoadTableFromFileParameters<>(null, filePath, settings.getTable(), loaderSettings));
+    }
+
+    private static boolean isLocal(final FSPath path) {
+        return path.toFSLocation().getFSCategory() == FSCategory.LOCAL;
+    }
+
+    /**
+     * Collects the files in a local folder whose content is uploaded by a single {@code PUT} command. Local files
+     * are linked if possible and all other files are copied byte by byte without parsing them.
+     */
+    static void collectFiles(final ExecutionMonitor exec, final List<FSPath> files, final Path folder)
+        throws IOException, CanceledExecutionException, SQLException {
+        final Set<String> fileNames = new HashSet<>();
+        final List<Future<Void>> futures = new ArrayList<>(files.size());
+        final ExecutorService executor =
+            SnowflakeTaskExecutor.createExecutor("File-Collector", Math.min(MAX_COPY_THREADS, files.size()));
+        try {
+            int i = 0;
+            for (final FSPath file : files) {
+                final String fileName = file.getFileName().toString();
+                //files with the same name in different sub folders must not overwrite each other
+                final Path target = folder.resolve(fileNames.add(fileName) ? fileName : (i + "_" + fileName));
+                futures.add(executor.submit(ThreadUtils.callableWithContext(() -> {
+                    collectFile(file, target);
+                    return null;
+                })));
+                i++;
+            }
+            int done = 0;
+            for (final Future<Void> future : futures) {
+                exec.setMessage(String.format("Collecting file %d of %d", done + 1, futures.size()));
+                SnowflakeTaskExecutor.awaitResult(exec, future, "Collecting of the files has been interrupted.");
+                exec.setProgress(++done / (double)futures.size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void collectFile(final FSPath file, final Path target) throws IOException {
+        if (isLocal(file)) {
+            final Path localFile = Path.of(file.toAbsolutePath().toString());
+            try {
+                Files.createLink(target, localFile);
+                return;
+            } catch (final IOException | UnsupportedOperationException e) {
+                LOGGER.debug("Copying file " + localFile + " since it can not be linked: " + e.getMessage());
+            }
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            Files.copy(in, target);
+        }
+    }
+}
@@ -0,0 +1,440 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.files;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.time.Duration;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.knime.base.node.io.csvwriter.FileWriterSettings;
+import org.knime.base.node.io.csvwriter.FileWriterSettings.LineEnding;
+import org.knime.base.node.io.csvwriter.FileWriterSettings.quoteMode;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.util.FileUtil;
+import org.knime.core.webui.node.dialog.defaultdialog.internal.file.FileReaderWidget;
+import org.knime.core.webui.node.dialog.defaultdialog.internal.file.FileSelection;
+import org.knime.core.webui.node.dialog.defaultdialog.internal.file.FileSelectionWidget;
+import org.knime.core.webui.node.dialog.defaultdialog.internal.file.LocalFileReaderWidget;
+import org.knime.core.webui.node.dialog.defaultdialog.internal.file.SingleFileSelectionMode;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderFileFormat;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderSettings;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
+import org.knime.database.extension.snowflake.pipe.SnowpipeKeyPairToken;
+import org.knime.database.extension.snowflake.pipe.SnowpipeLoadSettings;
+import org.knime.database.model.DBTable;
+import org.knime.database.model.impl.DefaultDBTable;
+import org.knime.filehandling.core.connections.FSLocation;
+import org.knime.node.parameters.NodeParameters;
+import org.knime.node.parameters.NodeParametersInput;
+import org.knime.node.parameters.Widget;
+import org.knime.node.parameters.updates.Effect;
+import org.knime.node.parameters.updates.Effect.EffectType;
+import org.knime.node.parameters.updates.EffectPredicate;
+import org.knime.node.parameters.updates.EffectPredicateProvider;
+import org.knime.node.parameters.updates.ParameterReference;
+import org.knime.node.parameters.updates.ValueReference;
+import org.knime.node.parameters.widget.choices.ChoicesProvider;
+import org.knime.node.parameters.widget.choices.Label;
+import org.knime.node.parameters.widget.choices.StringChoicesProvider;
+import org.knime.node.parameters.widget.credentials.Credentials;
+import org.knime.node.parameters.widget.credentials.PasswordWidget;
+import org.knime.node.parameters.widget.number.NumberInputWidget;
+import org.knime.node.parameters.widget.number.NumberInputWidgetValidation.MinValidation.IsPositiveIntegerValidation;
+import org.knime.node.parameters.widget.text.TextInputWidget;
+import org.knime.node.parameters.widget.text.TextInputWidgetValidation.PatternValidation.IsNotBlankValidation;
+
+/**
+ * Web UI parameters for the Snowflake Load From Files node.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+@SuppressWarnings("restriction")
+final class SnowflakeLoadFromFilesNodeParameters implements NodeParameters {
+
+    /** The character encodings Snowflake supports and that are offered in the dialog. */
+    static final List<String> ENCODINGS = List.of("UTF-8", "ISO-8859-1");
+
+    /** The line endings that are offered in the dialog. */
+    static final List<String> LINE_ENDINGS =
+        List.of(LineEnding.LF.name(), LineEnding.CRLF.name(), LineEnding.CR.name());
+
+    /** Whether a single file or all files of a folder are loaded. */
+    enum SourceMode {
+
+            /** Loads a single file. */
+            @Label(value = "File", description = "Loads a single file.")
+            FILE,
+
+            /** Loads all files of a folder. */
+            @Label(value = "Files in folder", description = "Loads all files of a folder.")
+            FOLDER;
+    }
+
+    @Widget(title = "Source", description = "Whether a single file or all files of a folder are loaded.")
+    @ValueReference(SourceModeRef.class)
+    SourceMode m_sourceMode = SourceMode.FILE;
+
+    static final class SourceModeRef implements ParameterReference<SourceMode> {
+    }
+
+    static final class SourceIsFile implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getEnum(SourceModeRef.class).isOneOf(SourceMode.FILE);
+        }
+    }
+
+    static final class SourceIsFolder implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getEnum(SourceModeRef.class).isOneOf(SourceMode.FOLDER);
+        }
+    }
+
+    @Widget(title = "File", description = """
+            The CSV or Parquet file to load. The file is read from the file system of the optional input port if it
+            is connected.
+            """)
+    @FileReaderWidget(fileExtensions = {"csv", "gz", "parquet"})
+    @Effect(predicate = SourceIsFile.class, type = EffectType.SHOW)
+    FileSelection m_file = new FileSelection();
+
+    @Widget(title = "Folder", description = """
+            The folder whose files are loaded. All files of the folder must have the same format. The folder is read
+            from the file system of the optional input port if it is connected.
+            """)
+    @FileSelectionWidget(SingleFileSelectionMode.FOLDER)
+    @Effect(predicate = SourceIsFolder.class, type = EffectType.SHOW)
+    FileSelection m_folder = new FileSelection();
+
+    @Widget(title = "Include subfolders", description = """
+            If selected the files of all subfolders are loaded as well. Files with the same name in different
+            subfolders do not overwrite each other.
+            """)
+    @Effect(predicate = SourceIsFolder.class, type = EffectType.SHOW)
+    boolean m_includeSubfolders;
+
+    @Widget(title = "Schema", description = "The schema of the target table or empty to use the default schema.")
+    String m_schema = "";
+
+    @Widget(title = "Table", description = "The name of the existing target table.")
+    @TextInputWidget(patternValidation = IsNotBlankValidation.class)
+    String m_table = "";
+
+    @Widget(title = "Stage Type", description = "The type of Snowflake stage to upload the files to.")
+    @ValueReference(StageTypeRef.class)
+    SnowflakeLoaderStageType m_stageType = SnowflakeLoaderStageType.USER;
+
+    static final class StageTypeRef implements ParameterReference<SnowflakeLoaderStageType> {
+    }
+
+    static final class StageTypeIsInternal implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getEnum(StageTypeRef.class).isOneOf(SnowflakeLoaderStageType.INTERNAL);
+        }
+    }
+
+    @Widget(title = "Internal stage name", description = "The name of the internal Snowflake stage.")
+    @Effect(predicate = StageTypeIsInternal.class, type = EffectType.SHOW)
+    String m_stageName = "";
+
+    @Widget(title = "File Format", description = """
+            The format of the files. The columns of CSV files are loaded by position whereas the columns of Parquet
+            files are matched case sensitive by name with the columns of the target table.
+            """)
+    @ValueReference(FileFormatRef.class)
+    SnowflakeLoaderFileFormat m_fileFormat = SnowflakeLoaderFileFormat.PARQUET;
+
+    static final class FileFormatRef implements ParameterReference<SnowflakeLoaderFileFormat> {
+    }
+
+    static final class FileFormatIsCSV implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getEnum(FileFormatRef.class).isOneOf(SnowflakeLoaderFileFormat.CSV);
+        }
+    }
+
+    @Widget(title = "Gzip compressed", description = "Whether the CSV files are gzip compressed.")
+    @Effect(predicate = FileFormatIsCSV.class, type = EffectType.SHOW)
+    boolean m_gzipCompressed;
+
+    @Widget(title = "Header row", description = "Whether the CSV files start with a header row that is skipped.")
+    @Effect(predicate = FileFormatIsCSV.class, type = EffectType.SHOW)
+    boolean m_hasHeader = true;
+
+    @Widget(title = "Column delimiter", description = "The character or string that separates the columns.")
+    @Effect(predicate = FileFormatIsCSV.class, type = EffectType.SHOW)
+    String m_columnDelimiter = ",";
+
+    @Widget(title = "Quote character", description = "The character that encloses quoted values or empty for none.")
+    @Effect(predicate = FileFormatIsCSV.class, type = EffectType.SHOW)
+    String m_quoteCharacter = "\"";
+
+    @Widget(title = "Escape character", description = """
+            The character that escapes the quote character within quoted values or empty for none.
+            """)
+    @Effect(predicate = FileFormatIsCSV.class, type = EffectType.SHOW)
+    String m_escapeCharacter = "";
+
+    @Widget(title = "Missing value pattern", description = "The string that represents a missing value.")
+    @Effect(predicate = FileFormatIsCSV.class, type = EffectType.SHOW)
+    String m_missingValuePattern = "";
+
+    @Widget(title = "Line ending", description = "The line ending of the CSV files.")
+    @ChoicesProvider(LineEndingChoicesProvider.class)
+    @Effect(predicate = FileFormatIsCSV.class, type = EffectType.SHOW)
+    String m_lineEnding = LineEnding.LF.name();
+
+    static final class LineEndingChoicesProvider implements StringChoicesProvider {
+
+        @Override
+        public List<String> choices(final NodeParametersInput context) {
+            return LINE_ENDINGS;
+        }
+    }
+
+    @Widget(title = "Character encoding", description = "The character encoding of the CSV files.")
+    @ChoicesProvider(EncodingChoicesProvider.class)
+    @Effect(predicate = FileFormatIsCSV.class, type = EffectType.SHOW)
+    String m_encoding = ENCODINGS.get(0);
+
+    static final class EncodingChoicesProvider implements StringChoicesProvider {
+
+        @Override
+        public List<String> choices(final NodeParametersInput context) {
+            return ENCODINGS;
+        }
+    }
+
+    @Widget(title = "Load with Snowpipe", description = """
+            If selected the uploaded files are not loaded with a COPY command but registered with an existing
+            <a href="https://docs.snowflake.com/en/user-guide/data-load-snowpipe-intro">pipe</a> via the
+            Snowpipe REST API. The files are then loaded by the serverless compute of Snowpipe without a running
+            warehouse which is well suited for frequent small loads. The pipe defines the target table and file
+            format, so the files must be uploaded to the stage of the pipe which can not be the user stage.
+            Snowpipe skips files with the same name that it already loaded within the last 14 days.
+            """)
+    @ValueReference(UseSnowpipeRef.class)
+    boolean m_useSnowpipe;
+
+    static final class UseSnowpipeRef implements ParameterReference<Boolean> {
+    }
+
+    static final class UseSnowpipe implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getBoolean(UseSnowpipeRef.class).isTrue();
+        }
+    }
+
+    @Widget(title = "Pipe name", description = """
+            The name of the pipe. A name without database and schema is qualified with the database and schema of
+            the target table or the connection.
+            """)
+    @Effect(predicate = UseSnowpipe.class, type = EffectType.SHOW)
+    String m_pipeName = "";
+
+    @Widget(title = "Private key file", description = """
+            The PKCS#8 private key file of the connected user. The Snowpipe REST API requires
+            <a href="https://docs.snowflake.com/en/user-guide/key-pair-auth">key pair authentication</a>.
+            """)
+    @LocalFileReaderWidget(fileExtensions = {"p8", "pem"})
+    @Effect(predicate = UseSnowpipe.class, type = EffectType.SHOW)
+    String m_privateKeyFile = "";
+
+    @Widget(title = "Private key passphrase", description = "The passphrase of the private key if it is encrypted.")
+    @PasswordWidget
+    @Effect(predicate = UseSnowpipe.class, type = EffectType.SHOW)
+    Credentials m_privateKeyPassphrase = new Credentials();
+
+    @Widget(title = "Wait until the files are loaded", description = """
+            If selected the node polls the load history of the pipe until all files are processed or the timeout is
+            reached and fails if a file could not be loaded. Otherwise the node finishes as soon as the files are
+            registered with the pipe.
+            """)
+    @Effect(predicate = UseSnowpipe.class, type = EffectType.SHOW)
+    @ValueReference(WaitForSnowpipeRef.class)
+    boolean m_waitForSnowpipe = true;
+
+    static final class WaitForSnowpipeRef implements ParameterReference<Boolean> {
+    }
+
+    static final class WaitForSnowpipe implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getPredicate(UseSnowpipe.class).and(i.getBoolean(WaitForSnowpipeRef.class).isTrue());
+        }
+    }
+
+    @Widget(title = "Timeout (seconds)", description = "The maximum time to wait until the files are loaded.")
+    @Effect(predicate = WaitForSnowpipe.class, type = EffectType.SHOW)
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    int m_snowpipeTimeout = 600;
+
+    /**
+     * Checks the values of the parameters.
+     *
+     * @throws InvalidSettingsException if the parameters are invalid
+     */
+    void checkSettings() throws InvalidSettingsException {
+        if (StringUtils.isBlank(getSource().getPath())) {
+            throw new InvalidSettingsException(m_sourceMode == SourceMode.FILE ? "Please select the file to load."
+                : "Please select the folder whose files should be loaded.");
+        }
+        if (StringUtils.isBlank(m_table)) {
+            throw new InvalidSettingsException("Please enter the name of the target table.");
+        }
+        if (m_stageType == SnowflakeLoaderStageType.INTERNAL && StringUtils.isBlank(m_stageName)) {
+            throw new InvalidSettingsException("Please enter the name of the internal stage.");
+        }
+        if (m_useSnowpipe) {
+            if (m_stageType == SnowflakeLoaderStageType.USER) {
+                throw new InvalidSettingsException("Snowpipe does not support the user stage.");
+            }
+            if (StringUtils.isBlank(m_pipeName)) {
+                throw new InvalidSettingsException("Please enter the name of the pipe.");
+            }
+            if (StringUtils.isBlank(m_privateKeyFile)) {
+                throw new InvalidSettingsException("Please select the private key file of the connected user.");
+            }
+            if (m_waitForSnowpipe && m_snowpipeTimeout < 1) {
+                throw new InvalidSettingsException("The Snowpipe timeout must be positive.");
+            }
+        }
+        if (m_fileFormat == SnowflakeLoaderFileFormat.CSV) {
+            if (StringUtils.isEmpty(m_columnDelimiter)) {
+                throw new InvalidSettingsException("Please enter a column delimiter.");
+            }
+            if (m_quoteCharacter.length() > 1 || m_escapeCharacter.length() > 1) {
+                throw new InvalidSettingsException("The quote and escape character must be single characters.");
+            }
+            if (!LINE_ENDINGS.contains(m_lineEnding)) {
+                throw new InvalidSettingsException("Unsupported line ending: " + m_lineEnding);
+            }
+        }
+    }
+
+    /**
+     * @return the location of the selected file or folder
+     */
+    FSLocation getSource() {
+        return (m_sourceMode == SourceMode.FILE ? m_file : m_folder).m_path;
+    }
+
+    /**
+     * @return the target {@link DBTable}
+     */
+    DBTable getTable() {
+        return new DefaultDBTable(m_table, StringUtils.trimToNull(m_schema));
+    }
+
+    /**
+     * Creates the {@link SnowflakeLoaderSettings} that load the selected files as they are.
+     *
+     * @return the {@link SnowflakeLoaderSettings}
+     * @throws InvalidSettingsException if the private key can not be read
+     */
+    SnowflakeLoaderSettings createLoaderSettings() throws InvalidSettingsException {
+        final SnowflakeLoaderSettings settings;
+        if (m_fileFormat == SnowflakeLoaderFileFormat.CSV) {
+            settings = new SnowflakeLoaderSettings(m_fileFormat, createFileWriterSettings(), m_stageType,
+                m_stageName, m_gzipCompressed ? SnowflakeLoaderFileFormat.GZIP_COMPRESSION
+                    : SnowflakeLoaderFileFormat.NONE_COMPRESSION,
+                0, 0);
+        } else {
+            //the compression of Parquet files is part of the file itself
+            settings = new SnowflakeLoaderSettings(m_fileFormat, null, m_stageType, m_stageName,
+                SnowflakeLoaderFileFormat.NONE_COMPRESSION, 0, 0);
+        }
+        if (!m_useSnowpipe) {
+            return settings;
+        }
+        return settings.forSnowpipe(new SnowpipeLoadSettings(m_pipeName.trim(), readPrivateKey(),
+            m_waitForSnowpipe ? Duration.ofSeconds(m_snowpipeTimeout) : null));
+    }
+
+    private PrivateKey readPrivateKey() throws InvalidSettingsException {
+        try {
+            final String pem = Files.readString(FileUtil.resolveToPath(FileUtil.toURL(m_privateKeyFile)));
+            return SnowpipeKeyPairToken.readPrivateKey(pem, m_privateKeyPassphrase.getPassword().toCharArray());
+        } catch (final IOException | URISyntaxException | InvalidPathException e) {
+            throw new InvalidSettingsException("The private key file can not be read: " + m_privateKeyFile, e);
+        } catch (final GeneralSecurityException e) {
+            throw new InvalidSettingsException("The private key can not be read: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The file writer settings only describe the format of the existing CSV files which is used to create the
+     * {@code FILE_FORMAT} of the {@code COPY} command.
+     */
+    FileWriterSettings createFileWriterSettings() {
+        final FileWriterSettings settings = new FileWriterSettings();
+        settings.setColSeparator(m_columnDelimiter);
+        settings.setQuoteBegin(m_quoteCharacter);
+        settings.setQuoteEnd(m_quoteCharacter);
+        settings.setQuoteMode(quoteMode.IF_NEEDED);
+        settings.setQuoteReplacement(m_escapeCharacter);
+        settings.setMissValuePattern(m_missingValuePattern);
+        settings.setWriteColumnHeader(m_hasHeader);
+        settings.setLineEndingMode(LineEnding.valueOf(m_lineEnding));
+        settings.setCharacterEncoding(m_encoding);
+        return settings;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.multi;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.apache.xmlbeans.XmlException;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ConfigurableNodeFactory;
+import org.knime.core.node.NodeDescription;
+import org.knime.core.node.NodeDialogPane;
+import org.knime.core.node.NodeView;
+import org.knime.core.node.context.NodeCreationConfiguration;
+import org.knime.core.node.port.PortType;
+import org.knime.core.webui.node.dialog.NodeDialog;
+import org.knime.core.webui.node.dialog.NodeDialogFactory;
+import org.knime.core.webui.node.dialog.NodeDialogManager;
+import org.knime.core.webui.node.dialog.SettingsType;
+import org.knime.core.webui.node.dialog.defaultdialog.DefaultNodeDialog;
+import org.knime.core.webui.node.impl.WebUINodeConfiguration;
+import org.knime.core.webui.node.impl.WebUINodeFactory;
+import org.knime.database.port.DBSessionPortObject;
+import org.xml.sax.SAXException;
+
+/**
+ * Node factory of the Snowflake Multi-Table Loader node.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public class SnowflakeMultiTableLoaderNodeFactory extends ConfigurableNodeFactory<SnowflakeMultiTableLoaderNodeModel>
+    implements NodeDialogFactory {
+
+    private static final String CONNECTION_PORT_NAME = "DB Connection";
+
+    private static final String TABLE_PORT_NAME = "Input tables";
+
+    static final WebUINodeConfiguration CONFIG = WebUINodeConfiguration.builder() //
+        .name("Snowflake Multi-Table Loader") //
+        .icon("snowflake_multi_table_loader.png") //
+        .shortDescription("Loads several KNIME tables at once into existing Snowflake tables.") //
+        .fullDescription("""
+                This node loads several KNIME tables into existing Snowflake tables using a single Snowflake
+                session and stage.
+                <p>
+                The input tables are written concurrently into compressed CSV files. All files are uploaded with a
+                single PUT command into a unique folder of the selected stage and are then loaded with concurrent
+                COPY commands into their target tables. Loading many small tables this way is much faster than
+                loading each of them with its own DB Loader node since the upload and the load of the tables
+                overlap.
+                </p><p>
+                The columns of each input table are loaded by position into the columns of its target table which
+                must already exist. The COPY commands are independent of each other: if the load of a table fails
+                the other tables are still loaded and the node fails with an error that lists all failed tables.
+                </p>
+                """) //
+        .modelSettingsClass(SnowflakeMultiTableLoaderNodeParameters.class) //
+        .addInputPort(CONNECTION_PORT_NAME, DBSessionPortObject.TYPE, "Snowflake DB Connection.") //
+        .addInputTable(TABLE_PORT_NAME, "The tables to load in the order of the configured target tables.") //
+        .addOutputPort(CONNECTION_PORT_NAME, DBSessionPortObject.TYPE, "Snowflake DB Connection.") //
+        .keywords("db", "database", "bulk", "upload") //
+        .build();
+
+    @Override
+    protected NodeDescription createNodeDescription() throws SAXException, IOException, XmlException {
+        return WebUINodeFactory.createNodeDescription(CONFIG);
+    }
+
+    @Override
+    protected Optional<PortsConfigurationBuilder> createPortsConfigBuilder() {
+        final var b = new PortsConfigurationBuilder();
+        b.addFixedInputPortGroup(CONNECTION_PORT_NAME, DBSessionPortObject.TYPE);
+        b.addExtendableInputPortGroup(TABLE_PORT_NAME, new PortType[]{BufferedDataTable.TYPE},
+            BufferedDataTable.TYPE);
+        b.addFixedOutputPortGroup(CONNECTION_PORT_NAME, DBSessionPortObject.TYPE);
+        return Optional.of(b);
+    }
+
+    @Override
+    protected NodeDialogPane createNodeDialogPane(final NodeCreationConfiguration creationConfig) {
+        return NodeDialogManager.createLegacyFlowVariableNodeDialog(createNodeDialog());
+    }
+
+    @Override
+    protected int getNrNodeViews() {
+        return 0;
+    }
+
+    @Override
+    public NodeView<SnowflakeMultiTableLoaderNodeModel> createNodeView(final int viewIndex,
+        final SnowflakeMultiTableLoaderNodeModel nodeModel) {
+        return null;
+    }
+
+    @Override
+    protected boolean hasDialog() {
+        return true;
+    }
+
+    @Override
+    public NodeDialog createNodeDialog() {
+        return new DefaultNodeDialog(SettingsType.MODEL, SnowflakeMultiTableLoaderNodeParameters.class);
+    }
+
+    @Override
+    protected SnowflakeMultiTableLoaderNodeModel createNodeModel(final NodeCreationConfiguration creationConfig) {
+        return new SnowflakeMultiTableLoaderNodeModel(creationConfig.getPortConfig().orElseThrow());
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.multi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.knime.base.node.io.csvwriter.FileWriterSettings;
+import org.knime.base.node.io.csvwriter.FileWriterSettings.quoteMode;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.context.ports.PortsConfiguration;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.streamable.DataTableRowInput;
+import org.knime.core.util.FileUtil;
+import org.knime.core.util.ThreadUtils;
+import org.knime.core.webui.node.impl.WebUINodeModel;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderFileFormat;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderSettings;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
+import org.knime.database.extension.snowflake.agent.SnowflakeMultiTableLoader;
+import org.knime.database.extension.snowflake.agent.SnowflakeTaskExecutor;
+import org.knime.database.extension.snowflake.node.io.load.multi.SnowflakeMultiTableLoaderNodeParameters.TargetTable;
+import org.knime.database.extension.snowflake.node.io.load.writer.SnowflakeCsvWriter;
+import org.knime.database.extension.snowflake.type.Snowflake;
+import org.knime.database.model.DBTable;
+import org.knime.database.model.impl.DefaultDBTable;
+import org.knime.database.port.DBSessionPortObject;
+import org.knime.database.port.DBSessionPortObjectSpec;
+import org.knime.database.session.DBSession;
+
+/**
+ * Node model of the Snowflake Multi-Table Loader node that writes several input tables concurrently into data files
+ * and loads them with the {@link SnowflakeMultiTableLoader} into their target tables.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SnowflakeMultiTableLoaderNodeModel extends WebUINodeModel<SnowflakeMultiTableLoaderNodeParameters> {
+
+    SnowflakeMultiTableLoaderNodeModel(final PortsConfiguration portsConfiguration) {
+        super(portsConfiguration.getInputPorts(), portsConfiguration.getOutputPorts(),
+            SnowflakeMultiTableLoaderNodeParameters.class);
+    }
+
+    @Override
+    protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs,
+        final SnowflakeMultiTableLoaderNodeParameters settings) throws InvalidSettingsException {
+        final DBSessionPortObjectSpec sessionSpec = (DBSessionPortObjectSpec)inSpecs[0];
+        if (!Snowflake.DB_TYPE.equals(sessionSpec.getDBSession().getDBType())) {
+            throw new InvalidSettingsException("The node only supports Snowflake connections.");
+        }
+        validate(settings, inSpecs.length - 1);
+        return new PortObjectSpec[]{sessionSpec};
+    }
+
+    static void validate(final SnowflakeMultiTableLoaderNodeParameters settings, final int tableCount)
+        throws InvalidSettingsException {
+        if (tableCount < 1) {
+            throw new InvalidSettingsException("Please add at least one input table.");
+        }
+        if (settings.m_tables.length != tableCount) {
+            throw new InvalidSettingsException(String.format(
+                "The number of target tables (%d) differs from the number of input tables (%d).",
+                settings.m_tables.length, tableCount));
+        }
+        for (int i = 0; i < settings.m_tables.length; i++) {
+            if (StringUtils.isBlank(settings.m_tables[i].m_table)) {
+                throw new InvalidSettingsException("Please enter the name of target table " + (i + 1) + ".");
+            }
+        }
+        if (settings.m_stageType == SnowflakeLoaderStageType.TABLE) {
+            throw new InvalidSettingsException("The table stage can not be shared by multiple tables.");
+        }
+        if (settings.m_stageType == SnowflakeLoaderStageType.INTERNAL && StringUtils.isBlank(settings.m_stageName)) {
+            throw new InvalidSettingsException("Please enter the name of the internal stage.");
+        }
+    }
+
+    @Override
+    protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec,
+        final SnowflakeMultiTableLoaderNodeParameters settings) throws Exception {
+        final DBSessionPortObject sessionPortObject = (DBSessionPortObject)inObjects[0];
+        validate(settings, inObjects.length - 1);
+        final DBSession session = sessionPortObject.getDBSession();
+        final FileWriterSettings fileWriterSettings = createFileWriterSettings();
+        final SnowflakeLoaderSettings loaderSettings =
+            new SnowflakeLoaderSettings(SnowflakeLoaderFileFormat.CSV, fileWriterSettings, settings.m_stageType,
+                settings.m_stageName, SnowflakeLoaderFileFormat.GZIP_COMPRESSION, 0, 0);
+        final File folder = FileUtil.createTempDir("knime_snowflake_multi_table_loader");
+        try {
+            final Map<String, DBTable> tableFiles = writeFiles(exec.createSubExecutionContext(0.4), inObjects,
+                settings, folder.toPath(), fileWriterSettings);
+            new SnowflakeMultiTableLoader(session).load(exec.createSubProgress(0.6), folder.toPath(), tableFiles,
+                loaderSettings, settings.m_parallelLoads);
+        } finally {
+            FileUtil.deleteRecursively(folder);
+        }
+        return new PortObject[]{sessionPortObject};
+    }
+
+    /**
+     * Creates the CSV settings of the data files which quote all strings to distinguish empty strings from missing
+     * values and double quotes within strings.
+     */
+    static FileWriterSettings createFileWriterSettings() {
+        final FileWriterSettings settings = new FileWriterSettings();
+        settings.setColSeparator(",");
+        settings.setQuoteBegin("\"");
+        settings.setQuoteEnd("\"");
+        settings.setQuoteMode(quoteMode.STRINGS);
+        settings.setQuoteReplacement("");
+        settings.setMissValuePattern("");
+        settings.setWriteColumnHeader(false);
+        settings.setLineEndingMode(FileWriterSettings.LineEnding.LF);
+        settings.setCharacterEncoding("UTF-8");
+        return settings;
+    }
+
+    private static Map<String, DBTable> writeFiles(final ExecutionContext exec, final PortObject[] inObjects,
+        final SnowflakeMultiTableLoaderNodeParameters settings, final Path folder,
+        final FileWriterSettings fileWriterSettings) throws CanceledExecutionException, IOException, SQLException {
+        final int tableCount = settings.m_tables.length;
+        final Map<String, DBTable> tableFiles = createTableFiles(settings.m_tables);
+        final List<String> fileNames = new ArrayList<>(tableFiles.keySet());
+        final List<Future<Void>> futures = new ArrayList<>(tableCount);
+        final ExecutorService executor = SnowflakeTaskExecutor.createExecutor("Multi-Table-Writer",
+            Math.max(1, Math.min(settings.m_parallelLoads, tableCount)));
+        try {
+            for (int i = 0; i < tableCount; i++) {
+                final BufferedDataTable table = (BufferedDataTable)inObjects[i + 1];
+                final ExecutionMonitor subExec = exec.createSubProgress(1d / tableCount);
+                final Path file = folder.resolve(fileNames.get(i));
+                futures.add(executor.submit(ThreadUtils.callableWithContext(() -> {
+                    try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(file))) {
+                        SnowflakeCsvWriter.write(new DataTableRowInput(table), fileWriterSettings, os, subExec);
+                    }
+                    return null;
+                })));
+            }
+            for (final Future<Void> future : futures) {
+                SnowflakeTaskExecutor.awaitResult(exec, future, "Writing of the data files has been interrupted.");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return tableFiles;
+    }
+
+    /**
+     * Returns the target table of each data file in the order of the input tables. Every input table is written into
+     * its own data file, even if several input tables are loaded into the same target table.
+     */
+    static Map<String, DBTable> createTableFiles(final TargetTable[] tables) {
+        final Map<String, DBTable> tableFiles = new LinkedHashMap<>();
+        for (int i = 0; i < tables.length; i++) {
+            tableFiles.put("table_" + i + ".csv.gz",
+                new DefaultDBTable(tables[i].m_table, StringUtils.trimToNull(tables[i].m_schema)));
+        }
+        return tableFiles;
+    }
+}
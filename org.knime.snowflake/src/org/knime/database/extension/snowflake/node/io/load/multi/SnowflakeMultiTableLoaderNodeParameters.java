@@ -0,0 +1,122 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.multi;
+
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
+import org.knime.node.parameters.NodeParameters;
+import org.knime.node.parameters.Widget;
+import org.knime.node.parameters.array.ArrayWidget;
+import org.knime.node.parameters.updates.Effect;
+import org.knime.node.parameters.updates.Effect.EffectType;
+import org.knime.node.parameters.updates.EffectPredicate;
+import org.knime.node.parameters.updates.EffectPredicateProvider;
+import org.knime.node.parameters.updates.ParameterReference;
+import org.knime.node.parameters.updates.ValueReference;
+import org.knime.node.parameters.widget.number.NumberInputWidget;
+import org.knime.node.parameters.widget.number.NumberInputWidgetValidation.MinValidation.IsPositiveIntegerValidation;
+import org.knime.node.parameters.widget.text.TextInputWidget;
+import org.knime.node.parameters.widget.text.TextInputWidgetValidation.PatternValidation.IsNotBlankValidation;
+
+/**
+ * Web UI parameters for the Snowflake Multi-Table Loader node.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SnowflakeMultiTableLoaderNodeParameters implements NodeParameters {
+
+    static final class TargetTable implements NodeParameters {
+
+        @Widget(title = "Schema", description = "The schema of the target table or empty to use the default schema.")
+        String m_schema = "";
+
+        @Widget(title = "Table", description = "The name of the existing target table.")
+        @TextInputWidget(patternValidation = IsNotBlankValidation.class)
+        String m_table = "";
+
+        TargetTable() {
+        }
+
+        TargetTable(final String schema, final String table) {
+            m_schema = schema;
+            m_table = table;
+        }
+    }
+
+    @Widget(title = "Target tables", description = """
+            The existing target table of each input table in the order of the input ports. The columns of an input
+            table are loaded by position into the columns of its target table.
+            """)
+    @ArrayWidget(elementTitle = "Target table", addButtonText = "Add target table")
+    TargetTable[] m_tables = new TargetTable[0];
+
+    @Widget(title = "Stage Type", description = """
+            The type of Snowflake stage to use for staging the data files of all tables. The table stage is not
+            supported since all files are uploaded into a common folder.
+            """)
+    @ValueReference(StageTypeRef.class)
+    SnowflakeLoaderStageType m_stageType = SnowflakeLoaderStageType.USER;
+
+    static final class StageTypeRef implements ParameterReference<SnowflakeLoaderStageType> {
+    }
+
+    static final class StageTypeIsInternal implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getEnum(StageTypeRef.class).isOneOf(SnowflakeLoaderStageType.INTERNAL);
+        }
+    }
+
+    @Widget(title = "Internal stage name", description = "The name of the internal Snowflake stage.")
+    @Effect(predicate = StageTypeIsInternal.class, type = EffectType.SHOW)
+    String m_stageName = "";
+
+    @Widget(title = "Parallel loads", description = """
+            The maximum number of input tables that are written and loaded concurrently. The value is also used
+            as the number of threads that upload the data files.
+            """)
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    int m_parallelLoads = 4;
+}
@@ -44,10 +44,22 @@
  */
 package org.knime.database.extension.snowflake.node.io.load.writer;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
 import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
 import org.knime.core.node.defaultnodesettings.SettingsModelLong;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderFileFormat;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderMode;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderSettings;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
 import org.knime.database.extension.snowflake.node.io.load.SnowflakeLoaderNodeSettings;
+import org.knime.database.model.DBColumn;
 import org.knime.database.node.component.dbrowser.SettingsModelDBMetadata;
 import org.knime.database.node.component.format.file.SettingsModelCsvFileFormat;
 import org.knime.database.node.io.load.impl.fs.ConnectedCsvLoaderNodeSettings2;
@@ -61,6 +73,13 @@ public class ConnectedSnowflakeLoaderNodeSettings extends UnconnectedCsvLoaderNo
 
     private SnowflakeLoaderNodeSettings m_s;
 
+    private final Map<String, DBColumn> m_columnMapping;
+
+    private final Map<String, String> m_transformations;
+
+    private final List<DBColumn> m_keyColumns;
+
+    private final List<DBColumn> m_deduplicationColumns;
 
     /**
      * Constructor.
@@ -68,8 +87,59 @@ public class ConnectedSnowflakeLoaderNodeSettings extends UnconnectedCsvLoaderNo
      * @param s {@link SnowflakeLoaderNodeSettings} to use
      */
     public ConnectedSnowflakeLoaderNodeSettings(final SnowflakeLoaderNodeSettings s) {
+        this(s, Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param s {@link SnowflakeLoaderNodeSettings} to use
+     * @param columnMapping the target table column of each input column in input column order or an empty map if the
+     *            input columns are loaded by position into all table columns
+     * @param transformations the SQL expression per table column name that is evaluated during the load
+     */
+    public ConnectedSnowflakeLoaderNodeSettings(final SnowflakeLoaderNodeSettings s,
+        final Map<String, DBColumn> columnMapping, final Map<String, String> transformations) {
+        this(s, columnMapping, transformations, Collections.emptyList());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param s {@link SnowflakeLoaderNodeSettings} to use
+     * @param columnMapping the target table column of each input column in input column order or an empty map if the
+     *            input columns are loaded by position into all table columns
+     * @param transformations the SQL expression per table column name that is evaluated during the load
+     * @param keyColumns the table columns that identify a row in the delta merge mode or a partition in the
+     *            partition overwrite mode
+     */
+    public ConnectedSnowflakeLoaderNodeSettings(final SnowflakeLoaderNodeSettings s,
+        final Map<String, DBColumn> columnMapping, final Map<String, String> transformations,
+        final List<DBColumn> keyColumns) {
+        this(s, columnMapping, transformations, keyColumns, Collections.emptyList());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param s {@link SnowflakeLoaderNodeSettings} to use
+     * @param columnMapping the target table column of each input column in input column order or an empty map if the
+     *            input columns are loaded by position into all table columns
+     * @param transformations the SQL expression per table column name that is evaluated during the load
+     * @param keyColumns the table columns that identify a row in the delta merge mode or a partition in the
+     *            partition overwrite mode
+     * @param deduplicationColumns the table columns whose values must be unique within the input or an empty list if
+     *            duplicates are loaded
+     */
+    public ConnectedSnowflakeLoaderNodeSettings(final SnowflakeLoaderNodeSettings s,
+        final Map<String, DBColumn> columnMapping, final Map<String, String> transformations,
+        final List<DBColumn> keyColumns, final List<DBColumn> deduplicationColumns) {
         super(s.getModelDelegate());
         m_s = s;
+        m_columnMapping = Collections.unmodifiableMap(new LinkedHashMap<>(columnMapping));
+        m_transformations = Collections.unmodifiableMap(new LinkedHashMap<>(transformations));
+        m_keyColumns = List.copyOf(keyColumns);
+        m_deduplicationColumns = List.copyOf(deduplicationColumns);
     }
 
     @Override
@@ -135,4 +205,146 @@ public SettingsModelInteger getChunkSizeModel() {
     public SettingsModelLong getFileSizeModel() {
         return m_s.getFileSizeModel();
     }
+
+    /**
+     * Returns the parallel writers model.
+     *
+     * @return the number of parallel writers
+     */
+    public SettingsModelInteger getParallelWritersModel() {
+        return m_s.getParallelWritersModel();
+    }
+
+    /**
+     * Returns the load by column name model.
+     *
+     * @return {@code true} if the input columns should be matched by name with a subset of the table columns
+     */
+    public SettingsModelBoolean getLoadByColumnNameModel() {
+        return m_s.getLoadByColumnNameModel();
+    }
+
+    /**
+     * Returns the target table column of each input column.
+     *
+     * @return the target table column per input column name in input column order or an empty map if the input
+     *         columns are loaded by position into all table columns
+     */
+    public Map<String, DBColumn> getColumnMapping() {
+        return m_columnMapping;
+    }
+
+    /**
+     * Returns the COPY transformations model.
+     *
+     * @return the SQL expressions with one {@code column = expression} definition per line
+     */
+    public SettingsModelString getCopyTransformationsModel() {
+        return m_s.getCopyTransformationsModel();
+    }
+
+    /**
+     * Returns the validation sample size model.
+     *
+     * @return the number of rows that are validated prior the load or 0 if no validation should be performed
+     */
+    public SettingsModelInteger getValidationSampleSizeModel() {
+        return m_s.getValidationSampleSizeModel();
+    }
+
+    /**
+     * Returns the load mode model.
+     *
+     * @return the name of the selected {@link SnowflakeLoaderMode}
+     */
+    public SettingsModelString getLoadModeModel() {
+        return m_s.getLoadModeModel();
+    }
+
+    /**
+     * Returns the selected load mode.
+     *
+     * @return the {@link SnowflakeLoaderMode}
+     */
+    public SnowflakeLoaderMode getLoadMode() {
+        return SnowflakeLoaderMode.optionalValueOf(getLoadModeModel().getStringValue())
+            .orElse(SnowflakeLoaderMode.getDefault());
+    }
+
+    /**
+     * Returns the key columns model.
+     *
+     * @return the comma separated names of the table columns that identify a row
+     */
+    public SettingsModelString getKeyColumnsModel() {
+        return m_s.getKeyColumnsModel();
+    }
+
+    /**
+     * Returns the partition columns model.
+     *
+     * @return the comma separated names of the table columns that identify a partition
+     */
+    public SettingsModelString getPartitionColumnsModel() {
+        return m_s.getPartitionColumnsModel();
+    }
+
+    /**
+     * Returns the deduplication columns model.
+     *
+     * @return the comma separated names of the table columns whose values must be unique within the input
+     */
+    public SettingsModelString getDeduplicationColumnsModel() {
+        return m_s.getDeduplicationColumnsModel();
+    }
+
+    /**
+     * Returns the resolved key columns of the load mode.
+     *
+     * @return the table columns that identify a row in the delta merge mode or a partition in the partition
+     *         overwrite mode or an empty list if the load mode does not require keys
+     */
+    public List<DBColumn> getKeyColumns() {
+        return m_keyColumns;
+    }
+
+    /**
+     * Returns the resolved deduplication columns.
+     *
+     * @return the table columns whose values must be unique within the input or an empty list if duplicates are
+     *         loaded
+     */
+    public List<DBColumn> getDeduplicationColumns() {
+        return m_deduplicationColumns;
+    }
+
+    /**
+     * Returns the resolved COPY transformations.
+     *
+     * @return the SQL expression per table column name that is evaluated during the load
+     */
+    public Map<String, String> getTransformations() {
+        return m_transformations;
+    }
+
+    /**
+     * Creates the {@link SnowflakeLoaderSettings} that are passed to the loader.
+     *
+     * @return the {@link SnowflakeLoaderSettings}
+     */
+    @SuppressWarnings("deprecation")
+    SnowflakeLoaderSettings createLoaderSettings() {
+        final SnowflakeLoaderFileFormat fileFormat =
+            SnowflakeLoaderFileFormat.optionalValueOf(getFileFormatSelectionModel().getStringValue())
+                .orElseThrow(() -> new IllegalStateException("No file format is selected."));
+        final SnowflakeLoaderStageType stageType =
+            SnowflakeLoaderStageType.optionalValueOf(getStageTypeSelectionModel().getStringValue())
+                .orElseThrow(() -> new IllegalStateException("No stage type is selected."));
+        final List<String> columnNames = new ArrayList<>(m_columnMapping.size());
+        m_columnMapping.values().forEach(c -> columnNames.add(c.getName()));
+        return new SnowflakeLoaderSettings(fileFormat, getFileFormatModel().getFileWriterSettings(), stageType,
+            getStageNameModel().getStringValue(), getCompressionModel().getStringValue(),
+            getChunkSizeModel().getIntValue(), getFileSizeModel().getLongValue(), columnNames,
+            new ArrayList<>(m_columnMapping.keySet()), m_transformations);
+    }
 }
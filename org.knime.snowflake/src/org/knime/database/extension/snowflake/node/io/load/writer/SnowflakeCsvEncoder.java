@@ -0,0 +1,627 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.writer;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Optional;
+
+import org.apache.commons.lang3.StringUtils;
+import org.knime.base.node.io.csvwriter.FileWriterSettings;
+import org.knime.core.data.BooleanValue;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.time.localdate.LocalDateCellFactory;
+import org.knime.core.data.time.localdate.LocalDateValue;
+import org.knime.core.data.time.localdatetime.LocalDateTimeCellFactory;
+import org.knime.core.data.time.localdatetime.LocalDateTimeValue;
+import org.knime.core.data.time.localtime.LocalTimeCellFactory;
+import org.knime.core.data.time.localtime.LocalTimeValue;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.streamable.RowInput;
+
+/**
+ * Snowflake specific CSV encoder that writes the rows of a {@link RowInput} directly into a reusable byte buffer.
+ * <p>
+ * The formatter of each column is selected once based on the {@link DataTableSpec}. Numbers, booleans and dates are
+ * written without creating intermediate {@link String} objects. The output of these formatters consists only of a
+ * known set of characters. If none of them is a special character of the format (e.g. the column separator) the
+ * values are written without scanning them for characters that require quoting. All other columns are written based
+ * on their string representation which is scanned and quoted if necessary.
+ * </p>
+ * <p>
+ * The produced files match the file format options that {@code SnowflakeLoaderFileFormat#getCopyParameter} passes
+ * to the {@code COPY INTO} command e.g. quotes within enclosed fields are either prefixed with the escape character
+ * or doubled if no escape character is defined.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SnowflakeCsvEncoder {
+
+    /**
+     * The quote modes supported by the encoder.
+     */
+    enum QuoteMode {
+            /** All values are enclosed in quotes. */
+            ALWAYS,
+            /** All non numerical values are enclosed in quotes. */
+            STRINGS,
+            /** Only values that contain special characters are enclosed in quotes. */
+            IF_NEEDED;
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+    private static final int MESSAGE_INTERVAL = 100_000;
+
+    private static final byte[] TRUE = "true".getBytes(US_ASCII);
+
+    private static final byte[] FALSE = "false".getBytes(US_ASCII);
+
+    private static final byte[] NAN = "NaN".getBytes(US_ASCII);
+
+    //the same representation of infinity as written by the generic CSV writer
+    private static final byte[] POSITIVE_INFINITY = Double.toString(Double.POSITIVE_INFINITY).getBytes(US_ASCII);
+
+    private static final byte[] NEGATIVE_INFINITY = Double.toString(Double.NEGATIVE_INFINITY).getBytes(US_ASCII);
+
+    private static final byte[] LONG_MIN_VALUE = Long.toString(Long.MIN_VALUE).getBytes(US_ASCII);
+
+    private static final String INTEGER_CHARACTERS = "-0123456789";
+
+    private static final String DOUBLE_CHARACTERS = "-0123456789.EInfinityNa";
+
+    private static final String BOOLEAN_CHARACTERS = "truefals";
+
+    private static final String DATE_CHARACTERS = "-0123456789";
+
+    private static final String TIME_CHARACTERS = "0123456789:.";
+
+    private static final String DATE_TIME_CHARACTERS = "-0123456789:.T";
+
+    /** Characters that always require quoting e.g. the default escape character for not enclosed fields. */
+    private static final String DEFAULT_SPECIAL_CHARACTERS = "\r\n\\";
+
+    /**
+     * Creates an encoder for the given file writer settings if they are supported by the encoder.
+     *
+     * @param spec the {@link DataTableSpec} of the rows to write
+     * @param settings the {@link FileWriterSettings} to use
+     * @param out the {@link OutputStream} to write to
+     * @return {@linkplain Optional optionally} the encoder or {@linkplain Optional#empty() empty} if the settings
+     *         contain options that are not supported by the encoder e.g. a decimal separator other than dot
+     */
+    static Optional<SnowflakeCsvEncoder> create(final DataTableSpec spec, final FileWriterSettings settings,
+        final OutputStream out) {
+        final QuoteMode quoteMode;
+        switch (settings.getQuoteMode()) {
+            case ALWAYS:
+                quoteMode = QuoteMode.ALWAYS;
+                break;
+            case STRINGS:
+                quoteMode = QuoteMode.STRINGS;
+                break;
+            case IF_NEEDED:
+                quoteMode = QuoteMode.IF_NEEDED;
+                break;
+            default:
+                return Optional.empty();
+        }
+        final String quoteBegin = settings.getQuoteBegin();
+        final String escape = settings.getQuoteReplacement();
+        if (StringUtils.isEmpty(settings.getColSeparator()) || quoteBegin == null || quoteBegin.length() != 1
+            || !quoteBegin.equals(settings.getQuoteEnd()) || (escape != null && escape.length() > 1)
+            || settings.getDecimalSeparator() != '.' || settings.replaceSeparatorInStrings()) {
+            return Optional.empty();
+        }
+        final Charset charset;
+        try {
+            charset = Charset.forName(settings.getCharacterEncoding());
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return Optional.empty();
+        }
+        if (!UTF_8.equals(charset) && !ISO_8859_1.equals(charset)) {
+            return Optional.empty();
+        }
+        final String lineSeparator = settings.getLineEndingMode() == FileWriterSettings.LineEnding.SYST
+            ? System.lineSeparator() : settings.getLineEndingMode().getEndString();
+        return Optional.of(new SnowflakeCsvEncoder(spec, out, settings.getColSeparator(), quoteBegin.charAt(0),
+            StringUtils.isEmpty(escape) ? null : escape.charAt(0), quoteMode,
+            StringUtils.defaultString(settings.getMissValuePattern()), lineSeparator, charset,
+            settings.writeColumnHeader()));
+    }
+
+    private final OutputStream m_out;
+
+    private final DataTableSpec m_spec;
+
+    private final CellFormatter[] m_formatters;
+
+    private final boolean[] m_alwaysQuote;
+
+    private final byte[] m_separator;
+
+    private final byte[] m_missingValue;
+
+    private final String m_missingValuePattern;
+
+    private final byte[] m_lineSeparator;
+
+    private final char m_quote;
+
+    private final int m_escape;
+
+    private final boolean m_utf8;
+
+    private final boolean m_writeHeader;
+
+    private final String m_specialCharacters;
+
+    private final boolean[] m_asciiSpecial = new boolean[128];
+
+    private final boolean m_nonAsciiSpecial;
+
+    private final StringBuilder m_scratch = new StringBuilder(32);
+
+    private byte[] m_buffer = new byte[BUFFER_SIZE];
+
+    private int m_position;
+
+    /**
+     * Constructor.
+     *
+     * @param spec the {@link DataTableSpec} of the rows to write
+     * @param out the {@link OutputStream} to write to
+     * @param separator the column separator
+     * @param quote the quote character
+     * @param escape the optional escape character for quotes within enclosed fields or {@code null} if quotes should
+     *            be doubled
+     * @param quoteMode the {@link QuoteMode}
+     * @param missingValuePattern the pattern to write for missing values
+     * @param lineSeparator the line separator
+     * @param charset the {@link Charset} which must be either UTF-8 or ISO-8859-1
+     * @param writeHeader {@code true} if the column names should be written as first line
+     */
+    SnowflakeCsvEncoder(final DataTableSpec spec, final OutputStream out, final String separator, final char quote,
+        final Character escape, final QuoteMode quoteMode, final String missingValuePattern,
+        final String lineSeparator, final Charset charset, final boolean writeHeader) {
+        if (!UTF_8.equals(charset) && !ISO_8859_1.equals(charset)) {
+            throw new IllegalArgumentException("Unsupported character set: " + charset);
+        }
+        m_spec = spec;
+        m_out = out;
+        m_quote = quote;
+        m_escape = escape == null ? -1 : escape.charValue();
+        m_utf8 = UTF_8.equals(charset);
+        m_separator = separator.getBytes(charset);
+        m_missingValuePattern = missingValuePattern;
+        m_missingValue = missingValuePattern.getBytes(charset);
+        m_lineSeparator = lineSeparator.getBytes(charset);
+        m_writeHeader = writeHeader;
+        m_specialCharacters = DEFAULT_SPECIAL_CHARACTERS + separator + quote + (escape == null ? "" : escape);
+        boolean nonAsciiSpecial = false;
+        for (int i = 0; i < m_specialCharacters.length(); i++) {
+            final char c = m_specialCharacters.charAt(i);
+            if (c < m_asciiSpecial.length) {
+                m_asciiSpecial[c] = true;
+            } else {
+                nonAsciiSpecial = true;
+            }
+        }
+        m_nonAsciiSpecial = nonAsciiSpecial;
+        final int columnCount = spec.getNumColumns();
+        m_formatters = new CellFormatter[columnCount];
+        m_alwaysQuote = new boolean[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            final DataType type = spec.getColumnSpec(i).getType();
+            m_alwaysQuote[i] = quoteMode == QuoteMode.ALWAYS
+                || (quoteMode == QuoteMode.STRINGS && !type.isCompatible(DoubleValue.class));
+            m_formatters[i] = createFormatter(type, m_alwaysQuote[i]);
+        }
+    }
+
+    /**
+     * Selects the formatter for the given column type. The specialized formatters are only used if none of the
+     * characters they might produce is a special character of the format. Otherwise the string representation of
+     * the cell is written and scanned for special characters.
+     */
+    private CellFormatter createFormatter(final DataType type, final boolean alwaysQuote) {
+        if (IntCell.TYPE.equals(type) && isSafe(INTEGER_CHARACTERS)) {
+            return quoted(cell -> putLong(((IntValue)cell).getIntValue()), alwaysQuote);
+        }
+        if (LongCell.TYPE.equals(type) && isSafe(INTEGER_CHARACTERS)) {
+            return quoted(cell -> putLong(((LongValue)cell).getLongValue()), alwaysQuote);
+        }
+        if (DoubleCell.TYPE.equals(type) && isSafe(DOUBLE_CHARACTERS)) {
+            return quoted(cell -> putDouble(((DoubleValue)cell).getDoubleValue()), alwaysQuote);
+        }
+        if (BooleanCell.TYPE.equals(type) && isSafe(BOOLEAN_CHARACTERS)) {
+            return quoted(cell -> put(((BooleanValue)cell).getBooleanValue() ? TRUE : FALSE), alwaysQuote);
+        }
+        if (LocalDateCellFactory.TYPE.equals(type) && isSafe(DATE_CHARACTERS)) {
+            return quoted(cell -> putDate(((LocalDateValue)cell).getLocalDate(), cell), alwaysQuote);
+        }
+        if (LocalTimeCellFactory.TYPE.equals(type) && isSafe(TIME_CHARACTERS)) {
+            return quoted(cell -> putTime(((LocalTimeValue)cell).getLocalTime()), alwaysQuote);
+        }
+        if (LocalDateTimeCellFactory.TYPE.equals(type) && isSafe(DATE_TIME_CHARACTERS)) {
+            return quoted(cell -> putDateTime(((LocalDateTimeValue)cell).getLocalDateTime(), cell), alwaysQuote);
+        }
+        if (StringCell.TYPE.equals(type)) {
+            return cell -> putString(((StringValue)cell).getStringValue(), alwaysQuote);
+        }
+        return cell -> putString(cell.toString(), alwaysQuote);
+    }
+
+    private CellFormatter quoted(final CellFormatter formatter, final boolean alwaysQuote) {
+        if (!alwaysQuote) {
+            return formatter;
+        }
+        return cell -> {
+            putByte(m_quote);
+            formatter.format(cell);
+            putByte(m_quote);
+        };
+    }
+
+    /**
+     * Checks if the given characters can be written without scanning. This is the case if none of them is a special
+     * character and if the missing value pattern can not be produced by them.
+     */
+    private boolean isSafe(final String characters) {
+        if (StringUtils.containsAny(characters, m_specialCharacters)) {
+            return false;
+        }
+        return m_missingValuePattern.isEmpty() || !StringUtils.containsOnly(m_missingValuePattern, characters);
+    }
+
+    /**
+     * Writes all rows of the given {@link RowInput}. The {@link OutputStream} is flushed but not closed.
+     *
+     * @param input the {@link RowInput} to read the rows from
+     * @param exec the {@link ExecutionMonitor} to check for cancellation
+     * @return the number of written rows
+     * @throws IOException if the rows could not be written
+     * @throws CanceledExecutionException if the execution was canceled
+     * @throws InterruptedException if the thread was interrupted while reading the input
+     */
+    long write(final RowInput input, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException, InterruptedException {
+        if (m_writeHeader) {
+            writeHeader();
+        }
+        long rowCount = 0;
+        DataRow row;
+        while ((row = input.poll()) != null) {
+            writeRow(row);
+            rowCount++;
+            if (rowCount % CANCEL_CHECK_INTERVAL == 0) {
+                exec.checkCanceled();
+                if (rowCount % MESSAGE_INTERVAL == 0) {
+                    exec.setMessage("Writing row " + rowCount);
+                }
+            }
+        }
+        flush();
+        return rowCount;
+    }
+
+    /**
+     * Writes the column names as header line.
+     *
+     * @throws IOException if the header could not be written
+     */
+    void writeHeader() throws IOException {
+        for (int i = 0; i < m_formatters.length; i++) {
+            if (i > 0) {
+                put(m_separator);
+            }
+            putString(m_spec.getColumnSpec(i).getName(), m_alwaysQuote[i]);
+        }
+        put(m_lineSeparator);
+    }
+
+    /**
+     * Writes a single row into the buffer. The buffer is written to the {@link OutputStream} whenever it is full.
+     *
+     * @param row the {@link DataRow} to write
+     * @throws IOException if the buffer could not be written
+     */
+    void writeRow(final DataRow row) throws IOException {
+        for (int i = 0; i < m_formatters.length; i++) {
+            if (i > 0) {
+                put(m_separator);
+            }
+            final DataCell cell = row.getCell(i);
+            if (cell.isMissing()) {
+                put(m_missingValue);
+            } else {
+                m_formatters[i].format(cell);
+            }
+        }
+        put(m_lineSeparator);
+        if (m_position >= BUFFER_SIZE) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Writes the buffered bytes and flushes the {@link OutputStream}.
+     *
+     * @throws IOException if the bytes could not be written
+     */
+    void flush() throws IOException {
+        flushBuffer();
+        m_out.flush();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (m_position > 0) {
+            m_out.write(m_buffer, 0, m_position);
+            m_position = 0;
+        }
+    }
+
+    private void ensureCapacity(final int length) {
+        final int required = m_position + length;
+        if (required > m_buffer.length) {
+            final byte[] buffer = new byte[Math.max(required, m_buffer.length * 2)];
+            System.arraycopy(m_buffer, 0, buffer, 0, m_position);
+            m_buffer = buffer;
+        }
+    }
+
+    private void put(final byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, m_buffer, m_position, bytes.length);
+        m_position += bytes.length;
+    }
+
+    /** Writes a character which is guaranteed to be within the ASCII range or the ISO-8859-1 range for Latin-1. */
+    private void putByte(final char c) {
+        ensureCapacity(1);
+        m_buffer[m_position++] = (byte)c;
+    }
+
+    private void putLong(final long value) {
+        if (value == Long.MIN_VALUE) {
+            put(LONG_MIN_VALUE);
+            return;
+        }
+        ensureCapacity(20);
+        long v = value;
+        if (v < 0) {
+            m_buffer[m_position++] = '-';
+            v = -v;
+        }
+        int digits = 1;
+        for (long limit = 10; digits < 19 && v >= limit; limit *= 10) {
+            digits++;
+        }
+        int p = m_position + digits;
+        do {
+            m_buffer[--p] = (byte)('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        m_position += digits;
+    }
+
+    private void putDouble(final double value) {
+        if (Double.isNaN(value)) {
+            put(NAN);
+        } else if (Double.isInfinite(value)) {
+            put(value > 0 ? POSITIVE_INFINITY : NEGATIVE_INFINITY);
+        } else {
+            //appending a double to a StringBuilder does not create an intermediate String
+            m_scratch.setLength(0);
+            m_scratch.append(value);
+            final int length = m_scratch.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                m_buffer[m_position++] = (byte)m_scratch.charAt(i);
+            }
+        }
+    }
+
+    private void putDigits(final int value, final int digits) {
+        ensureCapacity(digits);
+        int v = value;
+        for (int p = m_position + digits - 1; p >= m_position; p--) {
+            m_buffer[p] = (byte)('0' + (v % 10));
+            v /= 10;
+        }
+        m_position += digits;
+    }
+
+    private void putDate(final LocalDate date, final DataCell cell) {
+        final int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            //the ISO format adds a sign and additional digits which we leave to the default implementation
+            putString(cell.toString(), false);
+            return;
+        }
+        putDigits(year, 4);
+        putByte('-');
+        putDigits(date.getMonthValue(), 2);
+        putByte('-');
+        putDigits(date.getDayOfMonth(), 2);
+    }
+
+    private void putTime(final LocalTime time) {
+        putDigits(time.getHour(), 2);
+        putByte(':');
+        putDigits(time.getMinute(), 2);
+        putByte(':');
+        putDigits(time.getSecond(), 2);
+        final int nano = time.getNano();
+        if (nano != 0) {
+            putByte('.');
+            //same precision as the ISO format
+            if (nano % 1_000_000 == 0) {
+                putDigits(nano / 1_000_000, 3);
+            } else if (nano % 1000 == 0) {
+                putDigits(nano / 1000, 6);
+            } else {
+                putDigits(nano, 9);
+            }
+        }
+    }
+
+    private void putDateTime(final LocalDateTime dateTime, final DataCell cell) {
+        final int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            putString(cell.toString(), false);
+            return;
+        }
+        putDate(dateTime.toLocalDate(), cell);
+        putByte('T');
+        putTime(dateTime.toLocalTime());
+    }
+
+    private boolean isSpecial(final char c) {
+        if (c < m_asciiSpecial.length) {
+            return m_asciiSpecial[c];
+        }
+        return m_nonAsciiSpecial && m_specialCharacters.indexOf(c) >= 0;
+    }
+
+    private boolean needsQuotes(final String value) {
+        if (value.isEmpty() || value.equals(m_missingValuePattern)) {
+            //quoting is necessary to distinguish empty strings and missing values
+            return true;
+        }
+        for (int i = 0, length = value.length(); i < length; i++) {
+            if (isSpecial(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void putString(final String value, final boolean alwaysQuote) {
+        if (!alwaysQuote && !needsQuotes(value)) {
+            putChars(value, false);
+            return;
+        }
+        putByte(m_quote);
+        putChars(value, true);
+        putByte(m_quote);
+    }
+
+    private void putChars(final String value, final boolean escape) {
+        final int length = value.length();
+        //worst case: every character is escaped and encoded with three bytes
+        ensureCapacity(length * 6);
+        final byte[] buffer = m_buffer;
+        int p = m_position;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (escape && (c == m_quote || c == m_escape)) {
+                buffer[p++] = (byte)(m_escape < 0 ? m_quote : m_escape);
+            }
+            if (c < 0x80) {
+                buffer[p++] = (byte)c;
+            } else if (!m_utf8) {
+                if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    //surrogate pairs are replaced by a single character the same way as by the String encoder
+                    i++;
+                }
+                buffer[p++] = (byte)(c <= 0xFF ? c : '?');
+            } else if (c < 0x800) {
+                buffer[p++] = (byte)(0xC0 | (c >> 6));
+                buffer[p++] = (byte)(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[p++] = (byte)(0xF0 | (codePoint >> 18));
+                buffer[p++] = (byte)(0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[p++] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[p++] = (byte)(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                //unpaired surrogates are replaced the same way as by the String encoder
+                buffer[p++] = '?';
+            } else {
+                buffer[p++] = (byte)(0xE0 | (c >> 12));
+                buffer[p++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+                buffer[p++] = (byte)(0x80 | (c & 0x3F));
+            }
+        }
+        m_position = p;
+    }
+
+    /**
+     * Writes a single non missing cell into the buffer.
+     */
+    @FunctionalInterface
+    private interface CellFormatter {
+        void format(DataCell cell);
+    }
+}
@@ -48,14 +48,15 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Optional;
 import java.util.zip.GZIPOutputStream;
 
 import org.knime.base.node.io.csvwriter.FileWriterSettings;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.streamable.RowInput;
 import org.knime.database.extension.snowflake.agent.SnowflakeLoaderFileFormat;
 import org.knime.database.extension.snowflake.agent.SnowflakeLoaderSettings;
-import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
 import org.knime.database.node.io.load.ExecutionParameters;
 import org.knime.database.node.io.load.impl.fs.DBFileLoadUtil;
 import org.knime.database.node.io.load.impl.fs.DBFileLoadUtil.DBFileLoader;
@@ -63,7 +64,9 @@
 import org.knime.filehandling.core.connections.FSPath;
 
 /**
- * {@link DBFileLoader} implementation that writes out a csv file.
+ * {@link DBFileLoader} implementation that writes out a csv file. The file is written with the
+ * {@link SnowflakeCsvEncoder} if it supports the selected file format settings and with the generic CSV writer
+ * otherwise.
  *
  * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
  */
@@ -75,15 +78,7 @@
 
     @Override
     public SnowflakeLoaderSettings getLoadParameter(final ConnectedSnowflakeLoaderNodeSettings cs) {
-        final SnowflakeLoaderFileFormat fileFormat =
-            SnowflakeLoaderFileFormat.optionalValueOf(cs.getFileFormatSelectionModel().getStringValue())
-                .orElseThrow(() -> new IllegalStateException("No file format is selected."));
-        final SnowflakeLoaderStageType stageType =
-            SnowflakeLoaderStageType.optionalValueOf(cs.getStageTypeSelectionModel().getStringValue())
-                .orElseThrow(() -> new IllegalStateException("No stage type is selected."));
-        return new SnowflakeLoaderSettings(fileFormat, cs.getFileFormatModel().getFileWriterSettings(), stageType,
-            cs.getStageNameModel().getStringValue(), cs.getCompressionModel().getStringValue(),
-            cs.getChunkSizeModel().getIntValue(), cs.getFileSizeModel().getLongValue());
+        return cs.createLoaderSettings();
     }
 
     @Override
@@ -105,8 +100,35 @@ protected FSPath writeData(final ExecutionMonitor exec,
         final FSPath tempFile = createTempFile(rootFolder, fileExtension);
         try (OutputStream outputStream = DBFileLoadUtil.createOutputStream(tempFile);
                 OutputStream os = useGzip ? new GZIPOutputStream(outputStream) : outputStream) {
-            writeCsv(parameters.getRowInput(), os, fileWriterSettings, exec);
+            write(parameters.getRowInput(), fileWriterSettings, os, exec);
         }
         return tempFile;
     }
+
+    /**
+     * Writes all rows of the given input as CSV into the given stream. The rows are written with the
+     * {@link SnowflakeCsvEncoder} if it supports the file writer settings and with the generic CSV writer otherwise.
+     *
+     * @param rowInput the {@link RowInput} to write
+     * @param fileWriterSettings the {@link FileWriterSettings} that define the CSV format
+     * @param os the {@link OutputStream} to write to which is not closed
+     * @param exec the {@link ExecutionMonitor} to report the progress to
+     * @throws IOException if the rows could not be written
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    public static void write(final RowInput rowInput, final FileWriterSettings fileWriterSettings,
+        final OutputStream os, final ExecutionMonitor exec) throws IOException, CanceledExecutionException {
+        try {
+            final Optional<SnowflakeCsvEncoder> encoder =
+                SnowflakeCsvEncoder.create(rowInput.getDataTableSpec(), fileWriterSettings, os);
+            if (encoder.isPresent()) {
+                encoder.get().write(rowInput, exec);
+            } else {
+                writeCsv(rowInput, os, fileWriterSettings, exec);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CanceledExecutionException("Writing of the CSV file has been interrupted.");
+        }
+    }
 }
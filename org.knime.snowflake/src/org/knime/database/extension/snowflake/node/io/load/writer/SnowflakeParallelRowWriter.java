@@ -0,0 +1,306 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.writer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.util.ThreadUtils;
+import org.knime.database.node.io.load.impl.fs.util.DBRowWriter;
+import org.knime.filehandling.core.connections.FSPath;
+
+/**
+ * {@link DBRowWriter} that distributes the rows in batches round-robin to a fixed number of worker threads. Each
+ * worker writes its rows with its own {@link DBRowWriter} into its own files which are all located in the folder of
+ * the initial file. A worker starts a new file whenever its current writer signals that the file is full. The first
+ * file of the first worker is the initial file itself.
+ *
+ * <p>
+ * Since the workers take care of splitting their output into several files {@link #writeRow(DataRow)} never signals
+ * that a new file should be started.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SnowflakeParallelRowWriter implements DBRowWriter {
+
+    /**
+     * Factory that creates the {@link DBRowWriter} that writes a single file.
+     */
+    @FunctionalInterface
+    interface RowWriterFactory {
+
+        /**
+         * Creates a {@link DBRowWriter} that writes into the given file.
+         *
+         * @param path the {@link FSPath} of the file to write
+         * @return the {@link DBRowWriter}
+         * @throws Exception if the writer could not be created
+         */
+        DBRowWriter create(FSPath path) throws Exception;
+    }
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final int QUEUE_CAPACITY = 4;
+
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private static final DataRow[] END_OF_DATA = new DataRow[0];
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final AtomicReference<Throwable> m_failure = new AtomicReference<>();
+
+    private final List<Worker> m_workers;
+
+    private final ExecutorService m_executor;
+
+    private DataRow[] m_batch = new DataRow[BATCH_SIZE];
+
+    private int m_batchSize;
+
+    private int m_nextWorker;
+
+    private boolean m_closed;
+
+    /**
+     * Constructor.
+     *
+     * @param path the {@link FSPath} of the first file
+     * @param fileNameSuffix the suffix of all file names e.g. {@code .parquet.gz}
+     * @param noOfWorkers the number of worker threads
+     * @param factory the {@link RowWriterFactory} that creates the writer for each file
+     */
+    SnowflakeParallelRowWriter(final FSPath path, final String fileNameSuffix, final int noOfWorkers,
+        final RowWriterFactory factory) {
+        if (noOfWorkers < 1) {
+            throw new IllegalArgumentException("The number of parallel writers must be at least 1.");
+        }
+        final String fileName = path.getFileName().toString();
+        final String baseName = fileName.endsWith(fileNameSuffix)
+            ? fileName.substring(0, fileName.length() - fileNameSuffix.length()) : fileName;
+        m_executor = Executors.newFixedThreadPool(noOfWorkers, r -> {
+            final Thread thread = new Thread(r, "Snowflake-Parallel-Writer-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        m_workers = new ArrayList<>(noOfWorkers);
+        for (int i = 0; i < noOfWorkers; i++) {
+            final Worker worker = new Worker(path, baseName, fileNameSuffix, i, factory);
+            worker.m_future = m_executor.submit(ThreadUtils.callableWithContext(worker));
+            m_workers.add(worker);
+        }
+    }
+
+    @Override
+    public boolean writeRow(final DataRow row) throws IOException {
+        m_batch[m_batchSize++] = row;
+        if (m_batchSize == BATCH_SIZE) {
+            dispatch(m_batch);
+            m_batch = new DataRow[BATCH_SIZE];
+            m_batchSize = 0;
+        }
+        return false;
+    }
+
+    private void dispatch(final DataRow[] batch) throws IOException {
+        final Worker worker = m_workers.get(m_nextWorker);
+        m_nextWorker = (m_nextWorker + 1) % m_workers.size();
+        try {
+            while (!worker.m_queue.offer(batch, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Writing of the data files has been interrupted.");
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        final Throwable failure = m_failure.get();
+        if (failure != null) {
+            throw new IOException("Writing of the data files failed: " + failure.getMessage(), failure);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (m_closed) {
+            return;
+        }
+        m_closed = true;
+        try {
+            if (m_batchSize > 0 && m_failure.get() == null) {
+                final DataRow[] lastBatch = new DataRow[m_batchSize];
+                System.arraycopy(m_batch, 0, lastBatch, 0, m_batchSize);
+                dispatch(lastBatch);
+            }
+        } finally {
+            try {
+                awaitWorkers();
+            } finally {
+                m_executor.shutdown();
+            }
+        }
+        final Throwable failure = m_failure.get();
+        if (failure instanceof Exception) {
+            throw (Exception)failure;
+        } else if (failure != null) {
+            throw new IOException("Writing of the data files failed: " + failure.getMessage(), failure);
+        }
+    }
+
+    private void awaitWorkers() throws InterruptedException {
+        for (final Worker worker : m_workers) {
+            //the queue of a finished worker might be full which is why we stop trying once it is done
+            while (!worker.m_future.isDone()
+                && !worker.m_queue.offer(END_OF_DATA, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                //wait until the worker has taken a batch from its queue or has stopped
+            }
+        }
+        for (final Worker worker : m_workers) {
+            try {
+                worker.m_future.get();
+            } catch (ExecutionException e) {
+                m_failure.compareAndSet(null, e.getCause());
+            }
+        }
+    }
+
+    private final class Worker implements Callable<Void> {
+
+        private final BlockingQueue<DataRow[]> m_queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        private final FSPath m_firstPath;
+
+        private final String m_baseName;
+
+        private final String m_suffix;
+
+        private final int m_index;
+
+        private final RowWriterFactory m_factory;
+
+        private Future<Void> m_future;
+
+        private int m_fileCount;
+
+        Worker(final FSPath firstPath, final String baseName, final String suffix, final int index,
+            final RowWriterFactory factory) {
+            m_firstPath = firstPath;
+            m_baseName = baseName;
+            m_suffix = suffix;
+            m_index = index;
+            m_factory = factory;
+        }
+
+        private FSPath nextPath() {
+            final int fileIndex = m_fileCount++;
+            if (m_index == 0 && fileIndex == 0) {
+                return m_firstPath;
+            }
+            return (FSPath)m_firstPath.resolveSibling(m_baseName + "_" + m_index + "_" + fileIndex + m_suffix);
+        }
+
+        @Override
+        public Void call() throws Exception {
+            DBRowWriter writer = null;
+            try {
+                if (m_index == 0) {
+                    //the first worker always creates the initial file even if there are no rows to write
+                    writer = m_factory.create(nextPath());
+                }
+                for (DataRow[] batch = m_queue.take(); batch != END_OF_DATA; batch = m_queue.take()) {
+                    if (m_failure.get() != null) {
+                        //another worker failed so there is no need to continue
+                        break;
+                    }
+                    for (final DataRow row : batch) {
+                        if (writer == null) {
+                            writer = m_factory.create(nextPath());
+                        }
+                        if (writer.writeRow(row)) {
+                            final DBRowWriter fullWriter = writer;
+                            writer = null;
+                            fullWriter.close();
+                        }
+                    }
+                }
+                if (writer != null) {
+                    final DBRowWriter lastWriter = writer;
+                    writer = null;
+                    lastWriter.close();
+                }
+                return null;
+            } catch (final Throwable t) {
+                m_failure.compareAndSet(null, t);
+                throw t;
+            } finally {
+                if (writer != null) {
+                    try {
+                        writer.close();
+                    } catch (final Exception e) {
+                        //the original exception is more important
+                    }
+                }
+            }
+        }
+    }
+}
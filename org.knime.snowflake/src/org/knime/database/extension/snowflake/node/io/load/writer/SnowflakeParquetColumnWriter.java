@@ -0,0 +1,262 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.writer;
+
+import java.sql.JDBCType;
+import java.sql.SQLType;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+import org.knime.core.data.BooleanValue;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.time.localdate.LocalDateCellFactory;
+import org.knime.core.data.time.localdate.LocalDateValue;
+import org.knime.core.data.time.localdatetime.LocalDateTimeCellFactory;
+import org.knime.core.data.time.localdatetime.LocalDateTimeValue;
+import org.knime.core.data.time.localtime.LocalTimeCellFactory;
+import org.knime.core.data.time.localtime.LocalTimeValue;
+
+/**
+ * Typed Parquet column writers that write the values of a KNIME column directly as primitives into a Parquet
+ * {@link RecordConsumer}. Each writer supports the Snowflake column type of one of the Parquet types that are used
+ * by the {@link SnowflakeParquetWriter} and a fixed set of KNIME cell types. The value of a supported cell is read via
+ * its primitive value interface without going through the generic type mapping framework. Strings are encoded into a
+ * reused {@link Utf8Buffer} so that writing a cell does not allocate any objects.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+@SuppressWarnings("deprecation")
+enum SnowflakeParquetColumnWriter {
+
+    /** Writes boolean cells as Parquet {@code BOOLEAN}. */
+    BOOLEAN(JDBCType.BOOLEAN, PrimitiveTypeName.BOOLEAN, null, BooleanCell.TYPE) {
+        @Override
+        void write(final RecordConsumer consumer, final DataCell cell, final Utf8Buffer buffer) {
+            consumer.addBoolean(((BooleanValue)cell).getBooleanValue());
+        }
+    },
+
+    /** Writes double, long and integer cells as Parquet {@code DOUBLE}. */
+    DOUBLE(JDBCType.DOUBLE, PrimitiveTypeName.DOUBLE, null, DoubleCell.TYPE, LongCell.TYPE, IntCell.TYPE) {
+        @Override
+        void write(final RecordConsumer consumer, final DataCell cell, final Utf8Buffer buffer) {
+            consumer.addDouble(((DoubleValue)cell).getDoubleValue());
+        }
+    },
+
+    /** Writes long and integer cells as Parquet {@code INT64}. */
+    INT64(JDBCType.BIGINT, PrimitiveTypeName.INT64, null, LongCell.TYPE, IntCell.TYPE) {
+        @Override
+        void write(final RecordConsumer consumer, final DataCell cell, final Utf8Buffer buffer) {
+            consumer.addLong(((LongValue)cell).getLongValue());
+        }
+    },
+
+    /** Writes string cells as Parquet {@code UTF8}. */
+    UTF8(JDBCType.VARCHAR, PrimitiveTypeName.BINARY, OriginalType.UTF8, StringCell.TYPE) {
+        @Override
+        void write(final RecordConsumer consumer, final DataCell cell, final Utf8Buffer buffer) {
+            consumer.addBinary(buffer.encode(((StringValue)cell).getStringValue()));
+        }
+    },
+
+    /** Writes local date cells as Parquet {@code DATE} i.e. as days since the epoch. */
+    DATE(JDBCType.DATE, PrimitiveTypeName.INT32, OriginalType.DATE, LocalDateCellFactory.TYPE) {
+        @Override
+        void write(final RecordConsumer consumer, final DataCell cell, final Utf8Buffer buffer) {
+            consumer.addInteger(Math.toIntExact(((LocalDateValue)cell).getLocalDate().toEpochDay()));
+        }
+    },
+
+    /** Writes local time cells as Parquet {@code TIME_MILLIS} i.e. as milliseconds of the day. */
+    TIME_MILLIS(JDBCType.TIME, PrimitiveTypeName.INT32, OriginalType.TIME_MILLIS, LocalTimeCellFactory.TYPE) {
+        @Override
+        void write(final RecordConsumer consumer, final DataCell cell, final Utf8Buffer buffer) {
+            consumer.addInteger((int)(((LocalTimeValue)cell).getLocalTime().toNanoOfDay() / NANOS_PER_MILLI));
+        }
+    },
+
+    /** Writes local date time cells as Parquet {@code TIMESTAMP_MICROS} i.e. as microseconds since the epoch. */
+    TIMESTAMP_MICROS(JDBCType.TIMESTAMP, PrimitiveTypeName.INT64, OriginalType.TIMESTAMP_MICROS,
+        LocalDateTimeCellFactory.TYPE) {
+        @Override
+        void write(final RecordConsumer consumer, final DataCell cell, final Utf8Buffer buffer) {
+            final LocalDateTime dateTime = ((LocalDateTimeValue)cell).getLocalDateTime();
+            final long seconds = dateTime.toEpochSecond(ZoneOffset.UTC);
+            consumer.addLong(Math.addExact(Math.multiplyExact(seconds, MICROS_PER_SECOND),
+                dateTime.getNano() / NANOS_PER_MICRO));
+        }
+    };
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private static final long NANOS_PER_MICRO = 1_000L;
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private final SQLType m_sqlType;
+
+    private final PrimitiveTypeName m_primitiveType;
+
+    private final OriginalType m_originalType;
+
+    private final List<DataType> m_inputTypes;
+
+    SnowflakeParquetColumnWriter(final SQLType sqlType, final PrimitiveTypeName primitiveType,
+        final OriginalType originalType, final DataType... inputTypes) {
+        m_sqlType = sqlType;
+        m_primitiveType = primitiveType;
+        m_originalType = originalType;
+        m_inputTypes = Arrays.asList(inputTypes);
+    }
+
+    /**
+     * Returns the column writer that writes cells of the given KNIME type into a Parquet column that is loaded into a
+     * Snowflake column of the given SQL type.
+     *
+     * @param inputType the {@link DataType} of the KNIME column
+     * @param sqlType the {@link SQLType} of the Snowflake column
+     * @return the matching column writer or an empty {@link Optional} if the combination is not supported
+     */
+    static Optional<SnowflakeParquetColumnWriter> of(final DataType inputType, final SQLType sqlType) {
+        for (final SnowflakeParquetColumnWriter writer : values()) {
+            if (writer.m_sqlType.equals(sqlType) && writer.m_inputTypes.contains(inputType)) {
+                return Optional.of(writer);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Creates the optional Parquet field that stores the values of this writer.
+     *
+     * @param name the name of the field
+     * @return the Parquet field {@link Type}
+     */
+    Type createField(final String name) {
+        final Types.PrimitiveBuilder<PrimitiveType> builder = Types.optional(m_primitiveType);
+        if (m_originalType != null) {
+            builder.as(m_originalType);
+        }
+        return builder.named(name);
+    }
+
+    /**
+     * Writes the value of the given non-missing cell into the current field of the given consumer.
+     *
+     * @param consumer the {@link RecordConsumer} to write to
+     * @param cell the non-missing {@link DataCell} to write
+     * @param buffer the {@link Utf8Buffer} of the calling writer
+     */
+    abstract void write(RecordConsumer consumer, DataCell cell, Utf8Buffer buffer);
+
+    /**
+     * Reusable buffer that encodes strings as UTF-8 into a {@link Binary} that is backed by a reused byte array.
+     * Parquet copies reused binaries whenever it needs to keep them e.g. for dictionaries or statistics. A buffer must
+     * only be used by a single writer.
+     */
+    static final class Utf8Buffer {
+
+        private byte[] m_bytes = new byte[1024];
+
+        /**
+         * Encodes the given string. The returned {@link Binary} is only valid until the next call of this method.
+         *
+         * @param value the string to encode
+         * @return the UTF-8 encoded {@link Binary}
+         */
+        Binary encode(final String value) {
+            final int length = value.length();
+            if (m_bytes.length < length * 3) {
+                m_bytes = new byte[Math.max(length * 3, m_bytes.length * 2)];
+            }
+            final byte[] bytes = m_bytes;
+            int p = 0;
+            for (int i = 0; i < length; i++) {
+                final char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes[p++] = (byte)c;
+                } else if (c < 0x800) {
+                    bytes[p++] = (byte)(0xC0 | (c >> 6));
+                    bytes[p++] = (byte)(0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[p++] = (byte)(0xF0 | (codePoint >> 18));
+                    bytes[p++] = (byte)(0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[p++] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[p++] = (byte)(0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    //unpaired surrogates are replaced the same way as by the String encoder
+                    bytes[p++] = '?';
+                } else {
+                    bytes[p++] = (byte)(0xE0 | (c >> 12));
+                    bytes[p++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+                    bytes[p++] = (byte)(0x80 | (c & 0x3F));
+                }
+            }
+            return Binary.fromReusedByteArray(bytes, 0, p);
+        }
+    }
+}
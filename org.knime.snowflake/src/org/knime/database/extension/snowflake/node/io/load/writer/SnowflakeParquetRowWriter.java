@@ -0,0 +1,281 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.load.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.database.node.io.load.impl.fs.DBFileLoadUtil;
+import org.knime.database.node.io.load.impl.fs.util.DBRowWriter;
+import org.knime.filehandling.core.connections.FSPath;
+
+/**
+ * {@link DBRowWriter} that writes the rows into a Parquet file using one {@link SnowflakeParquetColumnWriter} per
+ * column. The column writers are bound once when the writer is created so that each cell is written as a primitive
+ * directly into the Parquet column without any per cell type lookup or boxing.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SnowflakeParquetRowWriter implements DBRowWriter {
+
+    private static final String SCHEMA_NAME = "knime";
+
+    private final ParquetWriter<DataRow> m_writer;
+
+    private final long m_fileSize;
+
+    /**
+     * Constructor.
+     *
+     * @param path the {@link FSPath} of the file to write
+     * @param schema the Parquet {@link MessageType} created via {@link #createSchema(DataTableSpec,
+     *            SnowflakeParquetColumnWriter[])}
+     * @param columnWriters the {@link SnowflakeParquetColumnWriter} of each column
+     * @param compression the {@link CompressionCodecName} to use
+     * @param fileSize the file size in bytes after which {@link #writeRow(DataRow)} signals that the file is full
+     * @param rowGroupSize the row group size in bytes
+     * @throws IOException if the file could not be created
+     */
+    SnowflakeParquetRowWriter(final FSPath path, final MessageType schema,
+        final SnowflakeParquetColumnWriter[] columnWriters, final CompressionCodecName compression,
+        final long fileSize, final int rowGroupSize) throws IOException {
+        m_writer = new Builder(new FSPathOutputFile(path), new RowWriteSupport(schema, columnWriters))
+            .withWriteMode(ParquetFileWriter.Mode.OVERWRITE).withCompressionCodec(compression)
+            .withRowGroupSize((long)rowGroupSize).build();
+        m_fileSize = fileSize;
+    }
+
+    /**
+     * Creates the Parquet schema for the given table spec and column writers.
+     *
+     * @param spec the {@link DataTableSpec} of the rows to write
+     * @param columnWriters the {@link SnowflakeParquetColumnWriter} of each column
+     * @return the Parquet {@link MessageType}
+     */
+    static MessageType createSchema(final DataTableSpec spec, final SnowflakeParquetColumnWriter[] columnWriters) {
+        final Type[] fields = new Type[columnWriters.length];
+        for (int i = 0; i < columnWriters.length; i++) {
+            fields[i] = columnWriters[i].createField(spec.getColumnSpec(i).getName());
+        }
+        return new MessageType(SCHEMA_NAME, fields);
+    }
+
+    @Override
+    public boolean writeRow(final DataRow row) throws IOException {
+        m_writer.write(row);
+        return m_writer.getDataSize() >= m_fileSize;
+    }
+
+    @Override
+    public void close() throws Exception {
+        m_writer.close();
+    }
+
+    private static final class Builder extends ParquetWriter.Builder<DataRow, Builder> {
+
+        private final RowWriteSupport m_writeSupport;
+
+        Builder(final OutputFile file, final RowWriteSupport writeSupport) {
+            super(file);
+            m_writeSupport = writeSupport;
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<DataRow> getWriteSupport(final Configuration conf) {
+            return m_writeSupport;
+        }
+
+        @Override
+        protected WriteSupport<DataRow> getWriteSupport(final ParquetConfiguration conf) {
+            return m_writeSupport;
+        }
+    }
+
+    private static final class RowWriteSupport extends WriteSupport<DataRow> {
+
+        private final MessageType m_schema;
+
+        private final SnowflakeParquetColumnWriter[] m_columnWriters;
+
+        private final String[] m_fieldNames;
+
+        private final SnowflakeParquetColumnWriter.Utf8Buffer m_utf8Buffer =
+            new SnowflakeParquetColumnWriter.Utf8Buffer();
+
+        private RecordConsumer m_consumer;
+
+        RowWriteSupport(final MessageType schema, final SnowflakeParquetColumnWriter[] columnWriters) {
+            m_schema = schema;
+            m_columnWriters = columnWriters;
+            m_fieldNames = new String[columnWriters.length];
+            for (int i = 0; i < m_fieldNames.length; i++) {
+                m_fieldNames[i] = schema.getFieldName(i);
+            }
+        }
+
+        @Override
+        public WriteContext init(final Configuration configuration) {
+            return new WriteContext(m_schema, Collections.emptyMap());
+        }
+
+        @Override
+        public WriteContext init(final ParquetConfiguration configuration) {
+            return new WriteContext(m_schema, Collections.emptyMap());
+        }
+
+        @Override
+        public void prepareForWrite(final RecordConsumer recordConsumer) {
+            m_consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(final DataRow row) {
+            final RecordConsumer consumer = m_consumer;
+            consumer.startMessage();
+            for (int i = 0; i < m_columnWriters.length; i++) {
+                final DataCell cell = row.getCell(i);
+                if (!cell.isMissing()) {
+                    consumer.startField(m_fieldNames[i], i);
+                    m_columnWriters[i].write(consumer, cell, m_utf8Buffer);
+                    consumer.endField(m_fieldNames[i], i);
+                }
+            }
+            consumer.endMessage();
+        }
+    }
+
+    private static final class FSPathOutputFile implements OutputFile {
+
+        private final FSPath m_path;
+
+        FSPathOutputFile(final FSPath path) {
+            m_path = path;
+        }
+
+        @Override
+        public PositionOutputStream create(final long blockSizeHint) throws IOException {
+            return createOrOverwrite(blockSizeHint);
+        }
+
+        @SuppressWarnings("resource")
+        @Override
+        public PositionOutputStream createOrOverwrite(final long blockSizeHint) throws IOException {
+            return new CountingPositionOutputStream(DBFileLoadUtil.createOutputStream(m_path));
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+
+        @Override
+        public String getPath() {
+            return m_path.toString();
+        }
+    }
+
+    private static final class CountingPositionOutputStream extends PositionOutputStream {
+
+        private final OutputStream m_out;
+
+        private long m_position;
+
+        CountingPositionOutputStream(final OutputStream out) {
+            m_out = out;
+        }
+
+        @Override
+        public long getPos() {
+            return m_position;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            m_out.write(b);
+            m_position++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            m_out.write(b, off, len);
+            m_position += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            m_out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            m_out.close();
+        }
+    }
+}
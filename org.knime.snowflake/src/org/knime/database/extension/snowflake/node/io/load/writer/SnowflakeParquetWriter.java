@@ -51,11 +51,15 @@
 import java.sql.JDBCType;
 import java.sql.SQLException;
 import java.sql.SQLType;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.apache.parquet.hadoop.ParquetFileWriter;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.schema.MessageType;
 import org.apache.parquet.schema.OriginalType;
 import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
 import org.knime.bigdata.fileformats.parquet.ParquetFileFormatWriter;
@@ -70,7 +74,6 @@
 import org.knime.database.agent.metadata.DBMetadataReader;
 import org.knime.database.extension.snowflake.agent.SnowflakeLoaderFileFormat;
 import org.knime.database.extension.snowflake.agent.SnowflakeLoaderSettings;
-import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
 import org.knime.database.model.DBColumn;
 import org.knime.database.model.DBTable;
 import org.knime.database.node.io.load.ExecutionParameters;
@@ -82,7 +85,10 @@
 import org.knime.filehandling.core.connections.FSPath;
 
 /**
- * {@link DBFileLoader} implementation that writes out a Parquet file.
+ * {@link DBFileLoader} implementation that writes out a Parquet file. If all input columns are supported by a
+ * {@link SnowflakeParquetColumnWriter} the rows are written via the type specialized
+ * {@link SnowflakeParquetRowWriter} and via the generic {@link ParquetFileFormatWriter} otherwise. If more than one
+ * parallel writer is configured the files are written concurrently by a {@link SnowflakeParallelRowWriter}.
  *
  * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
  */
@@ -116,16 +122,19 @@
 
     private long m_fileSize;
 
+    private SnowflakeParquetColumnWriter[] m_columnWriters;
+
+    private MessageType m_schema;
+
+    private int m_parallelWriters;
+
     private static DataTypeMappingConfiguration<ParquetType> createParquetTypeMappingConfiguration(
-        final DataTableSpec inputTableSpec, final DBTable targetTable, final DBSession session,
-        final ExecutionMonitor executionMonitor) throws CanceledExecutionException, SQLException {
-        final DBTableSpec targetTableSpec =
-            session.getAgent(DBMetadataReader.class).getDBTableSpec(executionMonitor, targetTable);
+        final DataTableSpec inputTableSpec, final List<DBColumn> targetColumns) throws SQLException {
         final ParquetTypeMappingService typeMappingService = ParquetTypeMappingService.getInstance();
         final DataTypeMappingConfiguration<ParquetType> result =
             typeMappingService.createMappingConfiguration(KNIME_TO_EXTERNAL);
         int columnIndex = 0;
-        for (final DBColumn column : targetTableSpec) {
+        for (final DBColumn column : targetColumns) {
             final SQLType sqlType = column.getColumnType();
             final ParquetType parquetType = SNOWFLAKE_TO_PARQUET_TYPE_MAPPING.get(sqlType);
             if (parquetType == null) {
@@ -145,17 +154,58 @@ private static DataTypeMappingConfiguration<ParquetType> createParquetTypeMappin
         return result;
     }
 
+    /**
+     * Binds a {@link SnowflakeParquetColumnWriter} to each input column.
+     *
+     * @param inputTableSpec the {@link DataTableSpec} of the input table
+     * @param targetColumns the target table column of each input column
+     * @return the column writers or {@code null} if at least one column is not supported by any of them
+     */
+    private static SnowflakeParquetColumnWriter[] createColumnWriters(final DataTableSpec inputTableSpec,
+        final List<DBColumn> targetColumns) {
+        final SnowflakeParquetColumnWriter[] result = new SnowflakeParquetColumnWriter[inputTableSpec.getNumColumns()];
+        int columnIndex = 0;
+        for (final DBColumn column : targetColumns) {
+            if (columnIndex >= result.length) {
+                return null;
+            }
+            final Optional<SnowflakeParquetColumnWriter> writer = SnowflakeParquetColumnWriter
+                .of(inputTableSpec.getColumnSpec(columnIndex).getType(), column.getColumnType());
+            if (writer.isEmpty()) {
+                return null;
+            }
+            result[columnIndex++] = writer.get();
+        }
+        return columnIndex == result.length ? result : null;
+    }
+
+    /**
+     * Returns the target table column of each input column. If no column mapping is given the input columns are
+     * loaded by position into all columns of the target table.
+     *
+     * @param exec the {@link ExecutionMonitor}
+     * @param session the {@link DBSession}
+     * @param table the target {@link DBTable}
+     * @param columnMapping the optional column mapping by name
+     * @return the target table columns in input column order
+     * @throws CanceledExecutionException if the execution was canceled
+     * @throws SQLException if the table spec could not be fetched
+     */
+    private static List<DBColumn> getTargetColumns(final ExecutionMonitor exec, final DBSession session,
+        final DBTable table, final Map<String, DBColumn> columnMapping)
+        throws CanceledExecutionException, SQLException {
+        if (!columnMapping.isEmpty()) {
+            return new ArrayList<>(columnMapping.values());
+        }
+        final DBTableSpec targetTableSpec = session.getAgent(DBMetadataReader.class).getDBTableSpec(exec, table);
+        final List<DBColumn> result = new ArrayList<>();
+        targetTableSpec.forEach(result::add);
+        return result;
+    }
+
     @Override
     public SnowflakeLoaderSettings getLoadParameter(final ConnectedSnowflakeLoaderNodeSettings cs) {
-        final SnowflakeLoaderFileFormat fileFormat =
-            SnowflakeLoaderFileFormat.optionalValueOf(cs.getFileFormatSelectionModel().getStringValue())
-                .orElseThrow(() -> new IllegalStateException("No file format is selected."));
-        final SnowflakeLoaderStageType stageType =
-            SnowflakeLoaderStageType.optionalValueOf(cs.getStageTypeSelectionModel().getStringValue())
-                .orElseThrow(() -> new IllegalStateException("No stage type is selected."));
-        return new SnowflakeLoaderSettings(fileFormat, cs.getFileFormatModel().getFileWriterSettings(), stageType,
-            cs.getStageNameModel().getStringValue(), cs.getCompressionModel().getStringValue(),
-            cs.getChunkSizeModel().getIntValue(), cs.getFileSizeModel().getLongValue());
+        return cs.createLoaderSettings();
     }
 
     @Override
@@ -180,13 +230,29 @@ protected void setup(final ExecutionMonitor exec,
         m_chunkSize = cs.getChunkSizeModel().getIntValue() * MEGABYTE;
         //user enters MB and Parquet expects bytes
         m_fileSize = cs.getFileSizeModel().getLongValue() * MEGABYTE;
-        m_typeMappingConfiguration = createParquetTypeMappingConfiguration(m_spec, table, session, exec);
+        m_parallelWriters = cs.getParallelWritersModel().getIntValue();
+        final List<DBColumn> targetColumns = getTargetColumns(exec, session, table, cs.getColumnMapping());
+        m_typeMappingConfiguration = createParquetTypeMappingConfiguration(m_spec, targetColumns);
+        m_columnWriters = createColumnWriters(m_spec, targetColumns);
+        m_schema = m_columnWriters == null ? null : SnowflakeParquetRowWriter.createSchema(m_spec, m_columnWriters);
     }
 
-    @SuppressWarnings("resource")
     @Override
     protected DBRowWriter getRowWriter(final ExecutionMonitor exec, final FSPath tempFolder) throws Exception {
-        final ParquetFileFormatWriter writer = new ParquetFileFormatWriter(tempFolder, ParquetFileWriter.Mode.OVERWRITE,
+        if (m_parallelWriters > 1) {
+            return new SnowflakeParallelRowWriter(tempFolder, getFilenameSuffix(), m_parallelWriters,
+                this::createRowWriter);
+        }
+        return createRowWriter(tempFolder);
+    }
+
+    @SuppressWarnings("resource")
+    private DBRowWriter createRowWriter(final FSPath path) throws Exception {
+        if (m_columnWriters != null) {
+            return new SnowflakeParquetRowWriter(path, m_schema, m_columnWriters, m_compression, m_fileSize,
+                m_chunkSize);
+        }
+        final ParquetFileFormatWriter writer = new ParquetFileFormatWriter(path, ParquetFileWriter.Mode.OVERWRITE,
             m_spec, m_compression, m_fileSize, m_chunkSize, m_typeMappingConfiguration);
         return new DBRowWriter() {
             @Override
@@ -0,0 +1,164 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.read;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.apache.xmlbeans.XmlException;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ConfigurableNodeFactory;
+import org.knime.core.node.NodeDescription;
+import org.knime.core.node.NodeDialogPane;
+import org.knime.core.node.NodeView;
+import org.knime.core.node.context.NodeCreationConfiguration;
+import org.knime.core.webui.node.dialog.NodeDialog;
+import org.knime.core.webui.node.dialog.NodeDialogFactory;
+import org.knime.core.webui.node.dialog.NodeDialogManager;
+import org.knime.core.webui.node.dialog.SettingsType;
+import org.knime.core.webui.node.dialog.defaultdialog.DefaultNodeDialog;
+import org.knime.core.webui.node.impl.WebUINodeConfiguration;
+import org.knime.core.webui.node.impl.WebUINodeFactory;
+import org.knime.database.port.DBDataPortObject;
+import org.xml.sax.SAXException;
+
+/**
+ * Node factory of the Snowflake Reader node.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public class SnowflakeReaderNodeFactory extends ConfigurableNodeFactory<SnowflakeReaderNodeModel>
+    implements NodeDialogFactory {
+
+    private static final String DATA_PORT_NAME = "DB Data";
+
+    private static final String TABLE_PORT_NAME = "Result table";
+
+    static final WebUINodeConfiguration CONFIG = WebUINodeConfiguration.builder() //
+        .name("Snowflake Reader") //
+        .icon("snowflake_reader.png") //
+        .shortDescription("Reads the result of a Snowflake query in bulk into a KNIME table.") //
+        .fullDescription("""
+                This node executes the incoming Snowflake query and reads its result into a KNIME table. Unlike
+                the DB Reader node it does not read the result cell by cell via JDBC but transfers it in bulk with
+                one of the following read modes.
+                <ul>
+                <li><b>Arrow batches:</b> Takes the Arrow record batches that the Snowflake JDBC driver receives
+                from Snowflake and converts them column-wise into the KNIME table. The batches are fetched and
+                converted by several threads concurrently. Each thread writes a contiguous part of the result so
+                that the rows keep the order of the query result. If the driver does not provide Arrow batches
+                e.g. because the result has been returned as JSON, the result is read row by row via JDBC with
+                the same column types.</li>
+                <li><b>Stage unload:</b> Unloads the result with COPY INTO as Parquet files into a unique folder of
+                the selected stage, downloads the files with concurrent GET commands and decodes them in parallel
+                into the KNIME table. The staged and downloaded files are removed afterwards. This mode avoids the
+                JDBC result transfer for very large results but the rows are only ordered within each unloaded
+                file and not across files, even if the query is ordered.</li>
+                </ul>
+                <p>
+                The KNIME column types are derived from the spec of the incoming DB data port so that the output
+                spec is known before the node is executed: boolean columns are read as boolean, integer columns as
+                long and all other numeric columns as double columns. Integer values that exceed the range of a long
+                fail the execution instead of being truncated. Local date, local time, local date time and zoned
+                date time columns are read as such where TIMESTAMP_LTZ values are converted into the time zone of
+                KNIME. The Arrow batches keep the stored offset of TIMESTAMP_TZ values whereas unloaded values are
+                returned in UTC since Parquet does not store the offset. All other columns including
+                semi-structured columns are read as strings and binary values as upper case hex strings.
+                </p>
+                <p>
+                Optionally the result can be cached on the local disk. A cached result is returned without using
+                the warehouse as long as the last commit time of every table that the query scans is unchanged.
+                </p>
+                """) //
+        .modelSettingsClass(SnowflakeReaderNodeParameters.class) //
+        .addInputPort(DATA_PORT_NAME, DBDataPortObject.TYPE, "Snowflake DB Data referencing the query to read.") //
+        .addOutputTable(TABLE_PORT_NAME, "The result of the query.") //
+        .keywords("db", "database", "read", "arrow", "columnar", "unload", "parquet", "cache") //
+        .build();
+
+    @Override
+    protected NodeDescription createNodeDescription() throws SAXException, IOException, XmlException {
+        return WebUINodeFactory.createNodeDescription(CONFIG);
+    }
+
+    @Override
+    protected Optional<PortsConfigurationBuilder> createPortsConfigBuilder() {
+        final var b = new PortsConfigurationBuilder();
+        b.addFixedInputPortGroup(DATA_PORT_NAME, DBDataPortObject.TYPE);
+        b.addFixedOutputPortGroup(TABLE_PORT_NAME, BufferedDataTable.TYPE);
+        return Optional.of(b);
+    }
+
+    @Override
+    protected NodeDialogPane createNodeDialogPane(final NodeCreationConfiguration creationConfig) {
+        return NodeDialogManager.createLegacyFlowVariableNodeDialog(createNodeDialog());
+    }
+
+    @Override
+    protected int getNrNodeViews() {
+        return 0;
+    }
+
+    @Override
+    public NodeView<SnowflakeReaderNodeModel> createNodeView(final int viewIndex,
+        final SnowflakeReaderNodeModel nodeModel) {
+        return null;
+    }
+
+    @Override
+    protected boolean hasDialog() {
+        return true;
+    }
+
+    @Override
+    public NodeDialog createNodeDialog() {
+        return new DefaultNodeDialog(SettingsType.MODEL, SnowflakeReaderNodeParameters.class);
+    }
+
+    @Override
+    protected SnowflakeReaderNodeModel createNodeModel(final NodeCreationConfiguration creationConfig) {
+        return new SnowflakeReaderNodeModel(creationConfig.getPortConfig().orElseThrow());
+    }
+}
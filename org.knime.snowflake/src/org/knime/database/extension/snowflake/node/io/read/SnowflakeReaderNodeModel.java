@@ -0,0 +1,131 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.read;
+
+import org.apache.commons.lang3.StringUtils;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.context.ports.PortsConfiguration;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.webui.node.impl.WebUINodeModel;
+import org.knime.database.extension.snowflake.agent.SnowflakeArrowReader;
+import org.knime.database.extension.snowflake.agent.SnowflakeFileUnloader;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
+import org.knime.database.extension.snowflake.agent.SnowflakeResultCache;
+import org.knime.database.extension.snowflake.agent.SnowflakeUnloadReader;
+import org.knime.database.extension.snowflake.type.Snowflake;
+import org.knime.database.port.DBDataPortObject;
+import org.knime.database.port.DBDataPortObjectSpec;
+
+/**
+ * Node model of the Snowflake Reader node that reads the result of the incoming query with the
+ * {@link SnowflakeArrowReader} or the {@link SnowflakeUnloadReader} into a KNIME table, optionally via the
+ * {@link SnowflakeResultCache}.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SnowflakeReaderNodeModel extends WebUINodeModel<SnowflakeReaderNodeParameters> {
+
+    SnowflakeReaderNodeModel(final PortsConfiguration portsConfiguration) {
+        super(portsConfiguration.getInputPorts(), portsConfiguration.getOutputPorts(),
+            SnowflakeReaderNodeParameters.class);
+    }
+
+    @Override
+    protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs,
+        final SnowflakeReaderNodeParameters settings) throws InvalidSettingsException {
+        final DBDataPortObjectSpec dataSpec = (DBDataPortObjectSpec)inSpecs[0];
+        if (!Snowflake.DB_TYPE.equals(dataSpec.getDBSession().getDBType())) {
+            throw new InvalidSettingsException("The node only supports Snowflake connections.");
+        }
+        if (settings.m_parallelism < 1) {
+            throw new InvalidSettingsException("The number of parallel conversions must be positive.");
+        }
+        if (settings.m_cacheResults && settings.m_cacheSizeMB < 1) {
+            throw new InvalidSettingsException("The maximum cache size must be positive.");
+        }
+        if (settings.m_readMode == SnowflakeReadMode.UNLOAD) {
+            if (settings.m_stageType == SnowflakeLoaderStageType.TABLE) {
+                throw new InvalidSettingsException("Query results can not be unloaded into a table stage.");
+            }
+            if (settings.m_stageType == SnowflakeLoaderStageType.INTERNAL
+                && StringUtils.isBlank(settings.m_stageName)) {
+                throw new InvalidSettingsException("Please specify the name of the internal stage.");
+            }
+            if (settings.m_maxFileSizeMB < 1 || settings.m_maxFileSizeMB > SnowflakeFileUnloader.MAX_FILE_SIZE_MB) {
+                throw new InvalidSettingsException(String.format("The maximum file size must be between 1 and %d MB.",
+                    SnowflakeFileUnloader.MAX_FILE_SIZE_MB));
+            }
+        }
+        return new PortObjectSpec[]{SnowflakeArrowReader.createSpec(dataSpec.getDataTableSpec())};
+    }
+
+    @Override
+    protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec,
+        final SnowflakeReaderNodeParameters settings) throws Exception {
+        final DBDataPortObject data = (DBDataPortObject)inObjects[0];
+        final String query = data.getData().getQuery().getQuery();
+        //the table has the spec reported during configure
+        final DataTableSpec dbSpec = ((DBDataPortObjectSpec)data.getSpec()).getDataTableSpec();
+        final SnowflakeResultCache.TableReader reader;
+        if (settings.m_readMode == SnowflakeReadMode.UNLOAD) {
+            final SnowflakeUnloadReader unloadReader = new SnowflakeUnloadReader(data.getDBSession(),
+                settings.m_stageType, settings.m_stageName, settings.m_maxFileSizeMB, settings.m_parallelism,
+                settings.m_reuseResults);
+            reader = (e, q) -> unloadReader.read(e, q, dbSpec);
+        } else {
+            final SnowflakeArrowReader arrowReader =
+                new SnowflakeArrowReader(data.getDBSession(), settings.m_parallelism, settings.m_reuseResults);
+            reader = (e, q) -> arrowReader.read(e, q, dbSpec);
+        }
+        if (settings.m_cacheResults) {
+            return new PortObject[]{SnowflakeResultCache.getDefault().read(exec, data.getDBSession(), query,
+                settings.m_cacheSizeMB, reader)};
+        }
+        return new PortObject[]{reader.read(exec, query)};
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.read;
+
+import org.knime.database.extension.snowflake.agent.SnowflakeFileUnloader;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
+import org.knime.database.extension.snowflake.agent.SnowflakeResultCache;
+import org.knime.node.parameters.NodeParameters;
+import org.knime.node.parameters.Widget;
+import org.knime.node.parameters.updates.Effect;
+import org.knime.node.parameters.updates.Effect.EffectType;
+import org.knime.node.parameters.updates.EffectPredicate;
+import org.knime.node.parameters.updates.EffectPredicateProvider;
+import org.knime.node.parameters.updates.ParameterReference;
+import org.knime.node.parameters.updates.ValueReference;
+import org.knime.node.parameters.widget.number.NumberInputWidget;
+import org.knime.node.parameters.widget.number.NumberInputWidgetValidation.MinValidation.IsPositiveIntegerValidation;
+
+/**
+ * Web UI parameters for the Snowflake Reader node.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SnowflakeReaderNodeParameters implements NodeParameters {
+
+    @Widget(title = "Read mode", description = "How the result of the query is transferred from Snowflake.")
+    @ValueReference(ReadModeRef.class)
+    SnowflakeReadMode m_readMode = SnowflakeReadMode.ARROW;
+
+    static final class ReadModeRef implements ParameterReference<SnowflakeReadMode> {
+    }
+
+    static final class ReadModeIsUnload implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getEnum(ReadModeRef.class).isOneOf(SnowflakeReadMode.UNLOAD);
+        }
+    }
+
+    @Widget(title = "Stage Type", description = """
+            The type of Snowflake stage to unload the result into. The table stage is not supported since the
+            result does not belong to a table.
+            """)
+    @Effect(predicate = ReadModeIsUnload.class, type = EffectType.SHOW)
+    @ValueReference(StageTypeRef.class)
+    SnowflakeLoaderStageType m_stageType = SnowflakeLoaderStageType.USER;
+
+    static final class StageTypeRef implements ParameterReference<SnowflakeLoaderStageType> {
+    }
+
+    static final class StageTypeIsInternal implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getPredicate(ReadModeIsUnload.class)
+                .and(i.getEnum(StageTypeRef.class).isOneOf(SnowflakeLoaderStageType.INTERNAL));
+        }
+    }
+
+    @Widget(title = "Internal stage name", description = "The name of the internal Snowflake stage.")
+    @Effect(predicate = StageTypeIsInternal.class, type = EffectType.SHOW)
+    String m_stageName = "";
+
+    @Widget(title = "Maximum file size (MB)", description = """
+            The maximum size of each unloaded Parquet file. Smaller files are downloaded and decoded with more
+            parallelism, larger files cause less overhead per file.
+            """)
+    @Effect(predicate = ReadModeIsUnload.class, type = EffectType.SHOW)
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    int m_maxFileSizeMB = SnowflakeFileUnloader.DEFAULT_MAX_FILE_SIZE_MB;
+
+    @Widget(title = "Parallel conversions", description = """
+            The maximum number of threads that fetch and convert the Arrow batches or download and decode the
+            unloaded files concurrently. Each thread writes a part of the result into its own table and the
+            tables are concatenated in the end.
+            """)
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    int m_parallelism = 4;
+
+    @Widget(title = "Reuse persisted query results", description = """
+            If selected and the same query has already been executed with the connection within the last 23 hours
+            by a Snowflake Reader node, its persisted result is read via RESULT_SCAN without recomputing the
+            query in the warehouse. The persisted result does not reflect changes of the queried tables since its
+            execution. If it is no longer available the query is executed again.
+            """)
+    boolean m_reuseResults;
+
+    @Widget(title = "Cache results locally", description = """
+            If selected the result is cached on the local disk and returned from the cache as long as none of the
+            tables the query scans has changed, without using the warehouse at all. The cache is identified by the
+            query and the account, user, roles, database and schema of the connection. Whether the scanned tables
+            have changed is checked via their last commit time. Results of queries that read external tables or
+            table functions are not cached. Non-deterministic expressions such as CURRENT_TIMESTAMP are not
+            evaluated again if the result is returned from the cache.
+            """)
+    @ValueReference(CacheResultsRef.class)
+    boolean m_cacheResults;
+
+    static final class CacheResultsRef implements ParameterReference<Boolean> {
+    }
+
+    static final class CacheResults implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getBoolean(CacheResultsRef.class).isTrue();
+        }
+    }
+
+    @Widget(title = "Maximum cache size (MB)", description = """
+            The maximum size of the local result cache on disk which is shared by all Snowflake Reader nodes. The
+            least recently used results are removed once the cache exceeds this size.
+            """)
+    @Effect(predicate = CacheResults.class, type = EffectType.SHOW)
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    int m_cacheSizeMB = SnowflakeResultCache.DEFAULT_MAX_SIZE_MB;
+}
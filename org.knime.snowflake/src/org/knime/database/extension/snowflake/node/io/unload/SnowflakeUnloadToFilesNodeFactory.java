@@ -0,0 +1,157 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.unload;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.apache.xmlbeans.XmlException;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ConfigurableNodeFactory;
+import org.knime.core.node.NodeDescription;
+import org.knime.core.node.NodeDialogPane;
+import org.knime.core.node.NodeView;
+import org.knime.core.node.context.NodeCreationConfiguration;
+import org.knime.core.webui.node.dialog.NodeDialog;
+import org.knime.core.webui.node.dialog.NodeDialogFactory;
+import org.knime.core.webui.node.dialog.NodeDialogManager;
+import org.knime.core.webui.node.dialog.SettingsType;
+import org.knime.core.webui.node.dialog.defaultdialog.DefaultNodeDialog;
+import org.knime.core.webui.node.impl.WebUINodeConfiguration;
+import org.knime.core.webui.node.impl.WebUINodeFactory;
+import org.knime.database.port.DBDataPortObject;
+import org.knime.filehandling.core.port.FileSystemPortObject;
+import org.xml.sax.SAXException;
+
+/**
+ * Node factory of the Snowflake Unload to Files node.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public class SnowflakeUnloadToFilesNodeFactory extends ConfigurableNodeFactory<SnowflakeUnloadToFilesNodeModel>
+    implements NodeDialogFactory {
+
+    private static final String DATA_PORT_NAME = "DB Data";
+
+    private static final String FILES_PORT_NAME = "Unloaded files";
+
+    /** The name of the optional file system input port group. */
+    static final String FS_CONNECTION_PORT_GROUP = "File System Connection";
+
+    static final WebUINodeConfiguration CONFIG = WebUINodeConfiguration.builder() //
+        .name("Snowflake Unload to Files") //
+        .icon("snowflake_unload_to_files.png") //
+        .shortDescription("Unloads the result of a Snowflake query into CSV or Parquet files.") //
+        .fullDescription("""
+                This node writes the result of the incoming Snowflake query into CSV or Parquet files without
+                reading it into KNIME first. The result is unloaded with a
+                <a href="https://docs.snowflake.com/en/sql-reference/sql/copy-into-location">COPY INTO</a> command
+                into a unique folder of the selected
+                <a href="https://docs.snowflake.com/en/user-guide/data-load-local-file-system-create-stage">stage</a>,
+                downloaded by a single parallel GET command and then transferred as they are into the target
+                folder. The rows are never decoded locally so that the throughput is only limited by the network.
+                <p>
+                The files keep the splitting and naming of Snowflake e.g. <i>data_0_0_0.csv.gz</i>. Snowflake
+                writes the files concurrently, which is why the rows are only ordered within each file. The staged
+                files are removed once they have been downloaded or the node failed.
+                </p><p>
+                Files are first downloaded into a temporary folder since the GET command only supports local
+                files. Files for the local file system are moved from there and all other files are copied byte by
+                byte.
+                </p>
+                """) //
+        .modelSettingsClass(SnowflakeUnloadToFilesNodeParameters.class) //
+        .addInputPort(DATA_PORT_NAME, DBDataPortObject.TYPE, "Snowflake DB Data referencing the query to unload.") //
+        .addInputPort(FS_CONNECTION_PORT_GROUP, FileSystemPortObject.TYPE,
+            "The optional file system connection to write the files to.") //
+        .addOutputTable(FILES_PORT_NAME, "The path, number of rows and size in bytes of each written file.") //
+        .keywords("db", "database", "unload", "export", "csv", "parquet") //
+        .build();
+
+    @Override
+    protected NodeDescription createNodeDescription() throws SAXException, IOException, XmlException {
+        return WebUINodeFactory.createNodeDescription(CONFIG);
+    }
+
+    @Override
+    protected Optional<PortsConfigurationBuilder> createPortsConfigBuilder() {
+        final var b = new PortsConfigurationBuilder();
+        b.addFixedInputPortGroup(DATA_PORT_NAME, DBDataPortObject.TYPE);
+        b.addOptionalInputPortGroup(FS_CONNECTION_PORT_GROUP, FileSystemPortObject.TYPE);
+        b.addFixedOutputPortGroup(FILES_PORT_NAME, BufferedDataTable.TYPE);
+        return Optional.of(b);
+    }
+
+    @Override
+    protected NodeDialogPane createNodeDialogPane(final NodeCreationConfiguration creationConfig) {
+        return NodeDialogManager.createLegacyFlowVariableNodeDialog(createNodeDialog());
+    }
+
+    @Override
+    protected int getNrNodeViews() {
+        return 0;
+    }
+
+    @Override
+    public NodeView<SnowflakeUnloadToFilesNodeModel> createNodeView(final int viewIndex,
+        final SnowflakeUnloadToFilesNodeModel nodeModel) {
+        return null;
+    }
+
+    @Override
+    protected boolean hasDialog() {
+        return true;
+    }
+
+    @Override
+    public NodeDialog createNodeDialog() {
+        return new DefaultNodeDialog(SettingsType.MODEL, SnowflakeUnloadToFilesNodeParameters.class);
+    }
+
+    @Override
+    protected SnowflakeUnloadToFilesNodeModel createNodeModel(final NodeCreationConfiguration creationConfig) {
+        return new SnowflakeUnloadToFilesNodeModel(creationConfig.getPortConfig().orElseThrow());
+    }
+}
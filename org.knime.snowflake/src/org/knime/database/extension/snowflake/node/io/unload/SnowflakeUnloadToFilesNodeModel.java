@@ -0,0 +1,240 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.unload;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.context.ports.PortsConfiguration;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.util.FileUtil;
+import org.knime.core.util.ThreadUtils;
+import org.knime.core.webui.node.impl.WebUINodeModel;
+import org.knime.database.extension.snowflake.agent.SnowflakeFileUnloader;
+import org.knime.database.extension.snowflake.agent.SnowflakeFileUnloader.UnloadedFile;
+import org.knime.database.extension.snowflake.agent.SnowflakeTaskExecutor;
+import org.knime.database.extension.snowflake.node.io.unload.SnowflakeUnloadToFilesNodeParameters.OverwritePolicy;
+import org.knime.database.extension.snowflake.type.Snowflake;
+import org.knime.database.port.DBDataPortObject;
+import org.knime.database.port.DBDataPortObjectSpec;
+import org.knime.filehandling.core.connections.FSCategory;
+import org.knime.filehandling.core.connections.FSConnection;
+import org.knime.filehandling.core.connections.FSLocation;
+import org.knime.filehandling.core.connections.FSPath;
+import org.knime.filehandling.core.connections.location.FSPathProvider;
+import org.knime.filehandling.core.connections.location.FSPathProviderFactory;
+import org.knime.filehandling.core.port.FileSystemPortObject;
+
+/**
+ * Node model of the Snowflake Unload to Files node that unloads the result of the incoming query with the
+ * {@link SnowflakeFileUnloader} and transfers the files as they are into the selected folder.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+final class SnowflakeUnloadToFilesNodeModel extends WebUINodeModel<SnowflakeUnloadToFilesNodeParameters> {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(SnowflakeUnloadToFilesNodeModel.class);
+
+    /** The maximum number of files that are copied concurrently to a remote file system. */
+    private static final int MAX_COPY_THREADS = 8;
+
+    private static final DataTableSpec FILES_SPEC = new DataTableSpec(new String[]{"File", "Rows", "Size"},
+        new DataType[]{StringCell.TYPE, LongCell.TYPE, LongCell.TYPE});
+
+    /** The index of the optional file system input port or -1 if the port is not present. */
+    private final int m_fsPortIndex;
+
+    SnowflakeUnloadToFilesNodeModel(final PortsConfiguration portsConfiguration) {
+        super(portsConfiguration.getInputPorts(), portsConfiguration.getOutputPorts(),
+            SnowflakeUnloadToFilesNodeParameters.class);
+        final int[] fsPorts = portsConfiguration.getInputPortLocation()
+            .get(SnowflakeUnloadToFilesNodeFactory.FS_CONNECTION_PORT_GROUP);
+        m_fsPortIndex = fsPorts == null || fsPorts.length == 0 ? -1 : fsPorts[0];
+    }
+
+    @Override
+    protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs,
+        final SnowflakeUnloadToFilesNodeParameters settings) throws InvalidSettingsException {
+        final DBDataPortObjectSpec dataSpec = (DBDataPortObjectSpec)inSpecs[0];
+        if (!Snowflake.DB_TYPE.equals(dataSpec.getDBSession().getDBType())) {
+            throw new InvalidSettingsException("The node only supports Snowflake connections.");
+        }
+        settings.checkSettings();
+        final boolean connected = settings.m_target.m_path.getFSCategory() == FSCategory.CONNECTED;
+        if (connected != (m_fsPortIndex >= 0)) {
+            throw new InvalidSettingsException(connected ? "Please connect the file system input port."
+                : "Please select the target folder again since the file system input port has been connected.");
+        }
+        return new PortObjectSpec[]{FILES_SPEC};
+    }
+
+    @Override
+    protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec,
+        final SnowflakeUnloadToFilesNodeParameters settings) throws Exception {
+        final DBDataPortObject data = (DBDataPortObject)inObjects[0];
+        final SnowflakeFileUnloader unloader = new SnowflakeFileUnloader(data.getDBSession(), settings.m_stageType,
+            settings.m_stageName, settings.m_parallelDownloads, settings.m_reuseResults);
+        final Optional<FSConnection> connection = m_fsPortIndex < 0 ? Optional.empty()
+            : ((FileSystemPortObject)inObjects[m_fsPortIndex]).getFileSystemConnection();
+        if (m_fsPortIndex >= 0 && connection.isEmpty()) {
+            throw new InvalidSettingsException(
+                "The file system connection is not available. Please re-execute the preceding connector node.");
+        }
+        final FSLocation location = settings.m_target.m_path;
+        try (FSPathProviderFactory factory = FSPathProviderFactory.newFactory(connection, location);
+                FSPathProvider pathProvider = factory.create(location)) {
+            final FSPath target = pathProvider.getPath();
+            if (!Files.exists(target)) {
+                if (!settings.m_createMissingFolders) {
+                    throw new IOException("The target folder " + target + " does not exist.");
+                }
+                Files.createDirectories(target);
+            }
+            final File folder = FileUtil.createTempDir("knime_snowflake_unload_to_files");
+            try {
+                final List<UnloadedFile> files = unloader.unload(exec.createSubProgress(0.7),
+                    data.getData().getQuery().getQuery(), settings.m_fileFormat, settings.m_compressed,
+                    settings.isWriteHeader(), settings.m_maxFileSizeMB, folder.toPath());
+                final List<FSPath> targetFiles = transferFiles(exec.createSubProgress(0.3), files, folder.toPath(),
+                    target, settings.m_overwritePolicy == OverwritePolicy.OVERWRITE);
+                final BufferedDataContainer container = exec.createDataContainer(FILES_SPEC);
+                for (int i = 0; i < files.size(); i++) {
+                    final UnloadedFile file = files.get(i);
+                    container.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i),
+                        new StringCell(targetFiles.get(i).toString()), new LongCell(file.getRowCount()),
+                        new LongCell(file.getSize())));
+                }
+                container.close();
+                return new PortObject[]{container.getTable()};
+            } finally {
+                FileUtil.deleteRecursively(folder);
+            }
+        }
+    }
+
+    /**
+     * Moves or copies the downloaded files byte by byte into the target folder without parsing them.
+     */
+    static List<FSPath> transferFiles(final ExecutionMonitor exec, final List<UnloadedFile> files,
+        final Path folder, final FSPath target, final boolean overwrite)
+        throws IOException, CanceledExecutionException, SQLException {
+        final List<FSPath> targetFiles = new ArrayList<>(files.size());
+        if (files.isEmpty()) {
+            return targetFiles;
+        }
+        final List<Future<Void>> futures = new ArrayList<>(files.size());
+        final ExecutorService executor =
+            SnowflakeTaskExecutor.createExecutor("File-Transfer", Math.min(MAX_COPY_THREADS, files.size()));
+        try {
+            for (final UnloadedFile file : files) {
+                final Path source = folder.resolve(file.getName());
+                final FSPath targetFile = (FSPath)target.resolve(file.getName());
+                targetFiles.add(targetFile);
+                futures.add(executor.submit(ThreadUtils.callableWithContext(() -> {
+                    transferFile(source, targetFile, overwrite);
+                    return null;
+                })));
+            }
+            int done = 0;
+            for (final Future<Void> future : futures) {
+                exec.setMessage(String.format("Transferring file %d of %d", done + 1, futures.size()));
+                try {
+                    SnowflakeTaskExecutor.awaitResult(exec, future, "Transferring of the files has been interrupted.");
+                } catch (final FileAlreadyExistsException e) {
+                    throw new IOException("The target file " + e.getMessage()
+                        + " already exists. Select the overwrite option to replace existing files.", e);
+                }
+                exec.setProgress(++done / (double)futures.size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return targetFiles;
+    }
+
+    private static void transferFile(final Path source, final FSPath target, final boolean overwrite)
+        throws IOException {
+        final StandardCopyOption[] options =
+            overwrite ? new StandardCopyOption[]{StandardCopyOption.REPLACE_EXISTING} : new StandardCopyOption[0];
+        if (target.toFSLocation().getFSCategory() == FSCategory.LOCAL) {
+            final Path localTarget = Path.of(target.toAbsolutePath().toString());
+            try {
+                Files.move(source, localTarget, options);
+                return;
+            } catch (final FileAlreadyExistsException e) {
+                throw e;
+            } catch (final IOException e) {
+                LOGGER.debug("Copying file " + source + " since it can not be moved: " + e.getMessage());
+            }
+        }
+        try (InputStream in = Files.newInputStream(source)) {
+            Files.copy(in, target, options);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.node.io.unload;
+
+import org.apache.commons.lang3.StringUtils;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.webui.node.dialog.defaultdialog.internal.file.FileSelection;
+import org.knime.core.webui.node.dialog.defaultdialog.internal.file.FileSelectionWidget;
+import org.knime.core.webui.node.dialog.defaultdialog.internal.file.SingleFileSelectionMode;
+import org.knime.database.extension.snowflake.agent.SnowflakeFileUnloader;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderFileFormat;
+import org.knime.database.extension.snowflake.agent.SnowflakeLoaderStageType;
+import org.knime.node.parameters.NodeParameters;
+import org.knime.node.parameters.Widget;
+import org.knime.node.parameters.updates.Effect;
+import org.knime.node.parameters.updates.Effect.EffectType;
+import org.knime.node.parameters.updates.EffectPredicate;
+import org.knime.node.parameters.updates.EffectPredicateProvider;
+import org.knime.node.parameters.updates.ParameterReference;
+import org.knime.node.parameters.updates.ValueReference;
+import org.knime.node.parameters.widget.choices.Label;
+import org.knime.node.parameters.widget.number.NumberInputWidget;
+import org.knime.node.parameters.widget.number.NumberInputWidgetValidation.MinValidation.IsPositiveIntegerValidation;
+
+/**
+ * Web UI parameters for the Snowflake Unload to Files node.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+@SuppressWarnings("restriction")
+final class SnowflakeUnloadToFilesNodeParameters implements NodeParameters {
+
+    /** What happens with existing files with the same name in the target folder. */
+    enum OverwritePolicy {
+
+            /** Fails if a file already exists. */
+            @Label(value = "Fail", description = "The node fails if a file with the same name already exists.")
+            FAIL,
+
+            /** Replaces existing files. */
+            @Label(value = "Overwrite", description = "Existing files with the same name are replaced.")
+            OVERWRITE;
+    }
+
+    @Widget(title = "Target folder", description = """
+            The folder to write the unloaded files into. The folder is located in the file system of the optional
+            input port if it is connected.
+            """)
+    @FileSelectionWidget(SingleFileSelectionMode.FOLDER)
+    FileSelection m_target = new FileSelection();
+
+    @Widget(title = "Create missing folders", description = "If selected a missing target folder is created.")
+    boolean m_createMissingFolders;
+
+    @Widget(title = "If exists", description = "What happens if a file with the same name already exists.")
+    OverwritePolicy m_overwritePolicy = OverwritePolicy.FAIL;
+
+    @Widget(title = "File Format", description = "The format of the unloaded files.")
+    @ValueReference(FileFormatRef.class)
+    SnowflakeLoaderFileFormat m_fileFormat = SnowflakeLoaderFileFormat.PARQUET;
+
+    static final class FileFormatRef implements ParameterReference<SnowflakeLoaderFileFormat> {
+    }
+
+    static final class FileFormatIsCSV implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getEnum(FileFormatRef.class).isOneOf(SnowflakeLoaderFileFormat.CSV);
+        }
+    }
+
+    @Widget(title = "Compress files", description = """
+            If selected CSV files are gzip and Parquet files Snappy compressed.
+            """)
+    boolean m_compressed = true;
+
+    @Widget(title = "Write header row", description = """
+            If selected CSV files start with a header row that contains the column names. Parquet files always
+            contain the column names.
+            """)
+    @Effect(predicate = FileFormatIsCSV.class, type = EffectType.SHOW)
+    boolean m_hasHeader = true;
+
+    @Widget(title = "Maximum file size (MB)", description = """
+            The maximum size of each unloaded file. Snowflake splits larger results into several files.
+            """)
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    int m_maxFileSizeMB = SnowflakeFileUnloader.DEFAULT_MAX_FILE_SIZE_MB;
+
+    @Widget(title = "Stage Type", description = """
+            The type of Snowflake stage to unload the files into. The table stage is not supported since the
+            result does not belong to a table.
+            """)
+    @ValueReference(StageTypeRef.class)
+    SnowflakeLoaderStageType m_stageType = SnowflakeLoaderStageType.USER;
+
+    static final class StageTypeRef implements ParameterReference<SnowflakeLoaderStageType> {
+    }
+
+    static final class StageTypeIsInternal implements EffectPredicateProvider {
+
+        @Override
+        public EffectPredicate init(final PredicateInitializer i) {
+            return i.getEnum(StageTypeRef.class).isOneOf(SnowflakeLoaderStageType.INTERNAL);
+        }
+    }
+
+    @Widget(title = "Internal stage name", description = "The name of the internal Snowflake stage.")
+    @Effect(predicate = StageTypeIsInternal.class, type = EffectType.SHOW)
+    String m_stageName = "";
+
+    @Widget(title = "Parallel downloads", description = "The number of threads that download the unloaded files.")
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    int m_parallelDownloads = 4;
+
+    @Widget(title = "Reuse persisted query results", description = """
+            If selected and the same query has already been executed with the connection within the last 23 hours
+            by a Snowflake Reader node, its persisted result is unloaded via
+            <a href="https://docs.snowflake.com/en/sql-reference/functions/result_scan">RESULT_SCAN</a> without
+            recomputing the query in the warehouse. The persisted result does not reflect changes of the queried
+            tables since its execution. If it is no longer available the query is executed again.
+            """)
+    boolean m_reuseResults;
+
+    /**
+     * Checks the values of the parameters.
+     *
+     * @throws InvalidSettingsException if the parameters are invalid
+     */
+    void checkSettings() throws InvalidSettingsException {
+        if (StringUtils.isBlank(m_target.m_path.getPath())) {
+            throw new InvalidSettingsException("Please select the target folder.");
+        }
+        if (m_stageType == SnowflakeLoaderStageType.TABLE) {
+            throw new InvalidSettingsException("Query results can not be unloaded into a table stage.");
+        }
+        if (m_stageType == SnowflakeLoaderStageType.INTERNAL && StringUtils.isBlank(m_stageName)) {
+            throw new InvalidSettingsException("Please enter the name of the internal stage.");
+        }
+        if (m_maxFileSizeMB < 1 || m_maxFileSizeMB > SnowflakeFileUnloader.MAX_FILE_SIZE_MB) {
+            throw new InvalidSettingsException(String.format("The maximum file size must be between 1 and %d MB.",
+                SnowflakeFileUnloader.MAX_FILE_SIZE_MB));
+        }
+        if (m_parallelDownloads < 1) {
+            throw new InvalidSettingsException("The number of parallel downloads must be positive.");
+        }
+    }
+
+    /**
+     * @return whether the unloaded files start with a header row, which Parquet files always do
+     */
+    boolean isWriteHeader() {
+        return m_fileFormat == SnowflakeLoaderFileFormat.PARQUET || m_hasHeader;
+    }
+}
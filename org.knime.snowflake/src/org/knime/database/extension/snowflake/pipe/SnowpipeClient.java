@@ -0,0 +1,274 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.pipe;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Client of the <a href="https://docs.snowflake.com/en/user-guide/data-load-snowpipe-rest-apis">Snowpipe REST
+ * API</a> that registers staged files with a pipe and reports their load status. The files are loaded by the
+ * serverless compute of Snowpipe without a running warehouse.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowpipeClient {
+
+    /** The maximum number of files per {@code insertFiles} request. */
+    static final int MAX_FILES_PER_REQUEST = 5000;
+
+    private static final Duration DEFAULT_POLL_INTERVAL = Duration.ofSeconds(5);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(1);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient m_client;
+
+    private final URI m_pipeUri;
+
+    private final Supplier<String> m_token;
+
+    private final Duration m_pollInterval;
+
+    /**
+     * Constructor.
+     *
+     * @param baseUri the base URI of the Snowflake account e.g. {@code https://xy12345.snowflakecomputing.com}
+     * @param pipeName the fully qualified name of the pipe e.g. {@code MY_DB.PUBLIC.MY_PIPE}
+     * @param token the supplier of the authorization token
+     */
+    public SnowpipeClient(final URI baseUri, final String pipeName, final Supplier<String> token) {
+        this(baseUri, pipeName, token, DEFAULT_POLL_INTERVAL);
+    }
+
+    SnowpipeClient(final URI baseUri, final String pipeName, final Supplier<String> token,
+        final Duration pollInterval) {
+        final String base = baseUri.toString();
+        m_pipeUri = URI.create((base.endsWith("/") ? base : base + "/") + "v1/data/pipes/"
+            + URLEncoder.encode(pipeName, UTF_8).replace("+", "%20") + "/");
+        m_token = token;
+        m_pollInterval = pollInterval;
+        m_client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+    }
+
+    /**
+     * Returns the base URI of the Snowflake account that hosts the database of the given JDBC URL.
+     *
+     * @param jdbcUrl the Snowflake JDBC URL e.g. {@code jdbc:snowflake://xy12345.snowflakecomputing.com/?db=X}
+     * @return the HTTPS base URI of the account
+     * @throws IllegalArgumentException if the URL is no Snowflake JDBC URL
+     */
+    public static URI getBaseUri(final String jdbcUrl) {
+        final String prefix = "jdbc:snowflake://";
+        if (jdbcUrl == null || !jdbcUrl.regionMatches(true, 0, prefix, 0, prefix.length())) {
+            throw new IllegalArgumentException("No Snowflake JDBC URL: " + jdbcUrl);
+        }
+        final URI uri = URI.create("https://" + jdbcUrl.substring(prefix.length()));
+        return URI.create("https://" + uri.getHost() + (uri.getPort() < 0 ? "" : ":" + uri.getPort()));
+    }
+
+    /**
+     * Registers the given staged files with the pipe. Files are split into several requests if necessary. Snowpipe
+     * skips files that it already loaded within the last 14 days.
+     *
+     * @param paths the paths of the files relative to the stage of the pipe
+     * @throws IOException if a request failed
+     */
+    public void insertFiles(final List<String> paths) throws IOException {
+        for (int from = 0; from < paths.size(); from += MAX_FILES_PER_REQUEST) {
+            final ObjectNode body = MAPPER.createObjectNode();
+            final ArrayNode files = body.putArray("files");
+            for (final String path : paths.subList(from, Math.min(paths.size(), from + MAX_FILES_PER_REQUEST))) {
+                files.addObject().put("path", path);
+            }
+            final JsonNode response = send(HttpRequest.newBuilder(m_pipeUri.resolve("insertFiles?" + createRequestId()))
+                .header("Content-Type", "application/json")
+                .POST(BodyPublishers.ofString(MAPPER.writeValueAsString(body), UTF_8)));
+            final String responseCode = response.path("responseCode").asText();
+            if (!"SUCCESS".equals(responseCode)) {
+                throw new IOException("Snowpipe did not accept the files: " + responseCode);
+            }
+        }
+    }
+
+    /**
+     * Requests the load events of the pipe.
+     *
+     * @param beginMark the {@linkplain SnowpipeInsertReport#getNextBeginMark() mark} of the previous report to get
+     *            only newer events or {@code null}
+     * @return the {@link SnowpipeInsertReport}
+     * @throws IOException if the request failed
+     */
+    public SnowpipeInsertReport insertReport(final String beginMark) throws IOException {
+        final String query = createRequestId() + (beginMark == null ? "" : "&beginMark=" + URLEncoder.encode(
+            beginMark, UTF_8));
+        final JsonNode response = send(HttpRequest.newBuilder(m_pipeUri.resolve("insertReport?" + query)).GET());
+        final List<SnowpipeFileStatus> files = new ArrayList<>();
+        for (final JsonNode file : response.path("files")) {
+            files.add(new SnowpipeFileStatus(file.path("path").asText(), file.path("status").asText(),
+                file.path("complete").asBoolean(), file.path("rowsInserted").asLong(),
+                file.path("errorsSeen").asLong(), file.path("firstError").textValue()));
+        }
+        return new SnowpipeInsertReport(files, response.path("nextBeginMark").textValue());
+    }
+
+    /**
+     * Polls the load events of the pipe until all given files have been processed.
+     *
+     * @param exec the {@link ExecutionMonitor} to report the progress to
+     * @param paths the paths of the files relative to the stage of the pipe
+     * @param timeout the maximum time to wait
+     * @return the final {@link SnowpipeFileStatus} per file path in the order of the given paths
+     * @throws IOException if a request failed or not all files have been processed within the timeout
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    public Map<String, SnowpipeFileStatus> awaitFiles(final ExecutionMonitor exec, final Collection<String> paths,
+        final Duration timeout) throws IOException, CanceledExecutionException {
+        final Set<String> pending = new HashSet<>(paths);
+        final Map<String, SnowpipeFileStatus> processed = new LinkedHashMap<>();
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        String beginMark = null;
+        while (true) {
+            exec.checkCanceled();
+            final SnowpipeInsertReport report = insertReport(beginMark);
+            if (report.getNextBeginMark() != null) {
+                beginMark = report.getNextBeginMark();
+            }
+            for (final SnowpipeFileStatus file : report.getFiles()) {
+                if (file.isComplete() && pending.remove(file.getPath())) {
+                    processed.put(file.getPath(), file);
+                }
+            }
+            exec.setProgress(processed.size() / (double)paths.size(),
+                format("%d of %d files processed by Snowpipe", processed.size(), paths.size()));
+            if (pending.isEmpty()) {
+                final Map<String, SnowpipeFileStatus> result = new LinkedHashMap<>();
+                paths.forEach(path -> result.put(path, processed.get(path)));
+                return result;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                throw new IOException(format("Snowpipe did not process %d of %d files within %d seconds.",
+                    pending.size(), paths.size(), timeout.toSeconds()));
+            }
+            sleep(exec, m_pollInterval);
+        }
+    }
+
+    private JsonNode send(final HttpRequest.Builder builder) throws IOException {
+        builder.timeout(REQUEST_TIMEOUT).header("Accept", "application/json")
+            .header("X-Snowflake-Authorization-Token-Type", "KEYPAIR_JWT");
+        for (int attempt = 1;; attempt++) {
+            //the token is renewed by the supplier if necessary
+            final HttpRequest request = builder.setHeader("Authorization", "Bearer " + m_token.get()).build();
+            final HttpResponse<String> response;
+            try {
+                response = m_client.send(request, BodyHandlers.ofString(UTF_8));
+                final int status = response.statusCode();
+                if (status == 200) {
+                    return MAPPER.readTree(response.body());
+                }
+                if ((status == 429 || status >= 500) && attempt < MAX_ATTEMPTS) {
+                    //the request has been throttled or the service is temporarily unavailable
+                    Thread.sleep(m_pollInterval.toMillis() * attempt);
+                    continue;
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("The Snowpipe request has been interrupted.");
+            }
+            throw new IOException(format("The Snowpipe request %s failed with HTTP status %d: %s",
+                request.uri().getPath(), response.statusCode(), response.body()));
+        }
+    }
+
+    private static String createRequestId() {
+        return "requestId=" + UUID.randomUUID();
+    }
+
+    private static void sleep(final ExecutionMonitor exec, final Duration duration)
+        throws CanceledExecutionException {
+        final long end = System.nanoTime() + duration.toNanos();
+        try {
+            while (System.nanoTime() - end < 0) {
+                exec.checkCanceled();
+                Thread.sleep(Math.min(100, Math.max(1, (end - System.nanoTime()) / 1_000_000)));
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CanceledExecutionException("Waiting for Snowpipe has been interrupted.");
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.pipe;
+
+/**
+ * The load status of a single file as reported by the Snowpipe {@code insertReport} endpoint.
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowpipeFileStatus {
+
+    /** The status of a file that has been loaded completely. */
+    static final String LOADED = "LOADED";
+
+    private final String m_path;
+
+    private final String m_status;
+
+    private final boolean m_complete;
+
+    private final long m_rowsInserted;
+
+    private final long m_errorsSeen;
+
+    private final String m_firstError;
+
+    /**
+     * Constructor.
+     *
+     * @param path the path of the file relative to the stage of the pipe
+     * @param status the load status e.g. {@code LOADED} or {@code LOAD_FAILED}
+     * @param complete {@code true} if Snowpipe finished processing the file
+     * @param rowsInserted the number of inserted rows
+     * @param errorsSeen the number of erroneous rows
+     * @param firstError the first error or {@code null}
+     */
+    SnowpipeFileStatus(final String path, final String status, final boolean complete, final long rowsInserted,
+        final long errorsSeen, final String firstError) {
+        m_path = path;
+        m_status = status;
+        m_complete = complete;
+        m_rowsInserted = rowsInserted;
+        m_errorsSeen = errorsSeen;
+        m_firstError = firstError;
+    }
+
+    /**
+     * @return the path of the file relative to the stage of the pipe
+     */
+    public String getPath() {
+        return m_path;
+    }
+
+    /**
+     * @return the load status e.g. {@code LOADED}, {@code LOAD_IN_PROGRESS}, {@code PARTIALLY_LOADED} or
+     *         {@code LOAD_FAILED}
+     */
+    public String getStatus() {
+        return m_status;
+    }
+
+    /**
+     * @return {@code true} if Snowpipe finished processing the file
+     */
+    public boolean isComplete() {
+        return m_complete;
+    }
+
+    /**
+     * @return {@code true} if all rows of the file have been loaded
+     */
+    public boolean isLoaded() {
+        return LOADED.equals(m_status);
+    }
+
+    /**
+     * @return the number of inserted rows
+     */
+    public long getRowsInserted() {
+        return m_rowsInserted;
+    }
+
+    /**
+     * @return the number of erroneous rows
+     */
+    public long getErrorsSeen() {
+        return m_errorsSeen;
+    }
+
+    /**
+     * @return the first error or {@code null} if the file has been loaded without errors
+     */
+    public String getFirstError() {
+        return m_firstError;
+    }
+
+    @Override
+    public String toString() {
+        return m_path + ": " + m_status + (m_firstError == null ? "" : " (" + m_firstError + ")");
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.pipe;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A channel that appends rows to the table of a Snowflake pipe without staging files. Each appended batch carries an
+ * offset token that is committed together with its rows. The offset token of the last committed rows allows a writer
+ * to resume after a failure without loading rows twice.
+ * <p>
+ * Rows are committed asynchronously which is why writers have to wait until the
+ * {@linkplain #getLatestCommittedOffsetToken() committed offset token} reaches the token of their last rows.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public interface SnowpipeStreamingChannel extends AutoCloseable {
+
+    /**
+     * Returns the offset token of the last committed rows.
+     *
+     * @return {@linkplain Optional optionally} the offset token or {@linkplain Optional#empty() empty} if no rows
+     *         have been committed with this channel yet
+     * @throws IOException if the offset token could not be retrieved
+     */
+    Optional<String> getLatestCommittedOffsetToken() throws IOException;
+
+    /**
+     * Appends the given rows. Batches are appended in the order of the calls and the offset token is committed
+     * atomically with the rows of its batch.
+     *
+     * @param rows the value per column name of each row
+     * @param offsetToken the offset token of the last given row
+     * @throws IOException if the rows could not be appended
+     */
+    void appendRows(List<Map<String, Object>> rows, String offsetToken) throws IOException;
+
+    /**
+     * Closes the channel. Rows that have been appended but not yet committed might be lost.
+     *
+     * @throws IOException if the channel could not be closed
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,253 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.pipe;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * {@link SnowpipeStreamingChannel} of the
+ * <a href="https://docs.snowflake.com/en/user-guide/snowpipe-streaming/snowpipe-streaming-high-performance-rest-api">
+ * Snowpipe Streaming REST API</a>. The rows are sent as newline delimited JSON to the ingest host of the account and
+ * are committed by the serverless compute of the pipe without a running warehouse.
+ * <p>
+ * The client opens the channel on creation which returns the continuation token of the first request. Every append
+ * returns the continuation token of the next append which is why appends must not be sent concurrently.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ */
+public final class SnowpipeStreamingClient implements SnowpipeStreamingChannel {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(1);
+
+    private static final Duration RETRY_INTERVAL = Duration.ofSeconds(1);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient m_client;
+
+    private final URI m_baseUri;
+
+    private final Supplier<String> m_token;
+
+    private final String m_channelName;
+
+    private final URI m_channelUri;
+
+    private final URI m_rowsUri;
+
+    private final URI m_statusUri;
+
+    private final String m_ingestHost;
+
+    private String m_keyPairToken;
+
+    private String m_scopedToken;
+
+    private String m_continuationToken;
+
+    private SnowpipeStreamingClient(final URI baseUri, final String database, final String schema,
+        final String pipe, final String channelName, final Supplier<String> token) throws IOException {
+        m_client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+        m_baseUri = baseUri;
+        m_token = token;
+        m_channelName = channelName;
+        m_ingestHost = sendForText(HttpRequest.newBuilder(resolve(baseUri, "v2/streaming/hostname")).GET()
+            .header("Authorization", "Bearer " + token.get())
+            .header("X-Snowflake-Authorization-Token-Type", "KEYPAIR_JWT")).trim();
+        //the ingest host uses the same scheme as the account e.g. plain HTTP for a local stand-in
+        final URI ingestUri = URI.create(baseUri.getScheme() + "://" + m_ingestHost + "/");
+        final String pipePath = "databases/" + encode(database) + "/schemas/" + encode(schema) + "/pipes/"
+            + encode(pipe);
+        m_channelUri = ingestUri.resolve("v2/streaming/" + pipePath + "/channels/" + encode(channelName));
+        m_rowsUri = ingestUri.resolve("v2/streaming/data/" + pipePath + "/channels/" + encode(channelName) + "/rows");
+        m_statusUri = ingestUri.resolve("v2/streaming/" + pipePath + ":bulk-channel-status");
+    }
+
+    /**
+     * Opens the channel with the given name. A channel that does not exist yet is created. Opening a channel that is
+     * already open invalidates the previous client of the channel.
+     *
+     * @param baseUri the {@linkplain SnowpipeClient#getBaseUri(String) base URI} of the Snowflake account
+     * @param database the name of the database of the pipe as stored in Snowflake
+     * @param schema the name of the schema of the pipe as stored in Snowflake
+     * @param pipe the name of the pipe as stored in Snowflake e.g. the default pipe {@code MY_TABLE-STREAMING} of a
+     *            table
+     * @param channelName the name of the channel e.g. the name of the source of the rows
+     * @param token the supplier of the key pair authorization token e.g. a {@link SnowpipeKeyPairToken}
+     * @return the opened {@link SnowpipeStreamingClient}
+     * @throws IOException if the channel could not be opened
+     */
+    public static SnowpipeStreamingClient open(final URI baseUri, final String database, final String schema,
+        final String pipe, final String channelName, final Supplier<String> token) throws IOException {
+        final SnowpipeStreamingClient client =
+            new SnowpipeStreamingClient(baseUri, database, schema, pipe, channelName, token);
+        final JsonNode response = client.send(HttpRequest.newBuilder(client.m_channelUri)
+            .header("Content-Type", "application/json").PUT(BodyPublishers.ofString("{}", UTF_8)));
+        client.m_continuationToken = getContinuationToken(response);
+        return client;
+    }
+
+    @Override
+    public Optional<String> getLatestCommittedOffsetToken() throws IOException {
+        final ObjectNode body = MAPPER.createObjectNode();
+        body.putArray("channel_names").add(m_channelName);
+        final JsonNode response = send(HttpRequest.newBuilder(m_statusUri).header("Content-Type", "application/json")
+            .POST(BodyPublishers.ofString(MAPPER.writeValueAsString(body), UTF_8)));
+        final JsonNode status = response.path("channel_statuses").path(m_channelName);
+        if (status.hasNonNull("last_error_message")) {
+            throw new IOException(format("The channel %s rejected %d rows: %s", m_channelName,
+                status.path("rows_error_count").asLong(), status.path("last_error_message").asText()));
+        }
+        return Optional.ofNullable(status.path("committed_offset_token").textValue());
+    }
+
+    @Override
+    public synchronized void appendRows(final List<Map<String, Object>> rows, final String offsetToken)
+        throws IOException {
+        final StringBuilder body = new StringBuilder();
+        for (final Map<String, Object> row : rows) {
+            body.append(MAPPER.writeValueAsString(row)).append('\n');
+        }
+        final String query = "?continuationToken=" + URLEncoder.encode(m_continuationToken, UTF_8)
+            + "&offsetToken=" + URLEncoder.encode(offsetToken, UTF_8);
+        final JsonNode response = send(HttpRequest.newBuilder(URI.create(m_rowsUri + query))
+            .header("Content-Type", "application/x-ndjson").POST(BodyPublishers.ofString(body.toString(), UTF_8)));
+        m_continuationToken = getContinuationToken(response);
+    }
+
+    @Override
+    public void close() {
+        //the channel is kept on the server so that it can be reopened with its committed offset token
+    }
+
+    private static String getContinuationToken(final JsonNode response) throws IOException {
+        final String token = response.path("next_continuation_token").textValue();
+        if (token == null) {
+            throw new IOException("The Snowpipe Streaming response contains no continuation token.");
+        }
+        return token;
+    }
+
+    /**
+     * Returns the token that is scoped to the ingest host. It is exchanged again whenever the key pair token has
+     * been renewed.
+     */
+    private synchronized String getScopedToken() throws IOException {
+        final String keyPairToken = m_token.get();
+        if (m_scopedToken == null || !keyPairToken.equals(m_keyPairToken)) {
+            final String form = "grant_type=" + URLEncoder.encode("urn:ietf:params:oauth:grant-type:jwt-bearer", UTF_8)
+                + "&scope=" + URLEncoder.encode(m_ingestHost, UTF_8) + "&assertion="
+                + URLEncoder.encode(keyPairToken, UTF_8);
+            m_scopedToken = sendForText(HttpRequest.newBuilder(resolve(m_baseUri, "oauth/token"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(BodyPublishers.ofString(form, UTF_8))).trim();
+            m_keyPairToken = keyPairToken;
+        }
+        return m_scopedToken;
+    }
+
+    private JsonNode send(final HttpRequest.Builder builder) throws IOException {
+        final String token = getScopedToken();
+        return MAPPER.readTree(sendForText(builder.header("Accept", "application/json")
+            .setHeader("Authorization", "Bearer " + token)));
+    }
+
+    private String sendForText(final HttpRequest.Builder builder) throws IOException {
+        builder.timeout(REQUEST_TIMEOUT);
+        for (int attempt = 1;; attempt++) {
+            final HttpRequest request = builder.build();
+            final HttpResponse<String> response;
+            try {
+                response = m_client.send(request, BodyHandlers.ofString(UTF_8));
+                final int status = response.statusCode();
+                if (status == 200) {
+                    return response.body();
+                }
+                if ((status == 429 || status >= 500) && attempt < MAX_ATTEMPTS) {
+                    //the request has been throttled or the service is temporarily unavailable
+                    Thread.sleep(RETRY_INTERVAL.toMillis() * attempt);
+                    continue;
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("The Snowpipe Streaming request has been interrupted.");
+            }
+            throw new IOException(format("The Snowpipe Streaming request %s failed with HTTP status %d: %s",
+                request.uri().getPath(), response.statusCode(), response.body()));
+        }
+    }
+
+    private static URI resolve(final URI baseUri, final String path) {
+        final String base = baseUri.toString();
+        return URI.create((base.endsWith("/") ? base : base + "/") + path);
+    }
+
+    private static String encode(final String name) {
+        return URLEncoder.encode(name, UTF_8).replace("+", "%20");
+    }
+}
@@ -118,6 +118,8 @@ public abstract class SnowflakeAbstractDriverLocator extends AbstractDriverLocat
         jdbcProperties.setDerivableProperty("application", ValueType.LITERAL, Snowflake.PARTNER_ID);
         //we need to set this parameter to prevent problems with the timestamp type (see AP-16726)
         jdbcProperties.setDerivableProperty("TIMEZONE", ValueType.LITERAL, TimeZone.getDefault().getID());
+        //the result fetch settings depend on the heap and the cores which is why they are preset per installation
+        SnowflakeFetchSettings.forCurrentJvm().addTo(jdbcProperties);
         ATTRIBUTE_JDBC_PROPERTIES = builder.add(Accessibility.EDITABLE,
             DBConnectionManagerAttributes.ATTRIBUTE_JDBC_PROPERTIES, jdbcProperties);
         //change only visibility but keep the default values
@@ -0,0 +1,192 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.database.extension.snowflake.util;
+
+import java.util.Properties;
+
+import org.knime.database.util.DerivableProperties;
+import org.knime.database.util.DerivableProperties.ValueType;
+
+/**
+ * Result fetch settings of the Snowflake JDBC driver whose defaults are derived from the heap and the number of cores
+ * of the JVM. The driver defaults of four prefetch threads with 160 MB chunks and a memory limit of 1.5 GB
+ * overcommit small executors and leave most of the memory and cores of large servers unused.
+ * <p>
+ * The memory limit is a quarter of the maximum heap. Each prefetch thread holds about two chunks i.e. the compressed
+ * and the decompressed chunk, which is why the number of threads is the number of cores but at most as many as fit
+ * into the memory limit with the minimal chunk size. The chunk size is the share of the memory limit of each thread.
+ * All values are bounded by the ranges the driver accepts.
+ * </p>
+ *
+ * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
+ * @see <a href="https://docs.snowflake.com/en/sql-reference/parameters">Snowflake parameters</a>
+ */
+public final class SnowflakeFetchSettings {
+
+    /** The JDBC property with the number of threads that prefetch result chunks. */
+    public static final String PROPERTY_PREFETCH_THREADS = "CLIENT_PREFETCH_THREADS";
+
+    /** The JDBC property with the maximum size of a result chunk in MB. */
+    public static final String PROPERTY_RESULT_CHUNK_SIZE = "CLIENT_RESULT_CHUNK_SIZE";
+
+    /** The JDBC property with the maximum memory in MB the driver uses for result chunks. */
+    public static final String PROPERTY_MEMORY_LIMIT = "CLIENT_MEMORY_LIMIT";
+
+    /** The JDBC property with the format of query results. */
+    public static final String PROPERTY_QUERY_RESULT_FORMAT = "JDBC_QUERY_RESULT_FORMAT";
+
+    /** The Arrow result format which the Snowflake Reader node converts column-wise. */
+    public static final String ARROW_RESULT_FORMAT = "ARROW";
+
+    /** The maximum number of prefetch threads the driver accepts. */
+    static final int MAX_PREFETCH_THREADS = 10;
+
+    /** The minimal result chunk size in MB the driver accepts. */
+    static final int MIN_RESULT_CHUNK_SIZE_MB = 48;
+
+    /** The maximum result chunk size in MB the driver accepts. */
+    static final int MAX_RESULT_CHUNK_SIZE_MB = 160;
+
+    /** The lower bound of the memory limit in MB which is enough for one thread with the minimal chunk size. */
+    static final int MIN_MEMORY_LIMIT_MB = 2 * MIN_RESULT_CHUNK_SIZE_MB;
+
+    /** The upper bound of the memory limit in MB. */
+    static final int MAX_MEMORY_LIMIT_MB = 16 * 1024;
+
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private final int m_prefetchThreads;
+
+    private final int m_resultChunkSizeMB;
+
+    private final int m_memoryLimitMB;
+
+    /**
+     * @param maxHeapBytes the maximum heap of the JVM in bytes
+     * @param cores the number of available cores
+     */
+    SnowflakeFetchSettings(final long maxHeapBytes, final int cores) {
+        m_memoryLimitMB = bound(maxHeapBytes / BYTES_PER_MB / 4, MIN_MEMORY_LIMIT_MB, MAX_MEMORY_LIMIT_MB);
+        final int fittingThreads = m_memoryLimitMB / (2 * MIN_RESULT_CHUNK_SIZE_MB);
+        m_prefetchThreads = bound(Math.min(cores, fittingThreads), 1, MAX_PREFETCH_THREADS);
+        m_resultChunkSizeMB =
+            bound(m_memoryLimitMB / (2 * m_prefetchThreads), MIN_RESULT_CHUNK_SIZE_MB, MAX_RESULT_CHUNK_SIZE_MB);
+    }
+
+    private static int bound(final long value, final int min, final int max) {
+        return (int)Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * @return the settings derived from the maximum heap and the available cores of the running JVM
+     */
+    public static SnowflakeFetchSettings forCurrentJvm() {
+        final Runtime runtime = Runtime.getRuntime();
+        return new SnowflakeFetchSettings(runtime.maxMemory(), runtime.availableProcessors());
+    }
+
+    /**
+     * @return the number of threads that prefetch result chunks
+     */
+    public int getPrefetchThreads() {
+        return m_prefetchThreads;
+    }
+
+    /**
+     * @return the maximum size of a result chunk in MB
+     */
+    public int getResultChunkSizeMB() {
+        return m_resultChunkSizeMB;
+    }
+
+    /**
+     * @return the maximum memory in MB the driver uses for result chunks
+     */
+    public int getMemoryLimitMB() {
+        return m_memoryLimitMB;
+    }
+
+    /**
+     * @return the format of query results which is always {@link #ARROW_RESULT_FORMAT}
+     */
+    public String getQueryResultFormat() {
+        return ARROW_RESULT_FORMAT;
+    }
+
+    /**
+     * Presets the fetch settings as JDBC properties which are reported with the connection attributes and can be
+     * changed by the user.
+     *
+     * @param jdbcProperties the {@link DerivableProperties} to add the settings to
+     */
+    public void addTo(final DerivableProperties jdbcProperties) {
+        jdbcProperties.setDerivableProperty(PROPERTY_PREFETCH_THREADS, ValueType.LITERAL,
+            Integer.toString(m_prefetchThreads));
+        jdbcProperties.setDerivableProperty(PROPERTY_RESULT_CHUNK_SIZE, ValueType.LITERAL,
+            Integer.toString(m_resultChunkSizeMB));
+        jdbcProperties.setDerivableProperty(PROPERTY_MEMORY_LIMIT, ValueType.LITERAL,
+            Integer.toString(m_memoryLimitMB));
+        jdbcProperties.setDerivableProperty(PROPERTY_QUERY_RESULT_FORMAT, ValueType.LITERAL, ARROW_RESULT_FORMAT);
+    }
+
+    /**
+     * Sets the fetch settings as plain JDBC properties e.g. for a connection that is opened directly with the driver.
+     *
+     * @param jdbcProperties the {@link Properties} to add the settings to
+     */
+    public void addTo(final Properties jdbcProperties) {
+        jdbcProperties.setProperty(PROPERTY_PREFETCH_THREADS, Integer.toString(m_prefetchThreads));
+        jdbcProperties.setProperty(PROPERTY_RESULT_CHUNK_SIZE, Integer.toString(m_resultChunkSizeMB));
+        jdbcProperties.setProperty(PROPERTY_MEMORY_LIMIT, Integer.toString(m_memoryLimitMB));
+        jdbcProperties.setProperty(PROPERTY_QUERY_RESULT_FORMAT, ARROW_RESULT_FORMAT);
+    }
+
+    @Override
+    public String toString() {
+        return PROPERTY_PREFETCH_THREADS + "=" + m_prefetchThreads + ", " + PROPERTY_RESULT_CHUNK_SIZE + "="
+            + m_resultChunkSizeMB + ", " + PROPERTY_MEMORY_LIMIT + "=" + m_memoryLimitMB + ", "
+            + PROPERTY_QUERY_RESULT_FORMAT + "=" + ARROW_RESULT_FORMAT;
+    }
+}